@@ -0,0 +1,178 @@
+package slideshow.benchmark;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * JMH结果对比工具
+ * 读取两份JMH的JSON结果（默认取历史目录中按文件名排序的最后两份），按基准测试名称和参数逐项对比平均耗时，
+ * 变慢超过阈值的标记为回退。用法:
+ * BenchmarkHistory [--dir 历史目录] [--threshold 百分比] [--fail] [旧结果.json 新结果.json]
+ */
+public class BenchmarkHistory {
+
+    /**
+     * 单项对比结果
+     */
+    public static class Change {
+        private final String key;
+        private final double before;
+        private final double after;
+        private final String unit;
+
+        public Change(String key, double before, double after, String unit) {
+            this.key = key;
+            this.before = before;
+            this.after = after;
+            this.unit = unit;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public double getBefore() {
+            return before;
+        }
+
+        public double getAfter() {
+            return after;
+        }
+
+        public String getUnit() {
+            return unit;
+        }
+
+        /**
+         * 相对变化百分比，正数表示变慢
+         */
+        public double getPercent() {
+            return before == 0 ? 0 : (after - before) / before * 100;
+        }
+    }
+
+    /**
+     * 读取JMH的JSON结果，返回“基准测试名称(参数)”到结果项的映射
+     */
+    public static Map<String, JsonObject> load(Path file) throws IOException {
+        Map<String, JsonObject> results = new LinkedHashMap<>();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            JsonArray array = JsonParser.parseReader(reader).getAsJsonArray();
+            for (JsonElement element : array) {
+                JsonObject result = element.getAsJsonObject();
+                results.put(keyOf(result), result);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 对比两份结果中都存在的基准测试
+     */
+    public static List<Change> compare(Map<String, JsonObject> before, Map<String, JsonObject> after) {
+        List<Change> changes = new ArrayList<>();
+        for (Map.Entry<String, JsonObject> entry : after.entrySet()) {
+            JsonObject previous = before.get(entry.getKey());
+            if (previous == null) {
+                continue;
+            }
+            JsonObject metric = entry.getValue().getAsJsonObject("primaryMetric");
+            changes.add(new Change(entry.getKey(),
+                    previous.getAsJsonObject("primaryMetric").get("score").getAsDouble(),
+                    metric.get("score").getAsDouble(),
+                    metric.get("scoreUnit").getAsString()));
+        }
+        return changes;
+    }
+
+    private static String keyOf(JsonObject result) {
+        String name = result.get("benchmark").getAsString();
+        if (!result.has("params")) {
+            return name;
+        }
+        // 按参数名排序，保证两次运行得到同样的键
+        Map<String, String> params = new TreeMap<>();
+        for (Map.Entry<String, JsonElement> param : result.getAsJsonObject("params").entrySet()) {
+            params.put(param.getKey(), param.getValue().getAsString());
+        }
+        return name + params.entrySet().stream()
+                .map(e -> e.getKey() + "=" + e.getValue())
+                .collect(Collectors.joining(", ", "(", ")"));
+    }
+
+    private static List<Path> latestTwo(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> sorted = files.filter(p -> p.getFileName().toString().endsWith(".json"))
+                    .sorted()
+                    .collect(Collectors.toList());
+            return sorted.size() < 2 ? sorted : sorted.subList(sorted.size() - 2, sorted.size());
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Paths.get("benchmarks", "history");
+        double threshold = 10;
+        boolean fail = false;
+        List<Path> files = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--dir":
+                        dir = Paths.get(args[++i]);
+                        break;
+                    case "--threshold":
+                        threshold = Double.parseDouble(args[++i]);
+                        break;
+                    case "--fail":
+                        fail = true;
+                        break;
+                    default:
+                        files.add(Paths.get(args[i]));
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            files.clear();
+            files.add(null);
+        }
+        if (files.isEmpty() && Files.isDirectory(dir)) {
+            files = latestTwo(dir);
+        }
+        if (files.size() != 2) {
+            System.err.println("用法: BenchmarkHistory [--dir 历史目录] [--threshold 百分比] [--fail] [旧结果.json 新结果.json]");
+            System.err.println("需要两份结果才能对比，请先运行两次 gradlew jmh");
+            System.exit(2);
+            return;
+        }
+
+        System.out.println("对比: " + files.get(0).getFileName() + " -> " + files.get(1).getFileName());
+        List<Change> changes = compare(load(files.get(0)), load(files.get(1)));
+        int regressions = 0;
+        for (Change change : changes) {
+            boolean regressed = change.getPercent() > threshold;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.println(String.format("%s %s: %.3f -> %.3f %s (%+.1f%%)",
+                    regressed ? "[回退]" : "      ", change.getKey(),
+                    change.getBefore(), change.getAfter(), change.getUnit(), change.getPercent()));
+        }
+        System.out.println(String.format("共对比 %d 项，变慢超过 %.0f%% 的有 %d 项", changes.size(), threshold, regressions));
+        System.exit(fail && regressions > 0 ? 1 : 0);
+    }
+}
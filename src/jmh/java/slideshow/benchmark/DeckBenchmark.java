@@ -0,0 +1,61 @@
+package slideshow.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import slideshow.model.Slide;
+import slideshow.util.MultilingualSupport;
+import slideshow.util.SlideParser;
+import slideshow.util.SlideStructureAnalyzer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 演示文稿内存操作基准测试：解析PPT命令、深拷贝、结构分析和本地词典翻译
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Dprism.order=sw"})
+public class DeckBenchmark {
+
+    /**
+     * SlideParser.parseAndCreateSlides，包含文字测量和元素创建
+     */
+    @Benchmark
+    public List<Slide> parseAndCreateSlides(DeckState state) {
+        return SlideParser.parseAndCreateSlides(state.commands, Slide.LOGICAL_WIDTH);
+    }
+
+    /**
+     * 逐页Slide.deepClone，与撤销快照的开销相当
+     */
+    @Benchmark
+    public List<Slide> deepClone(DeckState state) {
+        List<Slide> copies = new ArrayList<>(state.deck.size());
+        for (Slide slide : state.deck) {
+            copies.add(slide.deepClone());
+        }
+        return copies;
+    }
+
+    @Benchmark
+    public SlideStructureAnalyzer.StructureAnalysis analyzeStructure(DeckState state) {
+        return SlideStructureAnalyzer.analyzeStructure(state.deck);
+    }
+
+    /**
+     * 全部文字翻译为英文。translateContent是私有方法，通过generateMultilingualContent调用，包装层只多一次日志
+     */
+    @Benchmark
+    public String translateContent(DeckState state) {
+        return MultilingualSupport.generateMultilingualContent(state.text, MultilingualSupport.SupportedLanguage.ENGLISH);
+    }
+}
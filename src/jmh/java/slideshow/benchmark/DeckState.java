@@ -0,0 +1,89 @@
+package slideshow.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import slideshow.model.Slide;
+import slideshow.util.KeywordIndex;
+import slideshow.util.SyntheticDeckGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * 各基准测试共用的演示文稿
+ * 由SyntheticDeckGenerator按固定种子生成幻灯片和对应的PPT命令文本，同样的页数总得到同样的内容。
+ * 解析器和各工具类的调试输出、INFO日志在测试期间被丢弃，避免输出本身成为测量对象并淹没JMH的结果。
+ * 关键词索引和全文索引指向临时目录，测试既不读取也不改动用户已有的索引
+ */
+@State(Scope.Benchmark)
+public class DeckState {
+
+    /** 演示文稿页数 */
+    @Param({"10", "100", "1000"})
+    public int slides;
+
+    /** PPT命令文本 */
+    public String commands;
+    /** 生成的幻灯片，包含文字、图形和图片元素 */
+    public List<Slide> deck;
+    /** 全部幻灯片的文字，每页之间空一行 */
+    public String text;
+
+    private PrintStream originalOut;
+    private java.util.logging.Level originalLevel;
+    private Path imageDirectory;
+    private Path indexDirectory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        quiet();
+        // 必须在任何代码取得索引共享实例之前设置
+        indexDirectory = Files.createTempDirectory("benchmark-index");
+        System.setProperty(KeywordIndex.INDEX_DIR_PROPERTY, indexDirectory.toString());
+        imageDirectory = Files.createTempDirectory("benchmark-images");
+        SyntheticDeckGenerator generator = new SyntheticDeckGenerator();
+        generator.setSlideCount(slides);
+        generator.setImageDirectory(imageDirectory);
+        SyntheticDeckGenerator.SyntheticDeck synthetic = generator.generate();
+        commands = synthetic.getCommands();
+        deck = synthetic.getSlides();
+        StringBuilder builder = new StringBuilder();
+        for (Slide slide : deck) {
+            builder.append(String.join("\n", slide.getTextContent())).append("\n\n");
+        }
+        text = builder.toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.setOut(originalOut);
+        Logger.getLogger("").setLevel(originalLevel);
+        deleteRecursively(imageDirectory);
+        deleteRecursively(indexDirectory);
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    private void quiet() {
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Logger root = Logger.getLogger("");
+        originalLevel = root.getLevel();
+        root.setLevel(java.util.logging.Level.WARNING);
+    }
+}
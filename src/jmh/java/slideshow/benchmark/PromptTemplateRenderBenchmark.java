@@ -0,0 +1,94 @@
+package slideshow.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import slideshow.model.CompiledPromptTemplate;
+import slideshow.model.PromptTemplate;
+import slideshow.model.TemplateCategory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 提示词模板渲染基准测试
+ * 对比逐个占位符 String.replace 的原始写法与预编译模板的渲染开销
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PromptTemplateRenderBenchmark {
+
+    /** 模板内容长度（字符） */
+    @Param({"2000", "20000"})
+    public int contentLength;
+
+    /** 占位符个数 */
+    @Param({"4", "32"})
+    public int placeholders;
+
+    private PromptTemplate template;
+    private Object[] args;
+
+    @Setup
+    public void setUp() {
+        StringBuilder content = new StringBuilder(contentLength + placeholders * 4);
+        int chunk = Math.max(1, contentLength / (placeholders + 1));
+        for (int i = 0; i < placeholders; i++) {
+            appendFiller(content, chunk);
+            content.append('{').append(i).append('}');
+        }
+        appendFiller(content, chunk);
+
+        template = new PromptTemplate("基准模板", "渲染基准测试", content.toString(), TemplateCategory.OTHER);
+        args = new Object[placeholders];
+        for (int i = 0; i < placeholders; i++) {
+            args[i] = "参数值" + i + "：人工智能在教育中的应用";
+        }
+    }
+
+    private static void appendFiller(StringBuilder builder, int length) {
+        String filler = "请根据以下要求生成演示文稿内容，保持结构清晰。";
+        for (int i = 0; i < length; i++) {
+            builder.append(filler.charAt(i % filler.length()));
+        }
+    }
+
+    /**
+     * 原始实现：每个参数对全文做一次 String.replace
+     */
+    @Benchmark
+    public String sequentialReplace() {
+        String formatted = template.getContent();
+        for (int i = 0; i < args.length; i++) {
+            formatted = formatted.replace("{" + i + "}", String.valueOf(args[i]));
+        }
+        return formatted;
+    }
+
+    /**
+     * 通过 PromptTemplate.formatContent 渲染（命中编译缓存）
+     */
+    @Benchmark
+    public String formatContent() {
+        return template.formatContent(args);
+    }
+
+    /**
+     * 包含编译过程的渲染，代表缓存未命中的开销
+     */
+    @Benchmark
+    public String compileAndRender() {
+        return CompiledPromptTemplate.compile(template.getContent()).render(args);
+    }
+}
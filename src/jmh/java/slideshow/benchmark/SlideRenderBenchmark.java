@@ -0,0 +1,87 @@
+package slideshow.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import slideshow.model.Slide;
+import slideshow.model.SlideTransform;
+import slideshow.render.Java2DRenderBackend;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 离屏绘制基准测试
+ * 在BufferedImage上绘制整份演示文稿（每页先清空画面），对比直接绘制与回放缓存的显示列表。
+ * Slide.draw需要JavaFX画布和已启动的工具包，这里使用与其共享绘制代码的Java2D后端，可在无显示环境下运行
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Dprism.order=sw"})
+@State(Scope.Thread)
+public class SlideRenderBenchmark {
+
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 500;
+
+    private BufferedImage image;
+    private Graphics2D graphics;
+    private Java2DRenderBackend backend;
+
+    @Setup(Level.Trial)
+    public void setUp(DeckState state) {
+        image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        SlideTransform transform = SlideTransform.fit(WIDTH, HEIGHT);
+        graphics.translate(transform.getTranslateX(), transform.getTranslateY());
+        graphics.scale(transform.getScale(), transform.getScale());
+        backend = new Java2DRenderBackend(graphics);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage render(DeckState state) {
+        for (Slide slide : state.deck) {
+            clear();
+            slide.render(backend);
+        }
+        return image;
+    }
+
+    /**
+     * 回放各元素缓存的显示列表，首轮之后不再重新录制
+     */
+    @Benchmark
+    public BufferedImage renderCached(DeckState state) {
+        for (Slide slide : state.deck) {
+            clear();
+            slide.renderCached(backend, Java2DRenderBackend.LINE_METRICS);
+        }
+        return image;
+    }
+
+    private void clear() {
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, (int) Slide.LOGICAL_WIDTH, (int) Slide.LOGICAL_HEIGHT);
+    }
+}
@@ -0,0 +1,61 @@
+package slideshow.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import slideshow.model.Slide;
+import slideshow.util.SlideSerializer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SlideSerializer保存和读取基准测试
+ * 只测量序列化和读写文件：保存使用不更新本地索引的writePresentation，每次都写同一个临时文件
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Dprism.order=sw"})
+@State(Scope.Benchmark)
+public class SlideSerializerBenchmark {
+
+    private Path saveFile;
+    private Path loadFile;
+
+    @Setup(Level.Trial)
+    public void setUp(DeckState state) throws IOException {
+        saveFile = Files.createTempFile("benchmark-save", ".mdz");
+        loadFile = Files.createTempFile("benchmark-load", ".mdz");
+        SlideSerializer.writePresentation(state.deck, loadFile.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(saveFile);
+        Files.deleteIfExists(loadFile);
+    }
+
+    @Benchmark
+    public void save(DeckState state) throws IOException {
+        SlideSerializer.writePresentation(state.deck, saveFile.toString());
+    }
+
+    @Benchmark
+    public List<Slide> load() throws IOException {
+        return SlideSerializer.loadPresentation(loadFile.toString());
+    }
+}
@@ -0,0 +1,81 @@
+package slideshow.benchmark;
+
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import slideshow.model.PromptTemplate;
+import slideshow.model.TemplateCategory;
+import slideshow.util.JsonTemplateStorage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JsonTemplateStorage.searchTemplates基准测试
+ * 模板库直接写成JSON文件再由JsonTemplateStorage读取，避免逐个saveTemplate时反复写盘
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TemplateSearchBenchmark {
+
+    /** 模板数量 */
+    @Param({"10", "100", "1000"})
+    public int templates;
+
+    /** 搜索关键词：命中少数模板的词和不命中任何模板的词 */
+    @Param({"机器学习", "不存在的关键词"})
+    public String keyword;
+
+    private static final String[] TOPICS = {
+            "人工智能", "机器学习", "数据分析", "云计算", "网络安全", "项目管理", "市场营销", "教育技术"
+    };
+
+    private Path storageFile;
+    private JsonTemplateStorage storage;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        TemplateCategory[] categories = TemplateCategory.values();
+        List<PromptTemplate> list = new ArrayList<>(templates);
+        for (int i = 0; i < templates; i++) {
+            String topic = TOPICS[i % TOPICS.length];
+            PromptTemplate template = new PromptTemplate("模板" + i + " " + topic, topic + "相关的演示文稿模板",
+                    "请围绕{0}生成一份关于" + topic + "的演示文稿，面向{1}，包含背景、方法、案例和总结。",
+                    categories[i % categories.length]);
+            list.add(template);
+        }
+        storageFile = Files.createTempFile("benchmark-templates", ".json");
+        Files.writeString(storageFile, new Gson().toJson(list), StandardCharsets.UTF_8);
+        storage = new JsonTemplateStorage(storageFile.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(storageFile);
+    }
+
+    @Benchmark
+    public List<PromptTemplate> searchTemplates() {
+        return storage.searchTemplates(keyword);
+    }
+}
@@ -1,10 +1,13 @@
 package slideshow;
 
-import dev.langchain4j.model.openai.OpenAiChatModel;
+import dev.langchain4j.model.chat.ChatLanguageModel;
 import slideshow.model.Slide;
 import slideshow.model.PromptTemplate;
 import slideshow.elements.SlideElement;
 import slideshow.elements.TextElement;
+import slideshow.util.ChineseSegmenter;
+import slideshow.util.KeywordIndex;
+import slideshow.util.SpeechSegments;
 import slideshow.util.TemplateManager;
 
 import java.util.List;
@@ -18,6 +21,13 @@ import java.util.Set;
 import java.util.HashSet;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * AI代理类，负责处理与AI模型的交互
@@ -26,9 +36,29 @@ import java.util.regex.Matcher;
 public class AIAgent {
     private static final Logger logger = Logger.getLogger(AIAgent.class.getName());
 
-    private OpenAiChatModel aiModel;
+    /** 按页生成演讲稿时默认的最大并发请求数 */
+    public static final int DEFAULT_SPEECH_CONCURRENCY = 4;
+    /** 大纲中每页标题的最大长度 */
+    private static final int OUTLINE_TITLE_LENGTH = 40;
+
+    private ChatLanguageModel aiModel;
     private TemplateManager templateManager;
 
+    /**
+     * 按页生成演讲稿的进度回调
+     */
+    public interface SpeechSegmentListener {
+        /**
+         * 某一页的演讲稿已生成（在调用生成方法的线程中按完成顺序回调）
+         *
+         * @param index     页码，从0开始
+         * @param segment   该页的演讲稿，生成失败时为失败说明
+         * @param completed 已完成的页数
+         * @param total     总页数
+         */
+        void onSegment(int index, String segment, int completed, int total);
+    }
+
     /**
      * 幻灯片分析结果类
      */
@@ -88,7 +118,7 @@ public class AIAgent {
      * 
      * @param aiModel AI模型实例
      */
-    public AIAgent(OpenAiChatModel aiModel) {
+    public AIAgent(ChatLanguageModel aiModel) {
         if (aiModel == null) {
             throw new IllegalArgumentException("AI模型不能为空");
         }
@@ -150,6 +180,142 @@ public class AIAgent {
         }
     }
 
+    /**
+     * 按页并行生成演讲稿
+     * 每页单独请求AI，所有请求共享整份PPT的大纲作为上下文，同时进行的请求数不超过maxConcurrency。
+     * 没有文字的页不请求AI，演讲稿为空。单页失败不影响其他页，有文字的页全部失败时抛出异常。结果按【第N页】标记拼接，
+     * 与generateSpeechBySlides的输出格式一致，可直接交给SpeechManager.saveSpeechToFile保存
+     * 
+     * @param slides         幻灯片列表
+     * @param maxConcurrency 最大并发请求数
+     * @param listener       每页完成时的回调，可为null
+     * @return 拼接后的演讲稿
+     * @throws AIException              有文字的页都生成失败或被中断时抛出
+     * @throws IllegalArgumentException 当参数无效时抛出
+     */
+    public String generateSpeechBySlidesConcurrently(List<Slide> slides, int maxConcurrency,
+                                                     SpeechSegmentListener listener)
+            throws AIException, IllegalArgumentException {
+        if (slides == null || slides.isEmpty()) {
+            throw new IllegalArgumentException("幻灯片列表不能为空");
+        }
+        if (aiModel == null) {
+            throw new AIException("AI模型未初始化");
+        }
+
+        // 在调用线程中取出各页文本，生成期间幻灯片被编辑也不受影响
+        int total = slides.size();
+        List<String> pageContents = new ArrayList<>(total);
+        int contentPages = 0;
+        for (Slide slide : slides) {
+            String content = String.join("\n", slide.getTextContent());
+            pageContents.add(content);
+            if (!content.trim().isEmpty()) {
+                contentPages++;
+            }
+        }
+        if (contentPages == 0) {
+            throw new AIException("无法从幻灯片中提取有效内容");
+        }
+        String outline = buildOutline(pageContents);
+
+        logger.info("开始按页生成演讲稿，页数: " + total + "，并发数: " + maxConcurrency);
+        long start = System.currentTimeMillis();
+        String[] segments = new String[total];
+        String[] errors = new String[total];
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(maxConcurrency, total)), r -> {
+            Thread thread = new Thread(r, "speech-generator-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletionService<Integer> completion = new ExecutorCompletionService<>(executor);
+        try {
+            for (int i = 0; i < total; i++) {
+                int index = i;
+                completion.submit(() -> {
+                    try {
+                        segments[index] = generatePageSpeech(outline, pageContents.get(index), index, total);
+                    } catch (AIException e) {
+                        errors[index] = e.getMessage();
+                        segments[index] = "（第" + (index + 1) + "页演讲稿生成失败：" + e.getMessage() + "）";
+                    }
+                    return index;
+                });
+            }
+
+            int failed = 0;
+            String firstError = null;
+            for (int completed = 1; completed <= total; completed++) {
+                Future<Integer> future = completion.take();
+                int index = future.get();
+                if (errors[index] != null) {
+                    failed++;
+                    if (firstError == null) {
+                        firstError = errors[index];
+                    }
+                    logger.warning("第" + (index + 1) + "页演讲稿生成失败: " + errors[index]);
+                }
+                if (listener != null) {
+                    listener.onSegment(index, segments[index], completed, total);
+                }
+            }
+            // 没有文字的页不会失败，只和有文字的页比较
+            if (failed == contentPages) {
+                throw new AIException("所有页的演讲稿都生成失败: " + firstError);
+            }
+
+            logger.info("按页生成演讲稿完成，有文字的 " + contentPages + " 页中失败 " + failed + " 页，耗时 " + (System.currentTimeMillis() - start) + "ms");
+            return SpeechSegments.join(List.of(segments));
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AIException("生成演讲稿被中断", e);
+        } catch (ExecutionException e) {
+            throw new AIException("生成演讲稿时发生未知错误: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 整份PPT的大纲：每页一行，取该页第一段文字作为标题
+     */
+    private String buildOutline(List<String> pageContents) {
+        StringBuilder outline = new StringBuilder();
+        for (int i = 0; i < pageContents.size(); i++) {
+            String content = pageContents.get(i).trim();
+            String title = content.isEmpty() ? "（无文字内容）" : content.split("\n", 2)[0];
+            if (title.length() > OUTLINE_TITLE_LENGTH) {
+                title = title.substring(0, OUTLINE_TITLE_LENGTH) + "…";
+            }
+            outline.append("第").append(i + 1).append("页：").append(title).append("\n");
+        }
+        return outline.toString();
+    }
+
+    /**
+     * 生成单页演讲稿，没有文字内容的页不请求AI
+     */
+    private String generatePageSpeech(String outline, String pageContent, int index, int total) throws AIException {
+        if (pageContent.trim().isEmpty()) {
+            return "";
+        }
+        String prompt = "你是一个专业的演讲助手。下面是一份PPT的整体大纲和其中一页的内容，请只为这一页撰写演讲稿。\n" +
+                "要求：\n" +
+                "1. 演讲稿要流畅自然，适合口头表达\n" +
+                "2. 长度适中，大约1-2分钟的演讲时间\n" +
+                "3. 结合大纲，开头与上一页自然衔接，结尾可以引出下一页\n" +
+                "4. 使用中文输出\n" +
+                "5. 直接输出演讲内容，不要输出页码标记或标题\n\n" +
+                "PPT大纲：\n" + outline + "\n" +
+                "当前是第" + (index + 1) + "页（共" + total + "页），内容：\n" + pageContent + "\n\n" +
+                "请生成本页演讲稿：";
+        String speech = parseAIResponse(callAIModel(prompt));
+        // 模型仍输出了页码标记时去掉，避免拼接后重复
+        return speech.replaceFirst("^\\s*【第\\s*\\d+\\s*页】\\s*", "");
+    }
+
     /**
      * 提取幻灯片内容
      * 
@@ -189,7 +355,8 @@ public class AIAgent {
                 "3. 语言要生动有趣，吸引听众注意力\n" +
                 "4. 适当添加过渡语句，使各页内容衔接自然\n" +
                 "5. 演讲稿长度要适中，每页大约1-2分钟的演讲时间\n" +
-                "6. 使用中文输出\n\n" +
+                "6. 使用中文输出\n" +
+                "7. 每页的演讲稿以单独一行的【第N页】开头（N为页码），便于演讲者视图按页显示\n\n" +
                 "PPT内容：\n" + slideContent + "\n\n" +
                 "请生成演讲稿：";
     }
@@ -300,6 +467,37 @@ public class AIAgent {
         }
     }
 
+    /**
+     * 将演讲稿结构转换为PPT命令（Page/Title/Subtitle/Bullet/Text），结果可直接交给SlideParser解析
+     *
+     * @param outline 演讲稿结构，通常来自generateSlidesByTopic
+     * @return PPT命令文本，模型输出了---PPT命令---分隔符时只返回其后的部分
+     * @throws AIException              当AI调用失败时抛出
+     * @throws IllegalArgumentException 当参数无效时抛出
+     */
+    public String generatePptCommands(String outline) throws AIException, IllegalArgumentException {
+        if (outline == null || outline.trim().isEmpty()) {
+            throw new IllegalArgumentException("演讲稿结构不能为空");
+        }
+
+        String prompt = "请把下面的演讲稿结构整理成PPT，严格按照以下标准PPT格式输出：\n" +
+                "---PPT命令---\n" +
+                "Page 1:\nTitle: [页面标题]\nSubtitle: [页面副标题]\nBullet: [项目符号内容]\nText: [正文自然段]\n" +
+                "Page 2:\n...\n" +
+                "要求：\n" +
+                "1. 每个命令单独一行，严格按照Page X:格式分页\n" +
+                "2. Text为自然段，内容尽量充实，但不要出现过大段落\n" +
+                "3. 使用中文输出\n\n" +
+                "演讲稿结构：\n" + outline;
+        String response = callAIModel(prompt);
+        int separator = response.indexOf("---PPT命令---");
+        if (separator >= 0) {
+            response = response.substring(separator + "---PPT命令---".length());
+        }
+        logger.info("PPT命令生成成功，长度: " + response.length());
+        return response.trim();
+    }
+
     /**
      * 使用模板生成内容
      * 
@@ -537,28 +735,18 @@ public class AIAgent {
      * @param analysis 分析结果对象
      */
     private void performLocalKeywordExtraction(String slideContent, SlideAnalysis analysis) {
-        // 停用词列表
-        Set<String> stopWords = new HashSet<>();
-        stopWords.addAll(List.of("的", "了", "在", "是", "我", "有", "和", "就", "不", "人", "都", "一", "一个", "上", "也", "很", "到", "说", "要", "去", "你", "会", "着", "没有", "看", "好", "自己", "这"));
-
-        // 分词并统计频率
-        String[] words = slideContent.split("[\\s\\p{Punct}]+");
+        // 基于词典分词并统计频率（已过滤停用词和单字）
         Map<String, Integer> wordFrequency = new HashMap<>();
-
-        for (String word : words) {
-            String trimmed = word.trim();
-            if (trimmed.length() > 1 && !stopWords.contains(trimmed)) {
-                wordFrequency.put(trimmed, wordFrequency.getOrDefault(trimmed, 0) + 1);
-            }
+        for (String word : ChineseSegmenter.getInstance().segmentForKeywords(slideContent)) {
+            wordFrequency.put(word, wordFrequency.getOrDefault(word, 0) + 1);
         }
 
-        // 按频率排序，取前10个作为关键词
-        wordFrequency.entrySet().stream()
-                .sorted((e1, e2) -> e2.getValue().compareTo(e1.getValue()))
+        // 按BM25得分排序（结合已保存演示文稿的文档频率），取前10个作为关键词
+        KeywordIndex.getInstance().scoreBm25(wordFrequency).keySet().stream()
                 .limit(10)
-                .forEach(entry -> {
-                    analysis.getKeywords().add(entry.getKey());
-                    analysis.getKeywordFrequency().put(entry.getKey(), entry.getValue());
+                .forEach(keyword -> {
+                    analysis.getKeywords().add(keyword);
+                    analysis.getKeywordFrequency().put(keyword, wordFrequency.get(keyword));
                 });
     }
 
@@ -1,7 +1,10 @@
 package slideshow;
 
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.openai.OpenAiChatModel;
 import slideshow.model.Slide;
 import slideshow.elements.TextElement;
+import slideshow.util.batch.ReplayChatModel;
 import javafx.scene.paint.Color;
 import javafx.scene.text.FontWeight;
 
@@ -14,6 +17,29 @@ import java.util.ArrayList;
  */
 public class AIAgentTest {
     
+    /**
+     * 创建测试用的AI模型
+     * 设置-Dslideshow.ai.mode=replay时从录制文件回放，不需要API密钥；
+     * 否则使用环境变量DEEPSEEK_API_KEY，可配合-Dslideshow.ai.mode=record录制本次请求
+     * 
+     * @return AI模型，没有API密钥且未配置回放时返回null
+     */
+    private static ChatLanguageModel createModel() {
+        if (ReplayChatModel.isReplayConfigured()) {
+            return ReplayChatModel.wrap(null);
+        }
+        String apiKey = System.getenv("DEEPSEEK_API_KEY");
+        if (apiKey == null) {
+            return null;
+        }
+        return ReplayChatModel.wrap(OpenAiChatModel.builder()
+                .apiKey(apiKey)
+                .baseUrl("https://api.deepseek.com")
+                .modelName("deepseek-chat")
+                .temperature(0.5)
+                .build());
+    }
+    
     /**
      * 测试AIAgent的generateSpeechBySlides方法
      * 注意：这个测试需要有效的AI模型才能运行
@@ -27,19 +53,12 @@ public class AIAgentTest {
             
             // 创建AI模型（这里需要有效的API密钥）
             // 注意：在实际使用中，应该从配置文件或环境变量获取API密钥
-            String apiKey = System.getenv("DEEPSEEK_API_KEY");
-            if (apiKey == null) {
+            ChatLanguageModel aiModel = createModel();
+            if (aiModel == null) {
                 System.out.println("警告：未找到API密钥，跳过AI调用测试");
                 return;
             }
             
-            dev.langchain4j.model.openai.OpenAiChatModel aiModel = dev.langchain4j.model.openai.OpenAiChatModel.builder()
-                    .apiKey(apiKey)
-                    .baseUrl("https://api.deepseek.com")
-                    .modelName("deepseek-chat")
-                    .temperature(0.5)
-                    .build();
-            
             // 创建AIAgent实例
             AIAgent aiAgent = new AIAgent(aiModel);
             
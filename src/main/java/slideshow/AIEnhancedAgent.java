@@ -1,7 +1,8 @@
 package slideshow;
 
-import dev.langchain4j.model.openai.OpenAiChatModel;
+import dev.langchain4j.model.chat.ChatLanguageModel;
 import slideshow.model.Slide;
+import slideshow.model.SlideTransform;
 import slideshow.model.PromptTemplate;
 import slideshow.elements.SlideElement;
 import slideshow.elements.TextElement;
@@ -23,7 +24,7 @@ import java.util.logging.Level;
 public class AIEnhancedAgent extends AIAgent {
     private static final Logger logger = Logger.getLogger(AIEnhancedAgent.class.getName());
     
-    public AIEnhancedAgent(OpenAiChatModel aiModel) {
+    public AIEnhancedAgent(ChatLanguageModel aiModel) {
         super(aiModel);
     }
     
@@ -119,17 +120,20 @@ public class AIEnhancedAgent extends AIAgent {
      * @param slide 幻灯片
      * @param newWidth 新宽度
      * @param newHeight 新高度
+     * @return 适配新尺寸的绘制变换，失败时返回null
      */
-    public void responsiveAdjustLayout(Slide slide, double newWidth, double newHeight) {
+    public SlideTransform responsiveAdjustLayout(Slide slide, double newWidth, double newHeight) {
         try {
             logger.info("开始响应式调整布局，新尺寸: " + newWidth + "x" + newHeight);
             
-            IntelligentLayoutEngine.responsiveAdjust(slide, newWidth, newHeight);
+            SlideTransform transform = IntelligentLayoutEngine.responsiveAdjust(slide, newWidth, newHeight);
             
             logger.info("响应式调整完成");
+            return transform;
             
         } catch (Exception e) {
             logger.log(Level.SEVERE, "响应式调整布局失败", e);
+            return null;
         }
     }
     
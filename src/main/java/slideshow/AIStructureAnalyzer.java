@@ -3,7 +3,9 @@ package slideshow;
 import slideshow.util.SlideStructureAnalyzer;
 import slideshow.util.SlideStructureAnalyzer.StructureAnalysis;
 import slideshow.model.Slide;
-import dev.langchain4j.model.openai.OpenAiChatModel;
+import slideshow.util.graph.LogicGraph;
+import com.google.gson.JsonObject;
+import dev.langchain4j.model.chat.ChatLanguageModel;
 
 import java.util.List;
 import java.util.Map;
@@ -17,7 +19,7 @@ import java.util.logging.Level;
 public class AIStructureAnalyzer {
     private static final Logger logger = Logger.getLogger(AIStructureAnalyzer.class.getName());
     
-    private OpenAiChatModel aiModel;
+    private ChatLanguageModel aiModel;
     private SlideStructureAnalyzer structureAnalyzer;
 
     /**
@@ -25,7 +27,7 @@ public class AIStructureAnalyzer {
      * 
      * @param aiModel AI模型实例
      */
-    public AIStructureAnalyzer(OpenAiChatModel aiModel) {
+    public AIStructureAnalyzer(ChatLanguageModel aiModel) {
         this.aiModel = aiModel;
         this.structureAnalyzer = new SlideStructureAnalyzer();
     }
@@ -223,10 +225,9 @@ public class AIStructureAnalyzer {
             }
             
             analysisText.append("\n【关键词统计】\n");
-            analysis.getKeywordFrequency().entrySet().stream()
-                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-                .limit(8)
-                .forEach(entry -> analysisText.append(entry.getKey()).append(": ").append(entry.getValue()).append("次\n"));
+            analysis.getTopKeywords(8)
+                .forEach(keyword -> analysisText.append(keyword).append(": ")
+                    .append(analysis.getKeywordFrequency().get(keyword)).append("次\n"));
             
             analysisText.append("\n【重点突出建议】\n");
             analysisText.append("1. 使用视觉元素突出关键信息\n");
@@ -255,7 +256,24 @@ public class AIStructureAnalyzer {
             
         } catch (Exception e) {
             logger.log(Level.SEVERE, "生成逻辑关系图失败", e);
-            return "{\"error\": \"生成逻辑关系图时发生错误: " + e.getMessage() + "\"}";
+            JsonObject error = new JsonObject();
+            error.addProperty("error", "生成逻辑关系图时发生错误: " + e.getMessage());
+            return error.toString();
+        }
+    }
+
+    /**
+     * 构建逻辑关系图，供渲染器直接使用
+     * 
+     * @param slides 幻灯片列表
+     * @return 逻辑关系图，失败时返回null
+     */
+    public LogicGraph buildLogicGraph(List<Slide> slides) {
+        try {
+            return SlideStructureAnalyzer.buildLogicGraph(analyzeWithAI(slides));
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "生成逻辑关系图失败", e);
+            return null;
         }
     }
 
@@ -0,0 +1,70 @@
+package slideshow;
+
+import slideshow.util.ChineseSegmenter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 中文分词器测试类
+ */
+public class ChineseSegmenterTest {
+
+    public static void main(String[] args) {
+        System.out.println("开始中文分词测试...");
+
+        ChineseSegmenter segmenter = ChineseSegmenter.getInstance();
+        System.out.println("词典词条数: " + segmenter.getWordCount());
+
+        String[] samples = {
+                "人工智能在教育领域的应用",
+                "机器学习是人工智能的核心技术之一，深度学习推动了自然语言处理的发展",
+                "本演示文稿介绍了项目背景、研究方法和实验结果",
+                "使用JavaFX和LangChain4j构建智能幻灯片系统，支持GPT-4模型",
+                "张晓明老师将在下周三的研讨会上分享边缘计算与联邦学习的最新进展"
+        };
+
+        System.out.println("=== 分词结果 ===");
+        for (String sample : samples) {
+            System.out.println(sample);
+            System.out.println("  分词: " + String.join(" / ", segmenter.segment(sample)));
+            System.out.println("  关键词候选: " + segmenter.segmentForKeywords(sample));
+        }
+
+        System.out.println("=== 吞吐量测试 ===");
+        testThroughput(segmenter, samples);
+
+        System.out.println("中文分词测试完成！");
+    }
+
+    /**
+     * 测试分词吞吐量（MB/s，按UTF-8字节计算）
+     */
+    private static void testThroughput(ChineseSegmenter segmenter, String[] samples) {
+        StringBuilder builder = new StringBuilder();
+        while (builder.length() < 200_000) {
+            for (String sample : samples) {
+                builder.append(sample).append('。');
+            }
+        }
+        String text = builder.toString();
+        long bytes = text.getBytes(StandardCharsets.UTF_8).length;
+
+        // 预热
+        for (int i = 0; i < 20; i++) {
+            segmenter.segment(text);
+        }
+
+        int rounds = 50;
+        long tokens = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            List<String> result = segmenter.segment(text);
+            tokens += result.size();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double megabytes = bytes * (double) rounds / (1024 * 1024);
+        System.out.printf("处理 %.1f MB, 共 %d 个词, 耗时 %.2f 秒, 吞吐量 %.1f MB/s%n",
+                megabytes, tokens, seconds, megabytes / seconds);
+    }
+}
@@ -1,6 +1,7 @@
 package slideshow;
 
 import slideshow.model.Slide;
+import slideshow.model.SlideTransform;
 import slideshow.elements.SlideElement;
 import slideshow.elements.TextElement;
 import slideshow.elements.DrawElement;
@@ -198,14 +199,15 @@ public class EnhancedFeaturesTest {
                 Slide slideCopy = createTestSlide();
                 
                 // 应用响应式调整
-                IntelligentLayoutEngine.responsiveAdjust(slideCopy, size[0], size[1]);
+                SlideTransform transform = IntelligentLayoutEngine.responsiveAdjust(slideCopy, size[0], size[1]);
                 
-                System.out.println("调整后尺寸: " + slideCopy.getWidth() + "x" + slideCopy.getHeight());
+                System.out.println("绘制变换: " + transform);
                 
-                // 显示元素位置信息
+                // 显示元素在目标尺寸下的位置信息（逻辑坐标不变）
                 for (int i = 0; i < slideCopy.getElements().size(); i++) {
                     SlideElement element = slideCopy.getElements().get(i);
-                    System.out.println("  元素 " + (i + 1) + ": 位置(" + element.getX() + ", " + element.getY() + ")");
+                    System.out.println("  元素 " + (i + 1) + ": 位置(" + transform.toViewX(element.getX())
+                            + ", " + transform.toViewY(element.getY()) + ")");
                 }
             }
             
@@ -0,0 +1,124 @@
+package slideshow;
+
+import slideshow.util.KeywordIndex;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 关键词索引持久化测试类
+ * 在临时目录中建立索引，验证写入后、合并为快照后、快照之后又追加日志时重新加载都得到同样的统计，
+ * 日志末尾不完整的记录被丢弃，以及计算权重时排除当前文档自身
+ */
+public class KeywordIndexTest {
+
+    private static final int DOCUMENTS = 100;
+
+    private static int failures = 0;
+
+    public static void main(String[] args) throws IOException {
+        System.out.println("=== 关键词索引持久化测试开始 ===");
+
+        Path dir = Files.createTempDirectory("keyword-index-test");
+        try {
+            Path file = dir.resolve("term_stats.dat");
+            Path log = dir.resolve("term_stats.dat.log");
+            KeywordIndex index = new KeywordIndex(file);
+            for (int i = 0; i < DOCUMENTS; i++) {
+                index.updateDocument("doc" + i, List.of("共同", "词" + i, "词" + (i + 1), "词" + (i + 1)));
+            }
+            index.removeDocument("doc5");
+            index.updateDocument("doc7", List.of("共同", "改写"));
+
+            System.out.println("\n--- 写入后重新加载 ---");
+            check("日志文件已写入", Files.exists(log));
+            checkSame(index, new KeywordIndex(file));
+
+            System.out.println("\n--- 合并为快照 ---");
+            index.compact();
+            check("日志已删除", !Files.exists(log));
+            check("快照已写入", Files.exists(file));
+            checkSame(index, new KeywordIndex(file));
+
+            System.out.println("\n--- 快照加日志 ---");
+            index.updateDocument("doc200", List.of("共同", "新词"));
+            index.removeDocument("doc9");
+            checkSame(index, new KeywordIndex(file));
+
+            System.out.println("\n--- 日志末尾不完整 ---");
+            long logLength = Files.size(log);
+            // 一条更新记录的操作码和半个文档标识
+            Files.write(log, new byte[]{1, 0, 9, 'd', 'o'}, StandardOpenOption.APPEND);
+            checkSame(index, new KeywordIndex(file));
+            check("不完整的记录已截掉", Files.size(log) == logLength);
+
+            System.out.println("\n--- 排除当前文档 ---");
+            KeywordIndex without = new KeywordIndex(dir.resolve("without.dat"));
+            for (int i = 0; i < DOCUMENTS; i++) {
+                if (i != 50) {
+                    without.updateDocument("doc" + i, List.of("共同", "词" + i, "词" + (i + 1), "词" + (i + 1)));
+                }
+            }
+            KeywordIndex with = new KeywordIndex(dir.resolve("with.dat"));
+            for (int i = 0; i < DOCUMENTS; i++) {
+                with.updateDocument("doc" + i, List.of("共同", "词" + i, "词" + (i + 1), "词" + (i + 1)));
+            }
+            check("已索引的文档不重复计入IDF", with.idf("词50", "doc50") == without.idf("词50"));
+            check("未索引的文档标识不影响IDF", with.idf("词50", "unknown") == with.idf("词50"));
+            Map<String, Integer> frequency = frequencyOf("doc50");
+            check("已索引的文档不影响自身的BM25得分",
+                    with.scoreBm25(frequency, "doc50").equals(without.scoreBm25(frequency)));
+        } finally {
+            deleteRecursively(dir);
+        }
+
+        System.out.println("\n=== 关键词索引持久化测试完成，失败 " + failures + " 项 ===");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 比较重新加载的索引与内存中的索引
+     */
+    private static void checkSame(KeywordIndex expected, KeywordIndex actual) {
+        check("文档数一致（" + expected.getDocumentCount() + "）",
+                expected.getDocumentCount() == actual.getDocumentCount());
+        boolean frequencies = true;
+        for (String term : new String[]{"共同", "改写", "新词", "词5", "词6", "词8", "词10", "词101"}) {
+            frequencies &= expected.getDocumentFrequency(term) == actual.getDocumentFrequency(term);
+        }
+        check("文档频率一致", frequencies);
+        Map<String, Integer> frequency = frequencyOf("doc42");
+        check("BM25得分一致", expected.scoreBm25(frequency).equals(actual.scoreBm25(frequency)));
+    }
+
+    private static Map<String, Integer> frequencyOf(String document) {
+        int i = Integer.parseInt(document.substring(3));
+        Map<String, Integer> frequency = new HashMap<>();
+        frequency.put("共同", 1);
+        frequency.put("词" + i, 1);
+        frequency.put("词" + (i + 1), 2);
+        return frequency;
+    }
+
+    private static void check(String name, boolean passed) {
+        System.out.println((passed ? "通过: " : "失败: ") + name);
+        if (!passed) {
+            failures++;
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
@@ -13,6 +13,7 @@ import javafx.scene.paint.Color;
 import javafx.scene.image.Image;
 import javafx.stage.Stage;
 import javafx.stage.FileChooser;
+import javafx.stage.Modality;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.Cursor;
 import javafx.scene.input.KeyEvent;
@@ -44,18 +45,30 @@ import slideshow.elements.ImageElement;
 import slideshow.util.UIStrings;
 import slideshow.util.SlideSerializer;
 import slideshow.util.SlideParser;
+import slideshow.util.batch.ReplayChatModel;
 import slideshow.presentation.PresentationWindow;
 import slideshow.presentation.SpeakerViewWindow;
 import slideshow.elements.DrawElement;
+import dev.langchain4j.model.chat.ChatLanguageModel;
 import dev.langchain4j.model.openai.OpenAiChatModel;
 import slideshow.model.PromptTemplate;
+import slideshow.model.CompiledPromptTemplate;
 import slideshow.util.IntelligentLayoutEngine;
 import slideshow.util.MultilingualSupport;
 import slideshow.AIEnhancedAgent;
 import slideshow.util.SlideStructureAnalyzer;
 import slideshow.util.SlideStructureAnalyzer.StructureAnalysis;
 import slideshow.util.SpeechManager;
+import slideshow.util.SpeechSegments;
+import slideshow.util.FullTextIndex;
 import slideshow.util.LogicGraphRenderer;
+import slideshow.util.LiveLogicGraph;
+import slideshow.util.RepaintScheduler;
+import slideshow.model.SlideTransform;
+import slideshow.render.FontRegistry;
+import slideshow.render.JavaFxRenderBackend;
+import slideshow.util.graph.LogicGraph;
+import slideshow.util.graph.LogicGraphCodec;
 import slideshow.PromptGeneratorDialog;
 import slideshow.FeedbackDialog;
 
@@ -76,13 +89,44 @@ import java.util.Stack;
 public class Main extends Application {
     private static final Logger logger = Logger.getLogger(Main.class.getName());
 
+    /**
+     * 使用模板生成时追加在模板内容之后的PPT格式要求，末尾接用户输入
+     */
+    private static final String PPT_FORMAT_INSTRUCTIONS = "\n\n重要要求：请根据以上模板要求处理用户输入，但必须严格按照以下标准PPT格式输出："
+            + "\n---PPT命令---"
+            + "\nPage 1:"
+            + "\nTitle: [页面标题]"
+            + "\nSubtitle: [页面副标题]"
+            + "\nBullet: [项目符号内容]"
+            + "\nText: [小标题下具体自然段文本,PPT的正文内容]"
+            + "\nDraw: [绘图描述]"
+            + "\nPage 2:"
+            + "\nTitle: [页面标题]"
+            + "\nSubtitle: [页面副标题]"
+            + "\nBullet: [项目符号内容]"
+            + "\nText: [小标题下具体自然段文本，PPT的正文内容]"
+            + "\nDraw: [绘图描述]"
+            + "\n（继续更多页面...）"
+            + "\n\n1.请确保使用'---PPT命令---'分隔符，并严格按照Page X:格式分页。"
+            + "\n2.对Text下大的段落酌情设置标准长度进行分行。当用户提出的要求中标注了具体生成语言时(如英语)，请使用英语输出。否则默认为中文。"
+            + "\n3.Text为自然段，请在内容尽量丰富的情况下，酌情设置标准长度进行分行。内容可以不局限于一句，但请注意不要出现过大段落。"
+            + "\n用户输入：";
+
     private Canvas canvas;
     private GraphicsContext graphicsContext;
+    // 编辑画布的重绘调度，同一脉冲内的多次刷新请求只绘制一次
+    private RepaintScheduler repaintScheduler;
+    // 编辑画布的绘制后端，回放各元素缓存的显示列表
+    private JavaFxRenderBackend editorBackend;
+    // 幻灯片逻辑坐标到编辑画布的变换，画布尺寸变化时重新计算
+    private SlideTransform editorTransform = SlideTransform.IDENTITY;
     private Slide currentSlide;
     private SlideElement selectedElement;
     private double lastMouseX;
     private double lastMouseY;
     private List<Slide> slides = new ArrayList<>();
+    // 当前演示文稿最近一次保存或打开的路径，新建或AI生成后为null
+    private String currentFilePath;
     private int currentSlideIndex = -1;
     private Button previousSlideButton;
     private Button nextSlideButton;
@@ -93,8 +137,13 @@ public class Main extends Application {
     private ColorPicker drawColorPicker;
     private ComboBox<Double> lineWidthComboBox;
     private ToggleGroup drawGroup;
-    private OpenAiChatModel aiModel;
+    private ChatLanguageModel aiModel;
     private AIAgent aiAgent;
+    // 随编辑同步的逻辑关系图，只在关系图窗口打开时于编辑停顿后更新
+    private final LiveLogicGraph liveLogicGraph = new LiveLogicGraph();
+    private PauseTransition logicGraphSyncDelay;
+    // 当前打开的演讲者视图，按页生成演讲稿时把结果推送给它
+    private SpeakerViewWindow speakerView;
 
     // 主题色变量
     private String mainBgColor = "#a3d3b2";
@@ -220,7 +269,7 @@ public class Main extends Application {
         if (clipboard.hasImage()) {
             Image img = clipboard.getImage();
             if (img != null && currentSlide != null) {
-                ImageElement imgElem = new ImageElement(canvas.getWidth()/2 - img.getWidth()/2, canvas.getHeight()/2 - img.getHeight()/2, img);
+                ImageElement imgElem = new ImageElement(Slide.LOGICAL_WIDTH/2 - img.getWidth()/2, Slide.LOGICAL_HEIGHT/2 - img.getHeight()/2, img);
                 pushCommand(new AddElementCommand(currentSlide, imgElem));
                 selectedElement = imgElem;
                 refreshCanvas();
@@ -228,7 +277,7 @@ public class Main extends Application {
         } else if (clipboard.hasString()) {
             String text = clipboard.getString();
             if (text != null && !text.trim().isEmpty() && currentSlide != null) {
-                TextElement txtElem = new TextElement(canvas.getWidth()/2, canvas.getHeight()/2, text, 20, Color.BLACK, FontWeight.NORMAL, false);
+                TextElement txtElem = new TextElement(Slide.LOGICAL_WIDTH/2, Slide.LOGICAL_HEIGHT/2, text, 20, Color.BLACK, FontWeight.NORMAL, false);
                 pushCommand(new AddElementCommand(currentSlide, txtElem));
                 selectedElement = txtElem;
                 refreshCanvas();
@@ -254,7 +303,10 @@ public class Main extends Application {
     @Override
     public void start(Stage primaryStage) {
         logger.info("Application starting...");
+        FontRegistry.prewarm(SlideParser.PRESET_FONTS);
         BorderPane root = new BorderPane();
+        logicGraphSyncDelay = new PauseTransition(Duration.millis(300));
+        logicGraphSyncDelay.setOnFinished(e -> liveLogicGraph.update(slides, currentFilePath));
 
         // ========== 幻灯片切换控件初始化 ==========
         previousSlideButton = new Button("上一页");
@@ -274,6 +326,8 @@ public class Main extends Application {
         double newCanvasHeight = 1000;
         canvas = new Canvas(newCanvasWidth, newCanvasHeight);
         graphicsContext = canvas.getGraphicsContext2D();
+        editorBackend = new JavaFxRenderBackend(graphicsContext);
+        repaintScheduler = new RepaintScheduler(this::renderCanvas);
 
         // Add mouse event handling
         canvas.setOnMousePressed(this::handleMousePressed);
@@ -302,9 +356,9 @@ public class Main extends Application {
         canvasHolder.getStyleClass().add("canvas-holder");
         root.setCenter(canvasHolder);
 
-        // 监听canvasPane大小变化，动态重绘并等比缩放内容
-        canvasHolder.widthProperty().addListener((obs, oldVal, newVal) -> refreshCanvas());
-        canvasHolder.heightProperty().addListener((obs, oldVal, newVal) -> refreshCanvas());
+        // 监听canvasPane大小变化，拖动窗口时的连续尺寸变化合并到下一个脉冲统一重绘
+        canvasHolder.widthProperty().addListener((obs, oldVal, newVal) -> repaintScheduler.requestRepaint());
+        canvasHolder.heightProperty().addListener((obs, oldVal, newVal) -> repaintScheduler.requestRepaint());
 
         // ========== 新增：左侧苹果风格绿色侧边栏 ==========
         sidebar = new VBox(18);
@@ -326,11 +380,13 @@ public class Main extends Application {
             MenuItem openItem = new MenuItem("打开...");
             MenuItem saveItem = new MenuItem("保存");
             MenuItem saveAsItem = new MenuItem("另存为...");
+            MenuItem searchItem = new MenuItem("全文搜索...");
             MenuItem exitItem = new MenuItem("退出");
             newItem.setOnAction(ev -> createNewPresentation());
             openItem.setOnAction(ev -> openPresentation());
             saveItem.setOnAction(ev -> savePresentation());
             saveAsItem.setOnAction(ev -> saveAsPresentation());
+            searchItem.setOnAction(ev -> showFullTextSearchDialog());
             exitItem.setOnAction(ev -> Platform.exit());
             ContextMenu menu = new ContextMenu(
                     newItem,
@@ -338,6 +394,8 @@ public class Main extends Application {
                     saveItem,
                     saveAsItem,
                     new SeparatorMenuItem(),
+                    searchItem,
+                    new SeparatorMenuItem(),
                     exitItem);
             menu.show(fileBtn, javafx.geometry.Side.RIGHT, 0, 0);
         });
@@ -481,6 +539,7 @@ public class Main extends Application {
         aiBtn.setOnAction(e -> {
             MenuItem aiGenItem = new MenuItem("AI智能生成PPT");
             MenuItem speechGenItem = new MenuItem("生成演讲稿");
+            MenuItem speechPerSlideItem = new MenuItem("按页并行生成演讲稿");
             MenuItem speechStructureItem = new MenuItem("演讲稿结构");
             MenuItem keywordAnalysisItem = new MenuItem("关键词分析");
             MenuItem aiQAItem = new MenuItem("AI问答");
@@ -490,6 +549,7 @@ public class Main extends Application {
             promptGenItem.setOnAction(ev -> showPromptGeneratorDialog());
             aiGenItem.setOnAction(ev -> showAIChatDialog());
             speechGenItem.setOnAction(ev -> generateSpeechFromSlides());
+            speechPerSlideItem.setOnAction(ev -> generateSpeechPerSlide());
             speechStructureItem.setOnAction(ev -> showSpeechStructureDialog());
             keywordAnalysisItem.setOnAction(ev -> performKeywordAnalysis());
             aiQAItem.setOnAction(ev -> showAIDialog());
@@ -497,6 +557,7 @@ public class Main extends Application {
             ContextMenu menu = new ContextMenu(
                 aiGenItem,
                 speechGenItem,
+                speechPerSlideItem,
                 speechStructureItem,
                 keywordAnalysisItem,
                 aiQAItem,
@@ -588,14 +649,15 @@ public class Main extends Application {
 
         String apiKey = getApiKey(); // Retrieve from secure source
 
-        aiModel = OpenAiChatModel.builder()
+        // 设置了slideshow.ai.mode等系统属性时可录制/回放AI请求，用于离线测试
+        aiModel = ReplayChatModel.wrap(OpenAiChatModel.builder()
                 .apiKey(apiKey)
                 .baseUrl("https://api.deepseek.com") // ⚠️ DeepSeek 的 baseUrl
                 .modelName("deepseek-chat")
                 .temperature(0.5)
                 .logRequests(true)
                 .logResponses(true)
-                .build();
+                .build());
 
         // // 本地部署模型调用
         // aiModel = OpenAiChatModel.builder()
@@ -637,7 +699,7 @@ public class Main extends Application {
             if (db.hasImage()) {
                 Image img = db.getImage();
                 if (img != null && currentSlide != null) {
-                    ImageElement imgElem = new ImageElement(canvas.getWidth()/2 - img.getWidth()/2, canvas.getHeight()/2 - img.getHeight()/2, img);
+                    ImageElement imgElem = new ImageElement(Slide.LOGICAL_WIDTH/2 - img.getWidth()/2, Slide.LOGICAL_HEIGHT/2 - img.getHeight()/2, img);
                     pushCommand(new AddElementCommand(currentSlide, imgElem));
                     selectedElement = imgElem;
                     refreshCanvas();
@@ -646,7 +708,7 @@ public class Main extends Application {
                 for (File file : db.getFiles()) {
                     if (file.getName().toLowerCase().matches(".*\\.(png|jpg|jpeg|gif|bmp)")) {
                         Image img = new Image(file.toURI().toString());
-                        ImageElement imgElem = new ImageElement(canvas.getWidth()/2 - img.getWidth()/2, canvas.getHeight()/2 - img.getHeight()/2, img);
+                        ImageElement imgElem = new ImageElement(Slide.LOGICAL_WIDTH/2 - img.getWidth()/2, Slide.LOGICAL_HEIGHT/2 - img.getHeight()/2, img);
                         pushCommand(new AddElementCommand(currentSlide, imgElem));
                         selectedElement = imgElem;
                         refreshCanvas();
@@ -728,11 +790,19 @@ public class Main extends Application {
         return "sk-a62c9faf266a4c74b63ecbe57c11ca1d";
     }
 
+    @Override
+    public void stop() {
+        if (repaintScheduler != null) {
+            logger.info(repaintScheduler.toString());
+            repaintScheduler.dispose();
+        }
+    }
+
     private void handleMousePressed(MouseEvent event) {
         if (event.isPrimaryButtonDown()) {
             longPressTriggered = false;
-            double px = event.getX();
-            double py = event.getY();
+            double px = slideX(event);
+            double py = slideY(event);
             SlideElement clickedElement = currentSlide != null ? currentSlide.findElementAt(px, py) : null;
             // 如果在多选状态下，且点在已选元素上，准备整体拖动
             if (!selectedElements.isEmpty() && clickedElement != null && selectedElements.contains(clickedElement)) {
@@ -769,7 +839,7 @@ public class Main extends Application {
         if (currentShape != null) {
             // Start drawing
             currentDrawing = new DrawElement(
-                    event.getX(), event.getY(),
+                    slideX(event), slideY(event),
                     currentShape,
                     drawColorPicker.getValue(),
                     lineWidthComboBox.getValue());
@@ -778,13 +848,13 @@ public class Main extends Application {
         }
         if (currentSlide != null) {
             if (selectedElement != null) {
-                currentResizeHandle = selectedElement.getResizeHandle(event.getX(), event.getY());
+                currentResizeHandle = selectedElement.getResizeHandle(slideX(event), slideY(event));
                 if (currentResizeHandle != SlideElement.ResizeHandle.NONE) {
                     return;
                 }
             }
 
-            SlideElement clickedElement = currentSlide.findElementAt(event.getX(), event.getY());
+            SlideElement clickedElement = currentSlide.findElementAt(slideX(event), slideY(event));
 
             // If right-click, show context menu
             if (event.isSecondaryButtonDown() && clickedElement != null) {
@@ -807,8 +877,8 @@ public class Main extends Application {
                 selectedElement.setSelected(true);
             }
 
-            lastMouseX = event.getX();
-            lastMouseY = event.getY();
+            lastMouseX = slideX(event);
+            lastMouseY = slideY(event);
             System.out.println("==="+lastMouseX+"    " + lastMouseY);
             refreshCanvas();
         }
@@ -816,19 +886,19 @@ public class Main extends Application {
 
     private void handleMouseDragged(MouseEvent event) {
         if (isGroupDragging) {
-            double dx = event.getX() - groupDragLastX;
-            double dy = event.getY() - groupDragLastY;
+            double dx = slideX(event) - groupDragLastX;
+            double dy = slideY(event) - groupDragLastY;
             for (SlideElement elem : selectedElements) {
                 elem.move(dx, dy);
             }
-            groupDragLastX = event.getX();
-            groupDragLastY = event.getY();
+            groupDragLastX = slideX(event);
+            groupDragLastY = slideY(event);
             refreshCanvas();
             return;
         }
         if (isSelecting) {
-            selectionEndX = event.getX();
-            selectionEndY = event.getY();
+            selectionEndX = slideX(event);
+            selectionEndY = slideY(event);
             // 实时高亮选中元素
             selectedElements.clear();
             if (currentSlide != null) {
@@ -848,16 +918,16 @@ public class Main extends Application {
         if (currentDrawing != null) {
 
             // Update drawing
-            currentDrawing.updateEndPoint(event.getX(), event.getY());
-            System.out.printf("[调试] 绘图元素终点更新为：(%.2f, %.2f)%n", event.getX(), event.getY());
+            currentDrawing.updateEndPoint(slideX(event), slideY(event));
+            System.out.printf("[调试] 绘图元素终点更新为：(%.2f, %.2f)%n", slideX(event), slideY(event));
             refreshCanvas();
             return;
         }
         if (selectedElement != null && currentResizeHandle != SlideElement.ResizeHandle.NONE) {
 
             System.out.println("============="+lastMouseX+"   "+lastMouseY);
-            double deltaX = event.getX() - lastMouseX;
-            double deltaY = event.getY() - lastMouseY;
+            double deltaX = slideX(event) - lastMouseX;
+            double deltaY = slideY(event) - lastMouseY;
             if(deltaX>5||deltaY>5){
                 deltaX=0;
                 deltaY=0;
@@ -865,18 +935,18 @@ public class Main extends Application {
             System.out.println("======++++++=="+deltaX+"    " + deltaY);
 //            selectedElement.resize(deltaX, deltaY, currentResizeHandle);
             selectedElement.resize(deltaX, deltaY, currentResizeHandle);
-            lastMouseX = event.getX();
-            lastMouseY = event.getY();
+            lastMouseX = slideX(event);
+            lastMouseY = slideY(event);
             refreshCanvas();
             return;
         }
 
         if (selectedElement != null) {
-            double deltaX = event.getX() - lastMouseX;
-            double deltaY = event.getY() - lastMouseY;
+            double deltaX = slideX(event) - lastMouseX;
+            double deltaY = slideY(event) - lastMouseY;
             selectedElement.move(deltaX, deltaY);
-            lastMouseX = event.getX();
-            lastMouseY = event.getY();
+            lastMouseX = slideX(event);
+            lastMouseY = slideY(event);
             refreshCanvas();
         }
     }
@@ -915,8 +985,8 @@ public class Main extends Application {
         }
         // 如果不是长按，执行单选/取消选中逻辑
         if (!longPressTriggered && event.isPrimaryButtonDown()) {
-            double px = event.getX();
-            double py = event.getY();
+            double px = slideX(event);
+            double py = slideY(event);
             SlideElement clickedElement = currentSlide != null ? currentSlide.findElementAt(px, py) : null;
             // 先全部取消选中
             List<SlideElement> allElements = (currentSlide != null) ? currentSlide.getElements() : new ArrayList<SlideElement>();
@@ -935,7 +1005,7 @@ public class Main extends Application {
         }
         if (currentDrawing != null) {
             // Complete drawing
-            currentDrawing.updateEndPoint(event.getX(), event.getY());
+            currentDrawing.updateEndPoint(slideX(event), slideY(event));
             currentDrawing = null;
             // Clear current drawing state
             currentShape = null;
@@ -959,15 +1029,15 @@ public class Main extends Application {
 
                 if (selectedElement instanceof ImageElement) {
                     ImageElement imageElement = (ImageElement) selectedElement;
-                    ImageElement.ResizeHandle handle = imageElement.getResizeHandle(event.getX(), event.getY());
+                    ImageElement.ResizeHandle handle = imageElement.getResizeHandle(slideX(event), slideY(event));
                     cursor = getResizeCursor(handle);
                 } else if (selectedElement instanceof TextElement) {
                     TextElement textElement = (TextElement) selectedElement;
-                    TextElement.ResizeHandle handle = textElement.getResizeHandle(event.getX(), event.getY());
+                    TextElement.ResizeHandle handle = textElement.getResizeHandle(slideX(event), slideY(event));
                     cursor = getResizeCursor(handle);
                 }
 
-                if (cursor == Cursor.DEFAULT && selectedElement.containsPoint(event.getX(), event.getY())) {
+                if (cursor == Cursor.DEFAULT && selectedElement.containsPoint(slideX(event), slideY(event))) {
                     cursor = Cursor.HAND;
                 }
 
@@ -975,7 +1045,7 @@ public class Main extends Application {
                 return;
             }
 
-            SlideElement element = currentSlide.findElementAt(event.getX(), event.getY());
+            SlideElement element = currentSlide.findElementAt(slideX(event), slideY(event));
             if (element != null) {
                 element.setHoverCursor(canvas);
             } else {
@@ -1007,19 +1077,25 @@ public class Main extends Application {
         return Cursor.DEFAULT;
     }
 
+    /**
+     * 让画布适配容器大小，并更新逻辑坐标到画布的变换。
+     * 元素坐标始终保存在幻灯片逻辑坐标空间中，这里只改画布尺寸，不改写元素几何
+     */
     private void adjustCanvasSize() {
         if (canvas != null && canvas.getParent() != null) {
             // 获取容器可用空间
             double containerWidth = ((BorderPane) canvas.getParent()).getWidth() - 40; // 减去内边距
             double containerHeight = ((BorderPane) canvas.getParent()).getHeight() - 40;
+            if (containerWidth <= 0 || containerHeight <= 0) {
+                // 尚未完成首次布局
+                return;
+            }
             
-            // 计算保持16:9比例的最大尺寸
+            // 保持逻辑坐标空间的宽高比
+            double aspectRatio = Slide.LOGICAL_WIDTH / Slide.LOGICAL_HEIGHT;
             double maxWidth = containerWidth;
             double maxHeight = containerHeight;
             
-            // 保持16:9比例
-            double aspectRatio = 16.0 / 9.0;
-            
             if (maxWidth / maxHeight > aspectRatio) {
                 // 高度限制
                 maxWidth = maxHeight * aspectRatio;
@@ -1030,34 +1106,58 @@ public class Main extends Application {
             
             // 设置最小尺寸
             double minWidth = 800;
-            double minHeight = 450;
-            
-            // 确保不小于最小尺寸
             if (maxWidth < minWidth) {
                 maxWidth = minWidth;
                 maxHeight = maxWidth / aspectRatio;
             }
-            if (maxHeight < minHeight) {
-                maxHeight = minHeight;
-                maxWidth = maxHeight * aspectRatio;
-            }
-            
-            // 调整画布尺寸
-            canvas.setWidth(maxWidth);
-            canvas.setHeight(maxHeight);
+            maxWidth = Math.floor(maxWidth);
+            maxHeight = Math.floor(maxHeight);
             
-            // 重新获取GraphicsContext
-            graphicsContext = canvas.getGraphicsContext2D();
+            // 尺寸不变时不重新分配画布
+            if (maxWidth != canvas.getWidth() || maxHeight != canvas.getHeight()) {
+                canvas.setWidth(maxWidth);
+                canvas.setHeight(maxHeight);
+                graphicsContext = canvas.getGraphicsContext2D();
+            }
         }
+        editorTransform = SlideTransform.fit(canvas.getWidth(), canvas.getHeight());
+    }
+
+    /**
+     * 鼠标位置映射到幻灯片逻辑横坐标
+     */
+    private double slideX(MouseEvent event) {
+        return editorTransform.toSlideX(event.getX());
+    }
+
+    /**
+     * 鼠标位置映射到幻灯片逻辑纵坐标
+     */
+    private double slideY(MouseEvent event) {
+        return editorTransform.toSlideY(event.getY());
     }
 
     private void refreshCanvas() {
+        // 编辑后刷新画布时，顺带安排关系图窗口的同步
+        if (liveLogicGraph.hasListeners()) {
+            logicGraphSyncDelay.playFromStart();
+        }
+        repaintScheduler.requestRepaint();
+    }
+
+    /**
+     * 实际绘制编辑画布，由重绘调度器在JavaFX脉冲中调用
+     */
+    private void renderCanvas() {
+        adjustCanvasSize();
         // Clear canvas
         graphicsContext.setFill(Color.WHITE);
         graphicsContext.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        graphicsContext.save();
+        editorTransform.apply(graphicsContext);
         // Redraw all elements
         if (currentSlide != null) {
-            currentSlide.draw(graphicsContext);
+            currentSlide.drawCached(editorBackend);
             // 高亮多选元素
             graphicsContext.setStroke(Color.BLUE);
             graphicsContext.setLineDashes(6);
@@ -1078,6 +1178,7 @@ public class Main extends Application {
             graphicsContext.strokeRect(x, y, w, h);
             graphicsContext.setLineDashes(0);
         }
+        graphicsContext.restore();
     }
 
     private ToolBar createToolBar() {
@@ -1244,8 +1345,8 @@ public class Main extends Application {
         result.ifPresent(text -> {
             if (!text.trim().isEmpty()) {
             TextElement textElement = new TextElement(
-                    canvas.getWidth() / 2,
-                    canvas.getHeight() / 2,
+                    Slide.LOGICAL_WIDTH / 2,
+                    Slide.LOGICAL_HEIGHT / 2,
                     text,
                     20, // Default font size
                     Color.BLACK, // Default color
@@ -1278,8 +1379,8 @@ public class Main extends Application {
                 double scaledHeight = image.getHeight() * scale;
 
                 ImageElement imageElement = new ImageElement(
-                        (canvas.getWidth() - scaledWidth) / 2, // Consider scaled width
-                        (canvas.getHeight() - scaledHeight) / 2, // Consider scaled height
+                        (Slide.LOGICAL_WIDTH - scaledWidth) / 2, // Consider scaled width
+                        (Slide.LOGICAL_HEIGHT - scaledHeight) / 2, // Consider scaled height
                         image);
 
                 // Ensure current slide exists
@@ -1389,7 +1490,7 @@ public class Main extends Application {
             if (!clipboardElements.isEmpty() && currentSlide != null) {
                 for (SlideElement elem : clipboardElements) {
                     SlideElement pasted = elem.deepClone();
-                    pasted.setPosition(canvas.getWidth()/2, canvas.getHeight()/2);
+                    pasted.setPosition(Slide.LOGICAL_WIDTH/2, Slide.LOGICAL_HEIGHT/2);
                     currentSlide.addElement(pasted);
                     selectedElement = pasted;
                 }
@@ -1580,6 +1681,7 @@ public class Main extends Application {
 
         // Clear current slides
         slides.clear();
+        currentFilePath = null;
         currentSlideIndex = -1;
         createNewSlide();
     }
@@ -1593,6 +1695,7 @@ public class Main extends Application {
         File file = fileChooser.showSaveDialog(canvas.getScene().getWindow());
         try {
             SlideSerializer.savePresentation(slides, file.getPath());
+            currentFilePath = file.getPath();
             showInfo("Save Successful", "Presentation saved to: " + file.getPath());
         } catch (IOException e) {
             showError("Save Failed", "Unable to save file: " + e.getMessage());
@@ -1615,8 +1718,9 @@ public class Main extends Application {
             return;
         }
         
-        // 检查是否有演讲稿文件
-        if (!SpeechManager.hasSpeechFile()) {
+        // 检查当前演示文稿是否有演讲稿文件
+        String presentationName = currentPresentationName();
+        if (!SpeechManager.hasSpeechFile(presentationName)) {
             Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
             alert.setTitle("演讲者视图");
             alert.setHeaderText("未找到演讲稿文件");
@@ -1638,7 +1742,7 @@ public class Main extends Application {
             }
         }
         
-        SpeakerViewWindow speakerView = new SpeakerViewWindow(slides);
+        speakerView = new SpeakerViewWindow(slides, presentationName);
         speakerView.start();
     }
     
@@ -1697,6 +1801,7 @@ public class Main extends Application {
             try {
                 // Use SlideSerializer to save slide list
                 SlideSerializer.savePresentation(slides, file.getPath());
+                currentFilePath = file.getPath();
                 showInfo("Save Successful", "Presentation saved to: " + file.getPath());
             } catch (IOException e) {
                 showError("Save Failed", "Unable to save file: " + e.getMessage());
@@ -1711,21 +1816,137 @@ public class Main extends Application {
                 new FileChooser.ExtensionFilter("Presentation File", "*.mdz"));
 
         File file = fileChooser.showOpenDialog(canvas.getScene().getWindow());
-        if (file != null) {
-            try {
-                // Use SlideSerializer to load slide list
-                slides = SlideSerializer.loadPresentation(file.getPath());
-                currentSlideIndex = 0;
-                currentSlide = slides.get(0);
-                refreshCanvas();
-                updateSlideControls();
-                showInfo("Open Successful", "Loaded presentation: " + file.getName());
-            } catch (IOException e) {
-                showError("Open Failed", "Unable to open file: " + e.getMessage());
-            }
+        if (file != null && loadPresentationFile(file, 0)) {
+            showInfo("Open Successful", "Loaded presentation: " + file.getName());
+        }
+    }
+
+    /**
+     * 加载演示文稿并跳转到指定页
+     *
+     * @param file       演示文稿文件
+     * @param slideIndex 要显示的幻灯片序号（从0开始）
+     * @return 是否加载成功
+     */
+    private boolean loadPresentationFile(File file, int slideIndex) {
+        try {
+            // Use SlideSerializer to load slide list
+            slides = SlideSerializer.loadPresentation(file.getPath());
+            // 上一个演示文稿的图片不再需要
+            JavaFxRenderBackend.clearImageCache();
+            currentFilePath = file.getPath();
+            currentSlideIndex = Math.max(0, Math.min(slideIndex, slides.size() - 1));
+            currentSlide = slides.get(currentSlideIndex);
+            refreshCanvas();
+            updateSlideControls();
+            return true;
+        } catch (IOException e) {
+            showError("Open Failed", "Unable to open file: " + e.getMessage());
+            return false;
         }
     }
 
+    /**
+     * 全文搜索对话框
+     * 在已保存的演示文稿和演讲稿中搜索，双击结果打开演示文稿并跳转到命中的幻灯片
+     */
+    private void showFullTextSearchDialog() {
+        Dialog<Void> dialog = new Dialog<>();
+        dialog.setTitle("全文搜索");
+        dialog.setHeaderText("搜索已保存的演示文稿和演讲稿（\"短语\"，前缀*）");
+        dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+
+        TextField queryField = new TextField();
+        queryField.setPromptText("输入搜索内容...");
+        ListView<FullTextIndex.SearchHit> resultList = new ListView<>();
+        resultList.setPrefSize(640, 360);
+        Label statusLabel = new Label("正在加载索引...");
+        queryField.setDisable(true);
+
+        VBox content = new VBox(10, queryField, resultList, statusLabel);
+        content.setPadding(new Insets(10));
+        dialog.getDialogPane().setContent(content);
+
+        // 索引加载和演讲稿目录同步在后台进行
+        Task<Integer> loadTask = new Task<>() {
+            @Override
+            protected Integer call() {
+                FullTextIndex index = FullTextIndex.getInstance();
+                index.synchronize(SpeechManager.getSpeechDirectory());
+                return index.getDocumentCount();
+            }
+        };
+        loadTask.setOnSucceeded(ev -> {
+            queryField.setDisable(false);
+            queryField.requestFocus();
+            statusLabel.setText("已索引 " + loadTask.getValue() + " 个文档");
+        });
+        loadTask.setOnFailed(ev -> statusLabel.setText("索引加载失败: " + loadTask.getException().getMessage()));
+        Thread loadThread = new Thread(loadTask, "fulltext-index-loader");
+        loadThread.setDaemon(true);
+        loadThread.start();
+
+        // 输入停顿后才在后台搜索，只显示最近一次查询的结果
+        int[] searchGeneration = {0};
+        PauseTransition searchDelay = new PauseTransition(Duration.millis(200));
+        searchDelay.setOnFinished(ev -> {
+            String query = queryField.getText();
+            int generation = ++searchGeneration[0];
+            long start = System.nanoTime();
+            Task<List<FullTextIndex.SearchHit>> searchTask = new Task<>() {
+                @Override
+                protected List<FullTextIndex.SearchHit> call() {
+                    return FullTextIndex.getInstance().search(query, 100);
+                }
+            };
+            searchTask.setOnSucceeded(done -> {
+                if (generation != searchGeneration[0]) {
+                    return;
+                }
+                List<FullTextIndex.SearchHit> hits = searchTask.getValue();
+                long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+                resultList.getItems().setAll(hits);
+                statusLabel.setText("找到 " + hits.size() + " 条结果，用时 " + elapsedMs + " ms");
+            });
+            searchTask.setOnFailed(done -> {
+                if (generation == searchGeneration[0]) {
+                    statusLabel.setText("搜索失败: " + searchTask.getException().getMessage());
+                }
+            });
+            Thread searchThread = new Thread(searchTask, "fulltext-search");
+            searchThread.setDaemon(true);
+            searchThread.start();
+        });
+        queryField.textProperty().addListener((obs, oldVal, newVal) -> searchDelay.playFromStart());
+
+        resultList.setOnMouseClicked(ev -> {
+            FullTextIndex.SearchHit hit = resultList.getSelectionModel().getSelectedItem();
+            if (ev.getClickCount() != 2 || hit == null) {
+                return;
+            }
+            File file = new File(hit.getDocumentPath());
+            if (hit.getType() == FullTextIndex.DocumentType.PRESENTATION) {
+                if (loadPresentationFile(file, hit.getSlideIndex())) {
+                    dialog.close();
+                }
+            } else {
+                String speech = SpeechManager.loadSpeechFromFile(file.getPath());
+                if (speech != null) {
+                    TextArea speechArea = new TextArea(speech);
+                    speechArea.setWrapText(true);
+                    speechArea.setEditable(false);
+                    Alert speechAlert = new Alert(Alert.AlertType.INFORMATION);
+                    speechAlert.setTitle("演讲稿");
+                    speechAlert.setHeaderText(file.getName());
+                    speechAlert.getDialogPane().setContent(speechArea);
+                    speechAlert.showAndWait();
+                }
+            }
+        });
+
+        dialog.showAndWait();
+    }
+
     private void showInfo(String title, String content) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle(title);
@@ -1793,6 +2014,98 @@ public class Main extends Application {
         }).start();
     }
 
+    /**
+     * 按页并行生成演讲稿
+     * 每页单独请求AI，生成完一页就显示在对话框和已打开的演讲者视图中
+     */
+    private void generateSpeechPerSlide() {
+        if (slides.isEmpty()) {
+            showError("生成演讲稿失败", "当前没有幻灯片内容");
+            return;
+        }
+
+        int total = slides.size();
+        String[] segments = new String[total];
+        Alert speechDialog = new Alert(Alert.AlertType.INFORMATION);
+        speechDialog.initModality(Modality.NONE);
+        speechDialog.setTitle("生成的演讲稿");
+        speechDialog.setHeaderText("正在按页生成演讲稿（0/" + total + "）...");
+
+        ButtonType closeButtonType = new ButtonType("关闭", ButtonBar.ButtonData.OK_DONE);
+        ButtonType copyButtonType = new ButtonType("复制到剪贴板", ButtonBar.ButtonData.OTHER);
+        ButtonType saveButtonType = new ButtonType("保存到文件", ButtonBar.ButtonData.OTHER);
+        speechDialog.getButtonTypes().setAll(closeButtonType, copyButtonType, saveButtonType);
+        speechDialog.getDialogPane().lookupButton(copyButtonType).setDisable(true);
+        speechDialog.getDialogPane().lookupButton(saveButtonType).setDisable(true);
+
+        TextArea speechArea = new TextArea();
+        speechArea.setPrefRowCount(15);
+        speechArea.setPrefColumnCount(60);
+        speechArea.setWrapText(true);
+        speechArea.setEditable(false);
+        speechDialog.getDialogPane().setContent(speechArea);
+
+        speechDialog.resultProperty().addListener((obs, oldResult, result) -> {
+            if (result == copyButtonType) {
+                ClipboardContent content = new ClipboardContent();
+                content.putString(speechArea.getText());
+                Clipboard.getSystemClipboard().setContent(content);
+                showInfo("复制成功", "演讲稿已复制到剪贴板");
+            } else if (result == saveButtonType) {
+                saveSpeechToFile(speechArea.getText());
+            }
+        });
+        speechDialog.show();
+
+        SpeakerViewWindow view = speakerView != null && speakerView.isShowing() ? speakerView : null;
+        if (view != null) {
+            view.beginStreamingSpeech();
+        }
+
+        new Thread(() -> {
+            boolean succeeded = false;
+            try {
+                String speech = aiAgent.generateSpeechBySlidesConcurrently(slides, AIAgent.DEFAULT_SPEECH_CONCURRENCY,
+                        (index, segment, completed, count) -> Platform.runLater(() -> {
+                            segments[index] = segment;
+                            List<String> parts = new ArrayList<>(count);
+                            for (String part : segments) {
+                                parts.add(part != null ? part : "（生成中…）");
+                            }
+                            speechArea.setText(SpeechSegments.join(parts));
+                            speechDialog.setHeaderText("正在按页生成演讲稿（" + completed + "/" + count + "）...");
+                            if (view != null) {
+                                view.updateStreamedSegment(index, segment);
+                            }
+                        }));
+
+                succeeded = true;
+                Platform.runLater(() -> {
+                    speechArea.setText(speech);
+                    speechDialog.setHeaderText("根据当前幻灯片内容按页生成的演讲稿");
+                    speechDialog.getDialogPane().lookupButton(copyButtonType).setDisable(false);
+                    speechDialog.getDialogPane().lookupButton(saveButtonType).setDisable(false);
+                });
+
+            } catch (AIAgent.AIException | IllegalArgumentException e) {
+                Platform.runLater(() -> showError("AI调用失败", "生成演讲稿时发生错误: " + e.getMessage()));
+            } catch (Exception e) {
+                Platform.runLater(() -> showError("未知错误", "生成演讲稿时发生未知错误: " + e.getMessage()));
+            } finally {
+                // 无论成功与否都结束演讲者视图的流式状态；失败时关闭停留在进度上的对话框
+                boolean done = succeeded;
+                Platform.runLater(() -> {
+                    if (!done) {
+                        speechDialog.close();
+                    }
+                    if (view != null) {
+                        view.finishStreamingSpeech();
+                    }
+                });
+            }
+        }, "speech-per-slide").start();
+    }
+
     /**
      * 显示演讲稿对话框
      * 
@@ -1837,17 +2150,22 @@ public class Main extends Application {
      * 
      * @param speech 演讲稿内容
      */
-    private void saveSpeechToFile(String speech) {
-        String presentationName = "演示文稿";
+    /**
+     * 保存演讲稿时使用的演示文稿名称：第一张幻灯片的第一段文字（最多20个字符）
+     * 演讲者视图按这个名称查找当前演示文稿的演讲稿
+     */
+    private String currentPresentationName() {
         if (!slides.isEmpty()) {
-            // 尝试从第一张幻灯片获取标题作为演示文稿名称
             List<String> textContent = slides.get(0).getTextContent();
             if (textContent != null && !textContent.isEmpty()) {
-                presentationName = textContent.get(0).substring(0, Math.min(20, textContent.get(0).length()));
+                return textContent.get(0).substring(0, Math.min(20, textContent.get(0).length()));
             }
         }
-        
-        String filePath = SpeechManager.saveSpeechToFile(speech, presentationName);
+        return "演示文稿";
+    }
+
+    private void saveSpeechToFile(String speech) {
+        String filePath = SpeechManager.saveSpeechToFile(speech, currentPresentationName(), slides.size());
         if (filePath != null) {
             showInfo("保存成功", "演讲稿已保存到文件:\n" + filePath);
         } else {
@@ -1886,21 +2204,14 @@ public class Main extends Application {
         timeTimeline.setCycleCount(javafx.animation.Timeline.INDEFINITE);
         timeTimeline.play();
 
+        String presentationName = currentPresentationName();
         // 在新线程中执行AI调用
         new Thread(() -> {
             try {
                 String speech = aiAgent.generateSpeechBySlides(slides);
                 
                 // 自动保存演讲稿
-                String presentationName = "演示文稿";
-                if (!slides.isEmpty()) {
-                    List<String> textContent = slides.get(0).getTextContent();
-                    if (textContent != null && !textContent.isEmpty()) {
-                        presentationName = textContent.get(0).substring(0, Math.min(20, textContent.get(0).length()));
-                    }
-                }
-                
-                String filePath = SpeechManager.saveSpeechToFile(speech, presentationName);
+                String filePath = SpeechManager.saveSpeechToFile(speech, presentationName, slides.size());
 
                 Platform.runLater(() -> {
                     // 停止时间更新器
@@ -2173,29 +2484,14 @@ public class Main extends Application {
                 if (selectedTemplate != null && !"no-template".equals(selectedTemplate.getId())) {
                     // 使用选择的模板
                     try {
-                        String formattedPrompt = selectedTemplate.formatContent(userPrompt);
-
+                        // 模板渲染结果和固定格式要求直接写入同一个预估好容量的缓冲区
+                        CompiledPromptTemplate compiled = CompiledPromptTemplate.forTemplate(selectedTemplate);
+                        StringBuilder prompt = new StringBuilder(compiled.renderedLength(userPrompt)
+                                + PPT_FORMAT_INSTRUCTIONS.length() + userPrompt.length());
+                        compiled.renderTo(prompt, userPrompt);
                         // 确保模板输出标准PPT格式
-                        aiPrompt = formattedPrompt +
-                                "\n\n重要要求：请根据以上模板要求处理用户输入，但必须严格按照以下标准PPT格式输出：" +
-                                "\n---PPT命令---" +
-                                "\nPage 1:" +
-                                "\nTitle: [页面标题]" +
-                                "\nSubtitle: [页面副标题]" +
-                                "\nBullet: [项目符号内容]" +
-                                "\nText: [小标题下具体自然段文本,PPT的正文内容]" +
-                                "\nDraw: [绘图描述]" +
-                                "\nPage 2:" +
-                                "\nTitle: [页面标题]" +
-                                "\nSubtitle: [页面副标题]" +
-                                "\nBullet: [项目符号内容]" +
-                                "\nText: [小标题下具体自然段文本，PPT的正文内容]" +
-                                "\nDraw: [绘图描述]" +
-                                "\n（继续更多页面...）" +
-                                "\n\n1.请确保使用'---PPT命令---'分隔符，并严格按照Page X:格式分页。" +
-                                "\n2.对Text下大的段落酌情设置标准长度进行分行。当用户提出的要求中标注了具体生成语言时(如英语)，请使用英语输出。否则默认为中文。" +
-                                "\n3.Text为自然段，请在内容尽量丰富的情况下，酌情设置标准长度进行分行。内容可以不局限于一句，但请注意不要出现过大段落。" +
-                                "\n用户输入：" + userPrompt;
+                        prompt.append(PPT_FORMAT_INSTRUCTIONS).append(userPrompt);
+                        aiPrompt = prompt.toString();
 
                         // 记录模板使用次数
                         aiAgent.getTemplateManager().useTemplate(selectedTemplate.getId());
@@ -2428,7 +2724,7 @@ public class Main extends Application {
             Optional<String> result = dialog.showAndWait();
             if (result.isPresent() && !result.get().trim().isEmpty()) {
                 String fileName = result.get().trim();
-                String filePath = slideshow.util.SpeechManager.saveSpeechToFile(speech, fileName);
+                String filePath = slideshow.util.SpeechManager.saveSpeechToFile(speech, fileName, slides.size());
                 if (filePath != null) {
                     showInfo("保存成功", "演讲稿已保存到文件:\n" + filePath);
                 } else {
@@ -2470,7 +2766,8 @@ public class Main extends Application {
         System.out.println("Main: 输入内容长度: " + aiResult.length());
 
         // 使用SlideParser解析AI生成的PPT命令
-        slides = SlideParser.parseAndCreateSlides(aiResult, canvas.getWidth());
+        slides = SlideParser.parseAndCreateSlides(aiResult, Slide.LOGICAL_WIDTH);
+        currentFilePath = null;
 
         System.out.println("Main: 解析完成，创建了 " + slides.size() + " 个幻灯片");
 
@@ -2996,7 +3293,7 @@ public class Main extends Application {
             AIEnhancedAgent enhancedAgent = new AIEnhancedAgent(aiModel);
             
             // 应用智能布局优化
-            enhancedAgent.optimizeSlideLayout(currentSlide, canvas.getWidth(), canvas.getHeight(), 
+            enhancedAgent.optimizeSlideLayout(currentSlide, Slide.LOGICAL_WIDTH, Slide.LOGICAL_HEIGHT, 
                                            IntelligentLayoutEngine.LayoutType.CENTERED);
             
             refreshCanvas();
@@ -3024,11 +3321,14 @@ public class Main extends Application {
             double newWidth = canvas.getWidth();
             double newHeight = canvas.getHeight();
             
-            // 应用响应式调整
-            enhancedAgent.responsiveAdjustLayout(currentSlide, newWidth, newHeight);
-            
-            refreshCanvas();
-            showInfo("响应式调整", "幻灯片已根据当前尺寸调整");
+            // 元素的逻辑坐标保持不变；编辑画布每次绘制都在adjustCanvasSize中按当前尺寸重新计算变换，
+            // 这里只计算并报告当前的显示比例，不需要也不能覆盖editorTransform
+            SlideTransform transform = enhancedAgent.responsiveAdjustLayout(currentSlide, newWidth, newHeight);
+            if (transform == null) {
+                showError("调整失败", "无法计算当前尺寸下的显示比例");
+                return;
+            }
+            showInfo("响应式调整", String.format("编辑画布随窗口自动等比适配，当前显示比例为 %.0f%%", transform.getScale() * 100));
             
         } catch (Exception e) {
             showError("调整失败", "响应式调整时发生错误: " + e.getMessage());
@@ -3156,7 +3456,7 @@ public class Main extends Application {
                 progressAlert.close();
                 try {
                     AIEnhancedAgent enhancedAgent = new AIEnhancedAgent(aiModel);
-                    enhancedAgent.optimizeSlideLayout(currentSlide, canvas.getWidth(), canvas.getHeight(),
+                    enhancedAgent.optimizeSlideLayout(currentSlide, Slide.LOGICAL_WIDTH, Slide.LOGICAL_HEIGHT,
                             IntelligentLayoutEngine.LayoutType.CENTERED);
                 } catch (Exception ex) {
                     logger.warning("翻译后自动优化布局失败: " + ex.getMessage());
@@ -3271,7 +3571,7 @@ public class Main extends Application {
                 try {
                     AIEnhancedAgent enhancedAgent = new AIEnhancedAgent(aiModel);
                     for (Slide slide : slides) {
-                        enhancedAgent.optimizeSlideLayout(slide, canvas.getWidth(), canvas.getHeight(),
+                        enhancedAgent.optimizeSlideLayout(slide, Slide.LOGICAL_WIDTH, Slide.LOGICAL_HEIGHT,
                                 IntelligentLayoutEngine.LayoutType.CENTERED);
                     }
                 } catch (Exception ex) {
@@ -3597,7 +3897,7 @@ public class Main extends Application {
             // 翻译后自动优化布局
             try {
                 AIEnhancedAgent enhancedAgent = new AIEnhancedAgent(aiModel);
-                enhancedAgent.optimizeSlideLayout(currentSlide, canvas.getWidth(), canvas.getHeight(),
+                enhancedAgent.optimizeSlideLayout(currentSlide, Slide.LOGICAL_WIDTH, Slide.LOGICAL_HEIGHT,
                     IntelligentLayoutEngine.LayoutType.CENTERED);
             } catch (Exception ex) {
                 logger.warning("翻译后自动优化布局失败: " + ex.getMessage());
@@ -3672,7 +3972,7 @@ public class Main extends Application {
             try {
                 AIEnhancedAgent enhancedAgent = new AIEnhancedAgent(aiModel);
                 for (Slide slide : slides) {
-                    enhancedAgent.optimizeSlideLayout(slide, canvas.getWidth(), canvas.getHeight(),
+                    enhancedAgent.optimizeSlideLayout(slide, Slide.LOGICAL_WIDTH, Slide.LOGICAL_HEIGHT,
                         IntelligentLayoutEngine.LayoutType.CENTERED);
                 }
             } catch (Exception ex) {
@@ -3869,8 +4169,8 @@ public class Main extends Application {
                 for (Slide slide : slides) {
                     IntelligentLayoutEngine.optimizeLayout(
                         slide,
-                        canvas.getWidth(),
-                        canvas.getHeight(),
+                        Slide.LOGICAL_WIDTH,
+                        Slide.LOGICAL_HEIGHT,
                             IntelligentLayoutEngine.LayoutType.CENTERED);
                 }
                 refreshCanvas();
@@ -3911,7 +4211,7 @@ public class Main extends Application {
         // 在新线程中执行分析
         new Thread(() -> {
             try {
-                StructureAnalysis analysis = SlideStructureAnalyzer.analyzeStructure(slides);
+                StructureAnalysis analysis = SlideStructureAnalyzer.analyzeStructure(slides, currentFilePath);
                 
                 Platform.runLater(() -> {
                     progressAlert.close();
@@ -3979,7 +4279,7 @@ public class Main extends Application {
         new Thread(() -> {
             try {
                 String outline = SlideStructureAnalyzer.generateAnalysisReport(
-                        SlideStructureAnalyzer.analyzeStructure(slides));
+                        SlideStructureAnalyzer.analyzeStructure(slides, currentFilePath));
                 
                 Platform.runLater(() -> {
                     progressAlert.close();
@@ -4042,7 +4342,7 @@ public class Main extends Application {
         // 在新线程中执行分析
         new Thread(() -> {
             try {
-                StructureAnalysis analysis = SlideStructureAnalyzer.analyzeStructure(slides);
+                StructureAnalysis analysis = SlideStructureAnalyzer.analyzeStructure(slides, currentFilePath);
                 StringBuilder keyPointsText = new StringBuilder();
                 keyPointsText.append("=== 重点内容分析 ===\n\n");
                 
@@ -4052,11 +4352,9 @@ public class Main extends Application {
                 }
                 
                 keyPointsText.append("\n【关键词统计】\n");
-                analysis.getKeywordFrequency().entrySet().stream()
-                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-                    .limit(8)
-                        .forEach(entry -> keyPointsText.append(entry.getKey()).append(": ").append(entry.getValue())
-                                .append("次\n"));
+                analysis.getTopKeywords(8)
+                        .forEach(keyword -> keyPointsText.append(keyword).append(": ")
+                                .append(analysis.getKeywordFrequency().get(keyword)).append("次\n"));
                 
                 Platform.runLater(() -> {
                     progressAlert.close();
@@ -4119,12 +4417,12 @@ public class Main extends Application {
         // 在新线程中执行生成
         new Thread(() -> {
             try {
-                StructureAnalysis analysis = SlideStructureAnalyzer.analyzeStructure(slides);
-                String graphData = SlideStructureAnalyzer.generateLogicGraphData(analysis);
+                // 只重新分析内容有变化的幻灯片
+                LogicGraph graph = liveLogicGraph.update(slides, currentFilePath).getGraph();
                 
                 Platform.runLater(() -> {
                     progressAlert.close();
-                    showLogicGraphResult(graphData);
+                    showLogicGraphResult(graph);
                 });
 
             } catch (Exception e) {
@@ -4139,7 +4437,7 @@ public class Main extends Application {
     /**
      * 显示逻辑关系图结果
      */
-    private void showLogicGraphResult(String graphData) {
+    private void showLogicGraphResult(LogicGraph graph) {
         // 创建选项对话框
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
         alert.setTitle("逻辑关系图");
@@ -4157,10 +4455,10 @@ public class Main extends Application {
         if (result.isPresent()) {
             if (result.get() == showVisualButton) {
                 // 显示可视化图形
-                showVisualLogicGraph(graphData);
+                showVisualLogicGraph(graph);
             } else if (result.get() == showDataButton) {
                 // 显示原始数据
-                showLogicGraphData(graphData);
+                showLogicGraphData(graph);
             }
         }
     }
@@ -4168,21 +4466,21 @@ public class Main extends Application {
     /**
      * 显示可视化逻辑关系图
      */
-    private void showVisualLogicGraph(String graphData) {
+    private void showVisualLogicGraph(LogicGraph graph) {
         try {
-            // 创建新窗口显示可视化图形
-            LogicGraphRenderer.showLogicGraph(graphData);
+            // 创建新窗口显示可视化图形，之后随编辑同步
+            LogicGraphRenderer.showLiveLogicGraph(liveLogicGraph);
         } catch (Exception e) {
             showError("可视化失败", "无法显示可视化图形: " + e.getMessage());
             // 如果可视化失败，回退到显示数据
-            showLogicGraphData(graphData);
+            showLogicGraphData(graph);
         }
     }
     
     /**
-     * 显示逻辑关系图数据
+     * 显示逻辑关系图数据，只有查看数据时才编码为JSON
      */
-    private void showLogicGraphData(String graphData) {
+    private void showLogicGraphData(LogicGraph graph) {
         Dialog<Void> dialog = new Dialog<>();
         dialog.setTitle("逻辑关系图数据");
         dialog.setHeaderText("生成完成");
@@ -4197,7 +4495,7 @@ public class Main extends Application {
         Label infoLabel = new Label("逻辑关系图数据已生成，可用于可视化展示");
         infoLabel.setStyle("-fx-font-weight: bold;");
         
-        TextArea graphArea = new TextArea(graphData);
+        TextArea graphArea = new TextArea(LogicGraphCodec.toJson(graph));
         graphArea.setPrefRowCount(15);
         graphArea.setEditable(false);
         graphArea.setPromptText("逻辑关系图数据...");
@@ -4210,7 +4508,7 @@ public class Main extends Application {
         // 添加可视化按钮事件
         dialog.setResultConverter(dialogButton -> {
             if (dialogButton == visualizeButton) {
-                showVisualLogicGraph(graphData);
+                showVisualLogicGraph(graph);
             }
             return null;
         });
@@ -4238,7 +4536,7 @@ public class Main extends Application {
         // 在新线程中执行生成
         new Thread(() -> {
             try {
-                StructureAnalysis analysis = SlideStructureAnalyzer.analyzeStructure(slides);
+                StructureAnalysis analysis = SlideStructureAnalyzer.analyzeStructure(slides, currentFilePath);
                 String completeReport = SlideStructureAnalyzer.generateAnalysisReport(analysis);
                 
                 Platform.runLater(() -> {
@@ -4324,7 +4622,7 @@ public class Main extends Application {
         // 处理双击事件
         if (event.getClickCount() == 2) {
             if (currentSlide != null) {
-                SlideElement clickedElement = currentSlide.findElementAt(event.getX(), event.getY());
+                SlideElement clickedElement = currentSlide.findElementAt(slideX(event), slideY(event));
                 if (clickedElement instanceof TextElement) {
                     // 双击文本元素，进入编辑模式
                     selectedElement = clickedElement;
@@ -4451,8 +4749,8 @@ public class Main extends Application {
             pushUndoSnapshot();
             SlideElement pasted = clipboardElement.deepClone();
             // 粘贴到画布中央
-            double centerX = canvas.getWidth() / 2;
-            double centerY = canvas.getHeight() / 2;
+            double centerX = Slide.LOGICAL_WIDTH / 2;
+            double centerY = Slide.LOGICAL_HEIGHT / 2;
             pasted.setPosition(centerX, centerY);
             currentSlide.addElement(pasted);
             selectedElement = pasted;
@@ -0,0 +1,104 @@
+package slideshow;
+
+import javafx.scene.paint.Color;
+import slideshow.elements.DrawElement;
+import slideshow.model.Slide;
+import slideshow.model.SlideTransform;
+import slideshow.util.SlideSerializer;
+import slideshow.util.export.Java2DSlideRenderer;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 幻灯片尺寸适配测试类
+ * 旧版本保存的幻灯片尺寸为800x600，而元素坐标位于1600x1000的逻辑坐标空间。
+ * 验证读取时尺寸被统一为逻辑尺寸，且导出等视图按逻辑尺寸适配，右下角的元素不会被裁掉
+ */
+public class SlideSizeTest {
+
+    private static final int IMAGE_WIDTH = 800;
+    private static final int IMAGE_HEIGHT = 500;
+    private static final int WHITE = 0xFFFFFF;
+
+    private static int failures = 0;
+
+    public static void main(String[] args) throws IOException {
+        System.out.println("=== 幻灯片尺寸适配测试开始 ===");
+
+        Path dir = Files.createTempDirectory("slide-size-test");
+        try {
+            Path file = dir.resolve("old_deck.mdz");
+            SlideSerializer.writePresentation(List.of(oldSlide()), file.toString());
+
+            System.out.println("\n--- 读取800x600的旧文件 ---");
+            List<Slide> slides = SlideSerializer.loadPresentation(file.toString());
+            check("读取到一页", slides != null && slides.size() == 1);
+            if (slides == null || slides.isEmpty()) {
+                return;
+            }
+            Slide loaded = slides.get(0);
+            check("宽度统一为逻辑宽度", loaded.getWidth() == Slide.LOGICAL_WIDTH);
+            check("高度统一为逻辑高度", loaded.getHeight() == Slide.LOGICAL_HEIGHT);
+            checkCornerVisible(loaded);
+
+            System.out.println("\n--- 未经读取的旧尺寸幻灯片 ---");
+            checkCornerVisible(oldSlide());
+
+            System.out.println("\n--- 适配变换 ---");
+            SlideTransform transform = SlideTransform.fit(IMAGE_WIDTH, IMAGE_HEIGHT);
+            check("逻辑坐标右下角映射到目标右下角",
+                    transform.toViewX(Slide.LOGICAL_WIDTH) == IMAGE_WIDTH
+                            && transform.toViewY(Slide.LOGICAL_HEIGHT) == IMAGE_HEIGHT);
+        } finally {
+            deleteRecursively(dir);
+        }
+
+        System.out.println("\n=== 幻灯片尺寸适配测试完成，失败 " + failures + " 项 ===");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 保存尺寸为800x600、右下角有一个矩形的幻灯片
+     */
+    private static Slide oldSlide() {
+        Slide slide = new Slide();
+        slide.setWidth(800);
+        slide.setHeight(600);
+        DrawElement rectangle = new DrawElement(1400, 800, DrawElement.ShapeType.RECTANGLE, Color.RED, 20);
+        rectangle.updateEndPoint(1580, 980);
+        slide.addElement(rectangle);
+        return slide;
+    }
+
+    /**
+     * 按逻辑尺寸缩放到800x500后，矩形左边框位于横坐标700附近
+     */
+    private static void checkCornerVisible(Slide slide) {
+        BufferedImage image = Java2DSlideRenderer.render(slide, IMAGE_WIDTH, IMAGE_HEIGHT);
+        int edge = image.getRGB(700, 445) & WHITE;
+        check("右下角的矩形按逻辑尺寸绘制在画面内", edge != WHITE);
+        int outside = image.getRGB(400, 250) & WHITE;
+        check("画面中部没有被放大的内容", outside == WHITE);
+    }
+
+    private static void check(String name, boolean passed) {
+        System.out.println((passed ? "通过: " : "失败: ") + name);
+        if (!passed) {
+            failures++;
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package slideshow;
+
+import slideshow.util.SpeechSegments;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 演讲稿分段文件测试类
+ * 验证.seg文件的读写，以及截断、段数或偏移表损坏时open返回null而不是抛出异常或读到错误内容
+ */
+public class SpeechSegmentsTest {
+
+    private static final List<String> SEGMENTS = List.of("一", "二二", "三");
+    /** 头部：魔数和段数 */
+    private static final int HEADER_SIZE = 8;
+
+    private static int failures = 0;
+
+    public static void main(String[] args) throws IOException {
+        System.out.println("=== 演讲稿分段文件测试开始 ===");
+
+        Path dir = Files.createTempDirectory("speech-segments-test");
+        try {
+            Path file = dir.resolve("test_speech.seg");
+            SpeechSegments.write(file, SEGMENTS);
+            byte[] valid = Files.readAllBytes(file);
+
+            testRoundTrip(file);
+            testCorrupt(file, "文件不存在", null);
+            testCorrupt(file, "空文件", new byte[0]);
+            testCorrupt(file, "截断的数据区", Arrays.copyOf(valid, valid.length - 2));
+            testCorrupt(file, "截断的偏移表", Arrays.copyOf(valid, HEADER_SIZE + Long.BYTES));
+
+            byte[] badMagic = valid.clone();
+            ByteBuffer.wrap(badMagic).putInt(0, 0x12345678);
+            testCorrupt(file, "魔数错误", badMagic);
+
+            byte[] hugeCount = valid.clone();
+            ByteBuffer.wrap(hugeCount).putInt(4, Integer.MAX_VALUE / 4);
+            testCorrupt(file, "段数过大", hugeCount);
+
+            byte[] negativeCount = valid.clone();
+            ByteBuffer.wrap(negativeCount).putInt(4, -3);
+            testCorrupt(file, "段数为负", negativeCount);
+
+            byte[] beyondData = valid.clone();
+            ByteBuffer.wrap(beyondData).putLong(HEADER_SIZE + SEGMENTS.size() * Long.BYTES, 1L << 40);
+            testCorrupt(file, "偏移量超出数据区", beyondData);
+
+            byte[] decreasing = valid.clone();
+            ByteBuffer.wrap(decreasing).putLong(HEADER_SIZE + Long.BYTES, 10);
+            testCorrupt(file, "偏移量递减", decreasing);
+        } finally {
+            deleteRecursively(dir);
+        }
+
+        System.out.println("\n=== 演讲稿分段文件测试完成，失败 " + failures + " 项 ===");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void testRoundTrip(Path file) {
+        System.out.println("\n--- 写入后读取 ---");
+        SpeechSegments segments = SpeechSegments.open(file);
+        check("能够打开", segments != null);
+        if (segments == null) {
+            return;
+        }
+        check("段数一致", segments.getCount() == SEGMENTS.size());
+        for (int i = 0; i < SEGMENTS.size(); i++) {
+            check("第" + (i + 1) + "段内容一致", SEGMENTS.get(i).equals(segments.getSegment(i)));
+        }
+    }
+
+    /**
+     * 用给定内容覆盖分段文件后打开，应当返回null
+     *
+     * @param content 文件内容，为null时删除文件
+     */
+    private static void testCorrupt(Path file, String name, byte[] content) throws IOException {
+        System.out.println("\n--- " + name + " ---");
+        if (content == null) {
+            Files.deleteIfExists(file);
+        } else {
+            Files.write(file, content);
+        }
+        SpeechSegments segments;
+        try {
+            segments = SpeechSegments.open(file);
+        } catch (RuntimeException e) {
+            check("open不抛出异常（实际抛出 " + e + "）", false);
+            return;
+        }
+        check("open返回null", segments == null);
+    }
+
+    private static void check(String name, boolean passed) {
+        System.out.println((passed ? "通过: " : "失败: ") + name);
+        if (!passed) {
+            failures++;
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
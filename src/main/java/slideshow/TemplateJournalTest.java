@@ -0,0 +1,127 @@
+package slideshow;
+
+import slideshow.model.PromptTemplate;
+import slideshow.model.TemplateCategory;
+import slideshow.util.IndexedTemplateStorage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 模板日志重放测试类
+ * 在临时目录中构造日志，验证末尾半行被忽略、中间损坏时停止重放并隔离日志
+ */
+public class TemplateJournalTest {
+
+    private static int failures = 0;
+
+    public static void main(String[] args) throws IOException {
+        System.out.println("=== 模板日志重放测试开始 ===");
+
+        Path dir = Files.createTempDirectory("template-journal-test");
+        try {
+            testTornLastLine(dir.resolve("torn"));
+            testCorruptMiddleLine(dir.resolve("corrupt"));
+        } finally {
+            deleteRecursively(dir);
+        }
+
+        System.out.println("=== 模板日志重放测试完成，失败 " + failures + " 项 ===");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 最后一行只写了一半：之前的记录全部生效，半行被丢弃且日志被压缩掉
+     */
+    private static void testTornLastLine(Path dir) throws IOException {
+        System.out.println("\n--- 最后一行不完整 ---");
+        Path file = dir.resolve("templates.json");
+        List<String> ids = writeJournal(file, 3);
+        Path journal = journalOf(file);
+        Files.writeString(journal, "{\"op\":\"PUT\",\"template\":{\"id\":\"半",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        IndexedTemplateStorage reloaded = new IndexedTemplateStorage(file.toString());
+        for (String id : ids) {
+            check("模板 " + id + " 已恢复", reloaded.templateExists(id));
+        }
+        check("日志已压缩进快照", !Files.exists(journal));
+        check("没有产生隔离文件", quarantinedFiles(dir).isEmpty());
+    }
+
+    /**
+     * 中间一行损坏：只重放损坏之前的记录，日志被改名保留
+     */
+    private static void testCorruptMiddleLine(Path dir) throws IOException {
+        System.out.println("\n--- 中间一行损坏 ---");
+        Path file = dir.resolve("templates.json");
+        List<String> ids = writeJournal(file, 3);
+        Path journal = journalOf(file);
+        List<String> lines = Files.readAllLines(journal, StandardCharsets.UTF_8);
+        lines.set(1, "not json");
+        Files.write(journal, lines, StandardCharsets.UTF_8);
+
+        IndexedTemplateStorage reloaded = new IndexedTemplateStorage(file.toString());
+        check("损坏之前的模板已恢复", reloaded.templateExists(ids.get(0)));
+        check("损坏之后的记录没有被重放", !reloaded.templateExists(ids.get(2)));
+        check("原日志已移走", !Files.exists(journal));
+        List<Path> quarantined = quarantinedFiles(dir);
+        check("损坏的日志已隔离", quarantined.size() == 1);
+        if (quarantined.size() == 1) {
+            check("隔离文件保留了全部记录",
+                    Files.readAllLines(quarantined.get(0), StandardCharsets.UTF_8).size() == lines.size());
+        }
+    }
+
+    /**
+     * 先生成快照，再追加若干条写入记录，返回写入的模板ID
+     */
+    private static List<String> writeJournal(Path file, int count) throws IOException {
+        Files.createDirectories(file.getParent());
+        IndexedTemplateStorage storage = new IndexedTemplateStorage(file.toString());
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            PromptTemplate template = new PromptTemplate("日志测试模板" + i, "测试用", "内容" + i,
+                    TemplateCategory.values()[0]);
+            storage.saveTemplate(template);
+            ids.add(template.getId());
+        }
+        int lines = Files.readAllLines(journalOf(file), StandardCharsets.UTF_8).size();
+        System.out.println("已写入日志记录: " + lines);
+        return ids;
+    }
+
+    private static Path journalOf(Path file) {
+        return file.resolveSibling(file.getFileName() + ".journal");
+    }
+
+    private static List<Path> quarantinedFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().contains(".journal.corrupt-"))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static void check(String name, boolean passed) {
+        System.out.println((passed ? "通过: " : "失败: ") + name);
+        if (!passed) {
+            failures++;
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
@@ -1,12 +1,12 @@
 package slideshow.elements;
 
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 import javafx.geometry.Point2D;
 import java.util.ArrayList;
 import java.util.List;
 import javafx.geometry.Bounds;
 import javafx.geometry.BoundingBox;
+import slideshow.render.RenderBackend;
 
 public class DrawElement extends SlideElement {
     public enum ShapeType {
@@ -33,58 +33,58 @@ public class DrawElement extends SlideElement {
     }
 
     @Override
-    public void draw(GraphicsContext gc) {
-        gc.save();
-        gc.setStroke(strokeColor);
-        gc.setLineWidth(strokeWidth);
+    public void render(RenderBackend backend) {
+        backend.save();
+        backend.setStroke(strokeColor);
+        backend.setLineWidth(strokeWidth);
 
         switch (shapeType) {
             case RECTANGLE:
-                drawRectangle(gc);
+                drawRectangle(backend);
                 break;
             case CIRCLE:
-                drawCircle(gc);
+                drawCircle(backend);
                 break;
             case LINE:
-                drawLine(gc);
+                drawLine(backend);
                 break;
             case ARROW:
-                drawArrow(gc);
+                drawArrow(backend);
                 break;
         }
 
         if (selected) {
-            drawSelectionHandles(gc);
+            drawSelectionHandles(backend);
         }
 
-        gc.restore();
+        backend.restore();
     }
 
-    private void drawRectangle(GraphicsContext gc) {
+    private void drawRectangle(RenderBackend backend) {
         double x = Math.min(startX, endX);
         double y = Math.min(startY, endY);
         double width = Math.abs(endX - startX);
         double height = Math.abs(endY - startY);
-        gc.strokeRect(x, y, width, height);
+        backend.strokeRect(x, y, width, height);
     }
 
-    private void drawCircle(GraphicsContext gc) {
+    private void drawCircle(RenderBackend backend) {
         double centerX = (startX + endX) / 2;
         double centerY = (startY + endY) / 2;
         double radius = Math.sqrt(Math.pow(endX - startX, 2) + Math.pow(endY - startY, 2)) / 2;
-        gc.strokeOval(centerX - radius, centerY - radius, radius * 2, radius * 2);
+        backend.strokeOval(centerX - radius, centerY - radius, radius * 2, radius * 2);
     }
 
-    private void drawLine(GraphicsContext gc) {
-        gc.strokeLine(startX, startY, endX, endY);
+    private void drawLine(RenderBackend backend) {
+        backend.strokeLine(startX, startY, endX, endY);
     }
 
-    private void drawArrow(GraphicsContext gc) {
+    private void drawArrow(RenderBackend backend) {
         double arrowLength = 20;
         double arrowWidth = 8;
 
         // 绘制主线
-        gc.strokeLine(startX, startY, endX, endY);
+        backend.strokeLine(startX, startY, endX, endY);
 
         // 计算箭头
         double angle = Math.atan2(endY - startY, endX - startX);
@@ -94,11 +94,12 @@ public class DrawElement extends SlideElement {
         double y2 = endY - arrowLength * Math.sin(angle + Math.PI/6);
 
         // 绘制箭头
-        gc.strokeLine(endX, endY, x1, y1);
-        gc.strokeLine(endX, endY, x2, y2);
+        backend.strokeLine(endX, endY, x1, y1);
+        backend.strokeLine(endX, endY, x2, y2);
     }
 
     public void updateEndPoint(double x, double y) {
+        changed();
         this.endX = x;
         this.endY = y;
     }
@@ -116,6 +117,7 @@ public class DrawElement extends SlideElement {
 
     @Override
     public void setPosition(double x, double y) {
+        changed();
         double deltaX = x - this.x;
         double deltaY = y - this.y;
         this.x = x;
@@ -151,6 +153,7 @@ public class DrawElement extends SlideElement {
 
     @Override
     public void resize(double deltaX, double deltaY, ResizeHandle handle) {
+        changed();
         switch (handle) {
             case NW:
                 startX += deltaX;
@@ -185,27 +188,27 @@ public class DrawElement extends SlideElement {
         }
     }
 
-    private void drawSelectionHandles(GraphicsContext gc) {
-        gc.setFill(Color.WHITE);
-        gc.setStroke(Color.BLUE);
+    private void drawSelectionHandles(RenderBackend backend) {
+        backend.setFill(Color.WHITE);
+        backend.setStroke(Color.BLUE);
 
         // 绘制四角的控制点
-        drawHandle(gc, startX - HANDLE_OFFSET, startY - HANDLE_OFFSET);           // NW
-        drawHandle(gc, endX - HANDLE_OFFSET, startY - HANDLE_OFFSET);            // NE
-        drawHandle(gc, startX - HANDLE_OFFSET, endY - HANDLE_OFFSET);            // SW
-        drawHandle(gc, endX - HANDLE_OFFSET, endY - HANDLE_OFFSET);              // SE
+        drawHandle(backend, startX - HANDLE_OFFSET, startY - HANDLE_OFFSET);           // NW
+        drawHandle(backend, endX - HANDLE_OFFSET, startY - HANDLE_OFFSET);            // NE
+        drawHandle(backend, startX - HANDLE_OFFSET, endY - HANDLE_OFFSET);            // SW
+        drawHandle(backend, endX - HANDLE_OFFSET, endY - HANDLE_OFFSET);              // SE
 
         // 绘制边缘中点的控制点
-        drawHandle(gc, (startX + endX)/2 - HANDLE_OFFSET, startY - HANDLE_OFFSET); // N
-        drawHandle(gc, (startX + endX)/2 - HANDLE_OFFSET, endY - HANDLE_OFFSET);   // S
-        drawHandle(gc, startX - HANDLE_OFFSET, (startY + endY)/2 - HANDLE_OFFSET); // W
-        drawHandle(gc, endX - HANDLE_OFFSET, (startY + endY)/2 - HANDLE_OFFSET);   // E
+        drawHandle(backend, (startX + endX)/2 - HANDLE_OFFSET, startY - HANDLE_OFFSET); // N
+        drawHandle(backend, (startX + endX)/2 - HANDLE_OFFSET, endY - HANDLE_OFFSET);   // S
+        drawHandle(backend, startX - HANDLE_OFFSET, (startY + endY)/2 - HANDLE_OFFSET); // W
+        drawHandle(backend, endX - HANDLE_OFFSET, (startY + endY)/2 - HANDLE_OFFSET);   // E
     }
 
-    private void drawHandle(GraphicsContext gc, double x, double y) {
-        gc.setFill(Color.WHITE);
-        gc.fillRect(x, y, HANDLE_SIZE, HANDLE_SIZE);
-        gc.strokeRect(x, y, HANDLE_SIZE, HANDLE_SIZE);
+    private void drawHandle(RenderBackend backend, double x, double y) {
+        backend.setFill(Color.WHITE);
+        backend.fillRect(x, y, HANDLE_SIZE, HANDLE_SIZE);
+        backend.strokeRect(x, y, HANDLE_SIZE, HANDLE_SIZE);
     }
 
     public ShapeType getShapeType() {
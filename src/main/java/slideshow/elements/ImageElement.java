@@ -1,17 +1,23 @@
 package slideshow.elements;
 
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
 import javafx.scene.paint.Color;
 import javafx.geometry.Bounds;
 import javafx.geometry.BoundingBox;
+import slideshow.render.JavaFxRenderBackend;
+import slideshow.render.RenderBackend;
+
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ImageElement extends SlideElement {
-    private transient Image image;      // 不参与序列化
+    private transient Image image;      // 不参与序列化；内存图片只由元素持有
     private String imageUrl;            // 参与序列化
+    private transient String imageKey;  // 绘制后端查找图片的键，剪贴板等内存图片没有URL时使用生成的键
     private double width;
     private double height;
 
+    private static final AtomicLong MEMORY_IMAGE_IDS = new AtomicLong();
+
     private static final double HANDLE_SIZE = 8;
     private static final double HANDLE_OFFSET = HANDLE_SIZE / 2;
 
@@ -19,6 +25,8 @@ public class ImageElement extends SlideElement {
         super(x, y);
         this.image = image;
         this.imageUrl = image.getUrl();
+        this.imageKey = imageUrl != null ? imageUrl : JavaFxRenderBackend.MEMORY_IMAGE_PREFIX + MEMORY_IMAGE_IDS.incrementAndGet();
+        JavaFxRenderBackend.cacheImage(imageKey, image);
 
         // 获取原始尺寸
         double originalWidth = image.getWidth();
@@ -41,18 +49,18 @@ public class ImageElement extends SlideElement {
         this.height = originalHeight * scale;
     }
 
-    // 用于反序列化构建
+    // 用于反序列化构建，图片在首次使用时加载，无界面导出时不会创建JavaFX图片
     public ImageElement(double x, double y, String imageUrl, double width, double height) {
         super(x, y);
         this.imageUrl = imageUrl;
+        this.imageKey = imageUrl;
         this.width = width;
         this.height = height;
-        this.image = new Image(imageUrl);
     }
 
     public Image getImage() {
         if (image == null && imageUrl != null) {
-            image = new Image(imageUrl);
+            image = JavaFxRenderBackend.image(imageUrl);
         }
         return image;
     }
@@ -70,44 +78,44 @@ public class ImageElement extends SlideElement {
     }
 
     @Override
-    public void draw(GraphicsContext gc) {
-        gc.save();
+    public void render(RenderBackend backend) {
+        backend.save();
 
         // 绘制图片
-        gc.drawImage(getImage(), x, y, width, height);
+        backend.drawImage(imageKey, x, y, width, height);
 
         // 如果被选中，绘制边框和控制点
         if (selected) {
-            gc.setStroke(Color.BLUE);
-            gc.setLineDashes(5);
-            gc.strokeRect(x - 2, y - 2, width + 4, height + 4);
-            gc.setLineDashes(null);
-            drawResizeHandles(gc);
+            backend.setStroke(Color.BLUE);
+            backend.setLineDash(5);
+            backend.strokeRect(x - 2, y - 2, width + 4, height + 4);
+            backend.setLineDash(0);
+            drawResizeHandles(backend);
         }
 
-        gc.restore();
+        backend.restore();
     }
 
-    private void drawResizeHandles(GraphicsContext gc) {
-        gc.setFill(Color.WHITE);
-        gc.setStroke(Color.BLUE);
+    private void drawResizeHandles(RenderBackend backend) {
+        backend.setFill(Color.WHITE);
+        backend.setStroke(Color.BLUE);
 
         // 四角控制点
-        drawHandle(gc, x - HANDLE_OFFSET, y - HANDLE_OFFSET);                 // NW
-        drawHandle(gc, x + width - HANDLE_OFFSET, y - HANDLE_OFFSET);         // NE
-        drawHandle(gc, x - HANDLE_OFFSET, y + height - HANDLE_OFFSET);        // SW
-        drawHandle(gc, x + width - HANDLE_OFFSET, y + height - HANDLE_OFFSET);// SE
+        drawHandle(backend, x - HANDLE_OFFSET, y - HANDLE_OFFSET);                 // NW
+        drawHandle(backend, x + width - HANDLE_OFFSET, y - HANDLE_OFFSET);         // NE
+        drawHandle(backend, x - HANDLE_OFFSET, y + height - HANDLE_OFFSET);        // SW
+        drawHandle(backend, x + width - HANDLE_OFFSET, y + height - HANDLE_OFFSET);// SE
 
         // 中点控制点
-        drawHandle(gc, x + width / 2 - HANDLE_OFFSET, y - HANDLE_OFFSET);             // N
-        drawHandle(gc, x + width / 2 - HANDLE_OFFSET, y + height - HANDLE_OFFSET);    // S
-        drawHandle(gc, x - HANDLE_OFFSET, y + height / 2 - HANDLE_OFFSET);            // W
-        drawHandle(gc, x + width - HANDLE_OFFSET, y + height / 2 - HANDLE_OFFSET);    // E
+        drawHandle(backend, x + width / 2 - HANDLE_OFFSET, y - HANDLE_OFFSET);             // N
+        drawHandle(backend, x + width / 2 - HANDLE_OFFSET, y + height - HANDLE_OFFSET);    // S
+        drawHandle(backend, x - HANDLE_OFFSET, y + height / 2 - HANDLE_OFFSET);            // W
+        drawHandle(backend, x + width - HANDLE_OFFSET, y + height / 2 - HANDLE_OFFSET);    // E
     }
 
-    private void drawHandle(GraphicsContext gc, double x, double y) {
-        gc.fillRect(x, y, HANDLE_SIZE, HANDLE_SIZE);
-        gc.strokeRect(x, y, HANDLE_SIZE, HANDLE_SIZE);
+    private void drawHandle(RenderBackend backend, double x, double y) {
+        backend.fillRect(x, y, HANDLE_SIZE, HANDLE_SIZE);
+        backend.strokeRect(x, y, HANDLE_SIZE, HANDLE_SIZE);
     }
 
     @Override
@@ -132,6 +140,7 @@ public class ImageElement extends SlideElement {
     }
 
     public void resize(double deltaX, double deltaY, ResizeHandle handle) {
+        changed();
         double minSize = 50;
 
         switch (handle) {
@@ -213,6 +222,7 @@ public class ImageElement extends SlideElement {
 
     @Override
     public void setPosition(double x, double y) {
+        changed();
         this.x = x;
         this.y = y;
     }
@@ -221,6 +231,8 @@ public class ImageElement extends SlideElement {
     public SlideElement deepClone() {
         // 使用imageUrl和尺寸构造新对象
         ImageElement clone = new ImageElement(this.x, this.y, this.imageUrl, this.width, this.height);
+        clone.image = this.image;
+        clone.imageKey = this.imageKey;
         clone.setSelected(this.selected);
         return clone;
     }
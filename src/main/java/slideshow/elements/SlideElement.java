@@ -6,6 +6,8 @@ import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.Cursor;
 import javafx.geometry.Bounds;
 import javafx.geometry.BoundingBox;
+import slideshow.render.JavaFxRenderBackend;
+import slideshow.render.RenderBackend;
 
 public abstract class SlideElement {
     protected double x;
@@ -20,6 +22,9 @@ public abstract class SlideElement {
     }
     
     protected ResizeHandle currentHandle = ResizeHandle.NONE;
+
+    // 外观版本号，任何影响绘制结果的修改都会递增，用于判断缓存的显示列表是否过期
+    private transient int version;
     
     public SlideElement(double x, double y) {
         this.x = x;
@@ -27,13 +32,37 @@ public abstract class SlideElement {
         this.selected = false;
     }
     
-    public abstract void draw(GraphicsContext gc);
+    /**
+     * 通过绘制后端描述元素外观
+     */
+    public abstract void render(RenderBackend backend);
+
+    /**
+     * 绘制到JavaFX画布
+     */
+    public void draw(GraphicsContext gc) {
+        render(new JavaFxRenderBackend(gc));
+    }
     public abstract boolean containsPoint(double x, double y);
     
     public void move(double deltaX, double deltaY) {
         setPosition(x + deltaX, y + deltaY);
     }
     
+    /**
+     * 标记元素外观已改变，子类在修改影响绘制的字段后调用
+     */
+    protected void changed() {
+        version++;
+    }
+
+    /**
+     * 外观版本号
+     */
+    public int getVersion() {
+        return version;
+    }
+    
     public boolean isSelected() {
         return selected;
     }
@@ -48,14 +77,17 @@ public abstract class SlideElement {
     
     public void setX(double x) {
         this.x = x;
+        changed();
     }
     
     public void setY(double y) {
         this.y = y;
+        changed();
     }
     
     public void setSelected(boolean selected) {
         this.selected = selected;
+        changed();
     }
     
     public void setHoverCursor(Canvas canvas) {
@@ -1,13 +1,14 @@
 package slideshow.elements;
 
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
-import javafx.scene.text.Font;
 import javafx.scene.text.FontPosture;
 import javafx.scene.text.FontWeight;
 import javafx.scene.text.Text;
 import javafx.geometry.Bounds;
 import javafx.geometry.BoundingBox;
+import slideshow.render.FontRegistry;
+import slideshow.render.FontSpec;
+import slideshow.render.RenderBackend;
 
 public class TextElement extends SlideElement {
     private String text;
@@ -20,6 +21,11 @@ public class TextElement extends SlideElement {
     private double width;
     private double height;
     //private boolean selected;
+    /** 当前样式对应的驻留字体描述，样式变化时在calculateTextBounds中更新 */
+    private transient FontSpec fontSpec;
+
+    /** 文本元素使用的字体族 */
+    public static final String FONT_FAMILY = "Arial";
     
     private static final double HANDLE_SIZE = 8; // 控制点大小
     private static final double HANDLE_OFFSET = HANDLE_SIZE / 2;
@@ -30,12 +36,13 @@ public class TextElement extends SlideElement {
         double maxWidth = 0;
         double totalHeight = 0;
         
+        fontSpec = FontRegistry.spec(FONT_FAMILY, fontWeight,
+                        italic ? FontPosture.ITALIC : FontPosture.REGULAR,
+                        fontSize);
         Text textNode = new Text();
-        textNode.setFont(Font.font("Arial", fontWeight, 
-                        italic ? FontPosture.ITALIC : FontPosture.REGULAR, 
-                        fontSize));
         
         for (String line : lines) {
+            textNode.setFont(FontRegistry.font(fontSpec, line));
             textNode.setText(line);
             double lineWidth = textNode.getLayoutBounds().getWidth();
             double lineHeight = textNode.getLayoutBounds().getHeight();
@@ -46,6 +53,7 @@ public class TextElement extends SlideElement {
         
         width = maxWidth;
         height = totalHeight;
+        changed();
     }
     
     public TextElement(double x, double y, String text, 
@@ -62,65 +70,70 @@ public class TextElement extends SlideElement {
         calculateTextBounds();
     }
     
+    /**
+     * 当前样式对应的字体描述
+     */
+    public FontSpec getFontSpec() {
+        if (fontSpec == null) {
+            fontSpec = FontRegistry.spec(FONT_FAMILY, fontWeight, italic ? FontPosture.ITALIC : FontPosture.REGULAR, fontSize);
+        }
+        return fontSpec;
+    }
+
     @Override
-    public void draw(GraphicsContext gc) {
-        gc.save();
-        
-        // 设置文本样式
-        gc.setFill(color);
-        gc.setFont(Font.font("Arial", fontWeight, 
-                italic ? FontPosture.ITALIC : FontPosture.REGULAR, 
-                fontSize));
+    public void render(RenderBackend backend) {
+        backend.save();
+        backend.setFont(getFontSpec());
         
         // 如果被选中，先绘制边框
         if (selected) {
-            gc.setStroke(Color.BLUE);
-            gc.setLineDashes(5);
-            gc.strokeRect(x - 2, y - height, width + 4, height + 4);
-            gc.setLineDashes(null);
+            backend.setStroke(Color.BLUE);
+            backend.setLineDash(5);
+            backend.strokeRect(x - 2, y - height, width + 4, height + 4);
+            backend.setLineDash(0);
             
             // 绘制控制点
-            drawResizeHandles(gc);
+            drawResizeHandles(backend);
         }
         
+        // 设置文本颜色（在控制点之后设置，避免被控制点的白色填充覆盖）
+        backend.setFill(color);
+        
         // 绘制多行文本
         String[] lines = text.split("\n");
         double currentY = y;
+        double lineHeight = backend.getLineHeight();
         
         for (String line : lines) {
-            gc.fillText(line, x, currentY);
+            backend.fillText(line, x, currentY);
             // 计算下一行的Y位置
-            Text textNode = new Text(line);
-            textNode.setFont(Font.font("Arial", fontWeight, 
-                    italic ? FontPosture.ITALIC : FontPosture.REGULAR, 
-                    fontSize));
-            currentY += textNode.getLayoutBounds().getHeight();
+            currentY += lineHeight;
         }
         
-        gc.restore();
+        backend.restore();
     }
     
-    private void drawResizeHandles(GraphicsContext gc) {
-        gc.setFill(Color.WHITE);
-        gc.setStroke(Color.BLUE);
+    private void drawResizeHandles(RenderBackend backend) {
+        backend.setFill(Color.WHITE);
+        backend.setStroke(Color.BLUE);
         
         // 绘制四角的控制点
-        drawHandle(gc, x - HANDLE_OFFSET, y - height - HANDLE_OFFSET);           // NW
-        drawHandle(gc, x + width - HANDLE_OFFSET, y - height - HANDLE_OFFSET);   // NE
-        drawHandle(gc, x - HANDLE_OFFSET, y + HANDLE_OFFSET);                    // SW
-        drawHandle(gc, x + width - HANDLE_OFFSET, y + HANDLE_OFFSET);            // SE
+        drawHandle(backend, x - HANDLE_OFFSET, y - height - HANDLE_OFFSET);           // NW
+        drawHandle(backend, x + width - HANDLE_OFFSET, y - height - HANDLE_OFFSET);   // NE
+        drawHandle(backend, x - HANDLE_OFFSET, y + HANDLE_OFFSET);                    // SW
+        drawHandle(backend, x + width - HANDLE_OFFSET, y + HANDLE_OFFSET);            // SE
         
         // 绘制边缘中点的控制点
-        drawHandle(gc, x + width/2 - HANDLE_OFFSET, y - height - HANDLE_OFFSET); // N
-        drawHandle(gc, x + width/2 - HANDLE_OFFSET, y + HANDLE_OFFSET);          // S
-        drawHandle(gc, x - HANDLE_OFFSET, y - height/2);                         // W
-        drawHandle(gc, x + width - HANDLE_OFFSET, y - height/2);                 // E
+        drawHandle(backend, x + width/2 - HANDLE_OFFSET, y - height - HANDLE_OFFSET); // N
+        drawHandle(backend, x + width/2 - HANDLE_OFFSET, y + HANDLE_OFFSET);          // S
+        drawHandle(backend, x - HANDLE_OFFSET, y - height/2);                         // W
+        drawHandle(backend, x + width - HANDLE_OFFSET, y - height/2);                 // E
     }
     
-    private void drawHandle(GraphicsContext gc, double x, double y) {
-        gc.setFill(Color.WHITE);
-        gc.fillRect(x, y, HANDLE_SIZE, HANDLE_SIZE);
-        gc.strokeRect(x, y, HANDLE_SIZE, HANDLE_SIZE);
+    private void drawHandle(RenderBackend backend, double x, double y) {
+        backend.setFill(Color.WHITE);
+        backend.fillRect(x, y, HANDLE_SIZE, HANDLE_SIZE);
+        backend.strokeRect(x, y, HANDLE_SIZE, HANDLE_SIZE);
     }
     
     @Override
@@ -202,6 +215,7 @@ public class TextElement extends SlideElement {
     
     public void setColor(Color color) {
         this.color = color;
+        changed();
     }
     
     public void setFontSize(double fontSize) {
@@ -249,22 +263,27 @@ public class TextElement extends SlideElement {
     
     public void setX(double x) {
         this.x = x;
+        changed();
     }
     
     public void setY(double y) {
         this.y = y;
+        changed();
     }
     
     public void setWidth(double width) {
         this.width = width;
+        changed();
     }
     
     public void setHeight(double height) {
         this.height = height;
+        changed();
     }
     
     public void setSelected(boolean selected) {
         this.selected = selected;
+        changed();
     }
     
     public String getText() {
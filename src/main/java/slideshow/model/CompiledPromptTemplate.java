@@ -0,0 +1,185 @@
+package slideshow.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 预编译的提示词模板
+ * 模板内容只解析一次，拆分为字面文本段和 {0}、{1}… 参数槽，渲染时按顺序拼接，结果长度预先精确计算。
+ * 参数值原样插入，不会再被当作占位符替换；没有对应参数的占位符保持原样
+ */
+public final class CompiledPromptTemplate {
+
+    /** 编译结果缓存，键为 模板ID@版本 */
+    private static final Map<String, CompiledPromptTemplate> cache = new ConcurrentHashMap<>();
+
+    /** 线程内复用的渲染缓冲区，超过该容量的缓冲区用完即丢弃 */
+    private static final int MAX_REUSED_CAPACITY = 1 << 20;
+    private static final ThreadLocal<StringBuilder> buffer = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+    private final String source;
+    /** literals[i] 位于 slots[i] 之前，最后一段在所有参数槽之后，因此比 slots 多一个 */
+    private final String[] literals;
+    private final int[] slots;
+    private final int literalLength;
+
+    private CompiledPromptTemplate(String source, String[] literals, int[] slots) {
+        this.source = source;
+        this.literals = literals;
+        this.slots = slots;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * 获取模板的编译结果，按模板ID和版本缓存；同一版本的内容被修改过时重新编译
+     */
+    public static CompiledPromptTemplate forTemplate(PromptTemplate template) {
+        String content = template.getContent() != null ? template.getContent() : "";
+        if (template.getId() == null) {
+            return compile(content);
+        }
+        TemplateMetadata metadata = template.getMetadata();
+        String key = template.getId() + "@" + (metadata != null ? metadata.getVersion() : null);
+        CompiledPromptTemplate compiled = cache.get(key);
+        if (compiled == null || !compiled.source.equals(content)) {
+            compiled = compile(content);
+            cache.put(key, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * 从缓存中移除模板的所有版本
+     */
+    public static void evict(String templateId) {
+        String prefix = templateId + "@";
+        cache.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    /**
+     * 解析模板内容
+     */
+    public static CompiledPromptTemplate compile(String content) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        int literalStart = 0;
+        int i = 0;
+        while (i < content.length()) {
+            int open = content.indexOf('{', i);
+            if (open < 0) {
+                break;
+            }
+            int close = open + 1;
+            int index = 0;
+            while (close < content.length() && content.charAt(close) >= '0' && content.charAt(close) <= '9') {
+                index = index * 10 + (content.charAt(close) - '0');
+                close++;
+            }
+            int digits = close - open - 1;
+            // 与原先按 "{" + i + "}" 替换的写法一致：不接受前导零，位数过多的也按普通文本处理
+            boolean slot = digits > 0 && digits <= 5 && (digits == 1 || content.charAt(open + 1) != '0');
+            if (slot && close < content.length() && content.charAt(close) == '}') {
+                literals.add(content.substring(literalStart, open));
+                slots.add(index);
+                literalStart = close + 1;
+                i = close + 1;
+            } else {
+                i = open + 1;
+            }
+        }
+        literals.add(content.substring(literalStart));
+
+        int[] slotArray = new int[slots.size()];
+        for (int s = 0; s < slotArray.length; s++) {
+            slotArray[s] = slots.get(s);
+        }
+        return new CompiledPromptTemplate(content, literals.toArray(new String[0]), slotArray);
+    }
+
+    /**
+     * 渲染模板
+     *
+     * @param args 参数，第i个参数替换 {i}
+     * @return 渲染结果
+     */
+    public String render(Object... args) {
+        String[] values = values(args);
+        StringBuilder builder = buffer.get();
+        builder.setLength(0);
+        appendTo(builder, values);
+        String result = builder.toString();
+        if (builder.capacity() > MAX_REUSED_CAPACITY) {
+            buffer.remove();
+        }
+        return result;
+    }
+
+    /**
+     * 把渲染结果追加到调用方的缓冲区，便于继续拼接其他内容而不产生中间字符串
+     *
+     * @param builder 目标缓冲区
+     * @param args    参数
+     * @return 传入的缓冲区
+     */
+    public StringBuilder renderTo(StringBuilder builder, Object... args) {
+        appendTo(builder, values(args));
+        return builder;
+    }
+
+    /**
+     * 计算渲染结果的长度
+     */
+    public int renderedLength(Object... args) {
+        return renderedLength(values(args));
+    }
+
+    /**
+     * 参数槽数量
+     */
+    public int getSlotCount() {
+        return slots.length;
+    }
+
+    private void appendTo(StringBuilder builder, String[] values) {
+        builder.ensureCapacity(builder.length() + renderedLength(values));
+        for (int s = 0; s < slots.length; s++) {
+            builder.append(literals[s]);
+            int slot = slots[s];
+            if (slot < values.length) {
+                builder.append(values[slot]);
+            } else {
+                builder.append('{').append(slot).append('}');
+            }
+        }
+        builder.append(literals[slots.length]);
+    }
+
+    private int renderedLength(String[] values) {
+        int length = literalLength;
+        for (int slot : slots) {
+            length += slot < values.length ? values[slot].length() : placeholderLength(slot);
+        }
+        return length;
+    }
+
+    private static String[] values(Object[] args) {
+        if (args == null) {
+            return new String[0];
+        }
+        String[] values = new String[args.length];
+        for (int i = 0; i < args.length; i++) {
+            values[i] = String.valueOf(args[i]);
+        }
+        return values;
+    }
+
+    private static int placeholderLength(int slot) {
+        return String.valueOf(slot).length() + 2;
+    }
+}
@@ -127,13 +127,10 @@ public class PromptTemplate {
 
     /**
      * Format template content, replace placeholders
+     * 使用缓存的编译结果渲染，参数值中的 {n} 不会被再次替换
      */
     public String formatContent(Object... args) {
-        String formatted = content;
-        for (int i = 0; i < args.length; i++) {
-            formatted = formatted.replace("{" + i + "}", String.valueOf(args[i]));
-        }
-        return formatted;
+        return CompiledPromptTemplate.forTemplate(this).render(args);
     }
 
     @Override
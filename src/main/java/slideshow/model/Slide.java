@@ -2,14 +2,24 @@ package slideshow.model;
 
 import javafx.scene.canvas.GraphicsContext;
 import slideshow.elements.SlideElement;
+import slideshow.render.JavaFxRenderBackend;
+import slideshow.render.RecordingRenderBackend;
+import slideshow.render.RenderBackend;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class Slide {
+    /** 逻辑坐标空间宽度，元素坐标均以此为基准，显示时通过SlideTransform缩放 */
+    public static final double LOGICAL_WIDTH = 1600.0;
+    /** 逻辑坐标空间高度 */
+    public static final double LOGICAL_HEIGHT = 1000.0;
+
     private List<SlideElement> elements = new ArrayList<>();
-    private double width = 800.0;  // 默认宽度
-    private double height = 600.0; // 默认高度
+    private double width = LOGICAL_WIDTH;  // 默认宽度
+    private double height = LOGICAL_HEIGHT; // 默认高度
+    // 元素显示列表缓存，不参与序列化，首次缓存绘制时创建
+    private transient SlideDisplayCache displayCache;
     
     public void addElement(SlideElement element) {
         if (elements == null) {
@@ -56,6 +66,7 @@ public class Slide {
     }
     
     public void draw(GraphicsContext gc) {
+        JavaFxRenderBackend backend = new JavaFxRenderBackend(gc);
         // 添加调试信息
         System.out.println("绘制幻灯片，元素数量：" + (elements != null ? elements.size() : 0));
         if (elements != null) {
@@ -68,11 +79,52 @@ public class Slide {
                     element.getX(),
                     element.getY()
                 );
-                element.draw(gc);
+                element.render(backend);
+            }
+        }
+    }
+
+    /**
+     * 通过任意绘制后端绘制全部元素（无调试输出，供导出和录制使用）
+     */
+    public void render(RenderBackend backend) {
+        if (elements != null) {
+            for (SlideElement element : elements) {
+                element.render(backend);
             }
         }
     }
     
+    /**
+     * 通过缓存的显示列表绘制，只有外观改变过的元素会重新录制
+     *
+     * @param backend 绘制目标
+     * @param metrics 录制文字时使用的行高，应与绘制目标一致
+     */
+    public void renderCached(RenderBackend backend, RecordingRenderBackend.LineMetrics metrics) {
+        if (elements == null) {
+            return;
+        }
+        if (displayCache == null || displayCache.getMetrics() != metrics) {
+            displayCache = new SlideDisplayCache(metrics);
+        }
+        displayCache.replay(elements, backend);
+    }
+
+    /**
+     * 通过缓存的显示列表绘制到JavaFX画布
+     */
+    public void drawCached(JavaFxRenderBackend backend) {
+        renderCached(backend, JavaFxRenderBackend.LINE_METRICS);
+    }
+
+    /**
+     * 累计重新录制的元素次数
+     */
+    public long getDisplayListRecordCount() {
+        return displayCache == null ? 0 : displayCache.getRecordCount();
+    }
+    
     public SlideElement findElementAt(double x, double y) {
         // 从后往前遍历，这样可以选中最上层的元素
         for (int i = elements.size() - 1; i >= 0; i--) {
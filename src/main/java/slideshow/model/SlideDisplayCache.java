@@ -0,0 +1,78 @@
+package slideshow.model;
+
+import slideshow.elements.SlideElement;
+import slideshow.render.DisplayList;
+import slideshow.render.RecordingRenderBackend;
+import slideshow.render.RenderBackend;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 幻灯片元素的显示列表缓存
+ * 每个元素录制一份显示列表并记下录制时的外观版本号，绘制时只重新录制版本号变化过的元素，
+ * 其余元素直接回放。元素未变化时整个绘制过程只是对数组的顺序遍历，不创建对象
+ */
+final class SlideDisplayCache {
+
+    private static final class Entry {
+        int version;
+        DisplayList list;
+    }
+
+    private final RecordingRenderBackend.LineMetrics metrics;
+    private final RecordingRenderBackend recorder;
+    private final Map<SlideElement, Entry> entries = new IdentityHashMap<>();
+    private long recordCount;
+
+    SlideDisplayCache(RecordingRenderBackend.LineMetrics metrics) {
+        this.metrics = metrics;
+        this.recorder = new RecordingRenderBackend(metrics);
+    }
+
+    RecordingRenderBackend.LineMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 按元素顺序回放，过期的元素先重新录制
+     */
+    void replay(List<SlideElement> elements, RenderBackend backend) {
+        for (int i = 0, n = elements.size(); i < n; i++) {
+            SlideElement element = elements.get(i);
+            Entry entry = entries.get(element);
+            if (entry == null) {
+                entry = new Entry();
+                entries.put(element, entry);
+                record(element, entry);
+            } else if (entry.version != element.getVersion()) {
+                record(element, entry);
+            }
+            entry.list.replay(backend);
+        }
+        if (entries.size() > elements.size()) {
+            // 有元素被删除，丢弃其缓存
+            Set<SlideElement> alive = Collections.newSetFromMap(new IdentityHashMap<>());
+            alive.addAll(elements);
+            entries.keySet().retainAll(alive);
+        }
+    }
+
+    /**
+     * 累计录制次数，可用于观察缓存命中情况
+     */
+    long getRecordCount() {
+        return recordCount;
+    }
+
+    private void record(SlideElement element, Entry entry) {
+        recorder.reset();
+        element.render(recorder);
+        entry.list = recorder.toDisplayList();
+        entry.version = element.getVersion();
+        recordCount++;
+    }
+}
@@ -0,0 +1,123 @@
+package slideshow.model;
+
+import javafx.scene.canvas.GraphicsContext;
+
+/**
+ * 幻灯片逻辑坐标到目标画面坐标的仿射变换
+ * 元素几何始终保存在幻灯片的逻辑坐标空间中，编辑画布、放映窗口、演讲者预览和导出各自持有一个变换，
+ * 只在绘制时应用。目标尺寸变化时只需重新计算变换（O(1)），不改写任何元素的坐标和尺寸。
+ * 变换为等比缩放加平移，内容在目标区域内居中，多余部分留白
+ */
+public final class SlideTransform {
+
+    /** 逻辑坐标到目标坐标恒等的变换 */
+    public static final SlideTransform IDENTITY = new SlideTransform(1.0, 0.0, 0.0);
+
+    private final double scale;
+    private final double translateX;
+    private final double translateY;
+
+    public SlideTransform(double scale, double translateX, double translateY) {
+        this.scale = scale;
+        this.translateX = translateX;
+        this.translateY = translateY;
+    }
+
+    /**
+     * 计算把逻辑尺寸等比放入目标区域并居中的变换
+     *
+     * @param logicalWidth  幻灯片逻辑宽度
+     * @param logicalHeight 幻灯片逻辑高度
+     * @param targetWidth   目标区域宽度
+     * @param targetHeight  目标区域高度
+     */
+    public static SlideTransform fit(double logicalWidth, double logicalHeight, double targetWidth, double targetHeight) {
+        if (logicalWidth <= 0 || logicalHeight <= 0 || targetWidth <= 0 || targetHeight <= 0) {
+            return IDENTITY;
+        }
+        double scale = Math.min(targetWidth / logicalWidth, targetHeight / logicalHeight);
+        double translateX = (targetWidth - logicalWidth * scale) / 2;
+        double translateY = (targetHeight - logicalHeight * scale) / 2;
+        return new SlideTransform(scale, translateX, translateY);
+    }
+
+    /**
+     * 计算把幻灯片逻辑坐标空间放入目标区域的变换
+     * 所有视图都按Slide.LOGICAL_WIDTH x Slide.LOGICAL_HEIGHT适配，与编辑画布一致，
+     * 不使用幻灯片保存的尺寸（旧版本文件中为800x600）
+     */
+    public static SlideTransform fit(double targetWidth, double targetHeight) {
+        return fit(Slide.LOGICAL_WIDTH, Slide.LOGICAL_HEIGHT, targetWidth, targetHeight);
+    }
+
+    /**
+     * 在GraphicsContext上叠加该变换，调用方负责在之前save、之后restore
+     */
+    public void apply(GraphicsContext gc) {
+        gc.translate(translateX, translateY);
+        gc.scale(scale, scale);
+    }
+
+    /**
+     * 目标坐标（如鼠标位置）映射回逻辑横坐标
+     */
+    public double toSlideX(double viewX) {
+        return (viewX - translateX) / scale;
+    }
+
+    /**
+     * 目标坐标映射回逻辑纵坐标
+     */
+    public double toSlideY(double viewY) {
+        return (viewY - translateY) / scale;
+    }
+
+    /**
+     * 逻辑横坐标映射到目标坐标
+     */
+    public double toViewX(double slideX) {
+        return slideX * scale + translateX;
+    }
+
+    /**
+     * 逻辑纵坐标映射到目标坐标
+     */
+    public double toViewY(double slideY) {
+        return slideY * scale + translateY;
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    public double getTranslateX() {
+        return translateX;
+    }
+
+    public double getTranslateY() {
+        return translateY;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SlideTransform)) return false;
+        SlideTransform that = (SlideTransform) o;
+        return Double.compare(scale, that.scale) == 0
+                && Double.compare(translateX, that.translateX) == 0
+                && Double.compare(translateY, that.translateY) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Double.hashCode(scale);
+        result = 31 * result + Double.hashCode(translateX);
+        result = 31 * result + Double.hashCode(translateY);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SlideTransform[scale=%.4f, translate=(%.1f, %.1f)]", scale, translateX, translateY);
+    }
+}
@@ -5,12 +5,15 @@ import javafx.scene.Scene;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.Label;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyCombination;
 import javafx.geometry.Pos;
 import javafx.geometry.Insets;
 import slideshow.model.Slide;
+import slideshow.model.SlideTransform;
+import slideshow.render.JavaFxRenderBackend;
 import slideshow.util.Constants;
 import java.util.List;
 
@@ -20,15 +23,15 @@ public class PresentationWindow {
     private List<Slide> slides;
     private int currentIndex = 0;
     private Label slideInfoLabel;
+    private final JavaFxRenderBackend renderBackend;
 
     public PresentationWindow(List<Slide> slides) {
         this.slides = slides;
         stage = new Stage();
         
-        // 设置更大的画布尺寸，适合放映
-        double slideWidth = 1600;
-        double slideHeight = 1000;
-        canvas = new Canvas(slideWidth, slideHeight);
+        // 初始画布尺寸与幻灯片逻辑尺寸一致，窗口尺寸变化时只调整画布并重新计算绘制变换
+        canvas = new Canvas(Slide.LOGICAL_WIDTH, Slide.LOGICAL_HEIGHT);
+        renderBackend = new JavaFxRenderBackend(canvas.getGraphicsContext2D());
 
         // 创建幻灯片信息标签
         Label slideInfoLabel = new Label();
@@ -47,6 +50,10 @@ public class PresentationWindow {
         // 保存标签引用，用于更新信息
         this.slideInfoLabel = slideInfoLabel;
 
+        // 窗口尺寸变化时让画布填满可用区域（减去内边距和信息标签）
+        scene.widthProperty().addListener((obs, oldVal, newVal) -> resizeCanvas(scene));
+        scene.heightProperty().addListener((obs, oldVal, newVal) -> resizeCanvas(scene));
+
         // 添加键盘事件处理
         scene.setOnKeyPressed(e -> {
             switch (e.getCode()) {
@@ -113,8 +120,14 @@ public class PresentationWindow {
             // 设置白色背景
             canvas.getGraphicsContext2D().setFill(javafx.scene.paint.Color.WHITE);
             canvas.getGraphicsContext2D().fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
-            // 绘制当前幻灯片
-            slides.get(currentIndex).draw(canvas.getGraphicsContext2D());
+            // 按画布尺寸等比缩放绘制当前幻灯片
+            Slide slide = slides.get(currentIndex);
+            GraphicsContext gc = canvas.getGraphicsContext2D();
+            gc.save();
+            SlideTransform.fit(canvas.getWidth(), canvas.getHeight()).apply(gc);
+            // 回放缓存的显示列表，未修改的元素不再重新计算字体和排版
+            slide.drawCached(renderBackend);
+            gc.restore();
             
             // 更新幻灯片信息显示
             if (slideInfoLabel != null) {
@@ -126,6 +139,17 @@ public class PresentationWindow {
         }
     }
 
+    private void resizeCanvas(Scene scene) {
+        double width = Math.max(1, scene.getWidth() - 40);
+        double height = Math.max(1, scene.getHeight() - 80);
+        if (width == canvas.getWidth() && height == canvas.getHeight()) {
+            return;
+        }
+        canvas.setWidth(width);
+        canvas.setHeight(height);
+        showCurrentSlide();
+    }
+
     private void nextSlide() {
         if (currentIndex < slides.size() - 1) {
             currentIndex++;
@@ -17,23 +17,42 @@ import javafx.animation.Timeline;
 import javafx.animation.KeyFrame;
 import javafx.util.Duration;
 import slideshow.model.Slide;
+import slideshow.model.SlideTransform;
+import slideshow.render.JavaFxRenderBackend;
 import slideshow.util.SpeechManager;
+import slideshow.util.SpeechSegments;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * 演讲者视图窗口
  * 提供演讲者专用的界面，包含时间显示、当前幻灯片预览和演讲稿内容
  */
 public class SpeakerViewWindow {
+    private static final Logger logger = Logger.getLogger(SpeakerViewWindow.class.getName());
+
     private Stage stage;
     private Canvas previewCanvas;
+    private JavaFxRenderBackend previewBackend;
     private TextArea speechArea;
     private Label totalTimeLabel;
     private Label slideTimeLabel;
     private Label slideInfoLabel;
     private List<Slide> slides;
+    /** 演示文稿名称，用于查找它自己的演讲稿；为null时使用最近保存的任意演讲稿 */
+    private final String presentationName;
     private int currentIndex = 0;
     
     // 时间相关
@@ -46,9 +65,30 @@ public class SpeakerViewWindow {
     private String speechContent;
     private String[] speechLines;
     private int currentSpeechLine = 0;
+    /** 按页分段的演讲稿，演讲稿没有页标记时为null */
+    private SpeechSegments speechSegments;
+    /** 正在按页生成的演讲稿，未生成的页为null；不在生成时为null */
+    private String[] streamedSegments;
+    /** 当前页及相邻页的演讲稿 */
+    private Map<Integer, String> segmentCache = new ConcurrentHashMap<>();
+    
+    private static final Executor preloadExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "speech-preload");
+        thread.setDaemon(true);
+        return thread;
+    });
     
     public SpeakerViewWindow(List<Slide> slides) {
+        this(slides, null);
+    }
+
+    /**
+     * @param slides           幻灯片列表
+     * @param presentationName 演示文稿名称（与保存演讲稿时使用的名称一致），只加载该演示文稿最新的演讲稿
+     */
+    public SpeakerViewWindow(List<Slide> slides, String presentationName) {
         this.slides = slides;
+        this.presentationName = presentationName;
         this.startTime = LocalDateTime.now();
         this.slideStartTime = LocalDateTime.now();
         
@@ -134,6 +174,7 @@ public class SpeakerViewWindow {
         
         // 预览画布
         previewCanvas = new Canvas(380, 250);
+        previewBackend = new JavaFxRenderBackend(previewCanvas.getGraphicsContext2D());
         previewCanvas.setStyle("-fx-border-color: #ccc; -fx-border-width: 1; -fx-background-color: white;");
         
         leftBox.getChildren().addAll(previewTitle, previewCanvas);
@@ -165,29 +206,8 @@ public class SpeakerViewWindow {
             }
             java.io.File file = fileChooser.showOpenDialog(stage);
             if (file != null) {
-                String content = slideshow.util.SpeechManager.loadSpeechFromFile(file.getAbsolutePath());
-                if (content != null && !content.isEmpty()) {
-                    // 提取纯演讲稿内容（去除头部信息）
-                    String[] lines = content.split("\n");
-                    StringBuilder contentBuilder = new StringBuilder();
-                    boolean contentStarted = false;
-                    for (String line : lines) {
-                        if (line.startsWith("=")) {
-                            contentStarted = true;
-                            continue;
-                        }
-                        if (contentStarted) {
-                            contentBuilder.append(line).append("\n");
-                        }
-                    }
-                    speechContent = contentBuilder.toString().trim();
-                    speechLines = speechContent.split("\n");
-                    updateSpeechContent();
-                } else {
-                    speechContent = "演讲稿文件内容为空";
-                    speechLines = new String[]{speechContent};
-                    updateSpeechContent();
-                }
+                loadSpeech(file.toPath());
+                updateSpeechContent();
             }
         });
         
@@ -249,28 +269,11 @@ public class SpeakerViewWindow {
      * 加载演讲稿内容
      */
     private void loadSpeechContent() {
-        String latestSpeechFile = SpeechManager.getLatestSpeechFile();
+        String latestSpeechFile = presentationName != null
+                ? SpeechManager.getLatestSpeechFile(presentationName)
+                : SpeechManager.getLatestSpeechFile();
         if (latestSpeechFile != null) {
-            speechContent = SpeechManager.loadSpeechFromFile(latestSpeechFile);
-            if (speechContent != null) {
-                // 提取纯演讲稿内容（去除头部信息）
-                String[] lines = speechContent.split("\n");
-                StringBuilder contentBuilder = new StringBuilder();
-                boolean contentStarted = false;
-                
-                for (String line : lines) {
-                    if (line.startsWith("=")) {
-                        contentStarted = true;
-                        continue;
-                    }
-                    if (contentStarted) {
-                        contentBuilder.append(line).append("\n");
-                    }
-                }
-                
-                speechContent = contentBuilder.toString().trim();
-                speechLines = speechContent.split("\n");
-            }
+            loadSpeech(Paths.get(latestSpeechFile));
         }
         
         if (speechContent == null || speechContent.isEmpty()) {
@@ -279,6 +282,64 @@ public class SpeakerViewWindow {
         }
     }
     
+    /**
+     * 加载演讲稿文件及其按页分段；没有.seg文件时从正文的页标记切分
+     */
+    private void loadSpeech(Path file) {
+        String content = SpeechManager.loadSpeechFromFile(file.toString());
+        speechSegments = null;
+        segmentCache = new ConcurrentHashMap<>();
+        if (content == null || content.isEmpty()) {
+            speechContent = "演讲稿文件内容为空";
+            speechLines = new String[]{speechContent};
+            return;
+        }
+        // 提取纯演讲稿内容（去除头部信息）
+        speechContent = SpeechManager.stripHeader(content);
+        speechLines = speechContent.split("\n");
+        
+        Path segmentFile = SpeechSegments.segmentFileFor(file);
+        speechSegments = SpeechSegments.open(segmentFile);
+        if (speechSegments == null) {
+            List<String> parts = SpeechSegments.split(speechContent, slides.size());
+            if (!parts.isEmpty()) {
+                speechSegments = SpeechSegments.of(parts);
+                if (Files.exists(segmentFile)) {
+                    // 分段文件已损坏，用正文重新生成
+                    try {
+                        SpeechSegments.write(segmentFile, parts);
+                    } catch (IOException e) {
+                        logger.log(Level.WARNING, "重建演讲稿分段失败: " + segmentFile, e);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * 第index页的演讲稿，优先取预加载的结果
+     */
+    private String segmentAt(int index) {
+        SpeechSegments segments = speechSegments;
+        return segmentCache.computeIfAbsent(index, segments::getSegment);
+    }
+    
+    /**
+     * 在后台预先读取相邻两页，翻页时不需要等待读取
+     */
+    private void preloadNeighbours(int index) {
+        SpeechSegments segments = speechSegments;
+        Map<Integer, String> cache = segmentCache;
+        cache.keySet().removeIf(key -> Math.abs(key - index) > 1);
+        preloadExecutor.execute(() -> {
+            for (int neighbour : new int[]{index + 1, index - 1}) {
+                if (neighbour >= 0 && neighbour < segments.getCount()) {
+                    cache.computeIfAbsent(neighbour, segments::getSegment);
+                }
+            }
+        });
+    }
+    
     /**
      * 启动时间更新定时器
      */
@@ -319,14 +380,13 @@ public class SpeakerViewWindow {
             previewCanvas.getGraphicsContext2D().setFill(javafx.scene.paint.Color.WHITE);
             previewCanvas.getGraphicsContext2D().fillRect(0, 0, previewCanvas.getWidth(), previewCanvas.getHeight());
             
-            // 缩放绘制幻灯片
-            double scaleX = previewCanvas.getWidth() / 1600.0;
-            double scaleY = previewCanvas.getHeight() / 1000.0;
-            double scale = Math.min(scaleX, scaleY);
-            
+            // 按预览画布尺寸等比缩放绘制幻灯片
+            Slide slide = slides.get(currentIndex);
             previewCanvas.getGraphicsContext2D().save();
-            previewCanvas.getGraphicsContext2D().scale(scale, scale);
-            slides.get(currentIndex).draw(previewCanvas.getGraphicsContext2D());
+            SlideTransform.fit(previewCanvas.getWidth(), previewCanvas.getHeight())
+                    .apply(previewCanvas.getGraphicsContext2D());
+            // 回放缓存的显示列表，未修改的元素不再重新计算字体和排版
+            slide.drawCached(previewBackend);
             previewCanvas.getGraphicsContext2D().restore();
             
             // 更新幻灯片信息
@@ -344,8 +404,23 @@ public class SpeakerViewWindow {
      * 更新演讲稿内容显示
      */
     private void updateSpeechContent() {
+        if (streamedSegments != null) {
+            String segment = currentIndex < streamedSegments.length ? streamedSegments[currentIndex] : "";
+            speechArea.setText(segment == null ? "（本页演讲稿生成中…）"
+                    : segment.isEmpty() ? "（本页没有对应的演讲稿）" : segment);
+            speechArea.setScrollTop(0);
+            return;
+        }
+        if (speechSegments != null) {
+            // 只显示当前页对应的演讲稿
+            String segment = segmentAt(currentIndex);
+            speechArea.setText(segment.isEmpty() ? "（本页没有对应的演讲稿）" : segment);
+            speechArea.setScrollTop(0);
+            preloadNeighbours(currentIndex);
+            return;
+        }
         if (speechLines != null && speechLines.length > 0) {
-            // 一次性显示全部演讲稿内容
+            // 演讲稿没有分页时一次性显示全部内容
             StringBuilder displayContent = new StringBuilder();
             for (String line : speechLines) {
                 displayContent.append(line).append("\n");
@@ -356,6 +431,53 @@ public class SpeakerViewWindow {
         }
     }
     
+    /**
+     * 开始接收按页生成的演讲稿，尚未生成的页显示“生成中”（须在JavaFX线程调用）
+     */
+    public void beginStreamingSpeech() {
+        streamedSegments = new String[slides.size()];
+        updateSpeechContent();
+    }
+    
+    /**
+     * 收到某一页的演讲稿，是当前页时立即显示（须在JavaFX线程调用）
+     */
+    public void updateStreamedSegment(int index, String segment) {
+        if (streamedSegments == null || index < 0 || index >= streamedSegments.length) {
+            return;
+        }
+        streamedSegments[index] = segment;
+        if (index == currentIndex) {
+            updateSpeechContent();
+        }
+    }
+    
+    /**
+     * 生成结束，已收到的各页作为当前演讲稿继续使用（须在JavaFX线程调用）
+     */
+    public void finishStreamingSpeech() {
+        if (streamedSegments == null) {
+            return;
+        }
+        List<String> parts = new ArrayList<>(streamedSegments.length);
+        for (String segment : streamedSegments) {
+            parts.add(segment != null ? segment : "");
+        }
+        streamedSegments = null;
+        speechSegments = SpeechSegments.of(parts);
+        segmentCache = new ConcurrentHashMap<>();
+        speechContent = SpeechSegments.join(parts);
+        speechLines = speechContent.split("\n");
+        updateSpeechContent();
+    }
+    
+    /**
+     * 窗口是否仍然打开
+     */
+    public boolean isShowing() {
+        return stage.isShowing();
+    }
+    
     /**
      * 切换到下一张幻灯片
      */
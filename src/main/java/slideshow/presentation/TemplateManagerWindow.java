@@ -2,7 +2,9 @@ package slideshow.presentation;
 
 // Ensure file uses UTF-8 encoding
 
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -14,6 +16,7 @@ import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import javafx.util.Duration;
 import slideshow.model.PromptTemplate;
 import slideshow.model.TemplateCategory;
 import slideshow.util.TemplateManager;
@@ -45,6 +48,10 @@ public class TemplateManagerWindow {
     private ComboBox<TemplateCategory> templateCategoryCombo;
     private TextField tagField;
     private Label statisticsLabel;
+    /** 输入停顿后才执行搜索 */
+    private PauseTransition searchDelay;
+    /** 搜索序号，只显示最后一次搜索的结果 */
+    private long searchSequence;
 
     public TemplateManagerWindow() {
         this.templateManager = new TemplateManager();
@@ -98,8 +105,10 @@ public class TemplateManagerWindow {
         searchField = new TextField();
         searchField.setPromptText("搜索模板...");
         searchField.setPrefWidth(200);
+        searchDelay = new PauseTransition(Duration.millis(200));
+        searchDelay.setOnFinished(e -> searchTemplates(searchField.getText()));
         searchField.textProperty().addListener((observable, oldValue, newValue) -> {
-            searchTemplates(newValue);
+            searchDelay.playFromStart();
         });
 
         // 新建
@@ -287,15 +296,29 @@ public class TemplateManagerWindow {
     }
 
     private void searchTemplates(String keyword) {
+        long sequence = ++searchSequence;
         if (keyword == null || keyword.trim().isEmpty()) {
             loadTemplates();
-        } else {
-            List<PromptTemplate> results = templateManager.searchTemplates(keyword);
-            Platform.runLater(() -> {
-                templateList.clear();
-                templateList.addAll(results);
-            });
+            return;
         }
+
+        Task<List<PromptTemplate>> searchTask = new Task<>() {
+            @Override
+            protected List<PromptTemplate> call() {
+                return templateManager.searchTemplates(keyword);
+            }
+        };
+        searchTask.setOnSucceeded(e -> {
+            // 较早发起的搜索可能晚于后续搜索完成，丢弃过期结果
+            if (sequence == searchSequence) {
+                templateList.setAll(searchTask.getValue());
+            }
+        });
+        searchTask.setOnFailed(e -> logger.log(Level.WARNING, "搜索模板失败", searchTask.getException()));
+
+        Thread thread = new Thread(searchTask, "template-search");
+        thread.setDaemon(true);
+        thread.start();
     }
 
     private void loadTemplateDetails(PromptTemplate template) {
@@ -0,0 +1,142 @@
+package slideshow.render;
+
+import javafx.scene.paint.Color;
+
+import java.util.Arrays;
+
+/**
+ * 显示列表：录制下来的不可变绘制操作序列
+ * 操作码、数值参数和对象参数分别存放在三个数组中，回放时只顺序读取数组并调用后端，不创建新对象
+ */
+public final class DisplayList {
+
+    static final int SAVE = 0;
+    static final int RESTORE = 1;
+    static final int TRANSLATE = 2;
+    static final int SCALE = 3;
+    static final int SET_FILL = 4;
+    static final int SET_STROKE = 5;
+    static final int LINE_WIDTH = 6;
+    static final int LINE_DASH = 7;
+    static final int SET_FONT = 8;
+    static final int FILL_TEXT = 9;
+    static final int FILL_RECT = 10;
+    static final int STROKE_RECT = 11;
+    static final int STROKE_LINE = 12;
+    static final int STROKE_OVAL = 13;
+    static final int DRAW_IMAGE = 14;
+
+    /** 空列表 */
+    public static final DisplayList EMPTY = new DisplayList(new int[0], new double[0], new Object[0]);
+
+    private final int[] ops;
+    private final double[] args;
+    private final Object[] refs;
+
+    DisplayList(int[] ops, double[] args, Object[] refs) {
+        this.ops = ops;
+        this.args = args;
+        this.refs = refs;
+    }
+
+    /**
+     * 在后端上按录制顺序重放全部操作
+     */
+    public void replay(RenderBackend backend) {
+        double[] a = args;
+        Object[] r = refs;
+        int ai = 0;
+        int ri = 0;
+        for (int op : ops) {
+            switch (op) {
+                case SAVE:
+                    backend.save();
+                    break;
+                case RESTORE:
+                    backend.restore();
+                    break;
+                case TRANSLATE:
+                    backend.translate(a[ai], a[ai + 1]);
+                    ai += 2;
+                    break;
+                case SCALE:
+                    backend.scale(a[ai], a[ai + 1]);
+                    ai += 2;
+                    break;
+                case SET_FILL:
+                    backend.setFill((Color) r[ri++]);
+                    break;
+                case SET_STROKE:
+                    backend.setStroke((Color) r[ri++]);
+                    break;
+                case LINE_WIDTH:
+                    backend.setLineWidth(a[ai++]);
+                    break;
+                case LINE_DASH:
+                    backend.setLineDash(a[ai++]);
+                    break;
+                case SET_FONT:
+                    backend.setFont((FontSpec) r[ri++]);
+                    break;
+                case FILL_TEXT:
+                    backend.fillText((String) r[ri++], a[ai], a[ai + 1]);
+                    ai += 2;
+                    break;
+                case FILL_RECT:
+                    backend.fillRect(a[ai], a[ai + 1], a[ai + 2], a[ai + 3]);
+                    ai += 4;
+                    break;
+                case STROKE_RECT:
+                    backend.strokeRect(a[ai], a[ai + 1], a[ai + 2], a[ai + 3]);
+                    ai += 4;
+                    break;
+                case STROKE_LINE:
+                    backend.strokeLine(a[ai], a[ai + 1], a[ai + 2], a[ai + 3]);
+                    ai += 4;
+                    break;
+                case STROKE_OVAL:
+                    backend.strokeOval(a[ai], a[ai + 1], a[ai + 2], a[ai + 3]);
+                    ai += 4;
+                    break;
+                case DRAW_IMAGE:
+                    backend.drawImage((String) r[ri++], a[ai], a[ai + 1], a[ai + 2], a[ai + 3]);
+                    ai += 4;
+                    break;
+                default:
+                    throw new IllegalStateException("未知的绘制操作: " + op);
+            }
+        }
+    }
+
+    /**
+     * 操作数量
+     */
+    public int size() {
+        return ops.length;
+    }
+
+    public boolean isEmpty() {
+        return ops.length == 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DisplayList)) return false;
+        DisplayList that = (DisplayList) o;
+        return Arrays.equals(ops, that.ops) && Arrays.equals(args, that.args) && Arrays.equals(refs, that.refs);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(ops);
+        result = 31 * result + Arrays.hashCode(args);
+        result = 31 * result + Arrays.hashCode(refs);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "DisplayList[" + ops.length + " ops]";
+    }
+}
@@ -0,0 +1,196 @@
+package slideshow.render;
+
+import javafx.scene.text.Font;
+import javafx.scene.text.FontPosture;
+import javafx.scene.text.FontWeight;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * 字体注册表
+ * 按（字体族、粗细、倾斜、字号）驻留FontSpec和JavaFX字体对象，同样的字体在整个程序中只创建一次；
+ * 并为中日韩文字维护可配置的备选字体链，每种字体只在第一次遇到中文时查找一次可用字体族，之后直接复用
+ */
+public final class FontRegistry {
+    private static final Logger logger = Logger.getLogger(FontRegistry.class.getName());
+
+    /** 通过系统属性覆盖默认的中文备选字体链，多个字体族用逗号分隔 */
+    public static final String CJK_FALLBACK_PROPERTY = "slideshow.font.cjkFallback";
+
+    /** 默认的中文备选字体链，依次覆盖Windows、macOS和常见Linux发行版 */
+    public static final List<String> DEFAULT_CJK_FALLBACK = List.of(
+            "Microsoft YaHei", "PingFang SC", "Hiragino Sans GB", "Noto Sans CJK SC",
+            "Source Han Sans SC", "WenQuanYi Micro Hei", "SimHei", "SimSun");
+
+    /**
+     * 字号的量化步长（磅）
+     * 拖动缩放会把字号连续乘以1.05或0.95，不量化时每次都得到新的字号，驻留表会无限增长
+     */
+    public static final double SIZE_STEP = 0.5;
+
+    private static final Map<FontSpec, FontSpec> specs = new ConcurrentHashMap<>();
+    private static final Map<FontSpec, Font> fonts = new ConcurrentHashMap<>();
+    private static final Map<FontSpec, Font> cjkFonts = new ConcurrentHashMap<>();
+    /** 按字体族单独配置的备选链，未配置的字体族使用默认链 */
+    private static final Map<String, List<String>> fallbackChains = new ConcurrentHashMap<>();
+    private static volatile List<String> defaultCjkChain = loadDefaultChain();
+    private static volatile Set<String> installedFamilies;
+
+    private FontRegistry() {
+    }
+
+    /**
+     * 获取驻留的字体描述，相同参数总是返回同一个实例
+     * 字号先按SIZE_STEP取整，相差不到半个步长的字号共用同一个字体
+     */
+    public static FontSpec spec(String family, FontWeight weight, FontPosture posture, double size) {
+        FontSpec spec = new FontSpec(family, weight, posture, quantizeSize(size));
+        FontSpec existing = specs.putIfAbsent(spec, spec);
+        return existing == null ? spec : existing;
+    }
+
+    /**
+     * 把字号取整到SIZE_STEP的整数倍，最小为一个步长
+     */
+    public static double quantizeSize(double size) {
+        return Math.max(SIZE_STEP, Math.round(size / SIZE_STEP) * SIZE_STEP);
+    }
+
+    /**
+     * 解析JavaFX字体，同一描述只创建一次
+     */
+    public static Font font(FontSpec spec) {
+        return fonts.computeIfAbsent(spec, s -> Font.font(s.getFamily(), s.getWeight(), s.getPosture(), s.getSize()));
+    }
+
+    /**
+     * 解析适合绘制指定文字的JavaFX字体：文字含中日韩字符时使用备选链中第一个已安装的字体族
+     */
+    public static Font font(FontSpec spec, String text) {
+        if (!containsCjk(text)) {
+            return font(spec);
+        }
+        return cjkFonts.computeIfAbsent(spec, s -> {
+            String family = resolveFamily(s.getFamily(), installedFamilies());
+            return family == null ? font(s) : Font.font(family, s.getWeight(), s.getPosture(), s.getSize());
+        });
+    }
+
+    /**
+     * 预先创建一组字体，避免第一次绘制时再解析
+     */
+    public static void prewarm(List<FontSpec> fontSpecs) {
+        long start = System.nanoTime();
+        for (FontSpec fontSpec : fontSpecs) {
+            FontSpec interned = spec(fontSpec.getFamily(), fontSpec.getWeight(), fontSpec.getPosture(), fontSpec.getSize());
+            font(interned);
+            font(interned, "中");
+        }
+        logger.info(String.format("已预加载 %d 种字体，耗时 %.1f ms", fontSpecs.size(), (System.nanoTime() - start) / 1e6));
+    }
+
+    /**
+     * 为某个字体族设置中文备选链，传入null或空列表表示恢复默认链
+     */
+    public static void setFallbackChain(String family, List<String> chain) {
+        if (chain == null || chain.isEmpty()) {
+            fallbackChains.remove(family);
+        } else {
+            fallbackChains.put(family, List.copyOf(chain));
+        }
+        cjkFonts.clear();
+    }
+
+    /**
+     * 设置默认的中文备选链，传入null或空列表表示恢复内置链
+     */
+    public static void setDefaultFallbackChain(List<String> chain) {
+        defaultCjkChain = chain == null || chain.isEmpty() ? DEFAULT_CJK_FALLBACK : List.copyOf(chain);
+        cjkFonts.clear();
+    }
+
+    /**
+     * 某个字体族的中文备选链
+     */
+    public static List<String> getFallbackChain(String family) {
+        List<String> chain = fallbackChains.get(family);
+        return chain != null ? chain : defaultCjkChain;
+    }
+
+    /**
+     * 在备选链中找出第一个已安装的字体族，都未安装时返回null
+     *
+     * @param family    首选字体族
+     * @param installed 当前绘制环境中已安装的字体族
+     */
+    public static String resolveFamily(String family, Set<String> installed) {
+        List<String> chain = getFallbackChain(family);
+        if (chain.contains(family) && installed.contains(family)) {
+            // 首选字体族本身就在备选链中，说明它能显示中文
+            return family;
+        }
+        for (String candidate : chain) {
+            if (installed.contains(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 文字中是否含有中日韩字符（含全角标点），只检查字符范围，不做字形查找
+     */
+    public static boolean containsCjk(String text) {
+        if (text == null) {
+            return false;
+        }
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x2E80 && (c <= 0x9FFF
+                    || (c >= 0xAC00 && c <= 0xD7AF)
+                    || (c >= 0xF900 && c <= 0xFAFF)
+                    || (c >= 0xFE30 && c <= 0xFE4F)
+                    || (c >= 0xFF00 && c <= 0xFFEF))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 已驻留的字体数量
+     */
+    public static int size() {
+        return fonts.size();
+    }
+
+    private static Set<String> installedFamilies() {
+        Set<String> families = installedFamilies;
+        if (families == null) {
+            families = Collections.unmodifiableSet(new HashSet<>(Font.getFamilies()));
+            installedFamilies = families;
+        }
+        return families;
+    }
+
+    private static List<String> loadDefaultChain() {
+        String property = System.getProperty(CJK_FALLBACK_PROPERTY);
+        if (property == null || property.isBlank()) {
+            return DEFAULT_CJK_FALLBACK;
+        }
+        List<String> chain = new ArrayList<>();
+        for (String family : property.split(",")) {
+            if (!family.isBlank()) {
+                chain.add(family.trim());
+            }
+        }
+        return chain.isEmpty() ? DEFAULT_CJK_FALLBACK : List.copyOf(chain);
+    }
+}
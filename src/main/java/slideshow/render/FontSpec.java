@@ -0,0 +1,70 @@
+package slideshow.render;
+
+import javafx.scene.text.FontPosture;
+import javafx.scene.text.FontWeight;
+
+import java.util.Objects;
+
+/**
+ * 与后端无关的字体描述，各后端据此解析出自己的字体对象并缓存
+ */
+public final class FontSpec {
+    private final String family;
+    private final FontWeight weight;
+    private final FontPosture posture;
+    private final double size;
+    private final int hash;
+
+    public FontSpec(String family, FontWeight weight, FontPosture posture, double size) {
+        this.family = family;
+        this.weight = weight == null ? FontWeight.NORMAL : weight;
+        this.posture = posture == null ? FontPosture.REGULAR : posture;
+        this.size = size;
+        this.hash = Objects.hash(family, this.weight, this.posture, size);
+    }
+
+    public String getFamily() {
+        return family;
+    }
+
+    public FontWeight getWeight() {
+        return weight;
+    }
+
+    public FontPosture getPosture() {
+        return posture;
+    }
+
+    public double getSize() {
+        return size;
+    }
+
+    public boolean isBold() {
+        return weight.getWeight() >= FontWeight.SEMI_BOLD.getWeight();
+    }
+
+    public boolean isItalic() {
+        return posture == FontPosture.ITALIC;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FontSpec)) return false;
+        FontSpec that = (FontSpec) o;
+        return Double.compare(size, that.size) == 0
+                && weight == that.weight
+                && posture == that.posture
+                && Objects.equals(family, that.family);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return family + " " + weight + " " + posture + " " + size;
+    }
+}
@@ -0,0 +1,272 @@
+package slideshow.render;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Stroke;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * 绘制到Java2D（如BufferedImage）的后端，不依赖JavaFX运行环境，可在任意线程使用
+ */
+public class Java2DRenderBackend implements RenderBackend {
+    private static final Logger logger = Logger.getLogger(Java2DRenderBackend.class.getName());
+
+    private static final FontRenderContext FONT_RENDER_CONTEXT = new FontRenderContext(null, true, true);
+    private static final Map<FontSpec, Font> fonts = new ConcurrentHashMap<>();
+    private static final Map<FontSpec, Font> cjkFonts = new ConcurrentHashMap<>();
+    private static volatile Set<String> installedFamilies;
+    /** 图片按URL缓存，同一批幻灯片中重复出现的图片只解码一次 */
+    private static final Map<String, Optional<BufferedImage>> images = new ConcurrentHashMap<>();
+
+    /** 录制显示列表时使用的行高，与本后端的文字排版一致 */
+    public static final RecordingRenderBackend.LineMetrics LINE_METRICS = Java2DRenderBackend::lineHeight;
+
+    private final Graphics2D g;
+    private final ArrayDeque<State> stack = new ArrayDeque<>();
+    private State state = new State();
+
+    /**
+     * 可保存和恢复的绘制状态
+     */
+    private static final class State {
+        AffineTransform transform;
+        java.awt.Color fill = java.awt.Color.BLACK;
+        java.awt.Color stroke = java.awt.Color.BLACK;
+        double lineWidth = 1.0;
+        double dash;
+        Stroke awtStroke = new BasicStroke(1.0f);
+        FontSpec font;
+
+        State copy() {
+            State copy = new State();
+            copy.transform = transform;
+            copy.fill = fill;
+            copy.stroke = stroke;
+            copy.lineWidth = lineWidth;
+            copy.dash = dash;
+            copy.awtStroke = awtStroke;
+            copy.font = font;
+            return copy;
+        }
+    }
+
+    public Java2DRenderBackend(Graphics2D g) {
+        this.g = g;
+    }
+
+    /**
+     * 解析字体，同一描述只创建一次
+     */
+    public static Font font(FontSpec spec) {
+        return fonts.computeIfAbsent(spec, s -> new Font(s.getFamily(), style(s), 1).deriveFont((float) s.getSize()));
+    }
+
+    /**
+     * 绘制中文时使用的字体，每种字体描述只查找一次
+     * 首选字体能显示中文时直接使用，否则依次尝试FontRegistry的备选链，都没有时改用逻辑字体，由JDK组合系统中可用的字体
+     */
+    public static Font cjkFont(FontSpec spec) {
+        return cjkFonts.computeIfAbsent(spec, s -> {
+            Font primary = font(s);
+            if (primary.canDisplay('中')) {
+                return primary;
+            }
+            String family = FontRegistry.resolveFamily(s.getFamily(), installedFamilies());
+            String resolved = family != null ? family : Font.SANS_SERIF;
+            return new Font(resolved, style(s), 1).deriveFont((float) s.getSize());
+        });
+    }
+
+    /**
+     * 字体行高（上升+下降+行距）
+     */
+    public static double lineHeight(FontSpec spec) {
+        return font(spec).getLineMetrics("Ag", FONT_RENDER_CONTEXT).getHeight();
+    }
+
+    /**
+     * 清空图片缓存
+     */
+    public static void clearImageCache() {
+        images.clear();
+    }
+
+    @Override
+    public void save() {
+        state.transform = g.getTransform();
+        stack.push(state);
+        state = state.copy();
+    }
+
+    @Override
+    public void restore() {
+        State previous = stack.poll();
+        if (previous != null) {
+            state = previous;
+            g.setTransform(state.transform);
+            g.setStroke(state.awtStroke);
+        }
+    }
+
+    @Override
+    public void translate(double x, double y) {
+        g.translate(x, y);
+    }
+
+    @Override
+    public void scale(double x, double y) {
+        g.scale(x, y);
+    }
+
+    @Override
+    public void setFill(javafx.scene.paint.Color color) {
+        state.fill = toAwtColor(color);
+    }
+
+    @Override
+    public void setStroke(javafx.scene.paint.Color color) {
+        state.stroke = toAwtColor(color);
+    }
+
+    @Override
+    public void setLineWidth(double width) {
+        state.lineWidth = width;
+        updateStroke();
+    }
+
+    @Override
+    public void setLineDash(double dash) {
+        state.dash = dash;
+        updateStroke();
+    }
+
+    @Override
+    public void setFont(FontSpec font) {
+        state.font = font;
+    }
+
+    @Override
+    public double getLineHeight() {
+        return state.font == null ? 0 : lineHeight(state.font);
+    }
+
+    @Override
+    public void fillText(String text, double x, double y) {
+        if (state.font == null || text.isEmpty()) {
+            return;
+        }
+        g.setFont(FontRegistry.containsCjk(text) ? cjkFont(state.font) : font(state.font));
+        g.setColor(state.fill);
+        g.drawString(text, (float) x, (float) y);
+    }
+
+    @Override
+    public void fillRect(double x, double y, double width, double height) {
+        g.setColor(state.fill);
+        g.fill(new Rectangle2D.Double(x, y, width, height));
+    }
+
+    @Override
+    public void strokeRect(double x, double y, double width, double height) {
+        g.setColor(state.stroke);
+        g.draw(new Rectangle2D.Double(x, y, width, height));
+    }
+
+    @Override
+    public void strokeLine(double x1, double y1, double x2, double y2) {
+        g.setColor(state.stroke);
+        g.draw(new Line2D.Double(x1, y1, x2, y2));
+    }
+
+    @Override
+    public void strokeOval(double x, double y, double width, double height) {
+        g.setColor(state.stroke);
+        g.draw(new Ellipse2D.Double(x, y, width, height));
+    }
+
+    @Override
+    public void drawImage(String url, double x, double y, double width, double height) {
+        BufferedImage image = loadImage(url);
+        if (image == null) {
+            return;
+        }
+        AffineTransform transform = g.getTransform();
+        g.translate(x, y);
+        g.scale(width / image.getWidth(), height / image.getHeight());
+        g.drawImage(image, 0, 0, null);
+        g.setTransform(transform);
+    }
+
+    private void updateStroke() {
+        float width = (float) state.lineWidth;
+        if (state.dash > 0) {
+            state.awtStroke = new BasicStroke(width, BasicStroke.CAP_SQUARE, BasicStroke.JOIN_MITER, 10.0f,
+                    new float[]{(float) state.dash}, 0.0f);
+        } else {
+            state.awtStroke = new BasicStroke(width);
+        }
+        g.setStroke(state.awtStroke);
+    }
+
+    private static BufferedImage loadImage(String url) {
+        if (url == null || url.isEmpty()) {
+            return null;
+        }
+        return images.computeIfAbsent(url, key -> {
+            try (InputStream in = new URL(key).openStream()) {
+                return Optional.ofNullable(ImageIO.read(in));
+            } catch (IOException e) {
+                logger.warning("无法加载图片: " + key + " - " + e.getMessage());
+                return Optional.empty();
+            }
+        }).orElse(null);
+    }
+
+    private static Set<String> installedFamilies() {
+        Set<String> families = installedFamilies;
+        if (families == null) {
+            families = new HashSet<>(Arrays.asList(
+                    GraphicsEnvironment.getLocalGraphicsEnvironment().getAvailableFontFamilyNames()));
+            installedFamilies = families;
+        }
+        return families;
+    }
+
+    private static int style(FontSpec spec) {
+        int style = Font.PLAIN;
+        if (spec.isBold()) {
+            style |= Font.BOLD;
+        }
+        if (spec.isItalic()) {
+            style |= Font.ITALIC;
+        }
+        return style;
+    }
+
+    private static java.awt.Color toAwtColor(javafx.scene.paint.Color color) {
+        if (color == null) {
+            return java.awt.Color.BLACK;
+        }
+        return new java.awt.Color((float) color.getRed(), (float) color.getGreen(), (float) color.getBlue(),
+                (float) color.getOpacity());
+    }
+}
@@ -0,0 +1,258 @@
+package slideshow.render;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 绘制到JavaFX画布的后端
+ */
+public class JavaFxRenderBackend implements RenderBackend {
+
+    private static final Map<FontSpec, Double> lineHeights = new ConcurrentHashMap<>();
+    /**
+     * 图片缓存。按URL加载的图片用软引用，内存紧张时回收，之后重新加载；
+     * 内存图片（剪贴板等）由图片元素持有，这里只用弱引用，元素丢弃后条目随之清除
+     */
+    private static final Map<String, Reference<Image>> images = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<Image> releasedImages = new ReferenceQueue<>();
+    /** 字体栈不能存null，用它表示“未设置字体” */
+    private static final FontSpec NO_FONT = new FontSpec("", null, null, 0);
+    /** 没有URL的内存图片的键前缀 */
+    public static final String MEMORY_IMAGE_PREFIX = "memory:";
+
+    /** 录制显示列表时使用的行高，与本后端的文字排版一致 */
+    public static final RecordingRenderBackend.LineMetrics LINE_METRICS = JavaFxRenderBackend::lineHeight;
+
+    private final GraphicsContext gc;
+    private final ArrayDeque<FontSpec> fontStack = new ArrayDeque<>();
+    private final double[] dashes = new double[1];
+    private FontSpec currentFont;
+    /** 画布上当前生效的字体，与currentFont不同时说明正在使用中文备选字体 */
+    private Font appliedFont;
+
+    public JavaFxRenderBackend(GraphicsContext gc) {
+        this.gc = gc;
+    }
+
+    /**
+     * 解析字体，同一描述只创建一次
+     */
+    public static Font font(FontSpec spec) {
+        return FontRegistry.font(spec);
+    }
+
+    /**
+     * 字体行高，与TextElement测量文字边界的方式一致
+     */
+    public static double lineHeight(FontSpec spec) {
+        return lineHeights.computeIfAbsent(spec, s -> {
+            Text text = new Text("");
+            text.setFont(font(s));
+            return text.getLayoutBounds().getHeight();
+        });
+    }
+
+    /**
+     * 登记已加载的图片，绘制同一URL时直接复用
+     *
+     * @param url   图片URL，内存图片为ImageElement生成的键
+     * @param image 图片，内存图片需由调用方持有，否则可能被回收
+     */
+    public static void cacheImage(String url, Image image) {
+        if (url == null || image == null) {
+            return;
+        }
+        purgeReleasedImages();
+        images.compute(url, (key, cached) -> cached != null && cached.get() != null
+                ? cached : reference(key, image));
+    }
+
+    /**
+     * 按URL获取图片，没有缓存时加载
+     *
+     * @return 图片，内存图片已被回收时返回null
+     */
+    public static Image image(String url) {
+        purgeReleasedImages();
+        Reference<Image> cached = images.get(url);
+        Image image = cached == null ? null : cached.get();
+        if (image == null && !url.startsWith(MEMORY_IMAGE_PREFIX)) {
+            image = new Image(url);
+            images.put(url, reference(url, image));
+        }
+        return image;
+    }
+
+    /**
+     * 清空按URL加载的图片缓存，仍被元素使用的内存图片保留
+     */
+    public static void clearImageCache() {
+        images.keySet().removeIf(url -> !url.startsWith(MEMORY_IMAGE_PREFIX));
+    }
+
+    private static Reference<Image> reference(String url, Image image) {
+        return url.startsWith(MEMORY_IMAGE_PREFIX)
+                ? new WeakImageReference(url, image, releasedImages)
+                : new SoftImageReference(url, image, releasedImages);
+    }
+
+    /**
+     * 移除图片已被回收的条目
+     */
+    private static void purgeReleasedImages() {
+        Reference<? extends Image> released;
+        while ((released = releasedImages.poll()) != null) {
+            images.remove(((CachedImage) released).url(), released);
+        }
+    }
+
+    private interface CachedImage {
+        String url();
+    }
+
+    private static final class SoftImageReference extends SoftReference<Image> implements CachedImage {
+        private final String url;
+
+        SoftImageReference(String url, Image image, ReferenceQueue<Image> queue) {
+            super(image, queue);
+            this.url = url;
+        }
+
+        @Override
+        public String url() {
+            return url;
+        }
+    }
+
+    private static final class WeakImageReference extends WeakReference<Image> implements CachedImage {
+        private final String url;
+
+        WeakImageReference(String url, Image image, ReferenceQueue<Image> queue) {
+            super(image, queue);
+            this.url = url;
+        }
+
+        @Override
+        public String url() {
+            return url;
+        }
+    }
+
+    @Override
+    public void save() {
+        gc.save();
+        fontStack.push(currentFont == null ? NO_FONT : currentFont);
+    }
+
+    @Override
+    public void restore() {
+        gc.restore();
+        FontSpec font = fontStack.poll();
+        currentFont = font == NO_FONT ? null : font;
+        appliedFont = gc.getFont();
+    }
+
+    @Override
+    public void translate(double x, double y) {
+        gc.translate(x, y);
+    }
+
+    @Override
+    public void scale(double x, double y) {
+        gc.scale(x, y);
+    }
+
+    @Override
+    public void setFill(Color color) {
+        gc.setFill(color);
+    }
+
+    @Override
+    public void setStroke(Color color) {
+        gc.setStroke(color);
+    }
+
+    @Override
+    public void setLineWidth(double width) {
+        gc.setLineWidth(width);
+    }
+
+    @Override
+    public void setLineDash(double dash) {
+        if (dash > 0) {
+            // GraphicsContext会复制虚线数组，这里复用同一个数组
+            dashes[0] = dash;
+            gc.setLineDashes(dashes);
+        } else {
+            gc.setLineDashes(null);
+        }
+    }
+
+    @Override
+    public void setFont(FontSpec font) {
+        currentFont = font;
+        applyFont(font(font));
+    }
+
+    @Override
+    public double getLineHeight() {
+        return currentFont == null ? 0 : lineHeight(currentFont);
+    }
+
+    @Override
+    public void fillText(String text, double x, double y) {
+        if (currentFont != null) {
+            applyFont(FontRegistry.font(currentFont, text));
+        }
+        gc.fillText(text, x, y);
+    }
+
+    @Override
+    public void fillRect(double x, double y, double width, double height) {
+        gc.fillRect(x, y, width, height);
+    }
+
+    @Override
+    public void strokeRect(double x, double y, double width, double height) {
+        gc.strokeRect(x, y, width, height);
+    }
+
+    @Override
+    public void strokeLine(double x1, double y1, double x2, double y2) {
+        gc.strokeLine(x1, y1, x2, y2);
+    }
+
+    @Override
+    public void strokeOval(double x, double y, double width, double height) {
+        gc.strokeOval(x, y, width, height);
+    }
+
+    @Override
+    public void drawImage(String url, double x, double y, double width, double height) {
+        if (url == null) {
+            return;
+        }
+        Image image = image(url);
+        if (image != null) {
+            gc.drawImage(image, x, y, width, height);
+        }
+    }
+
+    private void applyFont(Font font) {
+        if (font != appliedFont) {
+            gc.setFont(font);
+            appliedFont = font;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package slideshow.render;
+
+import javafx.scene.paint.Color;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * 录制绘制操作的后端，结果是可缓存、可在任意后端回放的显示列表
+ */
+public class RecordingRenderBackend implements RenderBackend {
+
+    /**
+     * 录制时用于多行文字排版的行高来源，应与回放目标后端一致
+     */
+    public interface LineMetrics {
+        double lineHeight(FontSpec font);
+    }
+
+    /** 字体栈不能存null，用它表示“未设置字体” */
+    private static final FontSpec NO_FONT = new FontSpec("", null, null, 0);
+
+    private final LineMetrics metrics;
+    private final ArrayDeque<FontSpec> fontStack = new ArrayDeque<>();
+    private FontSpec currentFont;
+
+    private int[] ops = new int[32];
+    private double[] args = new double[64];
+    private Object[] refs = new Object[16];
+    private int opCount;
+    private int argCount;
+    private int refCount;
+
+    /**
+     * @param metrics 行高来源，如 JavaFxRenderBackend::lineHeight 或 Java2DRenderBackend::lineHeight
+     */
+    public RecordingRenderBackend(LineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * 生成显示列表，之后可继续录制，已生成的列表不受影响
+     */
+    public DisplayList toDisplayList() {
+        if (opCount == 0) {
+            return DisplayList.EMPTY;
+        }
+        return new DisplayList(Arrays.copyOf(ops, opCount), Arrays.copyOf(args, argCount), Arrays.copyOf(refs, refCount));
+    }
+
+    /**
+     * 清空已录制的操作
+     */
+    public void reset() {
+        opCount = 0;
+        argCount = 0;
+        Arrays.fill(refs, 0, refCount, null);
+        refCount = 0;
+        fontStack.clear();
+        currentFont = null;
+    }
+
+    @Override
+    public void save() {
+        op(DisplayList.SAVE);
+        fontStack.push(currentFont == null ? NO_FONT : currentFont);
+    }
+
+    @Override
+    public void restore() {
+        op(DisplayList.RESTORE);
+        FontSpec font = fontStack.poll();
+        currentFont = font == NO_FONT ? null : font;
+    }
+
+    @Override
+    public void translate(double x, double y) {
+        op(DisplayList.TRANSLATE);
+        arg(x);
+        arg(y);
+    }
+
+    @Override
+    public void scale(double x, double y) {
+        op(DisplayList.SCALE);
+        arg(x);
+        arg(y);
+    }
+
+    @Override
+    public void setFill(Color color) {
+        op(DisplayList.SET_FILL);
+        ref(color);
+    }
+
+    @Override
+    public void setStroke(Color color) {
+        op(DisplayList.SET_STROKE);
+        ref(color);
+    }
+
+    @Override
+    public void setLineWidth(double width) {
+        op(DisplayList.LINE_WIDTH);
+        arg(width);
+    }
+
+    @Override
+    public void setLineDash(double dash) {
+        op(DisplayList.LINE_DASH);
+        arg(dash);
+    }
+
+    @Override
+    public void setFont(FontSpec font) {
+        currentFont = font;
+        op(DisplayList.SET_FONT);
+        ref(font);
+    }
+
+    @Override
+    public double getLineHeight() {
+        return currentFont == null ? 0 : metrics.lineHeight(currentFont);
+    }
+
+    @Override
+    public void fillText(String text, double x, double y) {
+        op(DisplayList.FILL_TEXT);
+        ref(text);
+        arg(x);
+        arg(y);
+    }
+
+    @Override
+    public void fillRect(double x, double y, double width, double height) {
+        op4(DisplayList.FILL_RECT, x, y, width, height);
+    }
+
+    @Override
+    public void strokeRect(double x, double y, double width, double height) {
+        op4(DisplayList.STROKE_RECT, x, y, width, height);
+    }
+
+    @Override
+    public void strokeLine(double x1, double y1, double x2, double y2) {
+        op4(DisplayList.STROKE_LINE, x1, y1, x2, y2);
+    }
+
+    @Override
+    public void strokeOval(double x, double y, double width, double height) {
+        op4(DisplayList.STROKE_OVAL, x, y, width, height);
+    }
+
+    @Override
+    public void drawImage(String url, double x, double y, double width, double height) {
+        if (url == null) {
+            return;
+        }
+        op(DisplayList.DRAW_IMAGE);
+        ref(url);
+        arg(x);
+        arg(y);
+        arg(width);
+        arg(height);
+    }
+
+    private void op4(int op, double a, double b, double c, double d) {
+        op(op);
+        arg(a);
+        arg(b);
+        arg(c);
+        arg(d);
+    }
+
+    private void op(int op) {
+        if (opCount == ops.length) {
+            ops = Arrays.copyOf(ops, opCount * 2);
+        }
+        ops[opCount++] = op;
+    }
+
+    private void arg(double value) {
+        if (argCount == args.length) {
+            args = Arrays.copyOf(args, argCount * 2);
+        }
+        args[argCount++] = value;
+    }
+
+    private void ref(Object value) {
+        if (refCount == refs.length) {
+            refs = Arrays.copyOf(refs, refCount * 2);
+        }
+        refs[refCount++] = value;
+    }
+}
@@ -0,0 +1,61 @@
+package slideshow.render;
+
+import javafx.scene.paint.Color;
+
+/**
+ * 幻灯片元素的绘制后端
+ * 元素只通过这组基本操作（图形、文字、图片、变换和状态栈）描述自己的外观，
+ * 由具体后端决定画到JavaFX画布、Java2D图片还是记录为显示列表
+ */
+public interface RenderBackend {
+
+    /**
+     * 保存当前状态（变换、颜色、线宽、虚线、字体）
+     */
+    void save();
+
+    /**
+     * 恢复最近一次保存的状态
+     */
+    void restore();
+
+    void translate(double x, double y);
+
+    void scale(double x, double y);
+
+    void setFill(Color color);
+
+    void setStroke(Color color);
+
+    void setLineWidth(double width);
+
+    /**
+     * 设置虚线段长，0表示实线
+     */
+    void setLineDash(double dash);
+
+    void setFont(FontSpec font);
+
+    /**
+     * 当前字体的行高，用于多行文字排版
+     */
+    double getLineHeight();
+
+    /**
+     * 以基线位置绘制单行文字
+     */
+    void fillText(String text, double x, double y);
+
+    void fillRect(double x, double y, double width, double height);
+
+    void strokeRect(double x, double y, double width, double height);
+
+    void strokeLine(double x1, double y1, double x2, double y2);
+
+    void strokeOval(double x, double y, double width, double height);
+
+    /**
+     * 按URL绘制图片，图片的加载和缓存由后端负责
+     */
+    void drawImage(String url, double x, double y, double width, double height);
+}
@@ -0,0 +1,318 @@
+package slideshow.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 中文分词器
+ * 基于词典的双数组Trie树构建词图(DAG)，用动态规划求最大概率切分路径；
+ * 未登录词由相邻的单字合并或重叠二元组兜底，拉丁字母与数字按连续片段切分
+ */
+public class ChineseSegmenter {
+    private static final Logger logger = Logger.getLogger(ChineseSegmenter.class.getName());
+
+    /** 默认词典资源，每行格式为“词 词频”，以#开头的行为注释 */
+    public static final String DEFAULT_DICTIONARY = "/dict/cjk_words.txt";
+
+    /** 单个词条参与匹配的最大候选数 */
+    private static final int MAX_CANDIDATES = 32;
+
+    /** 未登录词片段合并为一个词的最大长度，超过后改为重叠二元组 */
+    private static final int MAX_MERGED_OOV_LENGTH = 4;
+
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            // 中文虚词与常见代词
+            "的", "了", "在", "是", "我", "有", "和", "就", "不", "人", "都", "一", "一个",
+            "上", "也", "很", "到", "说", "要", "去", "你", "会", "着", "没有", "看", "好",
+            "自己", "这", "那", "他", "她", "它", "们", "与", "及", "或", "等", "被", "把",
+            "对", "从", "为", "以", "而", "之", "其", "中", "将", "由", "于", "向", "给",
+            "我们", "你们", "他们", "她们", "它们", "这个", "那个", "这些", "那些", "这样",
+            "那样", "什么", "怎么", "如何", "因为", "所以", "但是", "如果", "而且", "或者",
+            "以及", "已经", "还是", "就是", "可以", "进行", "通过", "一些", "其中", "对于",
+            "关于", "之后", "之前", "以上", "以下", "非常", "主要", "包括", "需要", "能够",
+            "并且", "以便", "然后", "同时", "目前", "各种", "以后", "可能", "应该", "没",
+            // 英文停用词
+            "the", "a", "an", "and", "or", "but", "in", "on", "at", "to", "for", "of",
+            "with", "by", "is", "are", "was", "were", "be", "been", "this", "that",
+            "these", "those", "it", "its", "as", "from", "we", "you", "they", "our"
+    ));
+
+    private static volatile ChineseSegmenter instance;
+
+    private final DoubleArrayTrie trie = new DoubleArrayTrie();
+    private float[] logProbabilities = new float[0];
+    private float minLogProbability = -20f;
+    private int wordCount;
+
+    /**
+     * 获取使用默认词典的共享实例（首次调用时加载词典）
+     */
+    public static ChineseSegmenter getInstance() {
+        if (instance == null) {
+            synchronized (ChineseSegmenter.class) {
+                if (instance == null) {
+                    instance = loadDefault();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private static ChineseSegmenter loadDefault() {
+        long start = System.currentTimeMillis();
+        Map<String, Integer> dictionary = new TreeMap<>();
+        try (InputStream in = ChineseSegmenter.class.getResourceAsStream(DEFAULT_DICTIONARY)) {
+            if (in == null) {
+                logger.warning("未找到分词词典资源: " + DEFAULT_DICTIONARY + "，将仅使用单字与二元组切分");
+            } else {
+                readDictionary(in, dictionary);
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "加载分词词典失败", e);
+        }
+        ChineseSegmenter segmenter = new ChineseSegmenter(dictionary);
+        logger.info("分词词典加载完成: " + segmenter.getWordCount() + " 个词条, 耗时 "
+                + (System.currentTimeMillis() - start) + "ms");
+        return segmenter;
+    }
+
+    /**
+     * 从输入流读取词典，每行格式为“词 词频”（词频可省略）
+     */
+    public static void readDictionary(InputStream in, Map<String, Integer> dictionary) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("\\s+");
+            int frequency = 1;
+            if (parts.length > 1) {
+                try {
+                    frequency = Math.max(1, Integer.parseInt(parts[1]));
+                } catch (NumberFormatException e) {
+                    // 词频格式错误时按1处理
+                }
+            }
+            dictionary.merge(parts[0].toLowerCase(), frequency, Math::max);
+        }
+    }
+
+    /**
+     * 使用指定词典构建分词器
+     *
+     * @param dictionary 词条到词频的映射
+     */
+    public ChineseSegmenter(Map<String, Integer> dictionary) {
+        TreeMap<String, Integer> sorted = dictionary instanceof TreeMap
+                ? (TreeMap<String, Integer>) dictionary : new TreeMap<>(dictionary);
+        List<String> keys = new ArrayList<>(sorted.size());
+        int[] ids = new int[sorted.size()];
+        long total = 0;
+        for (Map.Entry<String, Integer> entry : sorted.entrySet()) {
+            if (entry.getKey().isEmpty()) {
+                continue;
+            }
+            ids[keys.size()] = keys.size();
+            keys.add(entry.getKey());
+            total += entry.getValue();
+        }
+        ids = Arrays.copyOf(ids, keys.size());
+
+        double logTotal = Math.log(Math.max(1, total));
+        logProbabilities = new float[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            logProbabilities[i] = (float) (Math.log(sorted.get(keys.get(i))) - logTotal);
+        }
+        minLogProbability = (float) -logTotal;
+        wordCount = keys.size();
+        trie.build(keys, ids);
+    }
+
+    /**
+     * 对文本分词
+     *
+     * @param text 文本
+     * @return 按出现顺序排列的词语（拉丁字母已转为小写，不含空白和标点）
+     */
+    public List<String> segment(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>(Math.max(8, text.length() / 2));
+        char[] chars = text.toCharArray();
+        Workspace workspace = new Workspace();
+        int i = 0;
+        while (i < chars.length) {
+            char c = chars[i];
+            if (isCjk(c)) {
+                int end = i + 1;
+                while (end < chars.length && isCjk(chars[end])) {
+                    end++;
+                }
+                segmentCjk(chars, i, end, workspace, tokens);
+                i = end;
+            } else if (Character.isLetterOrDigit(c)) {
+                int end = i + 1;
+                while (end < chars.length && isLatinWordPart(chars[end])) {
+                    end++;
+                }
+                tokens.add(new String(chars, i, end - i).toLowerCase());
+                i = end;
+            } else {
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * 分词并过滤停用词和单字符
+     *
+     * @param text 文本
+     * @return 可作为关键词候选的词语
+     */
+    public List<String> segmentForKeywords(String text) {
+        List<String> tokens = segment(text);
+        List<String> result = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            if (token.length() > 1 && !isStopWord(token)) {
+                result.add(token);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 动态规划切分连续的中文片段
+     */
+    private void segmentCjk(char[] chars, int start, int end, Workspace ws, List<String> tokens) {
+        int n = end - start;
+        ws.ensure(n);
+        float[] best = ws.best;
+        int[] next = ws.next;
+        best[n] = 0f;
+
+        // 从右向左求每个位置到结尾的最大对数概率
+        for (int i = n - 1; i >= 0; i--) {
+            int count = trie.commonPrefixSearch(chars, start + i, end, ws.ends, ws.ids);
+            float bestScore = minLogProbability + best[i + 1];
+            int bestNext = i + 1;
+            for (int k = 0; k < count; k++) {
+                int j = ws.ends[k] - start;
+                float score = logProbabilities[ws.ids[k]] + best[j];
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestNext = j;
+                }
+            }
+            best[i] = bestScore;
+            next[i] = bestNext;
+        }
+
+        // 沿最优路径输出，连续的未登录单字交给兜底策略处理
+        int i = 0;
+        int oovStart = -1;
+        while (i < n) {
+            int j = next[i];
+            if (j == i + 1 && isOovCandidate(chars[start + i])) {
+                if (oovStart < 0) {
+                    oovStart = i;
+                }
+            } else {
+                if (oovStart >= 0) {
+                    emitOov(chars, start + oovStart, start + i, tokens);
+                    oovStart = -1;
+                }
+                tokens.add(new String(chars, start + i, j - i));
+            }
+            i = j;
+        }
+        if (oovStart >= 0) {
+            emitOov(chars, start + oovStart, start + n, tokens);
+        }
+    }
+
+    /**
+     * 未登录词兜底：短片段整体作为一个词，长片段输出重叠二元组
+     */
+    private void emitOov(char[] chars, int from, int to, List<String> tokens) {
+        int length = to - from;
+        if (length <= MAX_MERGED_OOV_LENGTH) {
+            tokens.add(new String(chars, from, length));
+        } else {
+            for (int k = from; k < to - 1; k++) {
+                tokens.add(new String(chars, k, 2));
+            }
+        }
+    }
+
+    /**
+     * 单字是否可能属于未登录词（停用单字如“的”“了”会切断未登录片段）
+     */
+    private boolean isOovCandidate(char c) {
+        return !STOP_WORDS.contains(String.valueOf(c));
+    }
+
+    /**
+     * 判断词是否在词典中
+     */
+    public boolean contains(String word) {
+        return word != null && trie.exactMatch(word.toLowerCase()) >= 0;
+    }
+
+    /**
+     * 判断是否为停用词
+     */
+    public static boolean isStopWord(String word) {
+        return STOP_WORDS.contains(word.toLowerCase());
+    }
+
+    /**
+     * 判断是否为中日韩统一表意文字
+     */
+    public static boolean isCjk(char c) {
+        return (c >= '一' && c <= '鿿') || (c >= '㐀' && c <= '䶿')
+                || (c >= '豈' && c <= '﫿');
+    }
+
+    private static boolean isLatinWordPart(char c) {
+        return !isCjk(c) && (Character.isLetterOrDigit(c) || c == '+' || c == '#');
+    }
+
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    /**
+     * 单次分词复用的工作数组
+     */
+    private static class Workspace {
+        float[] best = new float[64];
+        int[] next = new int[64];
+        final int[] ends = new int[MAX_CANDIDATES];
+        final int[] ids = new int[MAX_CANDIDATES];
+
+        void ensure(int n) {
+            if (best.length < n + 1) {
+                best = new float[n + 1];
+                next = new int[n + 1];
+            }
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package slideshow.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 双数组Trie树
+ * 用于词典的精确查找和前缀匹配；字符先映射为紧凑编码，使base/check数组保持较小规模
+ */
+public class DoubleArrayTrie {
+    private static final int NOT_FOUND = -1;
+
+    private int[] base = new int[0];
+    private int[] check = new int[0];
+    private int[] value = new int[0];
+    private boolean[] used = new boolean[0];
+    private int size;
+    private int nextCheckPos;
+
+    /** 字符到紧凑编码的映射，0表示字符不在词典字母表中 */
+    private final char[] charCode = new char[Character.MAX_VALUE + 1];
+
+    private List<String> keys;
+    private int[] keyValues;
+
+    /**
+     * 兄弟节点（构建期间使用）
+     */
+    private static class Node {
+        int code;
+        int depth;
+        int left;
+        int right;
+    }
+
+    /**
+     * 构建Trie树
+     *
+     * @param sortedKeys 按字典序排列且不重复的词条
+     * @param values     与词条一一对应的值（非负）
+     */
+    public void build(List<String> sortedKeys, int[] values) {
+        if (sortedKeys.size() != values.length) {
+            throw new IllegalArgumentException("词条数量与值数量不一致");
+        }
+        this.keys = sortedKeys;
+        this.keyValues = values;
+
+        assignCharCodes(sortedKeys);
+
+        int initial = Math.max(1024, sortedKeys.size() * 4);
+        base = new int[initial];
+        check = new int[initial];
+        value = new int[initial];
+        used = new boolean[initial];
+        Arrays.fill(value, NOT_FOUND);
+        size = 1;
+        nextCheckPos = 0;
+
+        Node root = new Node();
+        root.depth = 0;
+        root.left = 0;
+        root.right = sortedKeys.size();
+
+        List<Node> siblings = fetch(root);
+        if (!siblings.isEmpty()) {
+            base[0] = insert(0, siblings);
+        }
+
+        // 释放构建期间的引用并收缩数组
+        this.keys = null;
+        this.keyValues = null;
+        this.used = null;
+        base = Arrays.copyOf(base, size);
+        check = Arrays.copyOf(check, size);
+        value = Arrays.copyOf(value, size);
+    }
+
+    /**
+     * 按字符序分配编码，保证兄弟节点的编码与词条顺序一致
+     */
+    private void assignCharCodes(List<String> sortedKeys) {
+        Arrays.fill(charCode, (char) 0);
+        boolean[] seen = new boolean[Character.MAX_VALUE + 1];
+        for (String key : sortedKeys) {
+            for (int i = 0; i < key.length(); i++) {
+                seen[key.charAt(i)] = true;
+            }
+        }
+        int code = 0;
+        for (int c = 0; c < seen.length; c++) {
+            if (seen[c]) {
+                if (code == Character.MAX_VALUE - 1) {
+                    throw new IllegalStateException("词典字母表过大");
+                }
+                charCode[c] = (char) ++code;
+            }
+        }
+    }
+
+    private List<Node> fetch(Node parent) {
+        List<Node> siblings = new ArrayList<>();
+        int prev = -1;
+        for (int i = parent.left; i < parent.right; i++) {
+            String key = keys.get(i);
+            if (key.length() < parent.depth) {
+                continue;
+            }
+            int cur = key.length() == parent.depth ? 0 : charCode[key.charAt(parent.depth)];
+            if (cur != prev) {
+                if (!siblings.isEmpty()) {
+                    siblings.get(siblings.size() - 1).right = i;
+                }
+                Node node = new Node();
+                node.code = cur;
+                node.depth = parent.depth + 1;
+                node.left = i;
+                siblings.add(node);
+                prev = cur;
+            }
+        }
+        if (!siblings.isEmpty()) {
+            siblings.get(siblings.size() - 1).right = parent.right;
+        }
+        return siblings;
+    }
+
+    private int insert(int parent, List<Node> siblings) {
+        int firstCode = siblings.get(0).code;
+        int lastCode = siblings.get(siblings.size() - 1).code;
+        int pos = Math.max(firstCode + 1, nextCheckPos) - 1;
+        int nonZero = 0;
+        boolean first = true;
+        int begin;
+
+        outer:
+        while (true) {
+            pos++;
+            ensureCapacity(pos + 1);
+            if (check[pos] != 0) {
+                nonZero++;
+                continue;
+            } else if (first) {
+                nextCheckPos = pos;
+                first = false;
+            }
+
+            begin = pos - firstCode;
+            if (begin < 1) {
+                continue;
+            }
+            ensureCapacity(begin + lastCode + 1);
+            if (used[begin]) {
+                continue;
+            }
+            for (Node sibling : siblings) {
+                if (check[begin + sibling.code] != 0) {
+                    continue outer;
+                }
+            }
+            break;
+        }
+
+        // 已占用比例过高时推进起始搜索位置
+        if (1.0 * nonZero / (pos - nextCheckPos + 1) >= 0.95) {
+            nextCheckPos = pos;
+        }
+
+        used[begin] = true;
+        size = Math.max(size, begin + lastCode + 1);
+
+        for (Node sibling : siblings) {
+            check[begin + sibling.code] = parent + 1;
+        }
+
+        for (Node sibling : siblings) {
+            int index = begin + sibling.code;
+            if (sibling.code == 0) {
+                value[index] = keyValues[sibling.left];
+            } else {
+                List<Node> children = fetch(sibling);
+                base[index] = insert(index, children);
+            }
+        }
+        return begin;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= check.length) {
+            return;
+        }
+        int newSize = Math.max(required, check.length * 2);
+        base = Arrays.copyOf(base, newSize);
+        check = Arrays.copyOf(check, newSize);
+        int oldLength = value.length;
+        value = Arrays.copyOf(value, newSize);
+        Arrays.fill(value, oldLength, newSize, NOT_FOUND);
+        used = Arrays.copyOf(used, newSize);
+    }
+
+    /**
+     * 精确查找词条
+     *
+     * @param key 词条
+     * @return 词条对应的值，不存在时返回-1
+     */
+    public int exactMatch(CharSequence key) {
+        int state = 0;
+        for (int i = 0; i < key.length(); i++) {
+            state = transition(state, key.charAt(i));
+            if (state < 0) {
+                return NOT_FOUND;
+            }
+        }
+        return terminalValue(state);
+    }
+
+    /**
+     * 查找以start开头的所有词条
+     *
+     * @param text      文本
+     * @param start     起始位置
+     * @param end       结束位置（不含）
+     * @param endsOut   输出：每个匹配词条的结束位置（不含）
+     * @param valuesOut 输出：每个匹配词条的值
+     * @return 匹配的数量（不超过输出数组长度）
+     */
+    public int commonPrefixSearch(char[] text, int start, int end, int[] endsOut, int[] valuesOut) {
+        int count = 0;
+        int state = 0;
+        for (int i = start; i < end && count < endsOut.length; i++) {
+            state = transition(state, text[i]);
+            if (state < 0) {
+                break;
+            }
+            int v = terminalValue(state);
+            if (v != NOT_FOUND) {
+                endsOut[count] = i + 1;
+                valuesOut[count] = v;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int transition(int state, char c) {
+        int code = charCode[c];
+        if (code == 0) {
+            return NOT_FOUND;
+        }
+        int next = base[state] + code;
+        if (next >= check.length || check[next] != state + 1) {
+            return NOT_FOUND;
+        }
+        return next;
+    }
+
+    private int terminalValue(int state) {
+        int terminal = base[state];
+        if (terminal <= 0 || terminal >= check.length || check[terminal] != state + 1) {
+            return NOT_FOUND;
+        }
+        return value[terminal];
+    }
+
+    /**
+     * 获取双数组占用的槽位数
+     */
+    public int getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,822 @@
+package slideshow.util;
+
+import slideshow.model.Slide;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 全文检索索引
+ * 对已保存演示文稿的每页文本和演讲稿文件建立带位置信息的倒排索引，支持词、短语（双引号）和前缀（以*结尾）查询。
+ * 索引内容以追加日志形式保存在 index/fulltext.log，启动时重放日志重建内存索引，删除的文档累积过多时压缩日志
+ */
+public class FullTextIndex {
+    private static final Logger logger = Logger.getLogger(FullTextIndex.class.getName());
+
+    private static final String LOG_FILE = "fulltext.log";
+
+    private static final byte OP_ADD = 1;
+    private static final byte OP_REMOVE = 2;
+
+    /** 前缀查询最多展开的词数 */
+    private static final int MAX_PREFIX_EXPANSION = 256;
+    /** 摘要前后保留的字符数 */
+    private static final int SNIPPET_CONTEXT = 30;
+    /** 触发日志压缩的最少已删除单元数 */
+    private static final int COMPACT_THRESHOLD = 1000;
+
+    /**
+     * 文档类型
+     */
+    public enum DocumentType {
+        PRESENTATION, SPEECH
+    }
+
+    /**
+     * 搜索结果
+     */
+    public static class SearchHit {
+        private final String documentPath;
+        private final DocumentType type;
+        private final int slideIndex;
+        private final String snippet;
+        private final double score;
+
+        public SearchHit(String documentPath, DocumentType type, int slideIndex, String snippet, double score) {
+            this.documentPath = documentPath;
+            this.type = type;
+            this.slideIndex = slideIndex;
+            this.snippet = snippet;
+            this.score = score;
+        }
+
+        public String getDocumentPath() { return documentPath; }
+        public DocumentType getType() { return type; }
+        /** 命中的幻灯片序号（从0开始），演讲稿为-1 */
+        public int getSlideIndex() { return slideIndex; }
+        public String getSnippet() { return snippet; }
+        public double getScore() { return score; }
+
+        @Override
+        public String toString() {
+            String location = type == DocumentType.SPEECH ? "演讲稿" : "第" + (slideIndex + 1) + "页";
+            return Paths.get(documentPath).getFileName() + " [" + location + "] " + snippet;
+        }
+    }
+
+    /**
+     * 索引单元：演示文稿的一页或一份演讲稿
+     */
+    private static class Unit {
+        final String documentKey;
+        final DocumentType type;
+        final int slideIndex;
+        final String text;
+        /** 单元中出现的不同词，删除时据此从倒排列表中移除该单元；删除后置为null */
+        String[] terms;
+
+        Unit(String documentKey, DocumentType type, int slideIndex, String text) {
+            this.documentKey = documentKey;
+            this.type = type;
+            this.slideIndex = slideIndex;
+            this.text = text;
+        }
+    }
+
+    /**
+     * 单个词的倒排列表，单元编号递增追加，位置信息平铺存储
+     */
+    private static class Postings {
+        int[] units = new int[4];
+        int[] offsets = new int[5];
+        int[] positions = new int[8];
+        int count;
+
+        void add(int unit, int[] unitPositions, int positionCount) {
+            if (count == units.length) {
+                units = Arrays.copyOf(units, units.length * 2);
+                offsets = Arrays.copyOf(offsets, units.length + 1);
+            }
+            int start = offsets[count];
+            if (start + positionCount > positions.length) {
+                positions = Arrays.copyOf(positions, Math.max(positions.length * 2, start + positionCount));
+            }
+            System.arraycopy(unitPositions, 0, positions, start, positionCount);
+            units[count] = unit;
+            offsets[count + 1] = start + positionCount;
+            count++;
+        }
+
+        int frequency(int index) {
+            return offsets[index + 1] - offsets[index];
+        }
+
+        /**
+         * 移除一个单元及其位置信息
+         *
+         * @return 该单元是否在列表中
+         */
+        boolean remove(int unit) {
+            int index = Arrays.binarySearch(units, 0, count, unit);
+            if (index < 0) {
+                return false;
+            }
+            int start = offsets[index];
+            int end = offsets[index + 1];
+            int width = end - start;
+            System.arraycopy(positions, end, positions, start, offsets[count] - end);
+            System.arraycopy(units, index + 1, units, index, count - index - 1);
+            for (int i = index + 1; i <= count; i++) {
+                offsets[i - 1] = offsets[i] - width;
+            }
+            count--;
+            return true;
+        }
+    }
+
+    /**
+     * 已索引的文档记录
+     */
+    private static class DocumentRecord {
+        final DocumentType type;
+        final long lastModified;
+        final int[] unitIds;
+
+        DocumentRecord(DocumentType type, long lastModified, int[] unitIds) {
+            this.type = type;
+            this.lastModified = lastModified;
+            this.unitIds = unitIds;
+        }
+    }
+
+    private static volatile FullTextIndex instance;
+
+    private final Path logFile;
+    private final List<Unit> units = new ArrayList<>();
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<String, DocumentRecord> documents = new HashMap<>();
+    private int deletedUnits;
+
+    /**
+     * 获取共享实例（首次调用时重放索引日志）
+     */
+    public static FullTextIndex getInstance() {
+        if (instance == null) {
+            synchronized (FullTextIndex.class) {
+                if (instance == null) {
+                    instance = new FullTextIndex(KeywordIndex.indexDirectory().resolve(LOG_FILE));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 使用指定日志文件创建索引
+     *
+     * @param logFile 索引日志路径
+     */
+    public FullTextIndex(Path logFile) {
+        this.logFile = logFile;
+        load();
+    }
+
+    /**
+     * 索引演示文稿（每页一个单元）
+     *
+     * @param filePath 演示文稿文件路径
+     * @param slides   幻灯片列表
+     */
+    public void indexPresentation(String filePath, List<Slide> slides) {
+        List<String> texts = new ArrayList<>(slides.size());
+        for (Slide slide : slides) {
+            texts.add(String.join("\n", slide.getTextContent()));
+        }
+        putDocument(KeywordIndex.documentKey(filePath), DocumentType.PRESENTATION, lastModified(filePath), texts);
+    }
+
+    /**
+     * 索引演讲稿文件（去掉文件头后整体作为一个单元）
+     *
+     * @param filePath 演讲稿文件路径
+     */
+    public void indexSpeech(String filePath) {
+        try {
+            String content = Files.readString(Paths.get(filePath), StandardCharsets.UTF_8);
+            putDocument(KeywordIndex.documentKey(filePath), DocumentType.SPEECH, lastModified(filePath),
+                    List.of(SpeechManager.stripHeader(content)));
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "索引演讲稿失败: " + filePath, e);
+        }
+    }
+
+    /**
+     * 从索引中移除文档
+     *
+     * @param filePath 文档路径
+     */
+    public synchronized void removeDocument(String filePath) {
+        String key = KeywordIndex.documentKey(filePath);
+        if (removeFromMemory(key)) {
+            appendRemove(key);
+            compactIfNeeded();
+        }
+    }
+
+    /**
+     * 与演讲稿目录同步：补充索引新增或修改的演讲稿，移除已不存在的文档
+     *
+     * @param speechDir 演讲稿目录
+     */
+    public void synchronize(Path speechDir) {
+        List<String> missing;
+        synchronized (this) {
+            missing = documents.keySet().stream()
+                    .filter(key -> !Files.exists(Paths.get(key)))
+                    .collect(Collectors.toList());
+        }
+        missing.forEach(this::removeDocument);
+
+        if (!Files.isDirectory(speechDir)) {
+            return;
+        }
+        List<Path> speechFiles;
+        try (Stream<Path> files = Files.list(speechDir)) {
+            speechFiles = files.filter(p -> p.toString().endsWith("_speech.txt")).collect(Collectors.toList());
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "同步演讲稿索引失败", e);
+            return;
+        }
+        for (Path path : speechFiles) {
+            String key = KeywordIndex.documentKey(path.toString());
+            DocumentRecord record;
+            synchronized (this) {
+                record = documents.get(key);
+            }
+            if (record == null || record.lastModified != lastModified(path.toString())) {
+                indexSpeech(path.toString());
+            }
+        }
+    }
+
+    /**
+     * 搜索
+     * 查询由空格分隔的多个条件组成，所有条件都需满足：
+     * 普通词语（分词后多于一个词时按短语匹配）、"双引号短语"、以*结尾的前缀
+     *
+     * @param query 查询语句
+     * @param limit 最多返回的结果数
+     * @return 按相关度排序的结果
+     */
+    public synchronized List<SearchHit> search(String query, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        List<Clause> clauses = parseQuery(query);
+        if (clauses.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // 逐个条件求交集，单元编号有序，双指针合并
+        int[] candidates = null;
+        double[] scores = null;
+        int size = 0;
+        for (Clause clause : clauses) {
+            Matches matches = clause.evaluate();
+            if (matches.size == 0) {
+                return new ArrayList<>();
+            }
+            double idf = Math.log(1.0 + (double) liveUnits() / matches.size);
+            if (candidates == null) {
+                candidates = Arrays.copyOf(matches.units, matches.size);
+                scores = new double[matches.size];
+                for (int i = 0; i < matches.size; i++) {
+                    scores[i] = termScore(idf, matches.frequencies[i]);
+                }
+                size = matches.size;
+                continue;
+            }
+            int kept = 0;
+            for (int i = 0, j = 0; i < size && j < matches.size; ) {
+                if (candidates[i] < matches.units[j]) {
+                    i++;
+                } else if (candidates[i] > matches.units[j]) {
+                    j++;
+                } else {
+                    candidates[kept] = candidates[i];
+                    scores[kept] = scores[i] + termScore(idf, matches.frequencies[j]);
+                    kept++;
+                    i++;
+                    j++;
+                }
+            }
+            size = kept;
+            if (size == 0) {
+                return new ArrayList<>();
+            }
+        }
+
+        // 小顶堆保留得分最高的limit个结果
+        final double[] finalScores = scores;
+        PriorityQueue<Integer> top = new PriorityQueue<>(
+                (a, b) -> Double.compare(finalScores[a], finalScores[b]));
+        for (int i = 0; i < size; i++) {
+            if (top.size() < limit) {
+                top.add(i);
+            } else if (scores[i] > scores[top.peek()]) {
+                top.poll();
+                top.add(i);
+            }
+        }
+        List<Integer> ranked = new ArrayList<>(top);
+        ranked.sort((a, b) -> Double.compare(finalScores[b], finalScores[a]));
+
+        String highlight = clauses.get(0).highlightText();
+        List<SearchHit> hits = new ArrayList<>(ranked.size());
+        for (int i : ranked) {
+            Unit unit = units.get(candidates[i]);
+            hits.add(new SearchHit(unit.documentKey, unit.type, unit.slideIndex,
+                    snippet(unit.text, highlight), scores[i]));
+        }
+        return hits;
+    }
+
+    private static double termScore(double idf, int tf) {
+        return idf * tf * 2.2 / (tf + 1.2);
+    }
+
+    /**
+     * 获取已索引的文档数量
+     */
+    public synchronized int getDocumentCount() {
+        return documents.size();
+    }
+
+    // ---------------------------------------------------------------- 查询解析
+
+    /**
+     * 条件的命中结果，按单元编号递增排列
+     */
+    private static class Matches {
+        int[] units = new int[16];
+        int[] frequencies = new int[16];
+        int size;
+
+        void add(int unit, int frequency) {
+            if (size == units.length) {
+                units = Arrays.copyOf(units, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            units[size] = unit;
+            frequencies[size] = frequency;
+            size++;
+        }
+    }
+
+    private interface Clause {
+        /** 返回命中的单元及命中次数 */
+        Matches evaluate();
+
+        /** 用于生成摘要的文本 */
+        String highlightText();
+    }
+
+    private List<Clause> parseQuery(String query) {
+        List<Clause> clauses = new ArrayList<>();
+        if (query == null) {
+            return clauses;
+        }
+        ChineseSegmenter segmenter = ChineseSegmenter.getInstance();
+        int i = 0;
+        int n = query.length();
+        while (i < n) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            if (c == '"' || c == '“') {
+                int end = i + 1;
+                while (end < n && query.charAt(end) != '"' && query.charAt(end) != '”') {
+                    end++;
+                }
+                String phrase = query.substring(i + 1, end);
+                addTokenClause(clauses, segmenter.segment(phrase), phrase);
+                i = end + 1;
+                continue;
+            }
+            int end = i;
+            while (end < n && !Character.isWhitespace(query.charAt(end))) {
+                end++;
+            }
+            String word = query.substring(i, end);
+            if (word.endsWith("*") && word.length() > 1) {
+                String prefix = word.substring(0, word.length() - 1).toLowerCase();
+                clauses.add(new PrefixClause(prefix));
+            } else {
+                addTokenClause(clauses, segmenter.segment(word), word);
+            }
+            i = end;
+        }
+        return clauses;
+    }
+
+    private void addTokenClause(List<Clause> clauses, List<String> tokens, String text) {
+        if (tokens.isEmpty()) {
+            return;
+        }
+        clauses.add(new PhraseClause(tokens, text));
+    }
+
+    /**
+     * 短语条件（单个词时即为普通词条件）：逐个比较位置是否相邻
+     */
+    private class PhraseClause implements Clause {
+        private final List<String> tokens;
+        private final String text;
+
+        PhraseClause(List<String> tokens, String text) {
+            this.tokens = tokens;
+            this.text = text;
+        }
+
+        @Override
+        public Matches evaluate() {
+            Matches result = new Matches();
+            Postings[] lists = new Postings[tokens.size()];
+            for (int k = 0; k < lists.length; k++) {
+                lists[k] = terms.get(tokens.get(k));
+                if (lists[k] == null) {
+                    return result;
+                }
+            }
+
+            // 从最短的倒排列表出发，减少比较次数
+            int driver = 0;
+            for (int k = 1; k < lists.length; k++) {
+                if (lists[k].count < lists[driver].count) {
+                    driver = k;
+                }
+            }
+            Postings first = lists[driver];
+            int[] cursors = new int[lists.length];
+            int[] found = new int[lists.length];
+            outer:
+            for (int idx = 0; idx < first.count; idx++) {
+                int unit = first.units[idx];
+                if (lists.length == 1) {
+                    result.add(unit, first.frequency(idx));
+                    continue;
+                }
+                // 各倒排列表的单元编号递增，游标只向前移动
+                for (int k = 0; k < lists.length; k++) {
+                    Postings list = lists[k];
+                    int cursor = cursors[k];
+                    while (cursor < list.count && list.units[cursor] < unit) {
+                        cursor++;
+                    }
+                    cursors[k] = cursor;
+                    if (cursor == list.count || list.units[cursor] != unit) {
+                        continue outer;
+                    }
+                    found[k] = cursor;
+                }
+                int matches = countPhraseMatches(lists, found);
+                if (matches > 0) {
+                    result.add(unit, matches);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * 以该单元内出现次数最少的词为锚点，检查其余词是否出现在相邻位置
+         */
+        private int countPhraseMatches(Postings[] lists, int[] found) {
+            int anchor = 0;
+            for (int k = 1; k < lists.length; k++) {
+                if (lists[k].frequency(found[k]) < lists[anchor].frequency(found[anchor])) {
+                    anchor = k;
+                }
+            }
+            int matches = 0;
+            Postings head = lists[anchor];
+            for (int p = head.offsets[found[anchor]]; p < head.offsets[found[anchor] + 1]; p++) {
+                int start = head.positions[p] - anchor;
+                if (start < 0) {
+                    continue;
+                }
+                boolean ok = true;
+                for (int k = 0; k < lists.length && ok; k++) {
+                    if (k == anchor) {
+                        continue;
+                    }
+                    Postings list = lists[k];
+                    ok = Arrays.binarySearch(list.positions, list.offsets[found[k]],
+                            list.offsets[found[k] + 1], start + k) >= 0;
+                }
+                if (ok) {
+                    matches++;
+                }
+            }
+            return matches;
+        }
+
+        @Override
+        public String highlightText() {
+            return text;
+        }
+    }
+
+    /**
+     * 前缀条件：展开为以该前缀开头的所有词
+     */
+    private class PrefixClause implements Clause {
+        private final String prefix;
+
+        PrefixClause(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Matches evaluate() {
+            NavigableMap<String, Postings> range = terms.subMap(prefix, true, prefix + Character.MAX_VALUE, true);
+            List<Postings> lists = new ArrayList<>();
+            int total = 0;
+            for (Postings list : range.values()) {
+                if (lists.size() == MAX_PREFIX_EXPANSION) {
+                    break;
+                }
+                lists.add(list);
+                total += list.count;
+            }
+            Matches result = new Matches();
+            if (lists.size() == 1) {
+                Postings list = lists.get(0);
+                for (int idx = 0; idx < list.count; idx++) {
+                    result.add(list.units[idx], list.frequency(idx));
+                }
+                return result;
+            }
+
+            // 只处理展开词的倒排项：高32位为单元编号、低32位为词频，排序后合并同一单元
+            long[] entries = new long[total];
+            int n = 0;
+            for (Postings list : lists) {
+                for (int idx = 0; idx < list.count; idx++) {
+                    entries[n++] = ((long) list.units[idx] << 32) | list.frequency(idx);
+                }
+            }
+            Arrays.sort(entries);
+            for (int i = 0; i < n; ) {
+                int unit = (int) (entries[i] >>> 32);
+                int frequency = 0;
+                for (; i < n && (int) (entries[i] >>> 32) == unit; i++) {
+                    frequency += (int) entries[i];
+                }
+                result.add(unit, frequency);
+            }
+            return result;
+        }
+
+        @Override
+        public String highlightText() {
+            return prefix;
+        }
+    }
+
+    private static String snippet(String text, String highlight) {
+        String flat = text.replaceAll("\\s+", " ").trim();
+        int at = flat.toLowerCase().indexOf(highlight.toLowerCase());
+        if (at < 0) {
+            return flat.length() <= SNIPPET_CONTEXT * 2 ? flat : flat.substring(0, SNIPPET_CONTEXT * 2) + "...";
+        }
+        int from = Math.max(0, at - SNIPPET_CONTEXT);
+        int to = Math.min(flat.length(), at + highlight.length() + SNIPPET_CONTEXT);
+        return (from > 0 ? "..." : "") + flat.substring(from, to) + (to < flat.length() ? "..." : "");
+    }
+
+    // ---------------------------------------------------------------- 内存索引维护
+
+    private synchronized void putDocument(String key, DocumentType type, long lastModified, List<String> texts) {
+        removeFromMemory(key);
+        addToMemory(key, type, lastModified, texts);
+        appendAdd(key, type, lastModified, texts);
+        compactIfNeeded();
+    }
+
+    private void addToMemory(String key, DocumentType type, long lastModified, List<String> texts) {
+        ChineseSegmenter segmenter = ChineseSegmenter.getInstance();
+        int[] unitIds = new int[texts.size()];
+        for (int s = 0; s < texts.size(); s++) {
+            String text = texts.get(s);
+            List<String> tokens = segmenter.segment(text);
+            int unitId = units.size();
+            int slideIndex = type == DocumentType.PRESENTATION ? s : -1;
+            Unit unit = new Unit(key, type, slideIndex, text);
+            units.add(unit);
+            unitIds[s] = unitId;
+
+            Map<String, int[]> positions = new LinkedHashMap<>();
+            Map<String, Integer> counts = new HashMap<>();
+            for (int pos = 0; pos < tokens.size(); pos++) {
+                String token = tokens.get(pos);
+                int count = counts.getOrDefault(token, 0);
+                int[] list = positions.get(token);
+                if (list == null) {
+                    list = new int[4];
+                } else if (count == list.length) {
+                    list = Arrays.copyOf(list, list.length * 2);
+                }
+                list[count] = pos;
+                positions.put(token, list);
+                counts.put(token, count + 1);
+            }
+            for (Map.Entry<String, int[]> entry : positions.entrySet()) {
+                terms.computeIfAbsent(entry.getKey(), k -> new Postings())
+                        .add(unitId, entry.getValue(), counts.get(entry.getKey()));
+            }
+            unit.terms = positions.keySet().toArray(new String[0]);
+        }
+        documents.put(key, new DocumentRecord(type, lastModified, unitIds));
+    }
+
+    private boolean removeFromMemory(String key) {
+        DocumentRecord record = documents.remove(key);
+        if (record == null) {
+            return false;
+        }
+        // 立即从倒排列表中移除，查询不会再遇到已删除的单元；单元本身留到压缩时回收
+        for (int unitId : record.unitIds) {
+            Unit unit = units.get(unitId);
+            for (String term : unit.terms) {
+                Postings list = terms.get(term);
+                if (list != null && list.remove(unitId) && list.count == 0) {
+                    terms.remove(term);
+                }
+            }
+            unit.terms = null;
+            deletedUnits++;
+        }
+        return true;
+    }
+
+    private int liveUnits() {
+        return Math.max(1, units.size() - deletedUnits);
+    }
+
+    // ---------------------------------------------------------------- 持久化
+
+    private void load() {
+        if (!Files.exists(logFile)) {
+            return;
+        }
+        RecordLog.replay(logFile, "全文索引", (op, in) -> {
+            if (op == OP_ADD) {
+                String key = in.readUTF();
+                DocumentType type = DocumentType.values()[in.readByte()];
+                long lastModified = in.readLong();
+                int count = in.readInt();
+                List<String> texts = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    texts.add(readText(in));
+                }
+                removeFromMemory(key);
+                addToMemory(key, type, lastModified, texts);
+            } else if (op == OP_REMOVE) {
+                removeFromMemory(in.readUTF());
+            } else {
+                throw new IOException("未知的索引日志记录类型: " + op);
+            }
+        });
+        logger.info("全文索引加载完成: " + documents.size() + " 个文档, " + terms.size() + " 个词");
+        compactIfNeeded();
+    }
+
+    private static String readText(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void appendAdd(String key, DocumentType type, long lastModified, List<String> texts) {
+        try (DataOutputStream out = openLog(false)) {
+            writeAdd(out, key, type, lastModified, texts);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "写入全文索引日志失败", e);
+        }
+    }
+
+    private void appendRemove(String key) {
+        try (DataOutputStream out = openLog(false)) {
+            out.writeByte(OP_REMOVE);
+            out.writeUTF(key);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "写入全文索引日志失败", e);
+        }
+    }
+
+    private static void writeAdd(DataOutputStream out, String key, DocumentType type, long lastModified,
+                                 List<String> texts) throws IOException {
+        out.writeByte(OP_ADD);
+        out.writeUTF(key);
+        out.writeByte(type.ordinal());
+        out.writeLong(lastModified);
+        out.writeInt(texts.size());
+        for (String text : texts) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private DataOutputStream openLog(boolean truncate) throws IOException {
+        Path dir = logFile.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        Path target = truncate ? tempFile() : logFile;
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(target,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                truncate ? StandardOpenOption.TRUNCATE_EXISTING : StandardOpenOption.APPEND)));
+    }
+
+    private Path tempFile() {
+        return logFile.resolveSibling(logFile.getFileName() + ".tmp");
+    }
+
+    /**
+     * 已删除单元多于存活单元时重写日志并重建内存索引
+     */
+    private void compactIfNeeded() {
+        if (deletedUnits < COMPACT_THRESHOLD || deletedUnits < units.size() - deletedUnits) {
+            return;
+        }
+        Map<String, DocumentRecord> live = new LinkedHashMap<>(documents);
+        Map<String, List<String>> texts = new LinkedHashMap<>();
+        for (Map.Entry<String, DocumentRecord> entry : live.entrySet()) {
+            List<String> unitTexts = new ArrayList<>();
+            for (int unitId : entry.getValue().unitIds) {
+                unitTexts.add(units.get(unitId).text);
+            }
+            texts.put(entry.getKey(), unitTexts);
+        }
+        try {
+            try (DataOutputStream out = openLog(true)) {
+                for (Map.Entry<String, DocumentRecord> entry : live.entrySet()) {
+                    DocumentRecord record = entry.getValue();
+                    writeAdd(out, entry.getKey(), record.type, record.lastModified, texts.get(entry.getKey()));
+                }
+            }
+            try {
+                Files.move(tempFile(), logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile(), logFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "压缩全文索引日志失败", e);
+            return;
+        }
+
+        units.clear();
+        terms.clear();
+        documents.clear();
+        deletedUnits = 0;
+        for (Map.Entry<String, DocumentRecord> entry : live.entrySet()) {
+            DocumentRecord record = entry.getValue();
+            addToMemory(entry.getKey(), record.type, record.lastModified, texts.get(entry.getKey()));
+        }
+        logger.info("全文索引日志已压缩: " + documents.size() + " 个文档");
+    }
+
+    private static long lastModified(String filePath) {
+        try {
+            return Files.getLastModifiedTime(Paths.get(filePath)).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+}
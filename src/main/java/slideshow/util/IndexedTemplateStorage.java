@@ -0,0 +1,596 @@
+package slideshow.util;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import slideshow.model.PromptTemplate;
+import slideshow.model.TemplateCategory;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * 带索引和事务日志的模板存储实现
+ * 内存中按ID、名称（忽略大小写）、分类和标签建立哈希索引，关键词搜索使用TemplateSearchIndex；
+ * 每次修改只向日志文件追加一行并同步到磁盘，
+ * 日志累积到一定长度后压缩为快照文件。快照与JsonTemplateStorage的templates.json格式相同，
+ * 先写临时文件再原子替换，任何时刻崩溃都能从“快照+日志”恢复到最后一次成功的修改
+ */
+public class IndexedTemplateStorage implements TemplateStorage {
+    private static final Logger logger = Logger.getLogger(IndexedTemplateStorage.class.getName());
+    private static final String DEFAULT_STORAGE_FILE = "templates.json";
+    private static final String JOURNAL_SUFFIX = ".journal";
+
+    private static final String OP_PUT = "put";
+    private static final String OP_DELETE = "delete";
+    private static final String OP_CLEAR = "clear";
+
+    /** 日志条数达到该值且超过模板数量的两倍时压缩 */
+    private static final int MIN_COMPACT_ENTRIES = 100;
+
+    private static IndexedTemplateStorage defaultInstance;
+
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final Gson gson;
+    private final Gson journalGson;
+
+    private final Map<String, PromptTemplate> byId = new LinkedHashMap<>();
+    private final Map<String, String> idByName = new HashMap<>();
+    private final Map<TemplateCategory, Set<String>> idsByCategory = new EnumMap<>(TemplateCategory.class);
+    private final Map<String, Set<String>> idsByTag = new HashMap<>();
+    /** 每个模板建立索引时的键，模板对象被就地修改后据此清除旧索引 */
+    private final Map<String, IndexedKeys> indexedKeys = new HashMap<>();
+    private final TemplateSearchIndex searchIndex = new TemplateSearchIndex();
+    private final TemplateRankingIndex rankingIndex = new TemplateRankingIndex();
+
+    private int journalEntries;
+
+    /**
+     * 模板被索引时的名称、分类和标签
+     */
+    private static class IndexedKeys {
+        final String name;
+        final TemplateCategory category;
+        final List<String> tags;
+
+        IndexedKeys(String name, TemplateCategory category, List<String> tags) {
+            this.name = name;
+            this.category = category;
+            this.tags = tags;
+        }
+    }
+
+    /**
+     * 获取进程内共享的默认存储（templates.json），多个TemplateManager共用同一份索引和日志
+     */
+    public static synchronized IndexedTemplateStorage getDefault() {
+        if (defaultInstance == null) {
+            defaultInstance = new IndexedTemplateStorage();
+        }
+        return defaultInstance;
+    }
+
+    public IndexedTemplateStorage() {
+        this(DEFAULT_STORAGE_FILE);
+    }
+
+    public IndexedTemplateStorage(String storageFilePath) {
+        this.snapshotFile = Paths.get(storageFilePath);
+        this.journalFile = Paths.get(storageFilePath + JOURNAL_SUFFIX);
+        this.gson = new GsonBuilder()
+                .setPrettyPrinting()
+                .create();
+        this.journalGson = new Gson();
+        load();
+    }
+
+    @Override
+    public synchronized boolean saveTemplate(PromptTemplate template) {
+        try {
+            if (template == null) {
+                logger.warning("模板不能为空");
+                return false;
+            }
+
+            // 检查是否已存在同名模板
+            String existingId = idByName.get(nameKey(template.getName()));
+            if (existingId != null && !existingId.equals(template.getId())) {
+                logger.warning("模板名称已存在: " + template.getName());
+                return false;
+            }
+
+            appendJournal(OP_PUT, template, null);
+            put(template);
+            compactIfNeeded();
+            logger.info("模板保存成功: " + template.getName());
+            return true;
+
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "保存模板失败", e);
+            return false;
+        }
+    }
+
+    @Override
+    public synchronized Optional<PromptTemplate> getTemplateById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    @Override
+    public synchronized Optional<PromptTemplate> getTemplateByName(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        String id = idByName.get(nameKey(name));
+        return id == null ? Optional.empty() : Optional.ofNullable(byId.get(id));
+    }
+
+    @Override
+    public synchronized List<PromptTemplate> getAllTemplates() {
+        return new ArrayList<>(byId.values());
+    }
+
+    @Override
+    public synchronized List<PromptTemplate> getTemplatesByCategory(TemplateCategory category) {
+        if (category == null) {
+            return new ArrayList<>();
+        }
+        return resolve(idsByCategory.getOrDefault(category, Collections.emptySet()));
+    }
+
+    @Override
+    public synchronized List<PromptTemplate> getTemplatesByTag(String tag) {
+        if (tag == null || tag.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        String searchTag = tag.trim().toLowerCase();
+        Set<String> exact = idsByTag.get(searchTag);
+        // 与JsonTemplateStorage一致，标签包含搜索词即视为匹配；只需遍历不同的标签，而不是所有模板
+        Set<String> ids = new LinkedHashSet<>();
+        if (exact != null) {
+            ids.addAll(exact);
+        }
+        for (Map.Entry<String, Set<String>> entry : idsByTag.entrySet()) {
+            if (entry.getValue() != exact && entry.getKey().contains(searchTag)) {
+                ids.addAll(entry.getValue());
+            }
+        }
+        return resolve(ids);
+    }
+
+    @Override
+    public synchronized List<PromptTemplate> searchTemplates(String keyword) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        return searchIndex.search(keyword);
+    }
+
+    @Override
+    public boolean updateTemplate(PromptTemplate template) {
+        return saveTemplate(template);
+    }
+
+    @Override
+    public synchronized boolean deleteTemplate(String id) {
+        try {
+            if (id == null || !byId.containsKey(id)) {
+                return false;
+            }
+            appendJournal(OP_DELETE, null, id);
+            remove(id);
+            compactIfNeeded();
+            logger.info("模板删除成功: " + id);
+            return true;
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "删除模板失败", e);
+            return false;
+        }
+    }
+
+    @Override
+    public synchronized List<PromptTemplate> getFavoriteTemplates() {
+        return resolve(rankingIndex.getFavoriteIds());
+    }
+
+    @Override
+    public synchronized List<PromptTemplate> getMostUsedTemplates(int limit) {
+        return resolve(rankingIndex.getMostUsedIds(limit));
+    }
+
+    @Override
+    public synchronized List<PromptTemplate> getTopRatedTemplates(int limit) {
+        return resolve(rankingIndex.getTopRatedIds(limit));
+    }
+
+    @Override
+    public synchronized List<PromptTemplate> getDefaultTemplates() {
+        return byId.values().stream()
+                .filter(PromptTemplate::isDefault)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public synchronized void metadataChanged(PromptTemplate template) {
+        if (template != null && byId.get(template.getId()) == template) {
+            rankingIndex.update(template);
+        }
+    }
+
+    @Override
+    public synchronized TemplateManager.TemplateStatistics getStatistics() {
+        return rankingIndex.getStatistics();
+    }
+
+    @Override
+    public synchronized boolean templateExists(String id) {
+        return id != null && byId.containsKey(id);
+    }
+
+    @Override
+    public synchronized int getTemplateCount() {
+        return byId.size();
+    }
+
+    @Override
+    public synchronized boolean clearAllTemplates() {
+        try {
+            appendJournal(OP_CLEAR, null, null);
+            clearIndexes();
+            compactIfNeeded();
+            logger.info("All templates cleared");
+            return true;
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "清空模板失败", e);
+            return false;
+        }
+    }
+
+    @Override
+    public synchronized boolean backupTemplates(String backupPath) {
+        try {
+            Path backupDir = Paths.get(backupPath);
+            if (!Files.exists(backupDir)) {
+                Files.createDirectories(backupDir);
+            }
+
+            String backupFileName = "templates_backup_" + System.currentTimeMillis() + ".json";
+            Path backupFile = backupDir.resolve(backupFileName);
+            writeAtomically(backupFile, new ArrayList<>(byId.values()));
+
+            logger.info("Templates backed up successfully: " + backupFile);
+            return true;
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "备份模板失败", e);
+            return false;
+        }
+    }
+
+    @Override
+    public synchronized boolean restoreTemplates(String backupPath) {
+        try {
+            Path backupFile = Paths.get(backupPath);
+            if (!Files.exists(backupFile)) {
+                logger.warning("备份文件不存在: " + backupPath);
+                return false;
+            }
+
+            String json = Files.readString(backupFile, StandardCharsets.UTF_8);
+            List<PromptTemplate> backupTemplates = gson.fromJson(json,
+                    new TypeToken<List<PromptTemplate>>() {
+                    }.getType());
+
+            if (backupTemplates != null) {
+                clearIndexes();
+                backupTemplates.forEach(this::put);
+                compact();
+                logger.info("Templates restored successfully");
+                return true;
+            }
+            return false;
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "恢复模板失败", e);
+            return false;
+        }
+    }
+
+    /**
+     * 立即把日志压缩进快照文件
+     *
+     * @return 是否压缩成功
+     */
+    public synchronized boolean compactNow() {
+        try {
+            compact();
+            return true;
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "压缩模板日志失败", e);
+            return false;
+        }
+    }
+
+    // ---------------------------------------------------------------- 索引维护
+
+    private void put(PromptTemplate template) {
+        unindex(template.getId());
+        byId.put(template.getId(), template);
+
+        List<String> tags = new ArrayList<>();
+        for (String tag : template.getTags()) {
+            String key = tag.toLowerCase();
+            tags.add(key);
+            idsByTag.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(template.getId());
+        }
+        String name = nameKey(template.getName());
+        if (name != null) {
+            idByName.put(name, template.getId());
+        }
+        if (template.getCategory() != null) {
+            idsByCategory.computeIfAbsent(template.getCategory(), k -> new LinkedHashSet<>()).add(template.getId());
+        }
+        indexedKeys.put(template.getId(), new IndexedKeys(name, template.getCategory(), tags));
+        searchIndex.add(template);
+        rankingIndex.update(template);
+    }
+
+    private void remove(String id) {
+        unindex(id);
+        byId.remove(id);
+        searchIndex.remove(id);
+        rankingIndex.remove(id);
+    }
+
+    private void unindex(String id) {
+        IndexedKeys keys = indexedKeys.remove(id);
+        if (keys == null) {
+            return;
+        }
+        if (keys.name != null && id.equals(idByName.get(keys.name))) {
+            idByName.remove(keys.name);
+        }
+        if (keys.category != null) {
+            removeFromIndex(idsByCategory, keys.category, id);
+        }
+        for (String tag : keys.tags) {
+            removeFromIndex(idsByTag, tag, id);
+        }
+    }
+
+    private static <K> void removeFromIndex(Map<K, Set<String>> index, K key, String id) {
+        Set<String> ids = index.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private void clearIndexes() {
+        byId.clear();
+        idByName.clear();
+        idsByCategory.clear();
+        idsByTag.clear();
+        indexedKeys.clear();
+        searchIndex.clear();
+        rankingIndex.clear();
+    }
+
+    private List<PromptTemplate> resolve(Collection<String> ids) {
+        List<PromptTemplate> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            PromptTemplate template = byId.get(id);
+            if (template != null) {
+                result.add(template);
+            }
+        }
+        return result;
+    }
+
+    private static String nameKey(String name) {
+        return name == null ? null : name.trim().toLowerCase();
+    }
+
+    // ---------------------------------------------------------------- 持久化
+
+    /**
+     * 加载快照并重放日志
+     */
+    private void load() {
+        List<PromptTemplate> snapshot = null;
+        try {
+            if (Files.exists(snapshotFile)) {
+                String json = Files.readString(snapshotFile, StandardCharsets.UTF_8);
+                snapshot = gson.fromJson(json, new TypeToken<List<PromptTemplate>>() {
+                }.getType());
+                if (snapshot == null) {
+                    logger.warning("Template file format error, creating default templates");
+                }
+            } else {
+                logger.info("Template file does not exist, creating default templates");
+            }
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "加载模板失败", e);
+        }
+
+        boolean createdDefaults = snapshot == null;
+        if (createdDefaults) {
+            snapshot = JsonTemplateStorage.createDefaultTemplates();
+        }
+        snapshot.forEach(this::put);
+        boolean journalDirty = replayJournal();
+        logger.info("Successfully loaded " + byId.size() + " templates");
+
+        if (createdDefaults || journalDirty || journalEntries > 0) {
+            compactNow();
+        }
+    }
+
+    /**
+     * 按顺序重放日志
+     * 只容忍最后一行不完整（崩溃时写了一半）；中间某行损坏说明日志本身有问题，此时停止重放，
+     * 把日志改名隔离以便人工恢复，不去猜测后续记录是否可信
+     *
+     * @return 日志是否需要通过压缩重写（末尾有半行或已被隔离）
+     */
+    private boolean replayJournal() {
+        if (!Files.exists(journalFile)) {
+            return false;
+        }
+        String[] lines;
+        try {
+            // 不用readAllLines：写了一半的多字节字符会让它直接抛出异常
+            lines = new String(Files.readAllBytes(journalFile), StandardCharsets.UTF_8).split("\n", -1);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "读取模板日志失败", e);
+            return false;
+        }
+        int lastLine = lines.length - 1;
+        while (lastLine >= 0 && lines[lastLine].isBlank()) {
+            lastLine--;
+        }
+        for (int i = 0; i <= lastLine; i++) {
+            if (lines[i].isBlank()) {
+                continue;
+            }
+            try {
+                applyJournalEntry(JsonParser.parseString(lines[i]).getAsJsonObject());
+                journalEntries++;
+            } catch (RuntimeException e) {
+                if (i == lastLine) {
+                    logger.warning("模板日志最后一行不完整（第" + (i + 1) + "行），已忽略");
+                    return true;
+                }
+                logger.log(Level.SEVERE, "模板日志第" + (i + 1) + "行已损坏，停止重放", e);
+                quarantineJournal();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 把损坏的日志改名保留，后续的压缩只会写入损坏位置之前已重放的状态
+     */
+    private void quarantineJournal() {
+        Path quarantined = journalFile.resolveSibling(
+                journalFile.getFileName() + ".corrupt-" + System.currentTimeMillis());
+        try {
+            Files.move(journalFile, quarantined);
+            logger.severe("损坏的模板日志已隔离到 " + quarantined + "，其中未重放的记录需要人工恢复");
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "隔离损坏的模板日志失败", e);
+        }
+    }
+
+    private void applyJournalEntry(JsonObject entry) {
+        String op = entry.get("op").getAsString();
+        switch (op) {
+            case OP_PUT:
+                put(journalGson.fromJson(entry.get("template"), PromptTemplate.class));
+                break;
+            case OP_DELETE:
+                remove(entry.get("id").getAsString());
+                break;
+            case OP_CLEAR:
+                clearIndexes();
+                break;
+            default:
+                throw new IllegalStateException("未知的模板日志操作: " + op);
+        }
+    }
+
+    /**
+     * 追加一条日志并同步到磁盘，写入成功后才修改内存状态
+     */
+    private void appendJournal(String op, PromptTemplate template, String id) throws IOException {
+        JsonObject entry = new JsonObject();
+        entry.addProperty("op", op);
+        if (template != null) {
+            entry.add("template", journalGson.toJsonTree(template));
+        }
+        if (id != null) {
+            entry.addProperty("id", id);
+        }
+        byte[] line = (journalGson.toJson(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+        try (FileOutputStream out = new FileOutputStream(journalFile.toFile(), true)) {
+            out.write(line);
+            out.getFD().sync();
+        }
+        journalEntries++;
+    }
+
+    private void compactIfNeeded() throws IOException {
+        if (journalEntries >= MIN_COMPACT_ENTRIES && journalEntries > byId.size() * 2) {
+            compact();
+        }
+    }
+
+    /**
+     * 把当前状态写为新快照并清空日志
+     * 若在替换快照之后、清空日志之前崩溃，重放日志得到的结果不变（写入/删除/清空操作都是幂等的）
+     */
+    private void compact() throws IOException {
+        writeAtomically(snapshotFile, new ArrayList<>(byId.values()));
+        Files.deleteIfExists(journalFile);
+        journalEntries = 0;
+    }
+
+    /**
+     * 先写临时文件并同步到磁盘，再原子替换目标文件
+     */
+    private void writeAtomically(Path target, List<PromptTemplate> templates) throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             OutputStream out = Channels.newOutputStream(channel);
+             Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            gson.toJson(templates, writer);
+            writer.flush();
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package slideshow.util;
 import javafx.scene.paint.Color;
 import javafx.scene.text.FontWeight;
 import slideshow.model.Slide;
+import slideshow.model.SlideTransform;
 import slideshow.elements.SlideElement;
 import slideshow.elements.TextElement;
 import slideshow.elements.DrawElement;
@@ -314,32 +315,15 @@ public class IntelligentLayoutEngine {
     
     /**
      * 响应式调整布局
+     * 元素几何保持在幻灯片的逻辑坐标空间中不变，只计算适配新尺寸的绘制变换，
+     * 因此反复调整不会累积误差，耗时也与元素数量无关
+     *
+     * @return 逻辑坐标到新尺寸的变换
      */
-    public static void responsiveAdjust(Slide slide, double newWidth, double newHeight) {
-        logger.info("开始响应式调整布局，新尺寸: " + newWidth + "x" + newHeight);
-        
-        // 重新计算所有元素的位置和大小
-        List<SlideElement> elements = slide.getElements();
-        double scaleX = newWidth / slide.getWidth();
-        double scaleY = newHeight / slide.getHeight();
-        
-        for (SlideElement element : elements) {
-            // 调整位置
-            element.setX(element.getX() * scaleX);
-            element.setY(element.getY() * scaleY);
-            
-            // 调整大小（如果元素支持）
-            if (element instanceof TextElement) {
-                TextElement textElement = (TextElement) element;
-                textElement.setWidth(textElement.getWidth() * scaleX);
-                textElement.setHeight(textElement.getHeight() * scaleY);
-            }
-        }
-        
-        slide.setWidth(newWidth);
-        slide.setHeight(newHeight);
-        
-        logger.info("响应式调整完成");
+    public static SlideTransform responsiveAdjust(Slide slide, double newWidth, double newHeight) {
+        SlideTransform transform = SlideTransform.fit(newWidth, newHeight);
+        logger.info("响应式调整布局，新尺寸: " + newWidth + "x" + newHeight + "，" + transform);
+        return transform;
     }
     
     /**
@@ -312,7 +312,7 @@ public class JsonTemplateStorage implements TemplateStorage {
     /**
      * 创建默认模板
      */
-    private List<PromptTemplate> createDefaultTemplates() {
+    static List<PromptTemplate> createDefaultTemplates() {
         List<PromptTemplate> defaultTemplates = new ArrayList<>();
 
         // 主题PPT生成模板
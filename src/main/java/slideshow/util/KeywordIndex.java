@@ -0,0 +1,461 @@
+package slideshow.util;
+
+import slideshow.model.Slide;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 跨演示文稿的关键词统计索引
+ * 记录每个词出现在多少份已保存演示文稿中（文档频率），用于本地计算TF-IDF/BM25权重。
+ * 索引以紧凑的二进制快照保存在 index/term_stats.dat；演示文稿保存时只向 term_stats.dat.log 追加该文档的一条记录，
+ * 保存耗时与已索引的演示文稿数量无关。日志记录数达到已索引文档数时合并进快照，启动时先读快照再重放日志
+ */
+public class KeywordIndex {
+    private static final Logger logger = Logger.getLogger(KeywordIndex.class.getName());
+
+    /** 通过系统属性指定索引目录（关键词索引和全文索引共用），未设置时使用工作目录下的index */
+    public static final String INDEX_DIR_PROPERTY = "slideshow.index.dir";
+
+    private static final String INDEX_DIR = "index";
+    private static final String INDEX_FILE = "term_stats.dat";
+    private static final int MAGIC = 0x4B574958; // "KWIX"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final byte OP_UPDATE = 1;
+    private static final byte OP_REMOVE = 2;
+    /** 触发合并的最少日志记录数，文档较多时以文档数为准，使合并开销分摊到每次保存上为常数 */
+    private static final int COMPACT_MIN_RECORDS = 64;
+
+    /** BM25参数 */
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static volatile KeywordIndex instance;
+
+    private final Path indexFile;
+    private final Path logFile;
+    private final Map<String, int[]> documentFrequency = new HashMap<>();
+    private final Map<String, DocumentStats> documents = new HashMap<>();
+    private long totalLength;
+    private int loggedRecords;
+
+    /**
+     * 单个演示文稿的统计信息（文档长度和去重后的词集合）
+     */
+    private static class DocumentStats {
+        final int length;
+        final String[] terms;
+
+        DocumentStats(int length, String[] terms) {
+            this.length = length;
+            this.terms = terms;
+        }
+    }
+
+    /**
+     * 获取共享实例（首次调用时从磁盘加载）
+     */
+    public static KeywordIndex getInstance() {
+        if (instance == null) {
+            synchronized (KeywordIndex.class) {
+                if (instance == null) {
+                    instance = new KeywordIndex(indexDirectory().resolve(INDEX_FILE));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 共享实例所在的索引目录
+     */
+    static Path indexDirectory() {
+        return Paths.get(System.getProperty(INDEX_DIR_PROPERTY, INDEX_DIR));
+    }
+
+    /**
+     * 使用指定索引文件创建索引
+     *
+     * @param indexFile 索引文件路径
+     */
+    public KeywordIndex(Path indexFile) {
+        this.indexFile = indexFile;
+        this.logFile = indexFile.resolveSibling(indexFile.getFileName() + ".log");
+        load();
+        replayLog();
+    }
+
+    /**
+     * 演示文稿保存后更新索引
+     *
+     * @param filePath 演示文稿文件路径
+     * @param slides   幻灯片列表
+     */
+    public void updatePresentation(String filePath, List<Slide> slides) {
+        List<String> terms = new ArrayList<>();
+        ChineseSegmenter segmenter = ChineseSegmenter.getInstance();
+        for (Slide slide : slides) {
+            for (String text : slide.getTextContent()) {
+                terms.addAll(segmenter.segmentForKeywords(text));
+            }
+        }
+        updateDocument(documentKey(filePath), terms);
+    }
+
+    /**
+     * 更新单个文档的词集合，先撤销旧版本的文档频率再计入新版本
+     *
+     * @param documentKey 文档标识
+     * @param terms       文档中的词（可重复）
+     */
+    public synchronized void updateDocument(String documentKey, List<String> terms) {
+        String[] unique = terms.stream().distinct().sorted().toArray(String[]::new);
+        DocumentStats previous = documents.get(documentKey);
+        if (previous != null && previous.length == terms.size() && Arrays.equals(previous.terms, unique)) {
+            return;
+        }
+        putStats(documentKey, new DocumentStats(terms.size(), unique));
+        appendLog(OP_UPDATE, documentKey, documents.get(documentKey));
+    }
+
+    private void putStats(String documentKey, DocumentStats stats) {
+        removeStats(documents.put(documentKey, stats));
+        totalLength += stats.length;
+        for (String term : stats.terms) {
+            documentFrequency.computeIfAbsent(term, k -> new int[1])[0]++;
+        }
+    }
+
+    /**
+     * 从索引中移除文档
+     *
+     * @param documentKey 文档标识
+     */
+    public synchronized void removeDocument(String documentKey) {
+        DocumentStats previous = documents.remove(documentKey);
+        if (previous != null) {
+            removeStats(previous);
+            appendLog(OP_REMOVE, documentKey, null);
+        }
+    }
+
+    /**
+     * 立即把日志合并进快照
+     */
+    public synchronized void compact() {
+        if (save()) {
+            try {
+                Files.deleteIfExists(logFile);
+                loggedRecords = 0;
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "删除关键词索引日志失败", e);
+            }
+        }
+    }
+
+    private void removeStats(DocumentStats stats) {
+        if (stats == null) {
+            return;
+        }
+        totalLength -= stats.length;
+        for (String term : stats.terms) {
+            int[] count = documentFrequency.get(term);
+            if (count != null && --count[0] <= 0) {
+                documentFrequency.remove(term);
+            }
+        }
+    }
+
+    /**
+     * 计算逆文档频率
+     * 当前分析的文档视为语料中的一份文档（N+1, df+1），保证未保存的演示文稿也能得到合理权重
+     *
+     * @param term 词
+     * @return BM25形式的IDF值（恒为正）
+     */
+    public synchronized double idf(String term) {
+        return idf(term, null);
+    }
+
+    /**
+     * 计算逆文档频率，当前分析的文档已被索引时不重复计入
+     *
+     * @param term        词
+     * @param documentKey 当前分析的文档标识（documentKey），未保存的文档传null
+     * @return BM25形式的IDF值（恒为正）
+     */
+    public synchronized double idf(String term, String documentKey) {
+        DocumentStats self = documentKey != null ? documents.get(documentKey) : null;
+        int[] count = documentFrequency.get(term);
+        int df = (count != null ? count[0] : 0) + 1;
+        int n = documents.size() + 1;
+        if (self != null) {
+            n--;
+            if (Arrays.binarySearch(self.terms, term) >= 0) {
+                df--;
+            }
+        }
+        return Math.log(1.0 + (n - df + 0.5) / (df + 0.5));
+    }
+
+    /**
+     * 计算文档中各词的BM25得分
+     *
+     * @param termFrequency 词频
+     * @return 按得分从高到低排列的词与得分
+     */
+    public synchronized LinkedHashMap<String, Double> scoreBm25(Map<String, Integer> termFrequency) {
+        return scoreBm25(termFrequency, null);
+    }
+
+    /**
+     * 计算文档中各词的BM25得分，当前文档已被索引时从文档频率和平均长度中排除它的旧版本
+     *
+     * @param termFrequency 词频
+     * @param documentKey   当前分析的文档标识（documentKey），未保存的文档传null
+     * @return 按得分从高到低排列的词与得分
+     */
+    public synchronized LinkedHashMap<String, Double> scoreBm25(Map<String, Integer> termFrequency, String documentKey) {
+        int documentLength = 0;
+        for (int tf : termFrequency.values()) {
+            documentLength += tf;
+        }
+        DocumentStats self = documentKey != null ? documents.get(documentKey) : null;
+        int otherDocuments = documents.size() - (self != null ? 1 : 0);
+        long otherLength = totalLength - (self != null ? self.length : 0);
+        double averageLength = otherDocuments == 0
+                ? Math.max(1, documentLength)
+                : (double) (otherLength + documentLength) / (otherDocuments + 1);
+        double norm = K1 * (1 - B + B * documentLength / averageLength);
+
+        List<Map.Entry<String, Double>> scored = new ArrayList<>(termFrequency.size());
+        for (Map.Entry<String, Integer> entry : termFrequency.entrySet()) {
+            int tf = entry.getValue();
+            double score = idf(entry.getKey(), documentKey) * tf * (K1 + 1) / (tf + norm);
+            scored.add(Map.entry(entry.getKey(), score));
+        }
+        scored.sort(Map.Entry.<String, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+
+        LinkedHashMap<String, Double> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Double> entry : scored) {
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * 获取已索引的文档数量
+     */
+    public synchronized int getDocumentCount() {
+        return documents.size();
+    }
+
+    /**
+     * 获取词的文档频率
+     */
+    public synchronized int getDocumentFrequency(String term) {
+        int[] count = documentFrequency.get(term);
+        return count != null ? count[0] : 0;
+    }
+
+    /**
+     * 规范化演示文稿路径作为文档标识
+     */
+    public static String documentKey(String filePath) {
+        return Paths.get(filePath).toAbsolutePath().normalize().toString();
+    }
+
+    /**
+     * 从磁盘加载快照，文件不存在或损坏时从空索引开始
+     */
+    private void load() {
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                logger.warning("关键词索引格式不兼容，将重新建立: " + indexFile);
+                return;
+            }
+            int termCount = readVarInt(in);
+            String[] terms = new String[termCount];
+            for (int i = 0; i < termCount; i++) {
+                terms[i] = in.readUTF();
+            }
+            int documentCount = readVarInt(in);
+            for (int d = 0; d < documentCount; d++) {
+                String key = in.readUTF();
+                int length = readVarInt(in);
+                int count = readVarInt(in);
+                String[] documentTerms = new String[count];
+                int termId = 0;
+                for (int i = 0; i < count; i++) {
+                    termId += readVarInt(in);
+                    documentTerms[i] = terms[termId];
+                    documentFrequency.computeIfAbsent(terms[termId], k -> new int[1])[0]++;
+                }
+                documents.put(key, new DocumentStats(length, documentTerms));
+                totalLength += length;
+            }
+            logger.info("关键词索引加载完成: " + documents.size() + " 个演示文稿, " + termCount + " 个词");
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "关键词索引加载失败，将重新建立", e);
+            documentFrequency.clear();
+            documents.clear();
+            totalLength = 0;
+        }
+    }
+
+    /**
+     * 保存快照：词表只写一次，各文档以递增词编号的差值（变长整数）记录
+     * 先写入临时文件再原子替换，避免写入中断导致索引损坏
+     */
+    private boolean save() {
+        try {
+            Path dir = indexFile.toAbsolutePath().getParent();
+            if (dir != null) {
+                Files.createDirectories(dir);
+            }
+            String[] terms = documentFrequency.keySet().toArray(new String[0]);
+            Arrays.sort(terms);
+            Map<String, Integer> termIds = new HashMap<>(terms.length * 2);
+            for (int i = 0; i < terms.length; i++) {
+                termIds.put(terms[i], i);
+            }
+
+            Path temp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                writeVarInt(out, terms.length);
+                for (String term : terms) {
+                    out.writeUTF(term);
+                }
+                writeVarInt(out, documents.size());
+                for (Map.Entry<String, DocumentStats> entry : documents.entrySet()) {
+                    DocumentStats stats = entry.getValue();
+                    out.writeUTF(entry.getKey());
+                    writeVarInt(out, stats.length);
+                    writeVarInt(out, stats.terms.length);
+                    int previousId = 0;
+                    for (String term : stats.terms) {
+                        int id = termIds.get(term);
+                        writeVarInt(out, id - previousId);
+                        previousId = id;
+                    }
+                }
+            }
+            try {
+                Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "保存关键词索引失败", e);
+            return false;
+        }
+    }
+
+    /**
+     * 重放快照之后追加的日志。每条记录都是文档的完整新状态或删除，重复重放结果不变，
+     * 因此合并后删除日志前中断也不会出错；末尾不完整或损坏的记录被截断
+     */
+    private void replayLog() {
+        loggedRecords += RecordLog.replay(logFile, "关键词索引", (op, in) -> {
+            String key = in.readUTF();
+            if (op == OP_UPDATE) {
+                int length = readVarInt(in);
+                String[] terms = new String[readVarInt(in)];
+                for (int i = 0; i < terms.length; i++) {
+                    terms[i] = in.readUTF();
+                }
+                putStats(key, new DocumentStats(length, terms));
+            } else if (op == OP_REMOVE) {
+                removeStats(documents.remove(key));
+            } else {
+                throw new IOException("未知的关键词索引日志记录类型: " + op);
+            }
+        });
+        compactIfNeeded();
+    }
+
+    private void appendLog(byte op, String documentKey, DocumentStats stats) {
+        try {
+            Path dir = logFile.toAbsolutePath().getParent();
+            if (dir != null) {
+                Files.createDirectories(dir);
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(logFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)))) {
+                out.writeByte(op);
+                out.writeUTF(documentKey);
+                if (op == OP_UPDATE) {
+                    writeVarInt(out, stats.length);
+                    writeVarInt(out, stats.terms.length);
+                    for (String term : stats.terms) {
+                        out.writeUTF(term);
+                    }
+                }
+            }
+            loggedRecords++;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "写入关键词索引日志失败", e);
+        }
+        compactIfNeeded();
+    }
+
+    private void compactIfNeeded() {
+        if (loggedRecords >= Math.max(COMPACT_MIN_RECORDS, documents.size())) {
+            compact();
+        }
+    }
+
+    static void writeVarInt(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static int readVarInt(InputStream in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        while (true) {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("索引文件意外结束");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+            if (shift > 28) {
+                throw new IOException("索引文件中的整数格式错误");
+            }
+        }
+    }
+}
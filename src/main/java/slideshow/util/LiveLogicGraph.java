@@ -0,0 +1,179 @@
+package slideshow.util;
+
+import slideshow.model.Slide;
+import slideshow.util.SlideStructureAnalyzer.SlideSummary;
+import slideshow.util.graph.LogicGraph;
+import slideshow.util.graph.LogicGraphDiff;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 随编辑同步的逻辑关系图
+ * 与SlideStructureAnalyzer.buildLogicGraph(analyzeStructure(slides, documentPath))生成相同的图，但按幻灯片缓存中间结果：
+ * 每页的分析结果（SlideStructureAnalyzer.summarizeSlide）以该页文本元素的内容为键缓存，只有内容变化的幻灯片需要重新分词；
+ * 撤销恢复的深拷贝、调整顺序、复制幻灯片都能命中缓存。全文词频按页增减维护，
+ * 每次更新后与上一版本比较，把差异通知给已打开的关系图窗口
+ */
+public class LiveLogicGraph {
+    private static final Logger logger = Logger.getLogger(LiveLogicGraph.class.getName());
+
+    private Map<List<String>, SlideSummary> summaries = new HashMap<>();
+    private List<SlideSummary> currentSlides = new ArrayList<>();
+    /** 各页文本的词频之和 */
+    private final Map<String, Integer> keywordFrequency = new HashMap<>();
+    private String documentPath;
+    private String mainTopic = "未识别主题";
+    private LogicGraph graph = new LogicGraph();
+    private int reanalyzedSlides;
+    private final List<Consumer<LogicGraphDiff>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 按当前幻灯片更新图
+     *
+     * @param slides       幻灯片列表
+     * @param documentPath 演示文稿的保存路径，含义同SlideStructureAnalyzer.analyzeStructure；未保存时传null
+     * @return 与上一版本的差异（可能为空差异）
+     */
+    public LogicGraphDiff update(List<Slide> slides, String documentPath) {
+        LogicGraphDiff diff;
+        synchronized (this) {
+            long start = System.nanoTime();
+            Map<List<String>, SlideSummary> nextSummaries = new HashMap<>();
+            List<SlideSummary> nextSlides = new ArrayList<>(slides.size());
+            int reanalyzed = 0;
+            for (Slide slide : slides) {
+                List<String> texts = SlideStructureAnalyzer.slideTexts(slide);
+                SlideSummary summary = nextSummaries.get(texts);
+                if (summary == null) {
+                    summary = summaries.get(texts);
+                    if (summary == null) {
+                        summary = SlideStructureAnalyzer.summarizeSlide(texts);
+                        reanalyzed++;
+                    }
+                    nextSummaries.put(texts, summary);
+                }
+                nextSlides.add(summary);
+            }
+
+            boolean keywordsChanged = updateKeywordFrequency(currentSlides, nextSlides);
+            boolean documentChanged = !Objects.equals(this.documentPath, documentPath);
+            summaries = nextSummaries;
+            currentSlides = nextSlides;
+            reanalyzedSlides = reanalyzed;
+            this.documentPath = documentPath;
+            if (keywordsChanged || documentChanged) {
+                mainTopic = SlideStructureAnalyzer.selectMainTopic(
+                        SlideStructureAnalyzer.scoreKeywords(keywordFrequency, documentPath));
+            }
+
+            LogicGraph updated = buildGraph();
+            diff = LogicGraphDiff.between(graph, updated);
+            graph = updated;
+            logger.fine("逻辑关系图更新: 重新分析 " + reanalyzed + "/" + slides.size() + " 页, " + diff
+                    + ", 耗时 " + (System.nanoTime() - start) / 1000 + "μs");
+        }
+        if (!diff.isEmpty()) {
+            for (Consumer<LogicGraphDiff> listener : listeners) {
+                try {
+                    listener.accept(diff);
+                } catch (RuntimeException e) {
+                    logger.log(Level.WARNING, "逻辑关系图监听器处理失败", e);
+                }
+            }
+        }
+        return diff;
+    }
+
+    /**
+     * 当前版本的图（不可修改，每次更新生成新对象）
+     */
+    public synchronized LogicGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * 上一次更新中需要重新分析的幻灯片数
+     */
+    public synchronized int getReanalyzedSlides() {
+        return reanalyzedSlides;
+    }
+
+    /**
+     * 注册差异监听器，在调用update的线程中回调
+     */
+    public void addListener(Consumer<LogicGraphDiff> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<LogicGraphDiff> listener) {
+        listeners.remove(listener);
+    }
+
+    public boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    /**
+     * 按页增减全文词频
+     *
+     * @return 词频是否有变化
+     */
+    private boolean updateKeywordFrequency(List<SlideSummary> previous, List<SlideSummary> next) {
+        Map<SlideSummary, Integer> delta = new IdentityHashMap<>();
+        for (SlideSummary summary : previous) {
+            delta.merge(summary, -1, Integer::sum);
+        }
+        for (SlideSummary summary : next) {
+            delta.merge(summary, 1, Integer::sum);
+        }
+        boolean changed = false;
+        for (Map.Entry<SlideSummary, Integer> entry : delta.entrySet()) {
+            int times = entry.getValue();
+            if (times == 0) {
+                continue;
+            }
+            changed = true;
+            for (Map.Entry<String, Integer> word : entry.getKey().getKeywordFrequency().entrySet()) {
+                int count = keywordFrequency.getOrDefault(word.getKey(), 0) + word.getValue() * times;
+                if (count > 0) {
+                    keywordFrequency.put(word.getKey(), count);
+                } else {
+                    keywordFrequency.remove(word.getKey());
+                }
+            }
+        }
+        return changed;
+    }
+
+    private LogicGraph buildGraph() {
+        LogicGraph updated = new LogicGraph();
+        updated.addNode("main", mainTopic, LogicGraph.TYPE_MAIN);
+
+        for (int i = 0; i < currentSlides.size(); i++) {
+            String title = currentSlides.get(i).getTitle();
+            updated.addNode("outline_" + i, title != null ? title : "第" + (i + 1) + "页", LogicGraph.TYPE_OUTLINE);
+        }
+
+        List<String> keyPoints = SlideStructureAnalyzer.selectKeyPoints(currentSlides);
+        for (int i = 0; i < keyPoints.size(); i++) {
+            updated.addNode("point_" + i, keyPoints.get(i), LogicGraph.TYPE_KEYPOINT);
+        }
+
+        for (int i = 0; i < currentSlides.size(); i++) {
+            updated.addEdge("main", "outline_" + i, LogicGraph.EDGE_HIERARCHY);
+        }
+        for (int i = 0; i < Math.min(currentSlides.size(), keyPoints.size()); i++) {
+            updated.addEdge("outline_" + i, "point_" + i, LogicGraph.EDGE_DETAIL);
+        }
+        return updated;
+    }
+}
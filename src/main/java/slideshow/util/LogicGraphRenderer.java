@@ -3,208 +3,91 @@ package slideshow.util;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.scene.Scene;
-import javafx.scene.control.*;
-import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
-import javafx.scene.shape.Circle;
-import javafx.scene.shape.Line;
-import javafx.scene.text.Text;
-import javafx.scene.text.Font;
-import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
-import javafx.scene.input.MouseEvent;
-import javafx.scene.Cursor;
-import javafx.geometry.Point2D;
+import slideshow.util.graph.GraphCanvasView;
+import slideshow.util.graph.GraphLayoutEngine;
+import slideshow.util.graph.LayoutGraph;
 
-import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import slideshow.util.graph.LogicGraph;
+import slideshow.util.graph.LogicGraphCodec;
+import slideshow.util.graph.LogicGraphDiff;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * 逻辑关系图渲染器
- * 用于可视化展示幻灯片结构分析生成的逻辑关系图
+ * 用于可视化展示幻灯片结构分析生成的逻辑关系图。
+ * 整张图绘制在GraphCanvasView的Canvas上，只绘制可见部分，支持滚轮缩放、拖动平移和拖动节点
  */
 public class LogicGraphRenderer extends Application {
+    private static final Logger logger = Logger.getLogger(LogicGraphRenderer.class.getName());
+    
+    private GraphCanvasView graphView;
+    private LogicGraph graph = new LogicGraph();
+    /** 两端节点都存在的边，按图中顺序 */
+    private List<LogicGraph.Edge> edges = new ArrayList<>();
+    private int[] edgeSources = new int[0];
+    private int[] edgeTargets = new int[0];
+    /** 视图中的坐标是否已由布局给出 */
+    private boolean positioned;
+    /** 布局请求序号，用于丢弃过期的布局结果 */
+    private int layoutSequence;
     
-    private Pane graphPane;
-    private Map<String, GraphNode> nodes = new HashMap<>();
-    private List<GraphEdge> edges = new ArrayList<>();
-    private double dragStartX, dragStartY;
-    private GraphNode selectedNode = null;
+    /** 新节点放在已有邻居附近的距离 */
+    private static final double NEW_NODE_OFFSET = 80;
     
     /**
-     * 图节点类
+     * 根据类型确定节点半径
      */
-    public static class GraphNode {
-        private String id;
-        private String label;
-        private String type;
-        private Circle circle;
-        private Text text;
-        private double x, y;
-        
-        public GraphNode(String id, String label, String type, double x, double y) {
-            this.id = id;
-            this.label = label;
-            this.type = type;
-            this.x = x;
-            this.y = y;
-            
-            // 根据类型设置不同的颜色和大小
-            double radius = getRadiusByType(type);
-            Color color = getColorByType(type);
-            
-            this.circle = new Circle(x, y, radius, color);
-            this.circle.setStroke(Color.BLACK);
-            this.circle.setStrokeWidth(2);
-            
-            this.text = new Text(x, y, label);
-            this.text.setFont(Font.font("Arial", FontWeight.BOLD, 12));
-            this.text.setFill(Color.WHITE);
-            
-            // 文本居中
-            this.text.setX(x - this.text.getLayoutBounds().getWidth() / 2);
-            this.text.setY(y + this.text.getLayoutBounds().getHeight() / 4);
-        }
-        
-        private double getRadiusByType(String type) {
-            switch (type) {
-                case "main": return 40;
-                case "outline": return 30;
-                case "keypoint": return 25;
-                default: return 20;
-            }
-        }
-        
-        private Color getColorByType(String type) {
-            switch (type) {
-                case "main": return Color.DARKBLUE;
-                case "outline": return Color.ORANGE;
-                case "keypoint": return Color.GREEN;
-                default: return Color.GRAY;
-            }
-        }
-        
-        // Getters
-        public String getId() { return id; }
-        public String getLabel() { return label; }
-        public String getType() { return type; }
-        public Circle getCircle() { return circle; }
-        public Text getText() { return text; }
-        public double getX() { return x; }
-        public double getY() { return y; }
-        
-        public void setPosition(double x, double y) {
-            this.x = x;
-            this.y = y;
-            this.circle.setCenterX(x);
-            this.circle.setCenterY(y);
-            this.text.setX(x - this.text.getLayoutBounds().getWidth() / 2);
-            this.text.setY(y + this.text.getLayoutBounds().getHeight() / 4);
-        }
-        
-        public boolean contains(double x, double y) {
-            double distance = Math.sqrt((x - this.x) * (x - this.x) + (y - this.y) * (y - this.y));
-            return distance <= this.circle.getRadius();
+    public static double getNodeRadius(String type) {
+        switch (type) {
+            case LogicGraph.TYPE_MAIN: return 40;
+            case LogicGraph.TYPE_OUTLINE: return 30;
+            case LogicGraph.TYPE_KEYPOINT: return 25;
+            default: return 20;
         }
     }
     
     /**
-     * 图边类
+     * 根据类型确定节点颜色
      */
-    public static class GraphEdge {
-        private GraphNode source;
-        private GraphNode target;
-        private String type;
-        private Line line;
-        private Text label;
-        
-        public GraphEdge(GraphNode source, GraphNode target, String type) {
-            this.source = source;
-            this.target = target;
-            this.type = type;
-            
-            this.line = new Line();
-            this.line.setStroke(getColorByType(type));
-            this.line.setStrokeWidth(2);
-            
-            this.label = new Text();
-            this.label.setFont(Font.font("Arial", 10));
-            this.label.setFill(getColorByType(type));
-            
-            updatePosition();
+    public static Color getNodeColor(String type) {
+        switch (type) {
+            case LogicGraph.TYPE_MAIN: return Color.DARKBLUE;
+            case LogicGraph.TYPE_OUTLINE: return Color.ORANGE;
+            case LogicGraph.TYPE_KEYPOINT: return Color.GREEN;
+            default: return Color.GRAY;
         }
-        
-        private Color getColorByType(String type) {
-            switch (type) {
-                case "hierarchy": return Color.BLUE;
-                case "detail": return Color.RED;
-                case "association": return Color.GREEN;
-                default: return Color.BLACK;
-            }
-        }
-        
-        public void updatePosition() {
-            // 计算边的位置
-            double startX = source.getX();
-            double startY = source.getY();
-            double endX = target.getX();
-            double endY = target.getY();
-            
-            // 计算方向向量
-            double dx = endX - startX;
-            double dy = endY - startY;
-            double distance = Math.sqrt(dx * dx + dy * dy);
-            
-            if (distance > 0) {
-                // 归一化方向向量
-                dx /= distance;
-                dy /= distance;
-                
-                // 调整起点和终点，避免与节点重叠
-                double sourceRadius = source.getCircle().getRadius();
-                double targetRadius = target.getCircle().getRadius();
-                
-                double adjustedStartX = startX + dx * sourceRadius;
-                double adjustedStartY = startY + dy * sourceRadius;
-                double adjustedEndX = endX - dx * targetRadius;
-                double adjustedEndY = endY - dy * targetRadius;
-                
-                this.line.setStartX(adjustedStartX);
-                this.line.setStartY(adjustedStartY);
-                this.line.setEndX(adjustedEndX);
-                this.line.setEndY(adjustedEndY);
-                
-                // 设置标签位置
-                this.label.setX((adjustedStartX + adjustedEndX) / 2);
-                this.label.setY((adjustedStartY + adjustedEndY) / 2 - 5);
-                this.label.setText(type);
-            }
+    }
+    
+    /**
+     * 根据类型确定边的颜色
+     */
+    public static Color getEdgeColor(String type) {
+        switch (type) {
+            case LogicGraph.EDGE_HIERARCHY: return Color.BLUE;
+            case LogicGraph.EDGE_DETAIL: return Color.RED;
+            case LogicGraph.EDGE_ASSOCIATION: return Color.GREEN;
+            default: return Color.BLACK;
         }
-        
-        // Getters
-        public GraphNode getSource() { return source; }
-        public GraphNode getTarget() { return target; }
-        public String getType() { return type; }
-        public Line getLine() { return line; }
-        public Text getLabel() { return label; }
     }
     
     @Override
     public void start(Stage primaryStage) {
         primaryStage.setTitle("逻辑关系图可视化");
         
-        // 创建图形面板
-        graphPane = new Pane();
-        graphPane.setStyle("-fx-background-color: white;");
-        
-        // 设置拖拽事件
-        graphPane.setOnMousePressed(this::handleMousePressed);
-        graphPane.setOnMouseDragged(this::handleMouseDragged);
-        graphPane.setOnMouseReleased(this::handleMouseReleased);
+        // 创建图形视图
+        graphView = new GraphCanvasView();
         
         // 创建场景
-        Scene scene = new Scene(graphPane, 1200, 800);
+        Scene scene = new Scene(graphView, 1200, 800);
         primaryStage.setScene(scene);
         
         // 显示窗口
@@ -216,267 +99,306 @@ public class LogicGraphRenderer extends Application {
      */
     public void renderGraph(String jsonData) {
         try {
-            // 解析JSON数据
-            Map<String, Object> graphData = parseJsonData(jsonData);
-            
-            // 清空现有图形
-            graphPane.getChildren().clear();
-            nodes.clear();
-            edges.clear();
-            
-            // 创建节点
-            createNodes(graphData);
-            
-            // 创建边
-            createEdges(graphData);
-            
-            // 自动布局
-            autoLayout();
-            
-            // 渲染到面板
-            renderToPane();
-            
-        } catch (Exception e) {
-            System.err.println("渲染图形失败: " + e.getMessage());
-            e.printStackTrace();
+            renderGraph(LogicGraphCodec.fromJson(jsonData));
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "解析逻辑关系图数据失败", e);
         }
     }
     
     /**
-     * 解析JSON数据
+     * 渲染图形
      */
-    @SuppressWarnings("unchecked")
-    private Map<String, Object> parseJsonData(String jsonData) {
-        Map<String, Object> result = new HashMap<>();
+    public void renderGraph(LogicGraph logicGraph) {
+        graph = logicGraph;
+        positioned = false;
+        resolveEdges();
         
-        // 解析节点
-        Pattern nodePattern = Pattern.compile("\"id\":\\s*\"([^\"]+)\",\\s*\"label\":\\s*\"([^\"]+)\",\\s*\"type\":\\s*\"([^\"]+)\"");
-        Matcher nodeMatcher = nodePattern.matcher(jsonData);
-        List<Map<String, String>> nodes = new ArrayList<>();
-        while (nodeMatcher.find()) {
-            Map<String, String> node = new HashMap<>();
-            node.put("id", nodeMatcher.group(1));
-            node.put("label", nodeMatcher.group(2));
-            node.put("type", nodeMatcher.group(3));
-            nodes.add(node);
-        }
-        result.put("nodes", nodes);
-        
-        // 解析边
-        Pattern edgePattern = Pattern.compile("\"source\":\\s*\"([^\"]+)\",\\s*\"target\":\\s*\"([^\"]+)\",\\s*\"type\":\\s*\"([^\"]+)\"");
-        Matcher edgeMatcher = edgePattern.matcher(jsonData);
-        List<Map<String, String>> edges = new ArrayList<>();
-        while (edgeMatcher.find()) {
-            Map<String, String> edge = new HashMap<>();
-            edge.put("source", edgeMatcher.group(1));
-            edge.put("target", edgeMatcher.group(2));
-            edge.put("type", edgeMatcher.group(3));
-            edges.add(edge);
-        }
-        result.put("edges", edges);
+        // 交给视图绘制，布局完成后再设置坐标
+        updateView();
         
-        return result;
+        // 自动布局
+        autoLayout();
     }
     
     /**
-     * 创建节点
+     * 把边的两端解析为节点下标，丢弃引用了不存在节点的边
      */
-    @SuppressWarnings("unchecked")
-    private void createNodes(Map<String, Object> graphData) {
-        List<Map<String, String>> nodesData = (List<Map<String, String>>) graphData.get("nodes");
-        
-        for (Map<String, String> nodeData : nodesData) {
-            String id = nodeData.get("id");
-            String label = nodeData.get("label");
-            String type = nodeData.get("type");
-            
-            // 临时位置，稍后会通过自动布局调整
-            GraphNode node = new GraphNode(id, label, type, 0, 0);
-            nodes.put(id, node);
-        }
-    }
-    
-    /**
-     * 创建边
-     */
-    @SuppressWarnings("unchecked")
-    private void createEdges(Map<String, Object> graphData) {
-        List<Map<String, String>> edgesData = (List<Map<String, String>>) graphData.get("edges");
-        
-        for (Map<String, String> edgeData : edgesData) {
-            String sourceId = edgeData.get("source");
-            String targetId = edgeData.get("target");
-            String type = edgeData.get("type");
-            
-            GraphNode source = nodes.get(sourceId);
-            GraphNode target = nodes.get(targetId);
-            
-            if (source != null && target != null) {
-                GraphEdge edge = new GraphEdge(source, target, type);
+    private void resolveEdges() {
+        edges = new ArrayList<>(graph.getEdgeCount());
+        int[] sources = new int[graph.getEdgeCount()];
+        int[] targets = new int[graph.getEdgeCount()];
+        for (LogicGraph.Edge edge : graph.getEdges()) {
+            int source = graph.indexOf(edge.getSource());
+            int target = graph.indexOf(edge.getTarget());
+            if (source >= 0 && target >= 0) {
+                sources[edges.size()] = source;
+                targets[edges.size()] = target;
                 edges.add(edge);
             }
         }
+        edgeSources = Arrays.copyOf(sources, edges.size());
+        edgeTargets = Arrays.copyOf(targets, edges.size());
     }
     
     /**
-     * 自动布局算法
+     * 自动布局：在后台线程计算，完成后回到JavaFX线程更新节点位置
      */
     private void autoLayout() {
-        if (nodes.isEmpty()) return;
-        
-        // 分层布局
-        Map<String, List<GraphNode>> layers = new HashMap<>();
-        
-        // 找到主节点
-        GraphNode mainNode = null;
-        for (GraphNode node : nodes.values()) {
-            if ("main".equals(node.getType())) {
-                mainNode = node;
-                break;
-            }
-        }
-        
-        if (mainNode == null) {
-            // 如果没有主节点，选择第一个节点
-            mainNode = nodes.values().iterator().next();
+        int nodeCount = graph.getNodeCount();
+        if (nodeCount == 0) return;
+
+        double[] radii = new double[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            radii[i] = getNodeRadius(graph.getNode(i).getType());
         }
-        
-        // 设置主节点位置
-        mainNode.setPosition(600, 100);
-        
-        // 分层布局
-        layoutNodes(mainNode, 0, 600, 100);
+        LayoutGraph layoutGraph = new LayoutGraph(nodeCount, edgeSources, edgeTargets, radii);
+        int sequence = ++layoutSequence;
+
+        GraphLayoutEngine.layoutAsync(layoutGraph, GraphLayoutEngine.Algorithm.AUTO)
+                .whenComplete((layout, error) -> Platform.runLater(() -> {
+                    if (error != null) {
+                        logger.log(Level.WARNING, "图布局失败", error);
+                        return;
+                    }
+                    if (sequence != layoutSequence) {
+                        return;
+                    }
+                    double[] x = new double[nodeCount];
+                    double[] y = new double[nodeCount];
+                    for (int i = 0; i < nodeCount; i++) {
+                        x[i] = layout.getX(i);
+                        y[i] = layout.getY(i);
+                    }
+                    graphView.setPositions(x, y);
+                    graphView.fitToView();
+                    positioned = true;
+                }));
     }
     
     /**
-     * 递归布局节点
+     * 切换到新版本的图（须在JavaFX线程调用）
+     * 只改了标签时原地更新节点；有节点或边增删时保留已有节点的坐标，新节点放在邻居附近，
+     * 再以当前坐标为起点在后台做少量力导向迭代，不重新计算整张图的布局
      */
-    private void layoutNodes(GraphNode parent, int level, double centerX, double centerY) {
-        List<GraphNode> children = new ArrayList<>();
-        
-        // 找到所有连接到当前节点的子节点
-        for (GraphEdge edge : edges) {
-            if (edge.getSource().getId().equals(parent.getId())) {
-                children.add(edge.getTarget());
+    public void updateGraph(LogicGraph updated) {
+        LogicGraphDiff diff = LogicGraphDiff.between(graph, updated);
+        if (diff.isEmpty()) {
+            return;
+        }
+        if (!diff.isStructural() && sameNodeOrder(graph, updated)) {
+            for (LogicGraph.Node node : diff.getChangedNodes()) {
+                graphView.setNode(updated.indexOf(node.getId()), node.getLabel(),
+                        getNodeRadius(node.getType()), getNodeColor(node.getType()));
             }
+            graph = updated;
+            graphView.redraw();
+            return;
         }
         
-        if (children.isEmpty()) return;
-        
-        // 计算子节点位置
-        double spacing = 150;
-        double totalWidth = (children.size() - 1) * spacing;
-        double startX = centerX - totalWidth / 2;
-        double childY = centerY + 120;
+        // setGraph会清空坐标，先记下当前（可能被用户拖动过的）坐标
+        LogicGraph previous = graph;
+        double[] previousX = new double[graphView.getNodeCount()];
+        double[] previousY = new double[graphView.getNodeCount()];
+        for (int i = 0; i < previousX.length; i++) {
+            previousX[i] = graphView.getNodeX(i);
+            previousY[i] = graphView.getNodeY(i);
+        }
+        graph = updated;
+        resolveEdges();
+        updateView();
+        if (!positioned) {
+            // 初始布局还没完成，直接按新图重新布局
+            autoLayout();
+            return;
+        }
         
-        for (int i = 0; i < children.size(); i++) {
-            GraphNode child = children.get(i);
-            double childX = startX + i * spacing;
-            child.setPosition(childX, childY);
-            
-            // 递归布局子节点
-            layoutNodes(child, level + 1, childX, childY);
+        int nodeCount = updated.getNodeCount();
+        double[] x = new double[nodeCount];
+        double[] y = new double[nodeCount];
+        boolean[] placed = new boolean[nodeCount];
+        double sumX = 0;
+        double sumY = 0;
+        int kept = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            int old = previous.indexOf(updated.getNode(i).getId());
+            if (old >= 0 && old < previousX.length) {
+                x[i] = previousX[old];
+                y[i] = previousY[old];
+                placed[i] = true;
+                sumX += x[i];
+                sumY += y[i];
+                kept++;
+            }
         }
-    }
-    
-    /**
-     * 渲染到面板
-     */
-    private void renderToPane() {
-        // 添加边
-        for (GraphEdge edge : edges) {
-            graphPane.getChildren().add(edge.getLine());
-            graphPane.getChildren().add(edge.getLabel());
+        if (kept == 0) {
+            autoLayout();
+            return;
         }
+        placeNewNodes(x, y, placed, sumX / kept, sumY / kept);
+        graphView.setPositions(x, y);
         
-        // 添加节点
-        for (GraphNode node : nodes.values()) {
-            graphPane.getChildren().add(node.getCircle());
-            graphPane.getChildren().add(node.getText());
-            
-            // 添加拖拽事件
-            node.getCircle().setOnMousePressed(e -> handleNodeMousePressed(e, node));
-            node.getText().setOnMousePressed(e -> handleNodeMousePressed(e, node));
+        double keptCenterX = sumX / kept;
+        double keptCenterY = sumY / kept;
+        boolean[] keptNodes = placed.clone();
+        double[] radii = new double[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            radii[i] = getNodeRadius(updated.getNode(i).getType());
         }
+        LayoutGraph layoutGraph = new LayoutGraph(nodeCount, edgeSources, edgeTargets, radii);
+        int sequence = ++layoutSequence;
+        GraphLayoutEngine.refineAsync(layoutGraph, x, y)
+                .whenComplete((layout, error) -> Platform.runLater(() -> {
+                    if (error != null) {
+                        logger.log(Level.WARNING, "图布局微调失败", error);
+                        return;
+                    }
+                    if (sequence != layoutSequence) {
+                        return;
+                    }
+                    // 微调会整体平移坐标，按原有节点的中心对齐回去，视图不跳动
+                    double[] rx = new double[nodeCount];
+                    double[] ry = new double[nodeCount];
+                    double centerX = 0;
+                    double centerY = 0;
+                    int count = 0;
+                    for (int i = 0; i < nodeCount; i++) {
+                        rx[i] = layout.getX(i);
+                        ry[i] = layout.getY(i);
+                        if (keptNodes[i]) {
+                            centerX += rx[i];
+                            centerY += ry[i];
+                            count++;
+                        }
+                    }
+                    double shiftX = keptCenterX - centerX / count;
+                    double shiftY = keptCenterY - centerY / count;
+                    for (int i = 0; i < nodeCount; i++) {
+                        rx[i] += shiftX;
+                        ry[i] += shiftY;
+                    }
+                    graphView.setPositions(rx, ry);
+                }));
     }
     
     /**
-     * 处理节点鼠标按下事件
+     * 新节点放在已放置的邻居旁边（按黄金角错开），连续的新节点逐轮向外放置，孤立节点放在图的中心附近
      */
-    private void handleNodeMousePressed(MouseEvent event, GraphNode node) {
-        selectedNode = node;
-        dragStartX = event.getSceneX() - node.getX();
-        dragStartY = event.getSceneY() - node.getY();
-        event.consume();
+    private void placeNewNodes(double[] x, double[] y, boolean[] placed, double centerX, double centerY) {
+        int nodeCount = placed.length;
+        int added = 0;
+        boolean progress = true;
+        while (progress) {
+            progress = false;
+            for (int e = 0; e < edgeSources.length; e++) {
+                int source = edgeSources[e];
+                int target = edgeTargets[e];
+                int anchor;
+                int node;
+                if (placed[source] && !placed[target]) {
+                    anchor = source;
+                    node = target;
+                } else if (placed[target] && !placed[source]) {
+                    anchor = target;
+                    node = source;
+                } else {
+                    continue;
+                }
+                double angle = added * 2.399963229728653;
+                x[node] = x[anchor] + NEW_NODE_OFFSET * Math.cos(angle);
+                y[node] = y[anchor] + NEW_NODE_OFFSET * Math.sin(angle);
+                placed[node] = true;
+                added++;
+                progress = true;
+            }
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            if (!placed[i]) {
+                double angle = added * 2.399963229728653;
+                x[i] = centerX + NEW_NODE_OFFSET * Math.cos(angle);
+                y[i] = centerY + NEW_NODE_OFFSET * Math.sin(angle);
+                placed[i] = true;
+                added++;
+            }
+        }
     }
     
-    /**
-     * 处理鼠标按下事件
-     */
-    private void handleMousePressed(MouseEvent event) {
-        dragStartX = event.getSceneX();
-        dragStartY = event.getSceneY();
+    private static boolean sameNodeOrder(LogicGraph a, LogicGraph b) {
+        if (a.getNodeCount() != b.getNodeCount()) {
+            return false;
+        }
+        for (int i = 0; i < a.getNodeCount(); i++) {
+            if (!a.getNode(i).getId().equals(b.getNode(i).getId())) {
+                return false;
+            }
+        }
+        return true;
     }
     
     /**
-     * 处理鼠标拖拽事件
+     * 把节点和边转换为视图使用的数组
      */
-    private void handleMouseDragged(MouseEvent event) {
-        if (selectedNode != null) {
-            // 拖拽节点
-            double newX = event.getSceneX() - dragStartX;
-            double newY = event.getSceneY() - dragStartY;
-            selectedNode.setPosition(newX, newY);
-            
-            // 更新连接的边
-            updateConnectedEdges(selectedNode);
-        } else {
-            // 拖拽整个图形
-            double deltaX = event.getSceneX() - dragStartX;
-            double deltaY = event.getSceneY() - dragStartY;
-            
-            for (GraphNode node : nodes.values()) {
-                node.setPosition(node.getX() + deltaX, node.getY() + deltaY);
-            }
-            
-            // 更新所有边
-            for (GraphEdge edge : edges) {
-                edge.updatePosition();
-            }
-            
-            dragStartX = event.getSceneX();
-            dragStartY = event.getSceneY();
+    private void updateView() {
+        int nodeCount = graph.getNodeCount();
+        String[] labels = new String[nodeCount];
+        double[] radii = new double[nodeCount];
+        Color[] colors = new Color[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            LogicGraph.Node node = graph.getNode(i);
+            labels[i] = node.getLabel();
+            radii[i] = getNodeRadius(node.getType());
+            colors[i] = getNodeColor(node.getType());
+        }
+        String[] edgeLabels = new String[edges.size()];
+        Color[] edgeColors = new Color[edges.size()];
+        for (int e = 0; e < edges.size(); e++) {
+            edgeLabels[e] = edges.get(e).getType();
+            edgeColors[e] = getEdgeColor(edges.get(e).getType());
         }
+        graphView.setGraph(labels, radii, colors, edgeSources, edgeTargets, edgeLabels, edgeColors);
     }
     
     /**
-     * 处理鼠标释放事件
+     * 显示随编辑同步的逻辑关系图（须在JavaFX线程调用），窗口关闭后停止同步
      */
-    private void handleMouseReleased(MouseEvent event) {
-        selectedNode = null;
+    public static LogicGraphRenderer showLiveLogicGraph(LiveLogicGraph liveGraph) {
+        LogicGraphRenderer renderer = new LogicGraphRenderer();
+        Stage stage = new Stage();
+        renderer.start(stage);
+        renderer.renderGraph(liveGraph.getGraph());
+        Consumer<LogicGraphDiff> listener = diff -> {
+            if (Platform.isFxApplicationThread()) {
+                renderer.updateGraph(diff.getGraph());
+            } else {
+                Platform.runLater(() -> renderer.updateGraph(diff.getGraph()));
+            }
+        };
+        liveGraph.addListener(listener);
+        stage.setOnHidden(e -> liveGraph.removeListener(listener));
+        // 注册监听前可能已有更新
+        renderer.updateGraph(liveGraph.getGraph());
+        return renderer;
     }
     
     /**
-     * 更新连接的边
+     * 显示逻辑关系图
      */
-    private void updateConnectedEdges(GraphNode node) {
-        for (GraphEdge edge : edges) {
-            if (edge.getSource().getId().equals(node.getId()) || 
-                edge.getTarget().getId().equals(node.getId())) {
-                edge.updatePosition();
-            }
+    public static void showLogicGraph(String jsonData) {
+        try {
+            showLogicGraph(LogicGraphCodec.fromJson(jsonData));
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "解析逻辑关系图数据失败", e);
         }
     }
     
     /**
-     * 显示逻辑关系图
+     * 显示逻辑关系图（直接使用内存中的图，不经过JSON）
      */
-    public static void showLogicGraph(String jsonData) {
+    public static void showLogicGraph(LogicGraph logicGraph) {
         Platform.runLater(() -> {
             LogicGraphRenderer renderer = new LogicGraphRenderer();
             Stage stage = new Stage();
             renderer.start(stage);
-            renderer.renderGraph(jsonData);
+            renderer.renderGraph(logicGraph);
         });
     }
     
@@ -0,0 +1,118 @@
+package slideshow.util;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 追加式索引日志的重放
+ * 关键词索引和全文索引的日志都由若干条以操作码开头的二进制记录组成。重放时记下最后一条完整记录的结束位置，
+ * 末尾写了一半的记录（崩溃或断电）或无法解析的记录连同其后的内容被截断，之后的追加从完整记录处继续
+ */
+final class RecordLog {
+    private static final Logger logger = Logger.getLogger(RecordLog.class.getName());
+
+    /**
+     * 应用一条记录
+     */
+    interface RecordHandler {
+        /**
+         * @param op 记录的操作码（已读取）
+         * @param in 定位在操作码之后的输入流，读取不完整时抛出EOFException
+         * @throws IOException 记录无法解析（如未知的操作码）
+         */
+        void apply(int op, DataInputStream in) throws IOException;
+    }
+
+    private RecordLog() {
+    }
+
+    /**
+     * 依次重放日志中的记录，并截掉末尾不完整或损坏的部分
+     *
+     * @param logFile 日志文件，不存在时什么也不做
+     * @param name    日志名称，用于日志消息
+     * @param handler 记录处理器
+     * @return 成功重放的记录数
+     */
+    static int replay(Path logFile, String name, RecordHandler handler) {
+        if (!Files.exists(logFile)) {
+            return 0;
+        }
+        int records = 0;
+        long validLength = 0;
+        CountingInputStream counter;
+        try (DataInputStream in = new DataInputStream(
+                counter = new CountingInputStream(new BufferedInputStream(Files.newInputStream(logFile))))) {
+            int op;
+            while ((op = in.read()) >= 0) {
+                handler.apply(op, in);
+                records++;
+                validLength = counter.getCount();
+            }
+        } catch (EOFException e) {
+            logger.warning(name + "日志末尾不完整，已截断到 " + validLength + " 字节");
+            truncate(logFile, validLength, name);
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, name + "日志损坏，已截断到最后一条完整记录（" + validLength + " 字节）", e);
+            truncate(logFile, validLength, name);
+        }
+        return records;
+    }
+
+    private static void truncate(Path logFile, long length, String name) {
+        try (RandomAccessFile file = new RandomAccessFile(logFile.toFile(), "rw")) {
+            file.setLength(length);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "截断" + name + "日志失败", e);
+        }
+    }
+
+    /**
+     * 统计已读取字节数，用于定位最后一条完整记录
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package slideshow.util;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 画布重绘调度器
+ * 调用方只标记画布为脏，真正的绘制在下一个JavaFX脉冲中执行，同一脉冲内的多次请求合并为一次绘制。
+ * 请求可以来自任意线程；空闲一段时间后自动停止计时器，避免无内容变化时持续占用脉冲
+ */
+public class RepaintScheduler {
+    private static final Logger logger = Logger.getLogger(RepaintScheduler.class.getName());
+
+    /** 连续多少个脉冲没有重绘请求后停止计时器 */
+    private static final int IDLE_PULSES_BEFORE_STOP = 30;
+    /** 帧率统计窗口（纳秒） */
+    private static final long FPS_WINDOW_NANOS = 1_000_000_000L;
+    /** 同一绘制错误两次完整记录之间的最短间隔（纳秒），期间的重复只计数 */
+    private static final long FAILURE_LOG_INTERVAL_NANOS = 10_000_000_000L;
+
+    private final Runnable renderer;
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AnimationTimer timer;
+    private volatile boolean disposed;
+
+    // 以下统计只在JavaFX线程上写入
+    private volatile long frameCount;
+    private volatile long totalRenderNanos;
+    private volatile long maxRenderNanos;
+    private volatile double framesPerSecond;
+    private long windowStart;
+    private int windowFrames;
+    private int idlePulses;
+    // 绘制错误限流，只在JavaFX线程上访问
+    private String lastFailure;
+    private long lastFailureLogged;
+    private int suppressedFailures;
+
+    /**
+     * @param renderer 实际绘制逻辑，总是在JavaFX线程上调用
+     */
+    public RepaintScheduler(Runnable renderer) {
+        this.renderer = renderer;
+        this.timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                onPulse(now);
+            }
+        };
+    }
+
+    /**
+     * 请求在下一个脉冲重绘；已有未处理的请求时只计入合并次数
+     */
+    public void requestRepaint() {
+        if (disposed) {
+            return;
+        }
+        requestCount.incrementAndGet();
+        if (dirty.getAndSet(true)) {
+            coalescedCount.incrementAndGet();
+            return;
+        }
+        ensureRunning();
+    }
+
+    /**
+     * 立即在当前线程（必须是JavaFX线程）绘制，并清除未处理的请求。用于导出截图等需要同步结果的场合
+     */
+    public void repaintNow() {
+        dirty.set(false);
+        render();
+    }
+
+    /**
+     * 停止调度，之后的请求被忽略
+     */
+    public void dispose() {
+        disposed = true;
+        dirty.set(false);
+        running.set(false);
+        if (Platform.isFxApplicationThread()) {
+            timer.stop();
+        } else {
+            Platform.runLater(timer::stop);
+        }
+    }
+
+    public boolean isDirty() {
+        return dirty.get();
+    }
+
+    /** 重绘请求总数 */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /** 被合并掉（没有单独触发绘制）的请求数 */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    /** 实际绘制次数 */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /** 最近一秒内的绘制帧率 */
+    public double getFramesPerSecond() {
+        return framesPerSecond;
+    }
+
+    /** 平均每次绘制耗时（毫秒） */
+    public double getAverageRenderMillis() {
+        long frames = frameCount;
+        return frames == 0 ? 0 : totalRenderNanos / 1_000_000.0 / frames;
+    }
+
+    /** 最长一次绘制耗时（毫秒） */
+    public double getMaxRenderMillis() {
+        return maxRenderNanos / 1_000_000.0;
+    }
+
+    /** 合并率：被合并的请求占全部请求的比例 */
+    public double getCoalescingRatio() {
+        long requests = requestCount.get();
+        return requests == 0 ? 0 : (double) coalescedCount.get() / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("重绘统计: 请求 %d 次, 绘制 %d 帧, 合并 %d 次 (%.1f%%), 帧率 %.1f fps, 平均耗时 %.2fms, 最长 %.2fms",
+                getRequestCount(), getFrameCount(), getCoalescedCount(), getCoalescingRatio() * 100,
+                getFramesPerSecond(), getAverageRenderMillis(), getMaxRenderMillis());
+    }
+
+    private void ensureRunning() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        if (Platform.isFxApplicationThread()) {
+            startTimer();
+        } else {
+            Platform.runLater(this::startTimer);
+        }
+    }
+
+    private void startTimer() {
+        if (disposed) {
+            return;
+        }
+        idlePulses = 0;
+        timer.start();
+    }
+
+    private void onPulse(long now) {
+        if (windowStart == 0) {
+            windowStart = now;
+        }
+        if (dirty.getAndSet(false)) {
+            idlePulses = 0;
+            render();
+            windowFrames++;
+        } else if (++idlePulses >= IDLE_PULSES_BEFORE_STOP) {
+            timer.stop();
+            running.set(false);
+            // 停止与新请求之间可能存在竞争：请求方看到running为true时不会再启动计时器，这里再检查一次
+            if (dirty.get() && running.compareAndSet(false, true)) {
+                startTimer();
+            }
+        }
+        long elapsed = now - windowStart;
+        if (elapsed >= FPS_WINDOW_NANOS) {
+            framesPerSecond = windowFrames * 1_000_000_000.0 / elapsed;
+            windowStart = now;
+            windowFrames = 0;
+        } else if (!running.get()) {
+            // 计时器已停止，下次启动时重新开始统计窗口
+            windowStart = 0;
+            windowFrames = 0;
+        }
+    }
+
+    private void render() {
+        long start = System.nanoTime();
+        try {
+            renderer.run();
+        } catch (RuntimeException e) {
+            logFailure(e, start);
+        }
+        long cost = System.nanoTime() - start;
+        frameCount++;
+        totalRenderNanos += cost;
+        if (cost > maxRenderNanos) {
+            maxRenderNanos = cost;
+        }
+    }
+
+    /**
+     * 记录绘制错误：拖动等连续操作时每个脉冲都会重绘，同一个错误会反复出现，
+     * 因此同一错误在间隔内只记录一次完整堆栈，其余的只计数，下次记录时一并报告
+     */
+    private void logFailure(RuntimeException e, long now) {
+        StackTraceElement[] trace = e.getStackTrace();
+        String failure = e.getClass().getName() + ": " + e.getMessage()
+                + (trace.length > 0 ? " @ " + trace[0] : "");
+        if (failure.equals(lastFailure) && now - lastFailureLogged < FAILURE_LOG_INTERVAL_NANOS) {
+            suppressedFailures++;
+            return;
+        }
+        String message = "画布重绘失败";
+        if (suppressedFailures > 0) {
+            message += "（此前的错误又重复了 " + suppressedFailures + " 次）";
+        }
+        logger.log(Level.WARNING, message, e);
+        lastFailure = failure;
+        lastFailureLogged = now;
+        suppressedFailures = 0;
+    }
+}
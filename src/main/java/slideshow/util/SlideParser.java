@@ -1,11 +1,14 @@
 package slideshow.util;
 
 import javafx.scene.paint.Color;
+import javafx.scene.text.FontPosture;
 import javafx.scene.text.FontWeight;
 import slideshow.model.Slide;
 import slideshow.elements.TextElement;
 import slideshow.elements.DrawElement;
 import slideshow.elements.SlideElement;
+import slideshow.render.FontRegistry;
+import slideshow.render.FontSpec;
 
 import java.util.List;
 import java.util.ArrayList;
@@ -18,6 +21,15 @@ import java.util.regex.Matcher;
  */
 public class SlideParser {
 
+    /**
+     * 解析时用到的字体样式：标题28加粗、副标题20加粗、正文/项目符号/列表18、图片占位符和普通文本16，程序启动时预加载
+     */
+    public static final List<FontSpec> PRESET_FONTS = List.of(
+            FontRegistry.spec(TextElement.FONT_FAMILY, FontWeight.BOLD, FontPosture.REGULAR, 28),
+            FontRegistry.spec(TextElement.FONT_FAMILY, FontWeight.BOLD, FontPosture.REGULAR, 20),
+            FontRegistry.spec(TextElement.FONT_FAMILY, FontWeight.NORMAL, FontPosture.REGULAR, 18),
+            FontRegistry.spec(TextElement.FONT_FAMILY, FontWeight.NORMAL, FontPosture.REGULAR, 16));
+
     /**
      * 解析AI生成的PPT命令并创建幻灯片列表
      * 
@@ -8,23 +8,64 @@ import slideshow.elements.SlideElement;
 import java.io.*;
 import java.util.List;
 import java.lang.reflect.Type;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class SlideSerializer {
+    private static final Logger logger = Logger.getLogger(SlideSerializer.class.getName());
+
     private static final Gson gson = new GsonBuilder()
         .registerTypeAdapter(SlideElement.class, new SlideElementSerializer())
         .create();
     
     public static void savePresentation(List<Slide> slides, String filePath) throws IOException {
+        writePresentation(slides, filePath);
+        updateIndexes(slides, filePath);
+    }
+
+    /**
+     * 只写出演示文稿文件，不更新本地索引。用于导出副本和基准测试等不应出现在索引中的场合
+     */
+    public static void writePresentation(List<Slide> slides, String filePath) throws IOException {
         String json = gson.toJson(slides);
         try (FileWriter writer = new FileWriter(filePath)) {
             writer.write(json);
         }
     }
+
+    /**
+     * 保存成功后增量更新本地索引，索引失败不影响保存结果
+     */
+    private static void updateIndexes(List<Slide> slides, String filePath) {
+        try {
+            KeywordIndex.getInstance().updatePresentation(filePath, slides);
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "更新关键词索引失败: " + filePath, e);
+        }
+        try {
+            FullTextIndex.getInstance().indexPresentation(filePath, slides);
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "更新全文索引失败: " + filePath, e);
+        }
+    }
     
+    /**
+     * 读取演示文稿。旧版本保存的幻灯片尺寸（800x600）与元素所在的逻辑坐标空间不符，读取时统一为逻辑尺寸
+     */
     public static List<Slide> loadPresentation(String filePath) throws IOException {
+        List<Slide> slides;
         try (FileReader reader = new FileReader(filePath)) {
             Type listType = new TypeToken<List<Slide>>(){}.getType();
-            return gson.fromJson(reader, listType);
+            slides = gson.fromJson(reader, listType);
+        }
+        if (slides != null) {
+            for (Slide slide : slides) {
+                if (slide != null) {
+                    slide.setWidth(Slide.LOGICAL_WIDTH);
+                    slide.setHeight(Slide.LOGICAL_HEIGHT);
+                }
+            }
         }
+        return slides;
     }
 } 
\ No newline at end of file
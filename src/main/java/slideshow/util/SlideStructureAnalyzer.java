@@ -5,10 +5,13 @@ import slideshow.elements.SlideElement;
 import slideshow.elements.TextElement;
 import slideshow.elements.DrawElement;
 import slideshow.elements.ImageElement;
+import slideshow.util.graph.LogicGraph;
+import slideshow.util.graph.LogicGraphCodec;
 
 import java.util.*;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
+import java.util.stream.Collectors;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
@@ -19,6 +22,36 @@ import java.util.logging.Level;
 public class SlideStructureAnalyzer {
     private static final Logger logger = Logger.getLogger(SlideStructureAnalyzer.class.getName());
 
+    /** 标题长度上限：第一个短于此长度的文本元素视为标题 */
+    private static final int TITLE_MAX_LENGTH = 50;
+    /** 重点内容的长度范围（不含端点）和数量上限 */
+    private static final int KEY_POINT_MIN_LENGTH = 5;
+    private static final int KEY_POINT_MAX_LENGTH = 200;
+    private static final int MAX_KEY_POINTS = 20;
+
+    /**
+     * 单页的分析结果：标题、重点候选和关键词词频
+     * 只依赖该页文本元素的内容，内容相同的幻灯片可以共享同一结果
+     */
+    public static final class SlideSummary {
+        private final String title;
+        private final List<String> keyPointCandidates;
+        private final Map<String, Integer> keywordFrequency;
+
+        private SlideSummary(String title, List<String> keyPointCandidates, Map<String, Integer> keywordFrequency) {
+            this.title = title;
+            this.keyPointCandidates = Collections.unmodifiableList(keyPointCandidates);
+            this.keywordFrequency = Collections.unmodifiableMap(keywordFrequency);
+        }
+
+        /** 标题，没有合适的文本时为null */
+        public String getTitle() { return title; }
+
+        public List<String> getKeyPointCandidates() { return keyPointCandidates; }
+
+        public Map<String, Integer> getKeywordFrequency() { return keywordFrequency; }
+    }
+
     /**
      * 幻灯片结构分析结果
      */
@@ -29,6 +62,7 @@ public class SlideStructureAnalyzer {
         private Map<String, List<String>> hierarchy; // 层次结构
         private List<String> themes;                 // 主题分类
         private Map<String, Integer> keywordFrequency; // 关键词频率
+        private Map<String, Double> keywordScores;   // 关键词BM25得分（按得分降序）
         private List<String> logicalFlow;            // 逻辑流程
         private int totalSlides;                     // 幻灯片总数
         private int totalElements;                   // 元素总数
@@ -40,6 +74,7 @@ public class SlideStructureAnalyzer {
             this.hierarchy = new LinkedHashMap<>();
             this.themes = new ArrayList<>();
             this.keywordFrequency = new HashMap<>();
+            this.keywordScores = new LinkedHashMap<>();
             this.logicalFlow = new ArrayList<>();
             this.elementTypes = new HashMap<>();
         }
@@ -63,6 +98,16 @@ public class SlideStructureAnalyzer {
         public Map<String, Integer> getKeywordFrequency() { return keywordFrequency; }
         public void setKeywordFrequency(Map<String, Integer> keywordFrequency) { this.keywordFrequency = keywordFrequency; }
         
+        public Map<String, Double> getKeywordScores() { return keywordScores; }
+        public void setKeywordScores(Map<String, Double> keywordScores) { this.keywordScores = keywordScores; }
+        
+        /**
+         * 按BM25得分获取排名靠前的关键词
+         */
+        public List<String> getTopKeywords(int limit) {
+            return keywordScores.keySet().stream().limit(limit).collect(Collectors.toList());
+        }
+        
         public List<String> getLogicalFlow() { return logicalFlow; }
         public void setLogicalFlow(List<String> logicalFlow) { this.logicalFlow = logicalFlow; }
         
@@ -96,10 +141,8 @@ public class SlideStructureAnalyzer {
                 sb.append(i + 1).append(". ").append(logicalFlow.get(i)).append("\n");
             }
             sb.append("\n=== 关键词频率 ===\n");
-            keywordFrequency.entrySet().stream()
-                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-                .limit(10)
-                .forEach(entry -> sb.append(entry.getKey()).append(": ").append(entry.getValue()).append("\n"));
+            getTopKeywords(10).forEach(keyword ->
+                sb.append(keyword).append(": ").append(keywordFrequency.get(keyword)).append("\n"));
             return sb.toString();
         }
     }
@@ -111,26 +154,45 @@ public class SlideStructureAnalyzer {
      * @return 结构分析结果
      */
     public static StructureAnalysis analyzeStructure(List<Slide> slides) {
+        return analyzeStructure(slides, null);
+    }
+
+    /**
+     * 分析幻灯片结构
+     *
+     * @param slides       幻灯片列表
+     * @param documentPath 演示文稿的保存路径，用于在关键词权重中排除它已索引的旧版本；未保存时传null
+     * @return 结构分析结果
+     */
+    public static StructureAnalysis analyzeStructure(List<Slide> slides, String documentPath) {
         logger.info("开始分析幻灯片结构，幻灯片数量: " + slides.size());
         
         StructureAnalysis analysis = new StructureAnalysis();
         analysis.setTotalSlides(slides.size());
         
         try {
-            // 1. 提取所有文本内容
-            String allContent = extractAllContent(slides);
+            // 1. 逐页提取标题、重点候选和词频
+            List<SlideSummary> summaries = new ArrayList<>(slides.size());
+            for (Slide slide : slides) {
+                summaries.add(summarizeSlide(slideTexts(slide)));
+            }
             
             // 2. 分析元素类型
             analyzeElementTypes(slides, analysis);
             
-            // 3. 提取关键词和频率
-            extractKeywords(allContent, analysis);
+            // 3. 汇总关键词频率并计算得分
+            Map<String, Integer> keywordFrequency = new HashMap<>();
+            for (SlideSummary summary : summaries) {
+                summary.getKeywordFrequency().forEach((word, count) -> keywordFrequency.merge(word, count, Integer::sum));
+            }
+            analysis.setKeywordFrequency(keywordFrequency);
+            analysis.setKeywordScores(scoreKeywords(keywordFrequency, documentPath));
             
             // 4. 生成大纲结构
-            generateOutline(slides, analysis);
+            generateOutline(summaries, analysis);
             
             // 5. 提取重点内容
-            extractKeyPoints(slides, analysis);
+            analysis.setKeyPoints(selectKeyPoints(summaries));
             
             // 6. 分析层次结构
             analyzeHierarchy(slides, analysis);
@@ -142,7 +204,7 @@ public class SlideStructureAnalyzer {
             generateLogicalFlow(slides, analysis);
             
             // 9. 确定主要主题
-            determineMainTopic(analysis);
+            analysis.setMainTopic(selectMainTopic(analysis.getKeywordScores()));
             
             logger.info("幻灯片结构分析完成");
             return analysis;
@@ -154,23 +216,82 @@ public class SlideStructureAnalyzer {
     }
 
     /**
-     * 提取所有文本内容
+     * 幻灯片中各文本元素的原始文本（按元素顺序，可能含null）
+     */
+    public static List<String> slideTexts(Slide slide) {
+        List<String> texts = new ArrayList<>();
+        for (SlideElement element : slide.getElements()) {
+            if (element instanceof TextElement) {
+                texts.add(((TextElement) element).getText());
+            }
+        }
+        return texts;
+    }
+
+    /**
+     * 分析单页文本
+     * 第一个较短的文本作为标题（与extractSlideTitle相同），中等长度的文本作为重点候选，全部文本分词后统计词频
+     *
+     * @param texts 该页各文本元素的文本，见slideTexts
+     * @return 单页分析结果
      */
-    private static String extractAllContent(List<Slide> slides) {
+    public static SlideSummary summarizeSlide(List<String> texts) {
+        List<String> candidates = new ArrayList<>();
         StringBuilder content = new StringBuilder();
-        
-        for (int i = 0; i < slides.size(); i++) {
-            Slide slide = slides.get(i);
-            content.append("第").append(i + 1).append("页：\n");
-            
-            List<String> textContent = slide.getTextContent();
-            for (String text : textContent) {
-                content.append(text).append("\n");
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+            if (text.length() > KEY_POINT_MIN_LENGTH && text.length() < KEY_POINT_MAX_LENGTH) {
+                candidates.add(text);
+            }
+            if (!text.trim().isEmpty()) {
+                content.append(text.trim()).append("\n");
             }
-            content.append("\n");
         }
-        
-        return content.toString();
+        // 基于词典分词并统计频率（中文文本没有空格分隔，不能按空白切分）
+        Map<String, Integer> frequency = new HashMap<>();
+        for (String word : ChineseSegmenter.getInstance().segmentForKeywords(content.toString())) {
+            frequency.merge(word, 1, Integer::sum);
+        }
+        return new SlideSummary(titleOf(texts), candidates, frequency);
+    }
+
+    /**
+     * 按页序合并各页的重点候选，去重后最多保留MAX_KEY_POINTS条
+     */
+    public static List<String> selectKeyPoints(List<SlideSummary> summaries) {
+        Set<String> keyPoints = new LinkedHashSet<>();
+        for (SlideSummary summary : summaries) {
+            for (String candidate : summary.getKeyPointCandidates()) {
+                if (keyPoints.size() == MAX_KEY_POINTS) {
+                    return new ArrayList<>(keyPoints);
+                }
+                keyPoints.add(candidate);
+            }
+        }
+        return new ArrayList<>(keyPoints);
+    }
+
+    /**
+     * 结合已保存演示文稿的文档频率计算BM25得分，压低各演示文稿都常见的词
+     *
+     * @param keywordFrequency 全文词频
+     * @param documentPath     演示文稿的保存路径，其已索引的旧版本不计入文档频率；未保存时传null
+     * @return 按得分降序排列的关键词得分
+     */
+    public static Map<String, Double> scoreKeywords(Map<String, Integer> keywordFrequency, String documentPath) {
+        return KeywordIndex.getInstance().scoreBm25(keywordFrequency,
+                documentPath != null ? KeywordIndex.documentKey(documentPath) : null);
+    }
+
+    /**
+     * 取BM25得分最高的关键词作为主要主题
+     */
+    public static String selectMainTopic(Map<String, Double> keywordScores) {
+        return keywordScores.keySet().stream()
+            .findFirst()
+            .orElse("未识别主题");
     }
 
     /**
@@ -192,43 +313,14 @@ public class SlideStructureAnalyzer {
         analysis.setTotalElements(totalElements);
     }
 
-    /**
-     * 提取关键词和频率
-     */
-    private static void extractKeywords(String content, StructureAnalysis analysis) {
-        Map<String, Integer> keywordFrequency = new HashMap<>();
-        
-        // 分词并统计频率
-        String[] words = content.split("[\\s\\p{Punct}]+");
-        for (String word : words) {
-            String cleanWord = word.trim().toLowerCase();
-            if (cleanWord.length() > 1 && !isStopWord(cleanWord)) {
-                keywordFrequency.put(cleanWord, keywordFrequency.getOrDefault(cleanWord, 0) + 1);
-            }
-        }
-        
-        analysis.setKeywordFrequency(keywordFrequency);
-    }
-
-    /**
-     * 判断是否为停用词
-     */
-    private static boolean isStopWord(String word) {
-        Set<String> stopWords = new HashSet<>(Arrays.asList(
-            "的", "了", "在", "是", "我", "有", "和", "就", "不", "人", "都", "一", "一个", "上", "也", "很", "到", "说", "要", "去", "你", "会", "着", "没有", "看", "好", "自己", "这"
-        ));
-        return stopWords.contains(word);
-    }
-
     /**
      * 生成大纲结构
      */
-    private static void generateOutline(List<Slide> slides, StructureAnalysis analysis) {
+    private static void generateOutline(List<SlideSummary> summaries, StructureAnalysis analysis) {
         List<String> outline = new ArrayList<>();
         
-        for (int i = 0; i < slides.size(); i++) {
-            Slide slide = slides.get(i);
-            String slideTitle = extractSlideTitle(slide);
+        for (int i = 0; i < summaries.size(); i++) {
+            String slideTitle = summaries.get(i).getTitle();
             if (slideTitle != null && !slideTitle.isEmpty()) {
                 outline.add(slideTitle);
             } else {
@@ -243,41 +335,17 @@ public class SlideStructureAnalyzer {
      * 提取幻灯片标题
      */
     private static String extractSlideTitle(Slide slide) {
-        for (SlideElement element : slide.getElements()) {
-            if (element instanceof TextElement) {
-                TextElement textElement = (TextElement) element;
-                String text = textElement.getText();
-                if (text != null && text.length() > 0 && text.length() < 50) {
-                    // 假设第一个较短的文本元素是标题
-                    return text;
-                }
-            }
-        }
-        return null;
+        return titleOf(slideTexts(slide));
     }
 
-    /**
-     * 提取重点内容
-     */
-    private static void extractKeyPoints(List<Slide> slides, StructureAnalysis analysis) {
-        List<String> keyPoints = new ArrayList<>();
-        
-        for (Slide slide : slides) {
-            for (SlideElement element : slide.getElements()) {
-                if (element instanceof TextElement) {
-                    TextElement textElement = (TextElement) element;
-                    String text = textElement.getText();
-                    if (text != null && text.length() > 5 && text.length() < 200) {
-                        // 提取中等长度的文本作为重点
-                        keyPoints.add(text);
-                    }
-                }
+    private static String titleOf(List<String> texts) {
+        for (String text : texts) {
+            if (text != null && text.length() > 0 && text.length() < TITLE_MAX_LENGTH) {
+                // 假设第一个较短的文本元素是标题
+                return text;
             }
         }
-        
-        // 去重并限制数量
-        Set<String> uniquePoints = new LinkedHashSet<>(keyPoints);
-        analysis.setKeyPoints(new ArrayList<>(uniquePoints).subList(0, Math.min(uniquePoints.size(), 20)));
+        return null;
     }
 
     /**
@@ -307,30 +375,41 @@ public class SlideStructureAnalyzer {
         analysis.setHierarchy(hierarchy);
     }
 
+    /**
+     * 主题分类及其指示词
+     */
+    private static final Map<String, List<String>> THEME_TERMS = new LinkedHashMap<>();
+    static {
+        THEME_TERMS.put("技术科技", Arrays.asList("技术", "科技", "人工智能", "算法", "数据", "系统", "软件", "开发"));
+        THEME_TERMS.put("管理领导", Arrays.asList("管理", "领导", "团队", "组织", "战略", "决策"));
+        THEME_TERMS.put("市场营销", Arrays.asList("市场", "营销", "品牌", "客户", "销售", "推广"));
+        THEME_TERMS.put("教育培训", Arrays.asList("教育", "学习", "培训", "教学", "课程", "学生"));
+        THEME_TERMS.put("产品服务", Arrays.asList("产品", "服务", "用户", "体验", "功能", "需求"));
+    }
+
     /**
      * 识别主题分类
+     * 每个分类的得分为其指示词BM25得分之和，按得分从高到低排列
      */
     private static void identifyThemes(StructureAnalysis analysis) {
-        List<String> themes = new ArrayList<>();
-        Map<String, Integer> keywordFreq = analysis.getKeywordFrequency();
+        Map<String, Double> keywordScores = analysis.getKeywordScores();
+        Map<String, Double> themeScores = new HashMap<>();
         
-        // 基于关键词频率识别主题
-        if (keywordFreq.containsKey("技术") || keywordFreq.containsKey("科技")) {
-            themes.add("技术科技");
-        }
-        if (keywordFreq.containsKey("管理") || keywordFreq.containsKey("领导")) {
-            themes.add("管理领导");
-        }
-        if (keywordFreq.containsKey("市场") || keywordFreq.containsKey("营销")) {
-            themes.add("市场营销");
-        }
-        if (keywordFreq.containsKey("教育") || keywordFreq.containsKey("学习")) {
-            themes.add("教育培训");
-        }
-        if (keywordFreq.containsKey("产品") || keywordFreq.containsKey("服务")) {
-            themes.add("产品服务");
+        for (Map.Entry<String, List<String>> theme : THEME_TERMS.entrySet()) {
+            double score = 0;
+            for (String term : theme.getValue()) {
+                score += keywordScores.getOrDefault(term, 0.0);
+            }
+            if (score > 0) {
+                themeScores.put(theme.getKey(), score);
+            }
         }
         
+        List<String> themes = THEME_TERMS.keySet().stream()
+            .filter(themeScores::containsKey)
+            .sorted((a, b) -> Double.compare(themeScores.get(b), themeScores.get(a)))
+            .collect(Collectors.toList());
+        
         if (themes.isEmpty()) {
             themes.add("通用主题");
         }
@@ -358,20 +437,6 @@ public class SlideStructureAnalyzer {
         analysis.setLogicalFlow(logicalFlow);
     }
 
-    /**
-     * 确定主要主题
-     */
-    private static void determineMainTopic(StructureAnalysis analysis) {
-        // 基于关键词频率确定主要主题
-        Map<String, Integer> keywordFreq = analysis.getKeywordFrequency();
-        String mainTopic = keywordFreq.entrySet().stream()
-            .max(Map.Entry.comparingByValue())
-            .map(Map.Entry::getKey)
-            .orElse("未识别主题");
-        
-        analysis.setMainTopic(mainTopic);
-    }
-
     /**
      * 生成结构分析报告
      * 
@@ -412,10 +477,8 @@ public class SlideStructureAnalyzer {
         
         // 关键词统计
         report.append("【关键词统计】\n");
-        analysis.getKeywordFrequency().entrySet().stream()
-            .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-            .limit(10)
-            .forEach(entry -> report.append(entry.getKey()).append(": ").append(entry.getValue()).append("次\n"));
+        analysis.getTopKeywords(10).forEach(keyword ->
+            report.append(keyword).append(": ").append(analysis.getKeywordFrequency().get(keyword)).append("次\n"));
         report.append("\n");
         
         // 元素类型统计
@@ -427,45 +490,50 @@ public class SlideStructureAnalyzer {
     }
 
     /**
-     * 生成逻辑关系图数据
-     * 
+     * 构建逻辑关系图
+     * 主题节点连接各大纲节点，第i个大纲节点连接第i个重点节点
+     *
      * @param analysis 结构分析结果
-     * @return 逻辑关系图的JSON格式数据
+     * @return 逻辑关系图
      */
-    public static String generateLogicGraphData(StructureAnalysis analysis) {
-        StringBuilder json = new StringBuilder();
-        json.append("{\n");
-        json.append("  \"nodes\": [\n");
-        
+    public static LogicGraph buildLogicGraph(StructureAnalysis analysis) {
+        LogicGraph graph = new LogicGraph();
+        List<String> outline = analysis.getOutline();
+        List<String> keyPoints = analysis.getKeyPoints();
+
         // 添加主题节点
-        json.append("    {\"id\": \"main\", \"label\": \"").append(analysis.getMainTopic()).append("\", \"type\": \"main\"},\n");
-        
+        graph.addNode("main", analysis.getMainTopic(), LogicGraph.TYPE_MAIN);
+
         // 添加大纲节点
-        for (int i = 0; i < analysis.getOutline().size(); i++) {
-            json.append("    {\"id\": \"outline_").append(i).append("\", \"label\": \"").append(analysis.getOutline().get(i)).append("\", \"type\": \"outline\"},\n");
+        for (int i = 0; i < outline.size(); i++) {
+            graph.addNode("outline_" + i, outline.get(i), LogicGraph.TYPE_OUTLINE);
         }
-        
+
         // 添加重点节点
-        for (int i = 0; i < analysis.getKeyPoints().size(); i++) {
-            json.append("    {\"id\": \"point_").append(i).append("\", \"label\": \"").append(analysis.getKeyPoints().get(i)).append("\", \"type\": \"keypoint\"},\n");
+        for (int i = 0; i < keyPoints.size(); i++) {
+            graph.addNode("point_" + i, keyPoints.get(i), LogicGraph.TYPE_KEYPOINT);
         }
-        
-        json.append("  ],\n");
-        json.append("  \"edges\": [\n");
-        
+
         // 添加主题到大纲的连接
-        for (int i = 0; i < analysis.getOutline().size(); i++) {
-            json.append("    {\"source\": \"main\", \"target\": \"outline_").append(i).append("\", \"type\": \"hierarchy\"},\n");
+        for (int i = 0; i < outline.size(); i++) {
+            graph.addEdge("main", "outline_" + i, LogicGraph.EDGE_HIERARCHY);
         }
-        
+
         // 添加大纲到重点的连接
-        for (int i = 0; i < Math.min(analysis.getOutline().size(), analysis.getKeyPoints().size()); i++) {
-            json.append("    {\"source\": \"outline_").append(i).append("\", \"target\": \"point_").append(i).append("\", \"type\": \"detail\"},\n");
+        for (int i = 0; i < Math.min(outline.size(), keyPoints.size()); i++) {
+            graph.addEdge("outline_" + i, "point_" + i, LogicGraph.EDGE_DETAIL);
         }
-        
-        json.append("  ]\n");
-        json.append("}");
-        
-        return json.toString();
+
+        return graph;
+    }
+
+    /**
+     * 生成逻辑关系图数据
+     * 
+     * @param analysis 结构分析结果
+     * @return 逻辑关系图的JSON格式数据
+     */
+    public static String generateLogicGraphData(StructureAnalysis analysis) {
+        return LogicGraphCodec.toJson(buildLogicGraph(analysis));
     }
-}
\ No newline at end of file
+}
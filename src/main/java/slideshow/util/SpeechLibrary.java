@@ -0,0 +1,530 @@
+package slideshow.util;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * 演讲稿库索引
+ * 在演讲稿目录下维护index.json，记录每个演讲稿的演示文稿名称、时间、大小和内容哈希。
+ * 最新演讲稿和按演示文稿查找最新演讲稿都直接读取缓存结果；启动时只对比文件大小和修改时间，
+ * 变化的文件才重新计算哈希；运行期间用WatchService监听目录，外部增删改演讲稿时自动更新索引
+ */
+public class SpeechLibrary {
+    private static final Logger logger = Logger.getLogger(SpeechLibrary.class.getName());
+
+    private static final String INDEX_FILE = "index.json";
+    static final String SPEECH_SUFFIX = "_speech.txt";
+    private static final String PRESENTATION_HEADER = "演示文稿: ";
+    private static final int FORMAT_VERSION = 1;
+
+    /** 按时间排序，时间相同时按文件名 */
+    private static final Comparator<SpeechEntry> BY_TIME = Comparator
+            .comparingLong(SpeechEntry::getTimestamp)
+            .thenComparing(SpeechEntry::getFileName);
+
+    /**
+     * 演讲稿元数据
+     */
+    public static class SpeechEntry {
+        private String fileName;
+        private String presentationName;
+        private long timestamp;
+        private long size;
+        private String hash;
+
+        public SpeechEntry(String fileName, String presentationName, long timestamp, long size, String hash) {
+            this.fileName = fileName;
+            this.presentationName = presentationName;
+            this.timestamp = timestamp;
+            this.size = size;
+            this.hash = hash;
+        }
+
+        public String getFileName() { return fileName; }
+        public String getPresentationName() { return presentationName; }
+        /** 文件的最后修改时间（毫秒） */
+        public long getTimestamp() { return timestamp; }
+        public long getSize() { return size; }
+        /** 文件内容的SHA-256（十六进制） */
+        public String getHash() { return hash; }
+    }
+
+    /**
+     * index.json的内容
+     */
+    private static class IndexFile {
+        int version;
+        List<SpeechEntry> entries;
+    }
+
+    private static volatile SpeechLibrary instance;
+
+    private final Path directory;
+    private final Path indexFile;
+    private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+    private final Map<String, SpeechEntry> byFileName = new HashMap<>();
+    private final TreeSet<SpeechEntry> byTime = new TreeSet<>(BY_TIME);
+    private final Map<String, TreeSet<SpeechEntry>> byPresentation = new HashMap<>();
+    private final Map<String, SpeechEntry> latestByPresentation = new HashMap<>();
+    private SpeechEntry latest;
+
+    private WatchService watchService;
+
+    /**
+     * 获取演讲稿目录的共享实例
+     */
+    public static SpeechLibrary getInstance() {
+        if (instance == null) {
+            synchronized (SpeechLibrary.class) {
+                if (instance == null) {
+                    instance = new SpeechLibrary(SpeechManager.getSpeechDirectory());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * @param directory 演讲稿目录
+     */
+    public SpeechLibrary(Path directory) {
+        this.directory = directory;
+        this.indexFile = directory.resolve(INDEX_FILE);
+        // 先注册监听再对齐目录，对齐期间发生的变化会在之后的事件中处理
+        startWatching();
+        synchronized (this) {
+            boolean loaded = load();
+            if (reconcile(false) || !loaded) {
+                save();
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------- 查询
+
+    /**
+     * 最新的演讲稿
+     *
+     * @return 没有演讲稿时返回null
+     */
+    public synchronized SpeechEntry getLatest() {
+        return latest;
+    }
+
+    /**
+     * 指定演示文稿最新的演讲稿
+     *
+     * @return 没有时返回null
+     */
+    public synchronized SpeechEntry getLatest(String presentationName) {
+        return latestByPresentation.get(presentationName);
+    }
+
+    public synchronized SpeechEntry getEntry(String fileName) {
+        return byFileName.get(fileName);
+    }
+
+    public synchronized int size() {
+        return byFileName.size();
+    }
+
+    /**
+     * 所有演讲稿，从新到旧
+     */
+    public synchronized List<SpeechEntry> getEntries() {
+        return new ArrayList<>(byTime.descendingSet());
+    }
+
+    /**
+     * 除最新的keep个之外的演讲稿，从旧到新
+     */
+    public synchronized List<SpeechEntry> getEntriesExceptNewest(int keep) {
+        int count = byTime.size() - keep;
+        List<SpeechEntry> result = new ArrayList<>(Math.max(0, count));
+        Iterator<SpeechEntry> iterator = byTime.iterator();
+        while (result.size() < count && iterator.hasNext()) {
+            result.add(iterator.next());
+        }
+        return result;
+    }
+
+    /**
+     * 演讲稿的文件路径
+     */
+    public Path resolve(SpeechEntry entry) {
+        return directory.resolve(entry.getFileName());
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    // ---------------------------------------------------------------- 修改
+
+    /**
+     * 登记刚写入的演讲稿，使用写入的内容计算哈希，不需要重新读文件
+     *
+     * @param file             演讲稿文件
+     * @param presentationName 演示文稿名称
+     * @param content          写入的字节
+     * @return 登记的元数据，文件不可访问时返回null
+     */
+    public SpeechEntry add(Path file, String presentationName, byte[] content) {
+        try {
+            long timestamp = Files.getLastModifiedTime(file).toMillis();
+            SpeechEntry entry = new SpeechEntry(file.getFileName().toString(), presentationName,
+                    timestamp, content.length, sha256(content));
+            synchronized (this) {
+                put(entry);
+                save();
+            }
+            startWatching();
+            return entry;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "登记演讲稿失败: " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * 删除演讲稿文件（连同分段文件）并移除索引
+     *
+     * @return 是否删除成功
+     */
+    public boolean delete(SpeechEntry entry) {
+        Path file = resolve(entry);
+        try {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(SpeechSegments.segmentFileFor(file));
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "删除演讲稿失败: " + file, e);
+            return false;
+        }
+        synchronized (this) {
+            remove(entry.getFileName());
+            save();
+        }
+        return true;
+    }
+
+    /**
+     * 丢弃索引，重新扫描目录并计算所有文件的哈希
+     */
+    public synchronized void rebuild() {
+        clear();
+        reconcile(true);
+        save();
+    }
+
+    /**
+     * 停止监听目录
+     */
+    public synchronized void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.log(Level.FINE, "关闭目录监听失败", e);
+            }
+            watchService = null;
+        }
+    }
+
+    // ---------------------------------------------------------------- 内部
+
+    private void put(SpeechEntry entry) {
+        remove(entry.getFileName());
+        byFileName.put(entry.getFileName(), entry);
+        byTime.add(entry);
+        byPresentation.computeIfAbsent(entry.getPresentationName(), k -> new TreeSet<>(BY_TIME)).add(entry);
+        SpeechEntry current = latestByPresentation.get(entry.getPresentationName());
+        if (current == null || BY_TIME.compare(entry, current) > 0) {
+            latestByPresentation.put(entry.getPresentationName(), entry);
+        }
+        if (latest == null || BY_TIME.compare(entry, latest) > 0) {
+            latest = entry;
+        }
+    }
+
+    private boolean remove(String fileName) {
+        SpeechEntry entry = byFileName.remove(fileName);
+        if (entry == null) {
+            return false;
+        }
+        byTime.remove(entry);
+        TreeSet<SpeechEntry> entries = byPresentation.get(entry.getPresentationName());
+        if (entries != null) {
+            entries.remove(entry);
+            if (entries.isEmpty()) {
+                byPresentation.remove(entry.getPresentationName());
+                latestByPresentation.remove(entry.getPresentationName());
+            } else if (latestByPresentation.get(entry.getPresentationName()) == entry) {
+                latestByPresentation.put(entry.getPresentationName(), entries.last());
+            }
+        }
+        if (latest == entry) {
+            latest = byTime.isEmpty() ? null : byTime.last();
+        }
+        return true;
+    }
+
+    private void clear() {
+        byFileName.clear();
+        byTime.clear();
+        byPresentation.clear();
+        latestByPresentation.clear();
+        latest = null;
+    }
+
+    /**
+     * 读取index.json
+     *
+     * @return 是否读到有效的索引
+     */
+    private boolean load() {
+        if (!Files.exists(indexFile)) {
+            return false;
+        }
+        try (Reader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+            IndexFile index = gson.fromJson(reader, IndexFile.class);
+            if (index == null || index.version != FORMAT_VERSION || index.entries == null) {
+                return false;
+            }
+            for (SpeechEntry entry : index.entries) {
+                if (entry != null && entry.getFileName() != null && entry.getPresentationName() != null) {
+                    put(entry);
+                }
+            }
+            return true;
+        } catch (IOException | JsonParseException e) {
+            logger.log(Level.WARNING, "演讲稿索引损坏，将重新建立: " + indexFile, e);
+            clear();
+            return false;
+        }
+    }
+
+    /**
+     * 与目录内容对齐：移除已不存在的文件，大小或修改时间变化的文件重新读取
+     *
+     * @param rehashAll 是否重新计算所有文件的哈希
+     * @return 索引是否有变化
+     */
+    private boolean reconcile(boolean rehashAll) {
+        if (!Files.isDirectory(directory)) {
+            boolean changed = !byFileName.isEmpty();
+            clear();
+            return changed;
+        }
+        Set<String> present = new HashSet<>();
+        boolean changed = false;
+        try (Stream<Path> files = Files.list(directory)) {
+            Iterator<Path> iterator = files.iterator();
+            while (iterator.hasNext()) {
+                Path file = iterator.next();
+                String fileName = file.getFileName().toString();
+                if (!fileName.endsWith(SPEECH_SUFFIX)) {
+                    continue;
+                }
+                present.add(fileName);
+                changed |= refresh(file, rehashAll);
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "扫描演讲稿目录失败", e);
+            return changed;
+        }
+        for (String fileName : new ArrayList<>(byFileName.keySet())) {
+            if (!present.contains(fileName)) {
+                remove(fileName);
+                changed = true;
+            }
+        }
+        if (changed) {
+            logger.info("演讲稿索引已更新: " + byFileName.size() + " 个演讲稿");
+        }
+        return changed;
+    }
+
+    /**
+     * 按文件当前状态更新单个条目
+     *
+     * @return 索引是否有变化
+     */
+    private boolean refresh(Path file, boolean rehash) {
+        String fileName = file.getFileName().toString();
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return remove(fileName);
+        }
+        long timestamp = attributes.lastModifiedTime().toMillis();
+        SpeechEntry existing = byFileName.get(fileName);
+        if (!rehash && existing != null && existing.getSize() == attributes.size()
+                && existing.getTimestamp() == timestamp) {
+            return false;
+        }
+        try {
+            byte[] content = Files.readAllBytes(file);
+            put(new SpeechEntry(fileName, readPresentationName(content, fileName), timestamp,
+                    content.length, sha256(content)));
+            return true;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "读取演讲稿失败: " + file, e);
+            return remove(fileName);
+        }
+    }
+
+    /**
+     * 从文件头读取演示文稿名称，没有文件头时取文件名中时间戳之前的部分
+     */
+    private static String readPresentationName(byte[] content, String fileName) {
+        String head = new String(content, 0, Math.min(content.length, 1024), StandardCharsets.UTF_8);
+        String[] lines = head.split("\n", 4);
+        for (int i = 0; i < lines.length && i < 3; i++) {
+            if (lines[i].startsWith(PRESENTATION_HEADER)) {
+                return lines[i].substring(PRESENTATION_HEADER.length()).trim();
+            }
+        }
+        String name = fileName.substring(0, fileName.length() - SPEECH_SUFFIX.length());
+        // 去掉 _yyyyMMdd_HHmmss
+        return name.matches(".*_\\d{8}_\\d{6}") ? name.substring(0, name.length() - 16) : name;
+    }
+
+    /**
+     * 先写临时文件并同步到磁盘，再原子替换index.json
+     */
+    private void save() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        IndexFile index = new IndexFile();
+        index.version = FORMAT_VERSION;
+        index.entries = new ArrayList<>(byTime);
+        Path temp = indexFile.resolveSibling(INDEX_FILE + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 OutputStream out = Channels.newOutputStream(channel);
+                 Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+                gson.toJson(index, writer);
+                writer.flush();
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "保存演讲稿索引失败", e);
+        }
+    }
+
+    /**
+     * 目录存在且尚未监听时启动监听线程
+     */
+    private synchronized void startWatching() {
+        if (watchService != null || !Files.isDirectory(directory)) {
+            return;
+        }
+        try {
+            WatchService service = FileSystems.getDefault().newWatchService();
+            directory.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+            watchService = service;
+            Thread thread = new Thread(() -> watch(service), "speech-library-watcher");
+            thread.setDaemon(true);
+            thread.start();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "无法监听演讲稿目录，外部修改需手动重建索引", e);
+        }
+    }
+
+    private void watch(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                synchronized (this) {
+                    boolean changed = false;
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            changed |= reconcile(false);
+                            continue;
+                        }
+                        Path name = (Path) event.context();
+                        if (name.toString().endsWith(SPEECH_SUFFIX)) {
+                            changed |= refresh(directory.resolve(name), false);
+                        }
+                    }
+                    if (changed) {
+                        save();
+                    }
+                    if (!key.reset()) {
+                        // 目录被删除
+                        clear();
+                        if (watchService == service) {
+                            watchService = null;
+                        }
+                        service.close();
+                        return;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException | IOException e) {
+            logger.fine("演讲稿目录监听已停止");
+        }
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256不可用", e);
+        }
+    }
+}
@@ -7,6 +7,8 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
@@ -18,6 +20,11 @@ public class SpeechManager {
     private static final Logger logger = Logger.getLogger(SpeechManager.class.getName());
     private static final String SPEECH_DIR = "speeches";
     private static final DateTimeFormatter FILE_NAME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+    /** 文件头分隔线的长度，识别时只要求不短于HEADER_SEPARATOR_MIN_LENGTH，以兼容手工编辑过的文件 */
+    private static final int HEADER_SEPARATOR_LENGTH = 50;
+    private static final int HEADER_SEPARATOR_MIN_LENGTH = 5;
+    /** 只在前几行中查找分隔线，避免把正文中的分隔线当成文件头 */
+    private static final int HEADER_MAX_LINES = 5;
     
     /**
      * 保存演讲稿到本地文件
@@ -27,6 +34,18 @@ public class SpeechManager {
      * @return 保存的文件路径，如果保存失败返回null
      */
     public static String saveSpeechToFile(String speechContent, String presentationName) {
+        return saveSpeechToFile(speechContent, presentationName, 0);
+    }
+    
+    /**
+     * 保存演讲稿到本地文件，演讲稿中有页标记时同时保存按页分段的.seg文件
+     * 
+     * @param speechContent 演讲稿内容
+     * @param presentationName 演示文稿名称
+     * @param slideCount 幻灯片数量，为0时按演讲稿中的最大页码
+     * @return 保存的文件路径，如果保存失败返回null
+     */
+    public static String saveSpeechToFile(String speechContent, String presentationName, int slideCount) {
         try {
             // 创建演讲稿目录
             Path speechDir = Paths.get(SPEECH_DIR);
@@ -42,19 +61,12 @@ public class SpeechManager {
                 timestamp);
             Path filePath = speechDir.resolve(fileName);
             
-            // 写入文件
-            try (BufferedWriter writer = Files.newBufferedWriter(filePath, StandardCharsets.UTF_8)) {
-                writer.write("演讲稿生成时间: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-                writer.newLine();
-                writer.write("演示文稿: " + presentationName);
-                writer.newLine();
-                writer.write("=".repeat(50));
-                writer.newLine();
-                writer.write(speechContent);
-                writer.newLine();
-            }
+            // 写入文件，写入的字节同时用于计算索引中的哈希
+            byte[] bytes = writeSpeech(filePath, speechContent, presentationName, slideCount);
+            SpeechLibrary.getInstance().add(filePath, presentationName, bytes);
             
             logger.info("演讲稿已保存到: " + filePath.toAbsolutePath());
+            indexSpeechFile(filePath.toString());
             return filePath.toString();
             
         } catch (IOException e) {
@@ -63,6 +75,99 @@ public class SpeechManager {
         }
     }
     
+    /**
+     * 把演讲稿写到指定文件（含文件头和按页分段），不加入演讲稿目录和全文索引
+     * 用于批量生成等输出不属于当前用户演讲稿库的场合
+     * 
+     * @param filePath 演讲稿文件路径
+     * @param speechContent 演讲稿内容
+     * @param presentationName 演示文稿名称
+     * @param slideCount 幻灯片数量，为0时按演讲稿中的最大页码
+     */
+    public static void writeSpeechFile(Path filePath, String speechContent, String presentationName, int slideCount)
+            throws IOException {
+        writeSpeech(filePath, speechContent, presentationName, slideCount);
+    }
+
+    private static byte[] writeSpeech(Path filePath, String speechContent, String presentationName, int slideCount)
+            throws IOException {
+        String newLine = System.lineSeparator();
+        String fileContent = "演讲稿生成时间: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))
+            + newLine + "演示文稿: " + presentationName
+            + newLine + "=".repeat(HEADER_SEPARATOR_LENGTH)
+            + newLine + speechContent
+            + newLine;
+        byte[] bytes = fileContent.getBytes(StandardCharsets.UTF_8);
+        Files.write(filePath, bytes);
+        saveSegments(filePath, speechContent, slideCount);
+        return bytes;
+    }
+    
+    /**
+     * 保存按页分段，失败不影响演讲稿本身（演讲者视图会退回到从正文切分）
+     */
+    private static void saveSegments(Path speechFile, String speechContent, int slideCount) {
+        List<String> segments = SpeechSegments.split(speechContent, slideCount);
+        if (segments.isEmpty()) {
+            return;
+        }
+        try {
+            SpeechSegments.write(SpeechSegments.segmentFileFor(speechFile), segments);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "保存演讲稿分段失败: " + speechFile, e);
+        }
+    }
+    
+    /**
+     * 去掉演讲稿文件头（生成时间、演示文稿名称和分隔线）
+     * 演讲者视图和全文索引都用它确定正文的起点，分隔线是前几行中只由“=”组成的一行
+     * 
+     * @param content 演讲稿文件内容
+     * @return 演讲稿正文，没有文件头时原样返回（均去掉首尾空白）
+     */
+    public static String stripHeader(String content) {
+        String[] lines = content.split("\n", -1);
+        for (int i = 0; i < lines.length && i < HEADER_MAX_LINES; i++) {
+            if (isHeaderSeparator(lines[i])) {
+                return String.join("\n", Arrays.asList(lines).subList(i + 1, lines.length)).trim();
+            }
+        }
+        return content.trim();
+    }
+
+    private static boolean isHeaderSeparator(String line) {
+        String trimmed = line.trim();
+        if (trimmed.length() < HEADER_SEPARATOR_MIN_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < trimmed.length(); i++) {
+            if (trimmed.charAt(i) != '=') {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * 将演讲稿加入全文索引，索引失败不影响保存结果
+     */
+    private static void indexSpeechFile(String filePath) {
+        try {
+            FullTextIndex.getInstance().indexSpeech(filePath);
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "更新全文索引失败: " + filePath, e);
+        }
+    }
+    
+    /**
+     * 获取演讲稿目录
+     * 
+     * @return 演讲稿目录路径
+     */
+    public static Path getSpeechDirectory() {
+        return Paths.get(SPEECH_DIR);
+    }
+    
     /**
      * 从文件加载演讲稿
      * 
@@ -93,30 +198,21 @@ public class SpeechManager {
      * @return 最新演讲稿文件路径，如果没有找到返回null
      */
     public static String getLatestSpeechFile() {
-        try {
-            Path speechDir = Paths.get(SPEECH_DIR);
-            if (!Files.exists(speechDir)) {
-                return null;
-            }
-            
-            // 查找最新的演讲稿文件
-            return Files.list(speechDir)
-                .filter(path -> path.toString().endsWith("_speech.txt"))
-                .sorted((p1, p2) -> {
-                    try {
-                        return Files.getLastModifiedTime(p2).compareTo(Files.getLastModifiedTime(p1));
-                    } catch (IOException e) {
-                        return 0;
-                    }
-                })
-                .findFirst()
-                .map(Path::toString)
-                .orElse(null);
-                
-        } catch (IOException e) {
-            logger.log(Level.SEVERE, "查找最新演讲稿文件失败", e);
-            return null;
-        }
+        SpeechLibrary library = SpeechLibrary.getInstance();
+        SpeechLibrary.SpeechEntry latest = library.getLatest();
+        return latest != null ? library.resolve(latest).toString() : null;
+    }
+    
+    /**
+     * 获取指定演示文稿最新的演讲稿文件
+     * 
+     * @param presentationName 演示文稿名称
+     * @return 演讲稿文件路径，如果没有找到返回null
+     */
+    public static String getLatestSpeechFile(String presentationName) {
+        SpeechLibrary library = SpeechLibrary.getInstance();
+        SpeechLibrary.SpeechEntry latest = library.getLatest(presentationName);
+        return latest != null ? library.resolve(latest).toString() : null;
     }
     
     /**
@@ -125,41 +221,30 @@ public class SpeechManager {
      * @return 如果有演讲稿文件返回true，否则返回false
      */
     public static boolean hasSpeechFile() {
-        return getLatestSpeechFile() != null;
+        return SpeechLibrary.getInstance().getLatest() != null;
+    }
+
+    /**
+     * 检查指定演示文稿是否有演讲稿文件
+     * 
+     * @param presentationName 演示文稿名称
+     * @return 如果有演讲稿文件返回true，否则返回false
+     */
+    public static boolean hasSpeechFile(String presentationName) {
+        return SpeechLibrary.getInstance().getLatest(presentationName) != null;
     }
     
     /**
      * 清理旧的演讲稿文件（保留最近10个）
      */
     public static void cleanupOldSpeechFiles() {
-        try {
-            Path speechDir = Paths.get(SPEECH_DIR);
-            if (!Files.exists(speechDir)) {
-                return;
+        SpeechLibrary library = SpeechLibrary.getInstance();
+        for (SpeechLibrary.SpeechEntry entry : library.getEntriesExceptNewest(10)) {
+            String path = library.resolve(entry).toString();
+            if (library.delete(entry)) {
+                logger.info("删除旧演讲稿文件: " + path);
+                FullTextIndex.getInstance().removeDocument(path);
             }
-            
-            // 获取所有演讲稿文件并按修改时间排序
-            var files = Files.list(speechDir)
-                .filter(path -> path.toString().endsWith("_speech.txt"))
-                .sorted((p1, p2) -> {
-                    try {
-                        return Files.getLastModifiedTime(p2).compareTo(Files.getLastModifiedTime(p1));
-                    } catch (IOException e) {
-                        return 0;
-                    }
-                })
-                .toList();
-            
-            // 删除超过10个的旧文件
-            if (files.size() > 10) {
-                for (int i = 10; i < files.size(); i++) {
-                    Files.delete(files.get(i));
-                    logger.info("删除旧演讲稿文件: " + files.get(i));
-                }
-            }
-            
-        } catch (IOException e) {
-            logger.log(Level.SEVERE, "清理旧演讲稿文件失败", e);
         }
     }
-} 
\ No newline at end of file
+}
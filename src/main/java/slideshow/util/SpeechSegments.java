@@ -0,0 +1,261 @@
+package slideshow.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 按幻灯片分段的演讲稿
+ * 与演讲稿文本文件同名的.seg文件保存各页演讲稿，格式为：
+ * 魔数(int) 段数n(int) 偏移表(n+1个long，相对数据区起点) 数据区(各段UTF-8字节依次排列)。
+ * 打开时整体映射到内存，读取第N页只需查偏移表并解码对应的字节区间
+ */
+public final class SpeechSegments {
+    private static final Logger logger = Logger.getLogger(SpeechSegments.class.getName());
+
+    private static final int MAGIC = 0x53454731; // "SEG1"
+    private static final int HEADER_SIZE = 8;
+    static final String SEGMENT_SUFFIX = "_speech.seg";
+
+    /** 生成演讲稿时要求AI在每页开头输出的标记，只识别行首的标记，正文中引用的“【第N页】”不算分页 */
+    private static final Pattern PAGE_MARKER = Pattern.compile("(?m)^[ \\t]*【第\\s*(\\d{1,4})\\s*页】");
+    /** 没有标记时退而识别行首的“第N页：”“## 第N页”等写法 */
+    private static final Pattern PAGE_HEADING = Pattern.compile(
+            "(?m)^[#*\\s]*第\\s*(\\d{1,4})\\s*页[*\\s]*[：:]?[*\\s]*$|(?m)^[#*\\s]*第\\s*(\\d{1,4})\\s*页\\s*[：:]");
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int dataStart;
+
+    private SpeechSegments(ByteBuffer buffer) throws IOException {
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("不是演讲稿分段文件");
+        }
+        this.buffer = buffer;
+        this.count = buffer.getInt(4);
+        // 先确认偏移表放得下再计算数据区位置，避免损坏的段数导致整数溢出
+        if (count < 0 || count > (buffer.limit() - HEADER_SIZE) / Long.BYTES - 1) {
+            throw new IOException("演讲稿分段文件已损坏: 段数 " + count);
+        }
+        this.dataStart = HEADER_SIZE + (count + 1) * Long.BYTES;
+        long dataLength = buffer.limit() - dataStart;
+        long previous = 0;
+        for (int i = 0; i <= count; i++) {
+            long offset = buffer.getLong(HEADER_SIZE + i * Long.BYTES);
+            if (offset < previous || offset > dataLength) {
+                throw new IOException("演讲稿分段文件已损坏: 第 " + i + " 个偏移量 " + offset);
+            }
+            previous = offset;
+        }
+    }
+
+    // ---------------------------------------------------------------- 读取
+
+    /**
+     * 映射分段文件
+     *
+     * @param segmentFile .seg文件
+     * @return 分段，文件不存在或损坏时返回null，调用方应从演讲稿正文重新切分
+     */
+    public static SpeechSegments open(Path segmentFile) {
+        if (!Files.exists(segmentFile)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.READ)) {
+            // 映射在通道关闭后仍然有效
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new SpeechSegments(mapped);
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "读取演讲稿分段失败，将从演讲稿正文重新切分: " + segmentFile, e);
+            return null;
+        }
+    }
+
+    /**
+     * 由内存中的各页文本创建（不写文件）
+     */
+    public static SpeechSegments of(List<String> segments) {
+        try {
+            return new SpeechSegments(ByteBuffer.wrap(encode(segments)));
+        } catch (IOException e) {
+            // 自己编码的数据不会出错
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 段数（页数）
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * 第index页的演讲稿
+     *
+     * @param index 从0开始的页码
+     * @return 超出范围时返回空字符串
+     */
+    public String getSegment(int index) {
+        if (index < 0 || index >= count) {
+            return "";
+        }
+        long start = buffer.getLong(HEADER_SIZE + index * Long.BYTES);
+        long end = buffer.getLong(HEADER_SIZE + (index + 1) * Long.BYTES);
+        byte[] bytes = new byte[(int) (end - start)];
+        // 绝对位置读取，不修改缓冲区状态，可在多个线程中同时读取
+        buffer.get(dataStart + (int) start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // ---------------------------------------------------------------- 写入
+
+    /**
+     * 演讲稿文本文件对应的分段文件
+     */
+    public static Path segmentFileFor(Path speechFile) {
+        String name = speechFile.getFileName().toString();
+        String base = name.endsWith(SpeechLibrary.SPEECH_SUFFIX)
+                ? name.substring(0, name.length() - SpeechLibrary.SPEECH_SUFFIX.length())
+                : name.replaceFirst("\\.txt$", "");
+        return speechFile.resolveSibling(base + SEGMENT_SUFFIX);
+    }
+
+    /**
+     * 写入分段文件（先写临时文件再替换）
+     */
+    public static void write(Path segmentFile, List<String> segments) throws IOException {
+        Path temp = segmentFile.resolveSibling(segmentFile.getFileName() + ".tmp");
+        Files.write(temp, encode(segments));
+        try {
+            Files.move(temp, segmentFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, segmentFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static byte[] encode(List<String> segments) {
+        List<byte[]> encoded = new ArrayList<>(segments.size());
+        long dataLength = 0;
+        for (String segment : segments) {
+            byte[] bytes = (segment != null ? segment : "").getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            dataLength += bytes.length;
+        }
+        int tableSize = (segments.size() + 1) * Long.BYTES;
+        ByteBuffer out = ByteBuffer.allocate((int) (HEADER_SIZE + tableSize + dataLength));
+        out.putInt(MAGIC).putInt(segments.size());
+        long offset = 0;
+        for (byte[] bytes : encoded) {
+            out.putLong(offset);
+            offset += bytes.length;
+        }
+        out.putLong(offset);
+        for (byte[] bytes : encoded) {
+            out.put(bytes);
+        }
+        return out.array();
+    }
+
+    // ---------------------------------------------------------------- 切分
+
+    /**
+     * 按页标记切分演讲稿
+     * 优先识别行首的“【第N页】”，没有时识别行首的“第N页：”。第一个标记之前的开场白并入第1页，
+     * 同一页出现多次时内容依次拼接，页码超过幻灯片数量的内容并入最后一页
+     *
+     * @param speech     演讲稿正文
+     * @param slideCount 幻灯片数量，结果正好有这么多段；为0时按最大页码
+     * @return 各页演讲稿，找不到任何标记时返回空列表
+     */
+    public static List<String> split(String speech, int slideCount) {
+        List<String> result = new ArrayList<>();
+        if (speech == null) {
+            return result;
+        }
+        Matcher matcher = PAGE_MARKER.matcher(speech);
+        if (!matcher.find()) {
+            matcher = PAGE_HEADING.matcher(speech);
+            if (!matcher.find()) {
+                return result;
+            }
+        }
+        List<StringBuilder> pages = new ArrayList<>();
+        String preamble = speech.substring(0, matcher.start()).trim();
+        int page = -1;
+        int contentStart = 0;
+        do {
+            if (page >= 0) {
+                append(pages, page, speech.substring(contentStart, matcher.start()));
+            }
+            String number = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+            page = Math.max(0, Integer.parseInt(number) - 1);
+            if (slideCount > 0) {
+                page = Math.min(page, slideCount - 1);
+            }
+            contentStart = matcher.end();
+        } while (matcher.find());
+        append(pages, page, speech.substring(contentStart));
+
+        if (!preamble.isEmpty()) {
+            if (pages.isEmpty() || pages.get(0) == null) {
+                append(pages, 0, preamble);
+            } else {
+                pages.get(0).insert(0, preamble + "\n");
+            }
+        }
+        int total = Math.max(pages.size(), slideCount);
+        for (int i = 0; i < total; i++) {
+            StringBuilder text = i < pages.size() ? pages.get(i) : null;
+            result.add(text != null ? text.toString().trim() : "");
+        }
+        return result;
+    }
+
+    /**
+     * 按页拼接演讲稿，每页以单独一行的【第N页】开头，是split的逆操作
+     *
+     * @param segments 各页演讲稿，null视为空
+     * @return 拼接后的演讲稿
+     */
+    public static String join(List<String> segments) {
+        StringBuilder speech = new StringBuilder();
+        for (int i = 0; i < segments.size(); i++) {
+            if (i > 0) {
+                speech.append("\n\n");
+            }
+            speech.append("【第").append(i + 1).append("页】\n");
+            String segment = segments.get(i);
+            if (segment != null) {
+                speech.append(segment.trim());
+            }
+        }
+        return speech.toString();
+    }
+
+    private static void append(List<StringBuilder> pages, int page, String text) {
+        while (pages.size() <= page) {
+            pages.add(null);
+        }
+        String trimmed = text.trim();
+        StringBuilder existing = pages.get(page);
+        if (existing == null) {
+            pages.set(page, new StringBuilder(trimmed));
+        } else if (!trimmed.isEmpty()) {
+            existing.append("\n").append(trimmed);
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package slideshow.util;
+
+import javafx.scene.paint.Color;
+import javafx.scene.text.FontWeight;
+import slideshow.elements.DrawElement;
+import slideshow.elements.ImageElement;
+import slideshow.elements.TextElement;
+import slideshow.model.Slide;
+
+import javax.imageio.ImageIO;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.logging.Logger;
+
+/**
+ * 合成演示文稿生成器
+ * 按种子确定性地生成指定页数的幻灯片和对应的PPT命令文本，用于基准测试、无界面渲染和编辑器压力测试，不需要调用AI。
+ * 每页使用由种子和页码派生的独立随机序列，同样的种子和配置总得到同样的内容，增加页数不会改变前面各页。
+ * 元素的样式与SlideParser解析同一行命令时一致；图片在PPT命令中写作Image:行，由SlideParser解析为文字占位符
+ */
+public class SyntheticDeckGenerator {
+    private static final Logger logger = Logger.getLogger(SyntheticDeckGenerator.class.getName());
+
+    private static final double LINE_SPACING = 8;
+
+    private static final String[] CJK_WORDS = {
+            "人工智能", "机器学习", "数据分析", "云计算", "网络安全", "项目管理", "市场营销", "教育技术",
+            "背景", "现状", "核心概念", "关键技术", "应用案例", "实施步骤", "风险", "挑战", "未来展望", "总结",
+            "我们", "需要", "通过", "结合", "实际", "场景", "提升", "效率", "并且", "持续", "优化", "流程",
+            "团队", "用户", "体验", "质量", "成本", "方案", "目标", "结果", "，", "。"
+    };
+    private static final String[] LATIN_WORDS = {
+            "data", "model", "cloud", "security", "design", "system", "network", "learning", "market",
+            "strategy", "growth", "quality", "process", "team", "user", "experience", "result", "plan",
+            "the", "and", "for", "with", "improve", "build", "measure", "deliver", "review", "scale"
+    };
+    private static final String[] TEXT_COMMANDS = {"Subtitle", "Bullet", "Text"};
+
+    private long seed = 42;
+    private int slideCount = 10;
+    private int minElements = 4;
+    private int maxElements = 8;
+    private int textWeight = 6;
+    private int drawWeight = 3;
+    private int imageWeight = 1;
+    private int minTextLength = 8;
+    private int maxTextLength = 60;
+    private double cjkRatio = 0.7;
+    private int imagePoolSize = 4;
+    private Path imageDirectory;
+
+    /**
+     * 生成结果：幻灯片、对应的PPT命令文本和用到的图片
+     */
+    public static class SyntheticDeck {
+        private final List<Slide> slides;
+        private final String commands;
+        private final List<String> imageUrls;
+
+        public SyntheticDeck(List<Slide> slides, String commands, List<String> imageUrls) {
+            this.slides = slides;
+            this.commands = commands;
+            this.imageUrls = imageUrls;
+        }
+
+        public List<Slide> getSlides() {
+            return slides;
+        }
+
+        /**
+         * 与幻灯片内容对应的PPT命令，可直接交给SlideParser.parseAndCreateSlides
+         */
+        public String getCommands() {
+            return commands;
+        }
+
+        /**
+         * 图片池中各图片的URL
+         */
+        public List<String> getImageUrls() {
+            return imageUrls;
+        }
+
+        public int getElementCount() {
+            int count = 0;
+            for (Slide slide : slides) {
+                count += slide.getElements().size();
+            }
+            return count;
+        }
+    }
+
+    /**
+     * 生成演示文稿。图片元素的权重大于0时先在图片目录中写入图片池，未设置目录时使用临时目录
+     */
+    public SyntheticDeck generate() throws IOException {
+        List<String> imageUrls = imageWeight > 0 ? writeImagePool() : Collections.emptyList();
+        List<Slide> slides = new ArrayList<>(slideCount);
+        StringBuilder commands = new StringBuilder(slideCount * 200);
+        for (int page = 1; page <= slideCount; page++) {
+            Slide slide = new Slide();
+            generatePage(page, slide, commands, imageUrls);
+            slides.add(slide);
+        }
+        return new SyntheticDeck(slides, commands.toString(), imageUrls);
+    }
+
+    /**
+     * 只生成PPT命令文本，不创建幻灯片和图片
+     */
+    public String generateCommands() {
+        StringBuilder commands = new StringBuilder(slideCount * 200);
+        for (int page = 1; page <= slideCount; page++) {
+            generatePage(page, null, commands, Collections.emptyList());
+        }
+        return commands.toString();
+    }
+
+    private void generatePage(int page, Slide slide, StringBuilder commands, List<String> imageUrls) {
+        SplittableRandom random = new SplittableRandom(seed * 1_000_003L + page);
+        double y = 60;
+        commands.append("Page ").append(page).append(":\n");
+        String title = text(random, minTextLength, Math.min(maxTextLength, 24));
+        commands.append("Title: ").append(title).append('\n');
+        if (slide != null) {
+            y = addText(slide, title, 28, Color.DARKBLUE, FontWeight.BOLD, y) + 4;
+        }
+
+        int elements = minElements + random.nextInt(Math.max(1, maxElements - minElements + 1));
+        int totalWeight = textWeight + drawWeight + imageWeight;
+        for (int i = 0; i < elements && totalWeight > 0; i++) {
+            int pick = random.nextInt(totalWeight);
+            if (pick < textWeight) {
+                String command = TEXT_COMMANDS[random.nextInt(TEXT_COMMANDS.length)];
+                String text = text(random, minTextLength, maxTextLength);
+                commands.append(command).append(": ").append(text).append('\n');
+                if (slide != null) {
+                    if ("Subtitle".equals(command)) {
+                        y = addText(slide, text, 20, Color.BLACK, FontWeight.BOLD, y);
+                    } else {
+                        y = addText(slide, "Bullet".equals(command) ? "· " + text : text, 18, Color.BLACK, FontWeight.NORMAL, y);
+                    }
+                }
+            } else if (pick < textWeight + drawWeight) {
+                addShape(random, slide, commands);
+            } else {
+                int index = random.nextInt(imagePoolSize);
+                double width = 120 + random.nextInt(280);
+                double height = width * (0.5 + random.nextDouble() * 0.5);
+                double x = random.nextInt((int) (Slide.LOGICAL_WIDTH - width));
+                double top = random.nextInt((int) (Slide.LOGICAL_HEIGHT - height));
+                commands.append("Image: 示意图").append(index + 1).append('\n');
+                if (slide != null && !imageUrls.isEmpty()) {
+                    slide.addElement(new ImageElement(x, top, imageUrls.get(index), width, height));
+                }
+            }
+        }
+    }
+
+    /**
+     * 按SlideParser的方式添加一行居中文字，返回下一行的Y坐标
+     */
+    private static double addText(Slide slide, String text, double fontSize, Color color, FontWeight weight, double y) {
+        double center = Slide.LOGICAL_WIDTH / 2;
+        TextElement element = new TextElement(center, y, text, fontSize, color, weight, false);
+        element.setPosition(center - element.getWidth() / 2, y + element.getHeight());
+        slide.addElement(element);
+        return y + element.getHeight() + LINE_SPACING;
+    }
+
+    private static void addShape(SplittableRandom random, Slide slide, StringBuilder commands) {
+        int x1 = 50 + random.nextInt((int) Slide.LOGICAL_WIDTH - 300);
+        int y1 = 150 + random.nextInt((int) Slide.LOGICAL_HEIGHT - 400);
+        int x2 = x1 + 40 + random.nextInt(200);
+        int y2 = y1 + 40 + random.nextInt(200);
+        DrawElement.ShapeType type = DrawElement.ShapeType.values()[random.nextInt(DrawElement.ShapeType.values().length)];
+        DrawElement element;
+        switch (type) {
+            case CIRCLE:
+                int radius = (x2 - x1) / 2;
+                commands.append("Draw: Circle(").append(x1 + radius).append(',').append(y1).append(',').append(radius).append(")\n");
+                element = new DrawElement(x1, y1, type, Color.GREEN, 2.0);
+                element.updateEndPoint(x1 + 2 * radius, y1);
+                break;
+            case RECTANGLE:
+                commands.append("Draw: Rectangle(");
+                element = new DrawElement(x1, y1, type, Color.ORANGE, 2.0);
+                break;
+            case ARROW:
+                commands.append("Draw: Arrow(");
+                element = new DrawElement(x1, y1, type, Color.RED, 2.0);
+                break;
+            default:
+                commands.append("Draw: Line(");
+                element = new DrawElement(x1, y1, type, Color.BLACK, 2.0);
+                break;
+        }
+        if (type != DrawElement.ShapeType.CIRCLE) {
+            commands.append(x1).append(',').append(y1).append(',').append(x2).append(',').append(y2).append(")\n");
+            element.updateEndPoint(x2, y2);
+        }
+        if (slide != null) {
+            slide.addElement(element);
+        }
+    }
+
+    /**
+     * 生成一段中文或英文文字，长度在[min, max]个字符之间
+     */
+    private String text(SplittableRandom random, int min, int max) {
+        int length = min + random.nextInt(Math.max(1, max - min + 1));
+        boolean cjk = random.nextDouble() < cjkRatio;
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            if (cjk) {
+                String word = CJK_WORDS[random.nextInt(CJK_WORDS.length)];
+                if (text.length() > 0 || word.length() > 1) {
+                    text.append(word);
+                }
+            } else {
+                if (text.length() > 0) {
+                    text.append(' ');
+                }
+                text.append(LATIN_WORDS[random.nextInt(LATIN_WORDS.length)]);
+            }
+        }
+        // 英文在长度范围内的最后一个空格处截断，不切断单词
+        int space = cjk ? -1 : text.lastIndexOf(" ", length);
+        text.setLength(space > 0 ? space : length);
+        return text.toString().trim();
+    }
+
+    private List<String> writeImagePool() throws IOException {
+        Path dir = imageDirectory != null ? imageDirectory : Files.createTempDirectory("synthetic-images");
+        Files.createDirectories(dir);
+        List<String> urls = new ArrayList<>(imagePoolSize);
+        for (int i = 0; i < imagePoolSize; i++) {
+            Path file = dir.resolve("synthetic-" + i + ".png");
+            if (!Files.exists(file)) {
+                float hue = (float) i / imagePoolSize;
+                BufferedImage image = new BufferedImage(320, 200, BufferedImage.TYPE_INT_RGB);
+                Graphics2D g = image.createGraphics();
+                g.setPaint(new GradientPaint(0, 0, java.awt.Color.getHSBColor(hue, 0.6f, 0.9f),
+                        320, 200, java.awt.Color.getHSBColor(hue, 0.8f, 0.5f)));
+                g.fillRect(0, 0, 320, 200);
+                g.dispose();
+                ImageIO.write(image, "png", file.toFile());
+            }
+            urls.add(file.toUri().toString());
+        }
+        logger.info("合成图片池: " + dir + "，共 " + imagePoolSize + " 张");
+        return urls;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public int getSlideCount() {
+        return slideCount;
+    }
+
+    public void setSlideCount(int slideCount) {
+        this.slideCount = Math.max(0, slideCount);
+    }
+
+    /**
+     * 每页标题之外的元素数量范围
+     */
+    public void setElementsPerSlide(int min, int max) {
+        this.minElements = Math.max(0, min);
+        this.maxElements = Math.max(this.minElements, max);
+    }
+
+    /**
+     * 文字、图形和图片元素的相对权重，例如(6, 3, 1)表示约60%文字、30%图形、10%图片
+     */
+    public void setElementMix(int textWeight, int drawWeight, int imageWeight) {
+        this.textWeight = Math.max(0, textWeight);
+        this.drawWeight = Math.max(0, drawWeight);
+        this.imageWeight = Math.max(0, imageWeight);
+    }
+
+    /**
+     * 每段文字的字符数范围
+     */
+    public void setTextLength(int min, int max) {
+        this.minTextLength = Math.max(1, min);
+        this.maxTextLength = Math.max(this.minTextLength, max);
+    }
+
+    public double getCjkRatio() {
+        return cjkRatio;
+    }
+
+    /**
+     * 中文文字所占比例，0表示全部英文，1表示全部中文
+     */
+    public void setCjkRatio(double cjkRatio) {
+        this.cjkRatio = Math.max(0, Math.min(1, cjkRatio));
+    }
+
+    public int getImagePoolSize() {
+        return imagePoolSize;
+    }
+
+    /**
+     * 图片池大小，所有图片元素从池中选取；池越小，同一张图片被复用得越多
+     */
+    public void setImagePoolSize(int imagePoolSize) {
+        this.imagePoolSize = Math.max(1, imagePoolSize);
+    }
+
+    public void setImageDirectory(Path imageDirectory) {
+        this.imageDirectory = imageDirectory;
+    }
+
+    public static void main(String[] args) throws IOException {
+        SyntheticDeckGenerator generator = new SyntheticDeckGenerator();
+        Path out = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--slides":
+                        generator.setSlideCount(Integer.parseInt(args[++i]));
+                        break;
+                    case "--seed":
+                        generator.setSeed(Long.parseLong(args[++i]));
+                        break;
+                    case "--elements":
+                        String[] range = args[++i].split("-");
+                        generator.setElementsPerSlide(Integer.parseInt(range[0]), Integer.parseInt(range[range.length - 1]));
+                        break;
+                    case "--mix":
+                        String[] mix = args[++i].split(",");
+                        generator.setElementMix(Integer.parseInt(mix[0]), Integer.parseInt(mix[1]), Integer.parseInt(mix[2]));
+                        break;
+                    case "--text-length":
+                        String[] length = args[++i].split("-");
+                        generator.setTextLength(Integer.parseInt(length[0]), Integer.parseInt(length[length.length - 1]));
+                        break;
+                    case "--cjk":
+                        generator.setCjkRatio(Double.parseDouble(args[++i]));
+                        break;
+                    case "--images":
+                        generator.setImagePoolSize(Integer.parseInt(args[++i]));
+                        break;
+                    case "--image-dir":
+                        generator.setImageDirectory(Paths.get(args[++i]));
+                        break;
+                    default:
+                        out = Paths.get(args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            out = null;
+        }
+        if (out == null) {
+            System.err.println("用法: SyntheticDeckGenerator [--slides 页数] [--seed 种子] [--elements 4-8] [--mix 6,3,1] "
+                    + "[--text-length 8-60] [--cjk 0.7] [--images 图片池大小] [--image-dir 目录] <输出文件.mdz>");
+            System.exit(2);
+            return;
+        }
+
+        if (generator.imageDirectory == null) {
+            Path parent = out.toAbsolutePath().getParent();
+            generator.setImageDirectory(parent.resolve("synthetic-images"));
+        }
+        SyntheticDeck deck = generator.generate();
+        // 合成的测试数据不进入本地关键词索引和全文索引
+        SlideSerializer.writePresentation(deck.getSlides(), out.toString());
+        String name = out.getFileName().toString();
+        Path commandsFile = out.resolveSibling(name.replaceFirst("\\.[^.]*$", "") + ".txt");
+        Files.writeString(commandsFile, deck.getCommands());
+        System.out.println(String.format("已生成 %d 页、%d 个元素: %s，PPT命令: %s",
+                deck.getSlides().size(), deck.getElementCount(), out, commandsFile));
+    }
+}
@@ -1,5 +1,6 @@
 package slideshow.util;
 
+import slideshow.model.CompiledPromptTemplate;
 import slideshow.model.PromptTemplate;
 import slideshow.model.TemplateCategory;
 import slideshow.model.TemplateMetadata;
@@ -17,13 +18,16 @@ public class TemplateManager {
     private static final Logger logger = Logger.getLogger(TemplateManager.class.getName());
 
     private final TemplateStorage storage;
+    private final TemplateUsageRecorder usageRecorder;
 
     public TemplateManager() {
-        this.storage = new JsonTemplateStorage();
+        // 默认使用进程内共享的索引存储，避免多个管理器各自持有一份副本并互相覆盖
+        this(IndexedTemplateStorage.getDefault());
     }
 
     public TemplateManager(TemplateStorage storage) {
         this.storage = storage;
+        this.usageRecorder = TemplateUsageRecorder.forStorage(storage);
     }
 
     /**
@@ -124,6 +128,7 @@ public class TemplateManager {
             boolean success = storage.deleteTemplate(id);
 
             if (success) {
+                CompiledPromptTemplate.evict(id);
                 logger.info("模板删除成功: " + template.get().getName());
             }
 
@@ -155,6 +160,7 @@ public class TemplateManager {
             boolean success = storage.deleteTemplate(id);
 
             if (success) {
+                CompiledPromptTemplate.evict(id);
                 logger.info("模板删除成功: " + template.get().getName());
             }
 
@@ -170,6 +176,7 @@ public class TemplateManager {
      * 获取模板
      */
     public Optional<PromptTemplate> getTemplate(String id) {
+        usageRecorder.applyPending();
         return storage.getTemplateById(id);
     }
 
@@ -177,6 +184,7 @@ public class TemplateManager {
      * 根据名称获取模板
      */
     public Optional<PromptTemplate> getTemplateByName(String name) {
+        usageRecorder.applyPending();
         return storage.getTemplateByName(name);
     }
 
@@ -184,6 +192,7 @@ public class TemplateManager {
      * 获取所有模板
      */
     public List<PromptTemplate> getAllTemplates() {
+        usageRecorder.applyPending();
         return storage.getAllTemplates();
     }
 
@@ -191,6 +200,7 @@ public class TemplateManager {
      * 根据分类获取模板
      */
     public List<PromptTemplate> getTemplatesByCategory(TemplateCategory category) {
+        usageRecorder.applyPending();
         return storage.getTemplatesByCategory(category);
     }
 
@@ -198,6 +208,7 @@ public class TemplateManager {
      * 搜索模板
      */
     public List<PromptTemplate> searchTemplates(String keyword) {
+        usageRecorder.applyPending();
         return storage.searchTemplates(keyword);
     }
 
@@ -205,6 +216,7 @@ public class TemplateManager {
      * 根据标签搜索模板
      */
     public List<PromptTemplate> getTemplatesByTag(String tag) {
+        usageRecorder.applyPending();
         return storage.getTemplatesByTag(tag);
     }
 
@@ -212,6 +224,7 @@ public class TemplateManager {
      * 获取收藏的模板
      */
     public List<PromptTemplate> getFavoriteTemplates() {
+        usageRecorder.applyPending();
         return storage.getFavoriteTemplates();
     }
 
@@ -219,6 +232,7 @@ public class TemplateManager {
      * 获取最常用的模板
      */
     public List<PromptTemplate> getMostUsedTemplates(int limit) {
+        usageRecorder.applyPending();
         return storage.getMostUsedTemplates(limit);
     }
 
@@ -226,6 +240,7 @@ public class TemplateManager {
      * 获取评分最高的模板
      */
     public List<PromptTemplate> getTopRatedTemplates(int limit) {
+        usageRecorder.applyPending();
         return storage.getTopRatedTemplates(limit);
     }
 
@@ -233,6 +248,7 @@ public class TemplateManager {
      * 获取默认模板
      */
     public List<PromptTemplate> getDefaultTemplates() {
+        usageRecorder.applyPending();
         return storage.getDefaultTemplates();
     }
 
@@ -241,11 +257,9 @@ public class TemplateManager {
      */
     public void useTemplate(String id) {
         try {
-            Optional<PromptTemplate> template = storage.getTemplateById(id);
-            if (template.isPresent()) {
-                template.get().getMetadata().incrementUseCount();
-                storage.updateTemplate(template.get());
-                logger.info("模板使用次数更新: " + template.get().getName());
+            // 只累积计数，由TemplateUsageRecorder批量写入
+            if (storage.templateExists(id)) {
+                usageRecorder.recordUse(id);
             }
         } catch (Exception e) {
             logger.log(Level.SEVERE, "更新模板使用次数失败", e);
@@ -259,8 +273,7 @@ public class TemplateManager {
         try {
             Optional<PromptTemplate> template = storage.getTemplateById(id);
             if (template.isPresent()) {
-                template.get().getMetadata().addRating(rating);
-                storage.updateTemplate(template.get());
+                usageRecorder.recordRating(id, rating);
                 logger.info("模板评分更新: " + template.get().getName() + ", 评分: " + rating);
                 return true;
             }
@@ -280,7 +293,8 @@ public class TemplateManager {
             if (template.isPresent()) {
                 boolean currentFavorite = template.get().getMetadata().isFavorite();
                 template.get().getMetadata().setFavorite(!currentFavorite);
-                storage.updateTemplate(template.get());
+                storage.metadataChanged(template.get());
+                usageRecorder.markDirty(id);
                 logger.info("模板收藏状态更新: " + template.get().getName() + ", 收藏: " + !currentFavorite);
                 return true;
             }
@@ -333,29 +347,22 @@ public class TemplateManager {
      * 获取模板统计信息
      */
     public TemplateStatistics getStatistics() {
-        List<PromptTemplate> allTemplates = storage.getAllTemplates();
-
-        int totalCount = allTemplates.size();
-        int defaultCount = (int) allTemplates.stream().filter(PromptTemplate::isDefault).count();
-        int favoriteCount = (int) allTemplates.stream().filter(t -> t.getMetadata().isFavorite()).count();
-
-        double averageRating = allTemplates.stream()
-                .filter(t -> t.getMetadata().getRatingCount() > 0)
-                .mapToDouble(t -> t.getMetadata().getRating())
-                .average()
-                .orElse(0.0);
-
-        int totalUseCount = allTemplates.stream()
-                .mapToInt(t -> t.getMetadata().getUseCount())
-                .sum();
+        usageRecorder.applyPending();
+        return storage.getStatistics();
+    }
 
-        return new TemplateStatistics(totalCount, defaultCount, favoriteCount, averageRating, totalUseCount);
+    /**
+     * 立即写入累积的使用统计
+     */
+    public void flushUsageStatistics() {
+        usageRecorder.flush();
     }
 
     /**
      * 备份模板
      */
     public boolean backupTemplates(String backupPath) {
+        usageRecorder.flush();
         return storage.backupTemplates(backupPath);
     }
 
@@ -363,6 +370,7 @@ public class TemplateManager {
      * 恢复模板
      */
     public boolean restoreTemplates(String backupPath) {
+        usageRecorder.flush();
         return storage.restoreTemplates(backupPath);
     }
 
@@ -371,6 +379,7 @@ public class TemplateManager {
      */
     public boolean exportTemplates(String filePath) {
         try {
+            usageRecorder.applyPending();
             List<PromptTemplate> allTemplates = storage.getAllTemplates();
             if (allTemplates.isEmpty()) {
                 logger.warning("No templates to export");
@@ -0,0 +1,187 @@
+package slideshow.util;
+
+import slideshow.model.PromptTemplate;
+import slideshow.model.TemplateMetadata;
+import slideshow.util.TemplateManager.TemplateStatistics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * 模板排行索引
+ * 按使用次数、评分维护有序集合，另维护收藏列表和统计汇总值，模板保存、删除或使用统计变化时增量更新，
+ * 获取前K个模板只需O(K)，统计信息O(1)。集合中保存的是模板被索引时的数值快照，
+ * 模板元数据被就地修改后必须重新调用update，否则有序集合会失序。
+ * 本类不是线程安全的，由持有它的存储加锁访问
+ */
+public class TemplateRankingIndex {
+
+    /**
+     * 模板排序字段的快照
+     */
+    private static final class Entry {
+        final String id;
+        /** 首次加入的顺序，相同分值时保持原有的列表顺序 */
+        final long ordinal;
+        final int useCount;
+        final double rating;
+        final boolean rated;
+        final boolean favorite;
+        final boolean isDefault;
+
+        Entry(String id, long ordinal, PromptTemplate template) {
+            TemplateMetadata metadata = template.getMetadata();
+            this.id = id;
+            this.ordinal = ordinal;
+            this.useCount = metadata.getUseCount();
+            this.rating = metadata.getRating();
+            this.rated = metadata.getRatingCount() > 0;
+            this.favorite = metadata.isFavorite();
+            this.isDefault = template.isDefault();
+        }
+    }
+
+    private static final Comparator<Entry> BY_ORDINAL = Comparator.comparingLong(e -> e.ordinal);
+    private static final Comparator<Entry> BY_USE_COUNT =
+            Comparator.<Entry>comparingInt(e -> -e.useCount).thenComparing(BY_ORDINAL);
+    private static final Comparator<Entry> BY_RATING =
+            Comparator.<Entry>comparingDouble(e -> -e.rating).thenComparing(BY_ORDINAL);
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final TreeSet<Entry> byUseCount = new TreeSet<>(BY_USE_COUNT);
+    private final TreeSet<Entry> byRating = new TreeSet<>(BY_RATING);
+    private final TreeSet<Entry> favorites = new TreeSet<>(BY_ORDINAL);
+    private long nextOrdinal;
+
+    private int defaultCount;
+    private int ratedCount;
+    private double ratingSum;
+    private long totalUseCount;
+
+    /**
+     * 添加模板或按当前元数据更新其排名
+     */
+    public void update(PromptTemplate template) {
+        Entry previous = entries.get(template.getId());
+        long ordinal = previous != null ? previous.ordinal : nextOrdinal++;
+        Entry entry = new Entry(template.getId(), ordinal, template);
+        if (previous != null) {
+            if (sameRanking(previous, entry)) {
+                return;
+            }
+            detach(previous);
+        }
+        entries.put(entry.id, entry);
+        attach(entry);
+    }
+
+    /**
+     * 移除模板
+     */
+    public void remove(String id) {
+        Entry previous = entries.remove(id);
+        if (previous != null) {
+            detach(previous);
+        }
+    }
+
+    /**
+     * 清空索引
+     */
+    public void clear() {
+        entries.clear();
+        byUseCount.clear();
+        byRating.clear();
+        favorites.clear();
+        nextOrdinal = 0;
+        defaultCount = 0;
+        ratedCount = 0;
+        ratingSum = 0;
+        totalUseCount = 0;
+    }
+
+    /**
+     * 使用次数最多的模板ID
+     */
+    public List<String> getMostUsedIds(int limit) {
+        return firstIds(byUseCount, limit);
+    }
+
+    /**
+     * 评分最高的模板ID（只包含有评分的模板）
+     */
+    public List<String> getTopRatedIds(int limit) {
+        return firstIds(byRating, limit);
+    }
+
+    /**
+     * 收藏的模板ID
+     */
+    public List<String> getFavoriteIds() {
+        return firstIds(favorites, favorites.size());
+    }
+
+    /**
+     * 由汇总值得到统计信息
+     */
+    public TemplateStatistics getStatistics() {
+        double averageRating = ratedCount > 0 ? ratingSum / ratedCount : 0.0;
+        return new TemplateStatistics(entries.size(), defaultCount, favorites.size(), averageRating,
+                (int) totalUseCount);
+    }
+
+    private void attach(Entry entry) {
+        byUseCount.add(entry);
+        totalUseCount += entry.useCount;
+        if (entry.rated) {
+            byRating.add(entry);
+            ratedCount++;
+            ratingSum += entry.rating;
+        }
+        if (entry.favorite) {
+            favorites.add(entry);
+        }
+        if (entry.isDefault) {
+            defaultCount++;
+        }
+    }
+
+    private void detach(Entry entry) {
+        byUseCount.remove(entry);
+        totalUseCount -= entry.useCount;
+        if (entry.rated) {
+            byRating.remove(entry);
+            ratedCount--;
+            ratingSum -= entry.rating;
+        }
+        if (entry.favorite) {
+            favorites.remove(entry);
+        }
+        if (entry.isDefault) {
+            defaultCount--;
+        }
+        if (ratedCount == 0) {
+            // 避免浮点累计误差在没有评分时残留
+            ratingSum = 0;
+        }
+    }
+
+    private static boolean sameRanking(Entry a, Entry b) {
+        return a.useCount == b.useCount && Double.compare(a.rating, b.rating) == 0 && a.rated == b.rated
+                && a.favorite == b.favorite && a.isDefault == b.isDefault;
+    }
+
+    private static List<String> firstIds(TreeSet<Entry> set, int limit) {
+        List<String> ids = new ArrayList<>(Math.max(0, Math.min(limit, set.size())));
+        Iterator<Entry> iterator = set.iterator();
+        while (ids.size() < limit && iterator.hasNext()) {
+            ids.add(iterator.next().id);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,378 @@
+package slideshow.util;
+
+import slideshow.model.PromptTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 模板搜索索引
+ * 名称、标签、描述和内容按单字和相邻两字（bigram）建立倒排表，中文和任意子串都能直接检索：
+ * 查询词的所有二元组求交集得到候选模板，再只在可能命中的字段上做子串校验。
+ * 名称和标签另有前缀索引，前缀命中的模板额外加分；结果按字段权重与使用次数排序。
+ * 索引随模板保存和删除增量更新。本类不是线程安全的，由持有它的存储加锁访问
+ */
+public class TemplateSearchIndex {
+
+    private static final int NAME = 0;
+    private static final int TAG = 1;
+    private static final int DESCRIPTION = 2;
+    private static final int CONTENT = 3;
+    private static final int FIELD_COUNT = 4;
+
+    /** 字段权重：名称 > 标签 > 描述 > 内容 */
+    private static final int[] FIELD_WEIGHTS = {4, 3, 2, 1};
+    /** 名称或标签以查询词开头时的加分 */
+    private static final int PREFIX_BONUS = 2;
+    /** 多个标签拼接时的分隔符，查询词经过trim后不会包含它 */
+    private static final char TAG_SEPARATOR = '\n';
+
+    private PromptTemplate[] templates = new PromptTemplate[16];
+    /** 每个文档各字段的小写文本 */
+    private String[][] fieldTexts = new String[16][];
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private int[] freeDocIds = new int[8];
+    private int freeCount;
+    private int nextDocId;
+
+    private final Map<Character, Postings> unigrams = new HashMap<>();
+    private final Map<Integer, Postings> bigrams = new HashMap<>();
+    /** 小写名称和标签 -> 文档编号，按字典序排列，用子区间做前缀查找 */
+    private final TreeMap<String, Set<Integer>> prefixTerms = new TreeMap<>();
+
+    /**
+     * 倒排表：按文档编号升序排列，masks记录该词元出现在文档的哪些字段
+     */
+    private static final class Postings {
+        int[] docs = new int[4];
+        byte[] masks = new byte[4];
+        int size;
+
+        void add(int doc, int fieldBit) {
+            int index;
+            if (size > 0 && docs[size - 1] == doc) {
+                index = size - 1;
+            } else {
+                index = Arrays.binarySearch(docs, 0, size, doc);
+            }
+            if (index >= 0) {
+                masks[index] |= fieldBit;
+                return;
+            }
+            index = -index - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                masks = Arrays.copyOf(masks, size * 2);
+            }
+            System.arraycopy(docs, index, docs, index + 1, size - index);
+            System.arraycopy(masks, index, masks, index + 1, size - index);
+            docs[index] = doc;
+            masks[index] = (byte) fieldBit;
+            size++;
+        }
+
+        void remove(int doc) {
+            int index = Arrays.binarySearch(docs, 0, size, doc);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(docs, index + 1, docs, index, size - index - 1);
+            System.arraycopy(masks, index + 1, masks, index, size - index - 1);
+            size--;
+        }
+    }
+
+    /**
+     * 添加或更新模板
+     */
+    public void add(PromptTemplate template) {
+        String[] texts = fieldTexts(template);
+        Integer existing = docIds.get(template.getId());
+        if (existing != null) {
+            int doc = existing;
+            if (Arrays.equals(fieldTexts[doc], texts)) {
+                // 文本未变（例如只更新了使用统计），无需重建倒排表
+                templates[doc] = template;
+                return;
+            }
+            unindex(doc);
+            index(doc, template, texts);
+            return;
+        }
+
+        int doc = allocateDocId();
+        docIds.put(template.getId(), doc);
+        index(doc, template, texts);
+    }
+
+    /**
+     * 移除模板
+     */
+    public void remove(String templateId) {
+        Integer doc = docIds.remove(templateId);
+        if (doc == null) {
+            return;
+        }
+        unindex(doc);
+        templates[doc] = null;
+        fieldTexts[doc] = null;
+        if (freeCount == freeDocIds.length) {
+            freeDocIds = Arrays.copyOf(freeDocIds, freeCount * 2);
+        }
+        freeDocIds[freeCount++] = doc;
+    }
+
+    /**
+     * 清空索引
+     */
+    public void clear() {
+        Arrays.fill(templates, null);
+        Arrays.fill(fieldTexts, null);
+        docIds.clear();
+        freeCount = 0;
+        nextDocId = 0;
+        unigrams.clear();
+        bigrams.clear();
+        prefixTerms.clear();
+    }
+
+    /**
+     * 获取已索引的模板数量
+     */
+    public int size() {
+        return docIds.size();
+    }
+
+    /**
+     * 搜索名称、描述、内容或任一标签包含关键词（忽略大小写）的模板
+     *
+     * @param keyword 关键词
+     * @return 按相关度从高到低排列的模板
+     */
+    public List<PromptTemplate> search(String keyword) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        String query = keyword.trim().toLowerCase();
+
+        Postings candidates = candidates(query);
+        if (candidates == null || candidates.size == 0) {
+            return new ArrayList<>();
+        }
+        Set<Integer> prefixMatches = prefixMatches(query);
+
+        int[] docs = new int[candidates.size];
+        double[] scores = new double[candidates.size];
+        int count = 0;
+        for (int i = 0; i < candidates.size; i++) {
+            int doc = candidates.docs[i];
+            int mask = candidates.masks[i];
+            int score = 0;
+            for (int field = 0; field < FIELD_COUNT; field++) {
+                // 二元组都出现不代表整个查询词出现，需要在可能命中的字段上校验
+                if ((mask & (1 << field)) != 0 && fieldTexts[doc][field].contains(query)) {
+                    score += FIELD_WEIGHTS[field];
+                }
+            }
+            if (score == 0) {
+                continue;
+            }
+            if (prefixMatches.contains(doc)) {
+                score += PREFIX_BONUS;
+            }
+            docs[count] = doc;
+            scores[count] = score + Math.log1p(templates[doc].getMetadata().getUseCount());
+            count++;
+        }
+
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int result = Double.compare(scores[b], scores[a]);
+            return result != 0 ? result : fieldTexts[docs[a]][NAME].compareTo(fieldTexts[docs[b]][NAME]);
+        });
+
+        List<PromptTemplate> result = new ArrayList<>(count);
+        for (Integer index : order) {
+            result.add(templates[docs[index]]);
+        }
+        return result;
+    }
+
+    /**
+     * 求查询词所有词元倒排表的交集，同时合并字段掩码；单字查询直接使用单字倒排表
+     */
+    private Postings candidates(String query) {
+        if (query.length() == 1) {
+            return unigrams.get(query.charAt(0));
+        }
+
+        List<Postings> lists = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        for (int i = 0; i + 1 < query.length(); i++) {
+            int gram = bigram(query.charAt(i), query.charAt(i + 1));
+            if (!seen.add(gram)) {
+                continue;
+            }
+            Postings postings = bigrams.get(gram);
+            if (postings == null) {
+                return null;
+            }
+            lists.add(postings);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+
+        Postings first = lists.get(0);
+        Postings result = new Postings();
+        result.docs = Arrays.copyOf(first.docs, first.size);
+        result.masks = Arrays.copyOf(first.masks, first.size);
+        result.size = first.size;
+        for (int l = 1; l < lists.size() && result.size > 0; l++) {
+            intersect(result, lists.get(l));
+        }
+        return result;
+    }
+
+    /**
+     * 就地求交集，字段掩码按位与，掩码为0的文档不可能命中
+     */
+    private static void intersect(Postings target, Postings other) {
+        int size = 0;
+        int j = 0;
+        for (int i = 0; i < target.size && j < other.size; i++) {
+            int doc = target.docs[i];
+            while (j < other.size && other.docs[j] < doc) {
+                j++;
+            }
+            if (j < other.size && other.docs[j] == doc) {
+                int mask = target.masks[i] & other.masks[j];
+                if (mask != 0) {
+                    target.docs[size] = doc;
+                    target.masks[size] = (byte) mask;
+                    size++;
+                }
+            }
+        }
+        target.size = size;
+    }
+
+    private Set<Integer> prefixMatches(String query) {
+        Set<Integer> result = new HashSet<>();
+        for (Set<Integer> docs : prefixTerms.subMap(query, true, query + Character.MAX_VALUE, true).values()) {
+            result.addAll(docs);
+        }
+        return result;
+    }
+
+    // ---------------------------------------------------------------- 索引维护
+
+    private int allocateDocId() {
+        if (freeCount > 0) {
+            return freeDocIds[--freeCount];
+        }
+        int doc = nextDocId++;
+        if (doc == templates.length) {
+            templates = Arrays.copyOf(templates, doc * 2);
+            fieldTexts = Arrays.copyOf(fieldTexts, doc * 2);
+        }
+        return doc;
+    }
+
+    private void index(int doc, PromptTemplate template, String[] texts) {
+        templates[doc] = template;
+        fieldTexts[doc] = texts;
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            String text = texts[field];
+            int fieldBit = 1 << field;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                unigrams.computeIfAbsent(c, k -> new Postings()).add(doc, fieldBit);
+                if (i + 1 < text.length()) {
+                    bigrams.computeIfAbsent(bigram(c, text.charAt(i + 1)), k -> new Postings()).add(doc, fieldBit);
+                }
+            }
+        }
+        for (String term : prefixTermsOf(texts)) {
+            prefixTerms.computeIfAbsent(term, k -> new HashSet<>()).add(doc);
+        }
+    }
+
+    private void unindex(int doc) {
+        String[] texts = fieldTexts[doc];
+        for (String text : texts) {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                removePosting(unigrams, c, doc);
+                if (i + 1 < text.length()) {
+                    removePosting(bigrams, bigram(c, text.charAt(i + 1)), doc);
+                }
+            }
+        }
+        for (String term : prefixTermsOf(texts)) {
+            Set<Integer> docs = prefixTerms.get(term);
+            if (docs != null) {
+                docs.remove(doc);
+                if (docs.isEmpty()) {
+                    prefixTerms.remove(term);
+                }
+            }
+        }
+    }
+
+    private static <K> void removePosting(Map<K, Postings> index, K key, int doc) {
+        Postings postings = index.get(key);
+        if (postings != null) {
+            postings.remove(doc);
+            if (postings.size == 0) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static List<String> prefixTermsOf(String[] texts) {
+        List<String> terms = new ArrayList<>();
+        if (!texts[NAME].isEmpty()) {
+            terms.add(texts[NAME]);
+        }
+        if (!texts[TAG].isEmpty()) {
+            for (String tag : texts[TAG].split(String.valueOf(TAG_SEPARATOR))) {
+                if (!tag.isEmpty()) {
+                    terms.add(tag);
+                }
+            }
+        }
+        return terms;
+    }
+
+    private static String[] fieldTexts(PromptTemplate template) {
+        String[] texts = new String[FIELD_COUNT];
+        texts[NAME] = lower(template.getName());
+        texts[DESCRIPTION] = lower(template.getDescription());
+        texts[CONTENT] = lower(template.getContent());
+        StringBuilder tags = new StringBuilder();
+        for (String tag : template.getTags()) {
+            if (tags.length() > 0) {
+                tags.append(TAG_SEPARATOR);
+            }
+            tags.append(lower(tag));
+        }
+        texts[TAG] = tags.toString();
+        return texts;
+    }
+
+    private static String lower(String text) {
+        return text == null ? "" : text.toLowerCase();
+    }
+
+    private static int bigram(char first, char second) {
+        return (first << 16) | second;
+    }
+}
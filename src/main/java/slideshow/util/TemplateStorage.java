@@ -148,4 +148,38 @@ public interface TemplateStorage {
      * @return 是否恢复成功
      */
     boolean restoreTemplates(String backupPath);
+
+    /**
+     * 模板元数据（使用次数、评分、收藏）被就地修改后通知存储，以便更新依赖这些值的索引
+     * 
+     * @param template 被修改的模板
+     */
+    default void metadataChanged(PromptTemplate template) {
+    }
+
+    /**
+     * 获取模板统计信息
+     * 
+     * @return 模板总数、默认模板数、收藏数、平均评分和总使用次数
+     */
+    default TemplateManager.TemplateStatistics getStatistics() {
+        List<PromptTemplate> allTemplates = getAllTemplates();
+
+        int totalCount = allTemplates.size();
+        int defaultCount = (int) allTemplates.stream().filter(PromptTemplate::isDefault).count();
+        int favoriteCount = (int) allTemplates.stream().filter(t -> t.getMetadata().isFavorite()).count();
+
+        double averageRating = allTemplates.stream()
+                .filter(t -> t.getMetadata().getRatingCount() > 0)
+                .mapToDouble(t -> t.getMetadata().getRating())
+                .average()
+                .orElse(0.0);
+
+        int totalUseCount = allTemplates.stream()
+                .mapToInt(t -> t.getMetadata().getUseCount())
+                .sum();
+
+        return new TemplateManager.TemplateStatistics(totalCount, defaultCount, favoriteCount, averageRating,
+                totalUseCount);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,240 @@
+package slideshow.util;
+
+import slideshow.model.PromptTemplate;
+import slideshow.model.TemplateMetadata;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 模板使用统计的延迟写入器
+ * 使用次数、评分和最近使用时间先以原子计数器累积在内存中，由后台线程定时、累积到阈值或进程退出时批量写入存储，
+ * 使模板使用这一高频操作不做任何同步磁盘I/O
+ */
+public class TemplateUsageRecorder {
+    private static final Logger logger = Logger.getLogger(TemplateUsageRecorder.class.getName());
+
+    /** 定时写入间隔（秒） */
+    private static final long FLUSH_INTERVAL_SECONDS = 5;
+    /** 未写入的操作数达到该值时立即安排写入 */
+    private static final int FLUSH_THRESHOLD = 64;
+
+    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final Map<TemplateStorage, TemplateUsageRecorder> recorders = new IdentityHashMap<>();
+    private static ScheduledExecutorService scheduler;
+
+    private final TemplateStorage storage;
+    private final Map<String, PendingDelta> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingOperations = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    /** 已合并到内存中的元数据、尚未写入存储的模板ID */
+    private final Set<String> dirty = new LinkedHashSet<>();
+
+    /**
+     * 单个模板尚未合并的增量
+     */
+    private static class PendingDelta {
+        final AtomicInteger uses = new AtomicInteger();
+        final AtomicLong lastUsedAt = new AtomicLong();
+        final ConcurrentLinkedQueue<Double> ratings = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean touched = new AtomicBoolean();
+    }
+
+    /**
+     * 获取存储对应的写入器，同一存储共用一个写入器
+     */
+    public static synchronized TemplateUsageRecorder forStorage(TemplateStorage storage) {
+        TemplateUsageRecorder recorder = recorders.get(storage);
+        if (recorder == null) {
+            recorder = new TemplateUsageRecorder(storage);
+            recorders.put(storage, recorder);
+            startScheduler();
+        }
+        return recorder;
+    }
+
+    private TemplateUsageRecorder(TemplateStorage storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * 启动共享的定时写入线程，并注册进程退出时的写入
+     */
+    private static void startScheduler() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "template-usage-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(TemplateUsageRecorder::flushAll,
+                FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(TemplateUsageRecorder::flushAll, "template-usage-shutdown"));
+    }
+
+    /**
+     * 写入所有写入器的待写数据
+     */
+    public static void flushAll() {
+        TemplateUsageRecorder[] all;
+        synchronized (TemplateUsageRecorder.class) {
+            all = recorders.values().toArray(new TemplateUsageRecorder[0]);
+        }
+        for (TemplateUsageRecorder recorder : all) {
+            recorder.flush();
+        }
+    }
+
+    /**
+     * 记录一次模板使用
+     */
+    public void recordUse(String id) {
+        PendingDelta delta = delta(id);
+        delta.uses.incrementAndGet();
+        delta.lastUsedAt.accumulateAndGet(System.currentTimeMillis(), Math::max);
+        operationRecorded();
+    }
+
+    /**
+     * 记录一次评分
+     */
+    public void recordRating(String id, double rating) {
+        delta(id).ratings.add(rating);
+        operationRecorded();
+    }
+
+    /**
+     * 标记模板元数据已在内存中修改（如收藏状态），等待下次批量写入
+     */
+    public void markDirty(String id) {
+        delta(id).touched.set(true);
+        operationRecorded();
+    }
+
+    /**
+     * 是否有尚未写入存储的修改
+     */
+    public boolean hasPendingChanges() {
+        if (pendingOperations.get() > 0) {
+            return true;
+        }
+        synchronized (this) {
+            return !dirty.isEmpty();
+        }
+    }
+
+    private PendingDelta delta(String id) {
+        return pending.computeIfAbsent(id, k -> new PendingDelta());
+    }
+
+    private void operationRecorded() {
+        if (pendingOperations.incrementAndGet() >= FLUSH_THRESHOLD && flushScheduled.compareAndSet(false, true)) {
+            scheduler.execute(() -> {
+                flushScheduled.set(false);
+                flush();
+            });
+        }
+    }
+
+    /**
+     * 把累积的增量合并到内存中的模板元数据（不写磁盘），读取统计数据前调用
+     */
+    public void applyPending() {
+        if (pendingOperations.get() == 0) {
+            return;
+        }
+        synchronized (storage) {
+            synchronized (this) {
+                pendingOperations.set(0);
+                for (Map.Entry<String, PendingDelta> entry : pending.entrySet()) {
+                    PendingDelta delta = entry.getValue();
+                    int uses = delta.uses.getAndSet(0);
+                    boolean touched = delta.touched.getAndSet(false);
+                    Double rating = delta.ratings.poll();
+                    if (uses == 0 && rating == null && !touched) {
+                        continue;
+                    }
+
+                    Optional<PromptTemplate> template = storage.getTemplateById(entry.getKey());
+                    if (!template.isPresent()) {
+                        // 模板已被删除，丢弃增量
+                        delta.ratings.clear();
+                        continue;
+                    }
+                    TemplateMetadata metadata = template.get().getMetadata();
+                    if (uses > 0) {
+                        String lastUsed = LocalDateTime.ofInstant(
+                                Instant.ofEpochMilli(delta.lastUsedAt.get()), ZoneId.systemDefault()).format(formatter);
+                        metadata.setUseCount(metadata.getUseCount() + uses);
+                        metadata.setLastUsedAt(lastUsed);
+                        metadata.setUpdatedAt(lastUsed);
+                    }
+                    while (rating != null) {
+                        metadata.addRating(rating);
+                        rating = delta.ratings.poll();
+                    }
+                    storage.metadataChanged(template.get());
+                    dirty.add(entry.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * 合并增量并把修改过的模板写入存储
+     */
+    public void flush() {
+        applyPending();
+        String[] ids;
+        synchronized (this) {
+            if (dirty.isEmpty()) {
+                return;
+            }
+            ids = dirty.toArray(new String[0]);
+            dirty.clear();
+        }
+        int written = 0;
+        for (String id : ids) {
+            Optional<PromptTemplate> template = storage.getTemplateById(id);
+            if (!template.isPresent()) {
+                continue;
+            }
+            boolean success;
+            try {
+                success = storage.updateTemplate(template.get());
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "写入模板使用统计失败: " + id, e);
+                success = false;
+            }
+            if (success) {
+                written++;
+            } else {
+                // 写入失败的模板留待下次重试
+                synchronized (this) {
+                    dirty.add(id);
+                }
+            }
+        }
+        logger.fine("模板使用统计已写入: " + written + " 个模板");
+    }
+}
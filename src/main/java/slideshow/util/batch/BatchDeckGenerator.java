@@ -0,0 +1,531 @@
+package slideshow.util.batch;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.openai.OpenAiChatModel;
+import slideshow.AIAgent;
+import slideshow.model.Slide;
+import slideshow.util.SlideParser;
+import slideshow.util.SlideSerializer;
+import slideshow.util.SpeechManager;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 无界面批量生成
+ * 按主题列表依次完成 主题 → 演讲稿结构 → PPT命令 → 幻灯片(.mdz) → 演讲稿 的完整流程，多个主题并行处理。
+ * 每完成一个主题就向检查点文件追加一行记录，中断后重新运行会跳过已成功的主题；结束后输出吞吐量和延迟统计。
+ * <p>
+ * 主题文件每行一个主题，可写成“主题|时长|听众”，空行和#开头的行忽略。
+ * <p>
+ * 用法: java slideshow.util.batch.BatchDeckGenerator [选项] &lt;主题文件&gt;
+ * <pre>
+ *   --out &lt;目录&gt;          幻灯片、演讲稿和检查点输出目录，默认 generated（不更新本地索引和演讲稿目录）
+ *   --threads &lt;数量&gt;      同时处理的主题数，默认 4
+ *   --duration &lt;分钟&gt;     默认演讲时长，默认 10
+ *   --audience &lt;听众&gt;     默认听众，默认 一般听众
+ *   --stub                使用本地桩模型，不访问网络
+ *   --stub-latency &lt;毫秒&gt; 桩模型每次请求的模拟延迟，默认 0
+ *   --stub-pages &lt;页数&gt;   桩模型生成的页数，默认 5
+ *   --api-key &lt;密钥&gt;      API Key，默认读取环境变量 DEEPSEEK_API_KEY
+ *   --base-url &lt;地址&gt;     模型服务地址，默认 https://api.deepseek.com
+ *   --model-name &lt;名称&gt;   模型名称，默认 deepseek-chat
+ * </pre>
+ */
+public class BatchDeckGenerator {
+    private static final Logger logger = Logger.getLogger(BatchDeckGenerator.class.getName());
+
+    /** 检查点文件名，位于输出目录下，每行一条JSON记录 */
+    public static final String CHECKPOINT_FILE = "checkpoint.jsonl";
+    private static final String DECK_SUFFIX = ".mdz";
+    private static final String SPEECH_SUFFIX = "_speech.txt";
+    private static final int MAX_NAME_LENGTH = 40;
+
+    private final AIAgent agent;
+    private final Path outputDirectory;
+    private final int threads;
+    private final int defaultDuration;
+    private final String defaultAudience;
+
+    /**
+     * 单个主题的处理结果，同时也是检查点文件中的一行
+     */
+    public static class TopicResult {
+        private String topic;
+        private String deckFile;
+        private String speechFile;
+        private int slideCount;
+        private boolean success;
+        private String error;
+        private long outlineMillis;
+        private long commandMillis;
+        private long parseMillis;
+        private long speechMillis;
+        private long totalMillis;
+
+        public String getTopic() {
+            return topic;
+        }
+
+        public String getDeckFile() {
+            return deckFile;
+        }
+
+        public String getSpeechFile() {
+            return speechFile;
+        }
+
+        public int getSlideCount() {
+            return slideCount;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public long getOutlineMillis() {
+            return outlineMillis;
+        }
+
+        public long getCommandMillis() {
+            return commandMillis;
+        }
+
+        /** 解析PPT命令并保存.mdz的耗时 */
+        public long getParseMillis() {
+            return parseMillis;
+        }
+
+        public long getSpeechMillis() {
+            return speechMillis;
+        }
+
+        public long getTotalMillis() {
+            return totalMillis;
+        }
+    }
+
+    /**
+     * 批量生成结果统计，延迟只统计本次运行实际处理的主题
+     */
+    public static class PipelineReport {
+        private final int topicCount;
+        private final int skipped;
+        private final int succeeded;
+        private final int failed;
+        private final int slideCount;
+        private final int threads;
+        private final long elapsedNanos;
+        private final long[] totalMillis;
+        private final double[] stageMeanMillis;
+
+        PipelineReport(int topicCount, int skipped, List<TopicResult> results, int threads, long elapsedNanos) {
+            this.topicCount = topicCount;
+            this.skipped = skipped;
+            this.threads = threads;
+            this.elapsedNanos = elapsedNanos;
+            int ok = 0;
+            int slides = 0;
+            double[] stageSums = new double[4];
+            totalMillis = new long[results.size()];
+            for (int i = 0; i < results.size(); i++) {
+                TopicResult result = results.get(i);
+                totalMillis[i] = result.totalMillis;
+                stageSums[0] += result.outlineMillis;
+                stageSums[1] += result.commandMillis;
+                stageSums[2] += result.parseMillis;
+                stageSums[3] += result.speechMillis;
+                if (result.success) {
+                    ok++;
+                    slides += result.slideCount;
+                }
+            }
+            Arrays.sort(totalMillis);
+            stageMeanMillis = new double[4];
+            for (int i = 0; i < stageSums.length; i++) {
+                stageMeanMillis[i] = results.isEmpty() ? 0 : stageSums[i] / results.size();
+            }
+            this.succeeded = ok;
+            this.failed = results.size() - ok;
+            this.slideCount = slides;
+        }
+
+        public int getTopicCount() {
+            return topicCount;
+        }
+
+        /** 检查点中已完成、本次跳过的主题数 */
+        public int getSkipped() {
+            return skipped;
+        }
+
+        public int getSucceeded() {
+            return succeeded;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        public int getSlideCount() {
+            return slideCount;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public double getElapsedSeconds() {
+            return elapsedNanos / 1e9;
+        }
+
+        /** 每分钟完成的主题数 */
+        public double getTopicsPerMinute() {
+            return elapsedNanos == 0 ? 0 : succeeded * 60.0 / getElapsedSeconds();
+        }
+
+        public double getSlidesPerSecond() {
+            return elapsedNanos == 0 ? 0 : slideCount / getElapsedSeconds();
+        }
+
+        /**
+         * 单个主题端到端耗时的百分位数（毫秒）
+         *
+         * @param percentile 0-100
+         */
+        public long getLatencyPercentile(double percentile) {
+            if (totalMillis.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * totalMillis.length) - 1;
+            return totalMillis[Math.max(0, Math.min(totalMillis.length - 1, index))];
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "批量生成完成: %d 个主题（成功 %d, 失败 %d, 跳过 %d）, %d 页, %d 线程, 耗时 %.2fs%n"
+                            + "吞吐量: %.1f 主题/分钟, %.2f 页/秒%n"
+                            + "单个主题耗时: p50 %dms, p95 %dms, 最大 %dms%n"
+                            + "各阶段平均耗时: 结构 %.0fms, PPT命令 %.0fms, 解析保存 %.0fms, 演讲稿 %.0fms",
+                    topicCount, succeeded, failed, skipped, slideCount, threads, getElapsedSeconds(),
+                    getTopicsPerMinute(), getSlidesPerSecond(),
+                    getLatencyPercentile(50), getLatencyPercentile(95), getLatencyPercentile(100),
+                    stageMeanMillis[0], stageMeanMillis[1], stageMeanMillis[2], stageMeanMillis[3]);
+        }
+    }
+
+    /**
+     * 检查点：追加写入的JSON行文件，每个主题处理完立即落盘
+     */
+    private static final class Checkpoint implements Closeable {
+        private static final Gson gson = new Gson();
+        private final BufferedWriter writer;
+
+        Checkpoint(Path file) throws IOException {
+            this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+
+        /**
+         * 读取已成功的主题；最后一行可能因中断而不完整，无法解析的行忽略
+         */
+        static Map<String, TopicResult> loadCompleted(Path file) throws IOException {
+            Map<String, TopicResult> completed = new HashMap<>();
+            if (!Files.exists(file)) {
+                return completed;
+            }
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    TopicResult result = gson.fromJson(line, TopicResult.class);
+                    if (result != null && result.topic != null) {
+                        if (result.success) {
+                            completed.put(result.topic, result);
+                        } else {
+                            completed.remove(result.topic);
+                        }
+                    }
+                } catch (JsonParseException e) {
+                    logger.warning("忽略无法解析的检查点记录: " + line);
+                }
+            }
+            return completed;
+        }
+
+        synchronized void append(TopicResult result) throws IOException {
+            writer.write(gson.toJson(result));
+            writer.newLine();
+            writer.flush();
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    /**
+     * @param model           对话模型
+     * @param outputDirectory 幻灯片、演讲稿和检查点输出目录
+     * @param threads         同时处理的主题数
+     * @param defaultDuration 主题未指定时长时使用的演讲时长（分钟）
+     * @param defaultAudience 主题未指定听众时使用的听众
+     */
+    public BatchDeckGenerator(ChatLanguageModel model, Path outputDirectory, int threads,
+                              int defaultDuration, String defaultAudience) {
+        this.agent = new AIAgent(model);
+        this.outputDirectory = outputDirectory;
+        this.threads = Math.max(1, threads);
+        this.defaultDuration = defaultDuration;
+        this.defaultAudience = defaultAudience;
+    }
+
+    /**
+     * 读取主题文件，去掉空行、注释行和重复主题
+     */
+    public static List<String> readTopics(Path file) throws IOException {
+        Set<String> topics = new LinkedHashSet<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (!line.isEmpty() && !line.startsWith("#")) {
+                topics.add(line);
+            }
+        }
+        return new ArrayList<>(topics);
+    }
+
+    /**
+     * 处理主题列表，检查点中已成功的主题直接跳过
+     *
+     * @param topics 主题行（“主题”或“主题|时长|听众”）
+     */
+    public PipelineReport run(List<String> topics) throws IOException {
+        Files.createDirectories(outputDirectory);
+        Path checkpointFile = outputDirectory.resolve(CHECKPOINT_FILE);
+        Map<String, TopicResult> completed = Checkpoint.loadCompleted(checkpointFile);
+        long start = System.nanoTime();
+
+        List<TopicResult> results = new ArrayList<>();
+        int skipped = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger counter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "deck-generator-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try (Checkpoint checkpoint = new Checkpoint(checkpointFile)) {
+            List<Future<TopicResult>> futures = new ArrayList<>();
+            for (int i = 0; i < topics.size(); i++) {
+                String topicLine = topics.get(i);
+                if (completed.containsKey(topicLine)) {
+                    skipped++;
+                    continue;
+                }
+                String name = String.format(Locale.ROOT, "%03d_%s", i + 1, fileName(topicLine));
+                futures.add(executor.submit(() -> {
+                    TopicResult result = process(topicLine, name);
+                    checkpoint.append(result);
+                    return result;
+                }));
+            }
+            if (skipped > 0) {
+                logger.info("根据检查点跳过 " + skipped + " 个已完成的主题");
+            }
+            for (Future<TopicResult> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("批量生成被中断", e);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    throw new IOException("主题处理任务失败: " + cause, cause);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new PipelineReport(topics.size(), skipped, results, threads, System.nanoTime() - start);
+    }
+
+    /**
+     * 处理单个主题，失败时记录原因而不抛出，不影响其他主题
+     */
+    private TopicResult process(String topicLine, String name) {
+        TopicResult result = new TopicResult();
+        result.topic = topicLine;
+        String[] parts = topicLine.split("\\|", 3);
+        String topic = parts[0].trim();
+        long t0 = System.nanoTime();
+        long stageStart = t0;
+        try {
+            int duration = parts.length > 1 && !parts[1].isBlank() ? Integer.parseInt(parts[1].trim()) : defaultDuration;
+            String audience = parts.length > 2 && !parts[2].isBlank() ? parts[2].trim() : defaultAudience;
+
+            String outline = agent.generateSlidesByTopic(topic, duration, audience);
+            result.outlineMillis = elapsedMillis(stageStart);
+
+            stageStart = System.nanoTime();
+            String commands = agent.generatePptCommands(outline);
+            result.commandMillis = elapsedMillis(stageStart);
+
+            stageStart = System.nanoTime();
+            List<Slide> slides = SlideParser.parseAndCreateSlides(commands, Slide.LOGICAL_WIDTH);
+            if (slides.isEmpty()) {
+                throw new IllegalStateException("未能从AI返回的PPT命令中解析出幻灯片");
+            }
+            Path deckFile = outputDirectory.resolve(name + DECK_SUFFIX);
+            // 批量输出不进入交互用户的关键词索引、全文索引和演讲稿目录
+            SlideSerializer.writePresentation(slides, deckFile.toString());
+            result.deckFile = deckFile.toString();
+            result.slideCount = slides.size();
+            result.parseMillis = elapsedMillis(stageStart);
+
+            stageStart = System.nanoTime();
+            String speech = agent.generateSpeechBySlides(slides);
+            Path speechFile = outputDirectory.resolve(name + SPEECH_SUFFIX);
+            SpeechManager.writeSpeechFile(speechFile, speech, name, slides.size());
+            result.speechFile = speechFile.toString();
+            result.speechMillis = elapsedMillis(stageStart);
+            result.success = true;
+        } catch (AIAgent.AIException | IOException | RuntimeException e) {
+            result.error = e.getMessage();
+            logger.log(Level.WARNING, "主题处理失败: " + topic, e);
+        }
+        result.totalMillis = elapsedMillis(t0);
+        logger.info(String.format(Locale.ROOT, "主题 %s %s，%d 页，耗时 %dms",
+                topic, result.success ? "完成" : "失败", result.slideCount, result.totalMillis));
+        return result;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private static String fileName(String topicLine) {
+        String name = topicLine.split("\\|", 2)[0].trim().replaceAll("[^a-zA-Z0-9\\u4e00-\\u9fa5]", "_");
+        return name.length() > MAX_NAME_LENGTH ? name.substring(0, MAX_NAME_LENGTH) : name;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // 解析PPT命令时需要测量文字，无显示环境下使用JavaFX软件渲染管线
+        if (System.getProperty("prism.order") == null) {
+            System.setProperty("prism.order", "sw");
+        }
+        System.setProperty("java.awt.headless", "true");
+
+        Path out = Paths.get("generated");
+        int threads = 4;
+        int duration = 10;
+        String audience = "一般听众";
+        boolean stub = false;
+        long stubLatency = 0;
+        int stubPages = 5;
+        String apiKey = System.getenv("DEEPSEEK_API_KEY");
+        String baseUrl = "https://api.deepseek.com";
+        String modelName = "deepseek-chat";
+        Path topicFile = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--out":
+                        out = Paths.get(args[++i]);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--duration":
+                        duration = Integer.parseInt(args[++i]);
+                        break;
+                    case "--audience":
+                        audience = args[++i];
+                        break;
+                    case "--stub":
+                        stub = true;
+                        break;
+                    case "--stub-latency":
+                        stubLatency = Long.parseLong(args[++i]);
+                        break;
+                    case "--stub-pages":
+                        stubPages = Integer.parseInt(args[++i]);
+                        break;
+                    case "--api-key":
+                        apiKey = args[++i];
+                        break;
+                    case "--base-url":
+                        baseUrl = args[++i];
+                        break;
+                    case "--model-name":
+                        modelName = args[++i];
+                        break;
+                    default:
+                        topicFile = Paths.get(args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            topicFile = null;
+        }
+        if (topicFile == null || threads <= 0 || duration <= 0 || (!stub && !ReplayChatModel.isReplayConfigured() && (apiKey == null || apiKey.isBlank()))) {
+            System.err.println("用法: BatchDeckGenerator [--out 目录] [--threads 数量] [--duration 分钟] [--audience 听众] "
+                    + "[--stub [--stub-latency 毫秒] [--stub-pages 页数]] "
+                    + "[--api-key 密钥] [--base-url 地址] [--model-name 名称] <主题文件>");
+            System.err.println("未使用--stub且未设置-Dslideshow.ai.mode=replay时，需要通过--api-key或环境变量DEEPSEEK_API_KEY提供API Key");
+            System.exit(2);
+            return;
+        }
+
+        ChatLanguageModel model;
+        if (stub) {
+            model = new StubChatModel(stubPages, stubLatency);
+        } else if (ReplayChatModel.isReplayConfigured()) {
+            model = null;
+        } else {
+            model = OpenAiChatModel.builder()
+                    .apiKey(apiKey)
+                    .baseUrl(baseUrl)
+                    .modelName(modelName)
+                    .temperature(0.5)
+                    .build();
+        }
+        model = ReplayChatModel.wrap(model);
+        List<String> topics = readTopics(topicFile);
+        PipelineReport report = new BatchDeckGenerator(model, out, threads, duration, audience).run(topics);
+        System.out.println(report);
+        System.exit(report.getFailed() == 0 ? 0 : 1);
+    }
+}
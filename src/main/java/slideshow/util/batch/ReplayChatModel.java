@@ -0,0 +1,386 @@
+package slideshow.util.batch;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 录制/回放对话模型
+ * 录制模式下把请求转发给真实模型，并把“提示词→回复”连同实际耗时追加到录制文件（每行一条JSON）；
+ * 回放模式下按提示词的哈希从录制文件中取回复，不访问网络。同一提示词录制了多次时按调用次数轮流返回。
+ * <p>
+ * 任何模式下都可以叠加模拟延迟（固定值+随机抖动+按比例重放录制时的耗时）和按比例注入的失败。
+ * 是否注入失败、抖动多少只由随机种子、提示词和该提示词的调用次数决定，与线程调度无关，同样的输入总能复现同样的结果。
+ * <p>
+ * 通过系统属性配置后，Main、批量生成和各个Test类创建的模型都会经过{@link #wrap(ChatLanguageModel)}：
+ * <pre>
+ *   slideshow.ai.mode          live（默认）、record 或 replay
+ *   slideshow.ai.recording     录制文件，默认 recordings/chat.jsonl
+ *   slideshow.ai.latencyMillis 每次请求附加的固定延迟，默认 0
+ *   slideshow.ai.jitterMillis  附加的随机抖动上限，默认 0
+ *   slideshow.ai.latencyScale  回放时按录制耗时的多少倍延迟，默认 0
+ *   slideshow.ai.failureRate   注入失败的比例（0-1），默认 0
+ *   slideshow.ai.seed          随机种子，默认 42
+ * </pre>
+ */
+public class ReplayChatModel implements ChatLanguageModel {
+    private static final Logger logger = Logger.getLogger(ReplayChatModel.class.getName());
+
+    public static final String MODE_PROPERTY = "slideshow.ai.mode";
+    public static final String RECORDING_PROPERTY = "slideshow.ai.recording";
+    public static final String LATENCY_PROPERTY = "slideshow.ai.latencyMillis";
+    public static final String JITTER_PROPERTY = "slideshow.ai.jitterMillis";
+    public static final String LATENCY_SCALE_PROPERTY = "slideshow.ai.latencyScale";
+    public static final String FAILURE_RATE_PROPERTY = "slideshow.ai.failureRate";
+    public static final String SEED_PROPERTY = "slideshow.ai.seed";
+    public static final String DEFAULT_RECORDING = "recordings/chat.jsonl";
+
+    private static final Gson gson = new Gson();
+
+    /**
+     * 工作模式
+     */
+    public enum Mode {
+        /** 直接转发给真实模型 */
+        LIVE,
+        /** 转发给真实模型并录制 */
+        RECORD,
+        /** 只从录制文件回放 */
+        REPLAY
+    }
+
+    /**
+     * 录制文件中的一条记录
+     */
+    private static final class Recording {
+        String key;
+        String prompt;
+        String response;
+        long latencyMillis;
+    }
+
+    private final Mode mode;
+    private final ChatLanguageModel delegate;
+    private final Path recordingFile;
+    private final Map<String, List<Recording>> recordings = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> callCounts = new ConcurrentHashMap<>();
+
+    private volatile long latencyMillis;
+    private volatile long jitterMillis;
+    private volatile double latencyScale;
+    private volatile double failureRate;
+    private volatile long seed = 42;
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong replayCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong recordCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+
+    /**
+     * @param mode          工作模式
+     * @param delegate      真实模型，回放模式下可为null；不为null时回放未命中的请求会转发给它
+     * @param recordingFile 录制文件，回放模式下必须存在
+     * @throws IOException 回放模式下读取录制文件失败时抛出
+     */
+    public ReplayChatModel(Mode mode, ChatLanguageModel delegate, Path recordingFile) throws IOException {
+        if (mode != Mode.REPLAY && delegate == null) {
+            throw new IllegalArgumentException(mode + "模式需要真实模型");
+        }
+        this.mode = mode;
+        this.delegate = delegate;
+        this.recordingFile = recordingFile;
+        if (mode == Mode.REPLAY) {
+            load();
+        }
+    }
+
+    /**
+     * 按系统属性包装真实模型；未配置任何属性时原样返回
+     *
+     * @param live 真实模型，回放模式下可为null
+     */
+    public static ChatLanguageModel wrap(ChatLanguageModel live) {
+        String modeName = System.getProperty(MODE_PROPERTY, "live").trim().toUpperCase(Locale.ROOT);
+        double failureRate;
+        long latency;
+        long jitter;
+        double scale;
+        long seed;
+        try {
+            failureRate = Double.parseDouble(System.getProperty(FAILURE_RATE_PROPERTY, "0"));
+            latency = Long.parseLong(System.getProperty(LATENCY_PROPERTY, "0"));
+            jitter = Long.parseLong(System.getProperty(JITTER_PROPERTY, "0"));
+            scale = Double.parseDouble(System.getProperty(LATENCY_SCALE_PROPERTY, "0"));
+            seed = Long.parseLong(System.getProperty(SEED_PROPERTY, "42"));
+        } catch (NumberFormatException e) {
+            logger.warning("AI模型模拟参数无效，使用真实模型: " + e.getMessage());
+            return live;
+        }
+        Mode mode;
+        try {
+            mode = Mode.valueOf(modeName);
+        } catch (IllegalArgumentException e) {
+            logger.warning("未知的AI模型模式: " + modeName + "，使用live");
+            mode = Mode.LIVE;
+        }
+        if (mode == Mode.LIVE && failureRate <= 0 && latency <= 0 && jitter <= 0) {
+            return live;
+        }
+
+        Path file = Paths.get(System.getProperty(RECORDING_PROPERTY, DEFAULT_RECORDING));
+        try {
+            ReplayChatModel model = new ReplayChatModel(mode, mode == Mode.REPLAY ? null : live, file);
+            model.setLatency(latency, jitter);
+            model.setLatencyScale(scale);
+            model.setFailureRate(failureRate);
+            model.setSeed(seed);
+            logger.info("AI模型使用" + mode + "模式，录制文件: " + file.toAbsolutePath());
+            return model;
+        } catch (IOException | IllegalArgumentException e) {
+            logger.log(Level.SEVERE, "无法创建" + mode + "模式的AI模型，录制文件: " + file, e);
+            return live;
+        }
+    }
+
+    /**
+     * 系统属性是否要求回放（此时不需要真实模型和API Key）
+     */
+    public static boolean isReplayConfigured() {
+        return "replay".equalsIgnoreCase(System.getProperty(MODE_PROPERTY, "").trim());
+    }
+
+    /**
+     * 设置模拟延迟
+     *
+     * @param latencyMillis 固定延迟（毫秒）
+     * @param jitterMillis  随机抖动上限（毫秒），实际抖动在[0, jitterMillis]内均匀分布
+     */
+    public void setLatency(long latencyMillis, long jitterMillis) {
+        this.latencyMillis = Math.max(0, latencyMillis);
+        this.jitterMillis = Math.max(0, jitterMillis);
+    }
+
+    /**
+     * 回放时按录制耗时的倍数附加延迟，0表示忽略录制耗时，1表示按原速回放
+     */
+    public void setLatencyScale(double latencyScale) {
+        this.latencyScale = Math.max(0, latencyScale);
+    }
+
+    /**
+     * 设置注入失败的比例，0-1
+     */
+    public void setFailureRate(double failureRate) {
+        this.failureRate = Math.max(0, Math.min(1, failureRate));
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    @Override
+    public ChatResponse doChat(ChatRequest chatRequest) {
+        requestCount.incrementAndGet();
+        String prompt = promptOf(chatRequest.messages());
+        String key = sha256(prompt);
+        int occurrence = callCounts.computeIfAbsent(key, k -> new AtomicInteger()).getAndIncrement();
+        SplittableRandom random = new SplittableRandom(seed ^ ((long) key.hashCode() << 20) ^ occurrence);
+
+        if (failureRate > 0 && random.nextDouble() < failureRate) {
+            failureCount.incrementAndGet();
+            sleep(latencyMillis + jitter(random));
+            throw new IllegalStateException("注入的模拟故障（第" + (occurrence + 1) + "次请求该提示词）");
+        }
+
+        switch (mode) {
+            case RECORD: {
+                long start = System.nanoTime();
+                ChatResponse response = delegate.chat(chatRequest);
+                record(key, prompt, response.aiMessage().text(), (System.nanoTime() - start) / 1_000_000);
+                sleep(latencyMillis + jitter(random));
+                return response;
+            }
+            case REPLAY: {
+                List<Recording> candidates = recordings.get(key);
+                if (candidates == null || candidates.isEmpty()) {
+                    missCount.incrementAndGet();
+                    if (delegate != null) {
+                        return delegate.chat(chatRequest);
+                    }
+                    throw new IllegalStateException("录制文件中没有该提示词的回复: " + abbreviate(prompt));
+                }
+                replayCount.incrementAndGet();
+                Recording recording = candidates.get(occurrence % candidates.size());
+                sleep(latencyMillis + jitter(random) + Math.round(recording.latencyMillis * latencyScale));
+                return ChatResponse.builder().aiMessage(AiMessage.from(recording.response)).build();
+            }
+            default: {
+                ChatResponse response = delegate.chat(chatRequest);
+                sleep(latencyMillis + jitter(random));
+                return response;
+            }
+        }
+    }
+
+    /**
+     * 录制文件中不同提示词的数量
+     */
+    public int getRecordedPromptCount() {
+        return recordings.size();
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getReplayCount() {
+        return replayCount.get();
+    }
+
+    /** 回放模式下录制文件中找不到的请求数 */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getRecordCount() {
+        return recordCount.get();
+    }
+
+    /** 注入的失败次数 */
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "ReplayChatModel[%s, 请求 %d, 回放 %d, 未命中 %d, 录制 %d, 注入失败 %d]",
+                mode, getRequestCount(), getReplayCount(), getMissCount(), getRecordCount(), getFailureCount());
+    }
+
+    private void load() throws IOException {
+        int lines = 0;
+        for (String line : Files.readAllLines(recordingFile, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                Recording recording = gson.fromJson(line, Recording.class);
+                if (recording != null && recording.key != null && recording.response != null) {
+                    recordings.computeIfAbsent(recording.key, k -> new ArrayList<>()).add(recording);
+                    lines++;
+                }
+            } catch (JsonParseException e) {
+                logger.warning("忽略无法解析的录制记录: " + abbreviate(line));
+            }
+        }
+        logger.info("已加载 " + lines + " 条录制记录，" + recordings.size() + " 个不同的提示词");
+    }
+
+    private synchronized void record(String key, String prompt, String response, long latency) {
+        Recording recording = new Recording();
+        recording.key = key;
+        recording.prompt = prompt;
+        recording.response = response;
+        recording.latencyMillis = latency;
+        recordings.computeIfAbsent(key, k -> new ArrayList<>()).add(recording);
+        try {
+            Path parent = recordingFile.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.writeString(recordingFile, gson.toJson(recording) + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            recordCount.incrementAndGet();
+        } catch (IOException e) {
+            // 录制失败不影响本次请求的结果
+            logger.log(Level.WARNING, "写入录制文件失败: " + recordingFile, e);
+        }
+    }
+
+    private long jitter(SplittableRandom random) {
+        long jitter = jitterMillis;
+        return jitter <= 0 ? 0 : random.nextLong(jitter + 1);
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("请求被中断", e);
+        }
+    }
+
+    /**
+     * 把消息列表还原成用于匹配的文本，包含消息类型以区分系统消息和用户消息
+     */
+    private static String promptOf(List<ChatMessage> messages) {
+        StringBuilder prompt = new StringBuilder();
+        for (ChatMessage message : messages) {
+            if (prompt.length() > 0) {
+                prompt.append('\n');
+            }
+            prompt.append(message.type()).append(": ");
+            if (message instanceof UserMessage && ((UserMessage) message).hasSingleText()) {
+                prompt.append(((UserMessage) message).singleText());
+            } else if (message instanceof SystemMessage) {
+                prompt.append(((SystemMessage) message).text());
+            } else if (message instanceof AiMessage) {
+                prompt.append(((AiMessage) message).text());
+            } else {
+                prompt.append(message);
+            }
+        }
+        return prompt.toString();
+    }
+
+    private static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String abbreviate(String text) {
+        return text.length() <= 80 ? text : text.substring(0, 80) + "…";
+    }
+}
@@ -0,0 +1,140 @@
+package slideshow.util.batch;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 本地桩模型，不访问网络
+ * 按提示词的类型（演讲稿结构、PPT命令、演讲稿）返回固定格式的内容，相同的提示词总是得到相同的回复，
+ * 可选的固定延迟用于模拟网络请求耗时。用于测试批量生成流程和在无API Key的环境中试运行
+ */
+public class StubChatModel implements ChatLanguageModel {
+
+    private static final Pattern TOPIC_PATTERN = Pattern.compile("主题：(.+)");
+    private static final Pattern OUTLINE_PART_PATTERN = Pattern.compile("(?m)^\\d+\\.\\s*(.+)$");
+    private static final Pattern PAGE_PATTERN = Pattern.compile("第(\\d+)页[：:]");
+
+    private final int pageCount;
+    private final long latencyMillis;
+    private final AtomicLong requestCount = new AtomicLong();
+
+    /**
+     * @param pageCount     生成PPT命令时的页数
+     * @param latencyMillis 每次请求的模拟延迟（毫秒），0表示立即返回
+     */
+    public StubChatModel(int pageCount, long latencyMillis) {
+        this.pageCount = Math.max(1, pageCount);
+        this.latencyMillis = Math.max(0, latencyMillis);
+    }
+
+    public StubChatModel() {
+        this(5, 0);
+    }
+
+    @Override
+    public ChatResponse doChat(ChatRequest chatRequest) {
+        requestCount.incrementAndGet();
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("请求被中断", e);
+            }
+        }
+        return ChatResponse.builder()
+                .aiMessage(AiMessage.from(reply(lastUserText(chatRequest.messages()))))
+                .build();
+    }
+
+    /**
+     * 累计请求次数
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    private String reply(String prompt) {
+        if (prompt.contains("---PPT命令---")) {
+            return pptCommands(prompt);
+        }
+        if (prompt.contains("演讲稿大纲")) {
+            return outline(topicOf(prompt));
+        }
+        if (prompt.contains("演讲稿")) {
+            return speech(prompt);
+        }
+        return "这是本地桩模型的回复。";
+    }
+
+    private static String outline(String topic) {
+        return "演讲主题：" + topic + "\n"
+                + "1. 开场白：介绍" + topic + "的背景（2分钟）\n"
+                + "2. 现状分析：" + topic + "的发展现状（5分钟）\n"
+                + "3. 核心内容：" + topic + "的关键问题与方法（8分钟）\n"
+                + "4. 案例分享：" + topic + "的典型实践（5分钟）\n"
+                + "5. 总结与展望（3分钟）";
+    }
+
+    private String pptCommands(String prompt) {
+        // 只在提示词末尾的演讲稿结构中找各部分标题，跳过前面的格式要求
+        String outline = prompt.substring(Math.max(0, prompt.lastIndexOf("演讲稿结构：")));
+        String topic = topicOf(outline);
+        Matcher parts = OUTLINE_PART_PATTERN.matcher(outline);
+        StringBuilder commands = new StringBuilder("---PPT命令---\n");
+        for (int page = 1; page <= pageCount; page++) {
+            String title = parts.find() ? parts.group(1).replaceAll("（.*?）", "").trim() : topic + " 第" + page + "部分";
+            commands.append("Page ").append(page).append(":\n")
+                    .append("Title: ").append(title).append('\n')
+                    .append("Subtitle: ").append(topic).append('\n')
+                    .append("Bullet: 要点一\n")
+                    .append("Bullet: 要点二\n")
+                    .append("Text: 本页围绕").append(title).append("展开，说明背景、方法和结论。\n");
+        }
+        return commands.toString();
+    }
+
+    private static String speech(String prompt) {
+        Matcher pages = PAGE_PATTERN.matcher(prompt);
+        int total = 0;
+        while (pages.find()) {
+            total = Math.max(total, Integer.parseInt(pages.group(1)));
+        }
+        if (total == 0) {
+            return "各位好，下面介绍本页内容。";
+        }
+        StringBuilder speech = new StringBuilder();
+        for (int page = 1; page <= total; page++) {
+            speech.append("【第").append(page).append("页】\n")
+                    .append("各位好，这一页我们来看第").append(page).append("部分的内容。\n\n");
+        }
+        return speech.toString();
+    }
+
+    private static String topicOf(String prompt) {
+        Matcher matcher = TOPIC_PATTERN.matcher(prompt);
+        if (matcher.find()) {
+            return matcher.group(1).trim();
+        }
+        return "未命名主题";
+    }
+
+    private static String lastUserText(List<ChatMessage> messages) {
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            ChatMessage message = messages.get(i);
+            if (message instanceof UserMessage && ((UserMessage) message).hasSingleText()) {
+                return ((UserMessage) message).singleText();
+            }
+        }
+        return "";
+    }
+}
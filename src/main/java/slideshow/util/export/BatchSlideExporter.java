@@ -0,0 +1,409 @@
+package slideshow.util.export;
+
+import slideshow.model.Slide;
+import slideshow.util.SlideSerializer;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * 无界面批量导出
+ * 读取.mdz演示文稿，按页并行渲染为PNG和多页PDF，结束后输出吞吐量统计（含每核每秒页数）。
+ * <p>
+ * 用法: java slideshow.util.export.BatchSlideExporter [选项] &lt;文件或目录&gt;...
+ * <pre>
+ *   --out &lt;目录&gt;        输出目录，默认 exports
+ *   --format &lt;格式&gt;     png、pdf 或 png,pdf，默认 png,pdf
+ *   --width &lt;像素&gt;      图片宽度，高度按幻灯片逻辑宽高比计算，默认 1600
+ *   --threads &lt;数量&gt;    渲染线程数，默认为CPU核数
+ *   --dpi &lt;数值&gt;        PDF页面分辨率，默认 144
+ * </pre>
+ */
+public class BatchSlideExporter {
+    private static final Logger logger = Logger.getLogger(BatchSlideExporter.class.getName());
+
+    private static final String DECK_SUFFIX = ".mdz";
+    private static final float PDF_JPEG_QUALITY = 0.9f;
+    /** PNG压缩质量，对应较快的deflate级别 */
+    private static final float PNG_COMPRESSION_QUALITY = 0.75f;
+
+    private final Path outputDirectory;
+    private final int width;
+    private final int height;
+    private final int threads;
+    private final int dpi;
+    private final boolean png;
+    private final boolean pdf;
+
+    /**
+     * 单个演示文稿的导出状态，最后完成的渲染任务负责写出PDF
+     */
+    private static final class Deck {
+        final Path source;
+        final String name;
+        List<Slide> slides = Collections.emptyList();
+        PdfImageWriter.Page[] pages;
+        final AtomicInteger remaining = new AtomicInteger();
+        final AtomicInteger failedSlides = new AtomicInteger();
+        volatile String error;
+
+        Deck(Path source, String name) {
+            this.source = source;
+            this.name = name;
+        }
+    }
+
+    /**
+     * 导出结果统计
+     */
+    public static class ExportReport {
+        private final int deckCount;
+        private final int failedDecks;
+        private final int slideCount;
+        private final int failedSlides;
+        private final int threads;
+        private final long elapsedNanos;
+        private final long renderNanos;
+
+        ExportReport(int deckCount, int failedDecks, int slideCount, int failedSlides,
+                     int threads, long elapsedNanos, long renderNanos) {
+            this.deckCount = deckCount;
+            this.failedDecks = failedDecks;
+            this.slideCount = slideCount;
+            this.failedSlides = failedSlides;
+            this.threads = threads;
+            this.elapsedNanos = elapsedNanos;
+            this.renderNanos = renderNanos;
+        }
+
+        public int getDeckCount() {
+            return deckCount;
+        }
+
+        public int getFailedDecks() {
+            return failedDecks;
+        }
+
+        public int getSlideCount() {
+            return slideCount;
+        }
+
+        public int getFailedSlides() {
+            return failedSlides;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public double getElapsedSeconds() {
+            return elapsedNanos / 1e9;
+        }
+
+        /** 整体吞吐量：每秒导出页数 */
+        public double getSlidesPerSecond() {
+            return elapsedNanos == 0 ? 0 : slideCount / getElapsedSeconds();
+        }
+
+        /** 整体吞吐量按线程数平摊 */
+        public double getSlidesPerSecondPerCore() {
+            return threads == 0 ? 0 : getSlidesPerSecond() / threads;
+        }
+
+        /** 单线程实际处理速度：页数除以各线程渲染与编码的累计耗时 */
+        public double getSlidesPerBusySecond() {
+            return renderNanos == 0 ? 0 : slideCount / (renderNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "导出完成: %d 个演示文稿（失败 %d）, %d 页（失败 %d）, %d 线程, 耗时 %.2fs%n"
+                            + "吞吐量: %.1f 页/秒, %.1f 页/秒/核, 单线程处理速度 %.1f 页/秒",
+                    deckCount, failedDecks, slideCount, failedSlides, threads, getElapsedSeconds(),
+                    getSlidesPerSecond(), getSlidesPerSecondPerCore(), getSlidesPerBusySecond());
+        }
+    }
+
+    /**
+     * @param outputDirectory 输出目录
+     * @param width           图片宽度（像素）
+     * @param threads         渲染线程数
+     * @param dpi             PDF页面分辨率
+     * @param png             是否导出PNG
+     * @param pdf             是否导出PDF
+     */
+    public BatchSlideExporter(Path outputDirectory, int width, int threads, int dpi, boolean png, boolean pdf) {
+        this.outputDirectory = outputDirectory;
+        this.width = width;
+        this.height = (int) Math.round(width * Slide.LOGICAL_HEIGHT / Slide.LOGICAL_WIDTH);
+        this.threads = Math.max(1, threads);
+        this.dpi = dpi;
+        this.png = png;
+        this.pdf = pdf;
+    }
+
+    /**
+     * 导出给定的文件或目录（目录下递归查找.mdz文件）
+     */
+    public ExportReport export(List<Path> inputs) throws IOException {
+        List<Path> files = collectDecks(inputs);
+        Files.createDirectories(outputDirectory);
+        long start = System.nanoTime();
+        AtomicLong renderNanos = new AtomicLong();
+        AtomicInteger slideCount = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger counter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "slide-export-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        List<Deck> decks = new ArrayList<>();
+        try {
+            // 第一阶段：并行读取演示文稿
+            Set<String> usedNames = new HashSet<>();
+            List<Future<?>> loads = new ArrayList<>();
+            for (Path file : files) {
+                Deck deck = new Deck(file, uniqueName(file, usedNames));
+                decks.add(deck);
+                loads.add(executor.submit(() -> load(deck)));
+            }
+            waitAll(loads);
+
+            // 第二阶段：所有演示文稿的页面混合提交，保证线程数多于单个演示文稿页数时也能跑满
+            List<Future<?>> renders = new ArrayList<>();
+            for (Deck deck : decks) {
+                if (deck.error != null) {
+                    continue;
+                }
+                if (deck.slides.isEmpty()) {
+                    finishDeck(deck);
+                    continue;
+                }
+                for (int i = 0; i < deck.slides.size(); i++) {
+                    int index = i;
+                    renders.add(executor.submit(() -> {
+                        long t0 = System.nanoTime();
+                        renderSlide(deck, index);
+                        renderNanos.addAndGet(System.nanoTime() - t0);
+                        slideCount.incrementAndGet();
+                        if (deck.remaining.decrementAndGet() == 0) {
+                            finishDeck(deck);
+                        }
+                    }));
+                }
+            }
+            waitAll(renders);
+        } finally {
+            executor.shutdownNow();
+            Java2DSlideRenderer.clearImageCache();
+        }
+
+        int failedDecks = 0;
+        int failedSlides = 0;
+        for (Deck deck : decks) {
+            if (deck.error != null) {
+                failedDecks++;
+                logger.warning("导出失败: " + deck.source + " - " + deck.error);
+            }
+            failedSlides += deck.failedSlides.get();
+        }
+        return new ExportReport(decks.size(), failedDecks, slideCount.get(), failedSlides,
+                threads, System.nanoTime() - start, renderNanos.get());
+    }
+
+    private void load(Deck deck) {
+        try {
+            List<Slide> slides = SlideSerializer.loadPresentation(deck.source.toString());
+            deck.slides = slides == null ? Collections.emptyList() : slides;
+            deck.pages = new PdfImageWriter.Page[deck.slides.size()];
+            deck.remaining.set(deck.slides.size());
+            if (png) {
+                Files.createDirectories(outputDirectory.resolve(deck.name));
+            }
+        } catch (IOException | RuntimeException e) {
+            deck.error = "读取失败: " + e.getMessage();
+        }
+    }
+
+    private void renderSlide(Deck deck, int index) {
+        try {
+            BufferedImage image = Java2DSlideRenderer.render(deck.slides.get(index), width, height);
+            if (png) {
+                File file = outputDirectory.resolve(deck.name)
+                        .resolve(String.format(Locale.ROOT, "slide-%03d.png", index + 1)).toFile();
+                writePng(image, file);
+            }
+            if (pdf) {
+                deck.pages[index] = PdfImageWriter.encodePage(image, PDF_JPEG_QUALITY);
+            }
+        } catch (IOException | RuntimeException e) {
+            deck.failedSlides.incrementAndGet();
+            logger.log(Level.WARNING, "渲染失败: " + deck.source + " 第" + (index + 1) + "页", e);
+        }
+    }
+
+    /**
+     * 以较低的压缩级别写PNG：默认级别的压缩耗时约为渲染本身的数十倍，而幻灯片大面积纯色，低级别压缩体积已足够小
+     */
+    private static void writePng(BufferedImage image, File file) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file)) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(PNG_COMPRESSION_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private void finishDeck(Deck deck) {
+        if (!pdf) {
+            return;
+        }
+        List<PdfImageWriter.Page> pages = new ArrayList<>();
+        for (PdfImageWriter.Page page : deck.pages) {
+            if (page != null) {
+                pages.add(page);
+            }
+        }
+        deck.pages = null;
+        try {
+            PdfImageWriter.write(pages, dpi, outputDirectory.resolve(deck.name + ".pdf"));
+        } catch (IOException e) {
+            deck.error = "写入PDF失败: " + e.getMessage();
+        }
+    }
+
+    private static List<Path> collectDecks(List<Path> inputs) throws IOException {
+        Set<Path> files = new LinkedHashSet<>();
+        for (Path input : inputs) {
+            if (Files.isDirectory(input)) {
+                try (Stream<Path> stream = Files.walk(input)) {
+                    stream.filter(p -> Files.isRegularFile(p) && p.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(DECK_SUFFIX))
+                            .sorted()
+                            .forEach(files::add);
+                }
+            } else if (Files.isRegularFile(input)) {
+                files.add(input);
+            } else {
+                logger.warning("输入不存在: " + input);
+            }
+        }
+        return new ArrayList<>(files);
+    }
+
+    private static String uniqueName(Path file, Set<String> usedNames) {
+        String base = file.getFileName().toString();
+        int dot = base.lastIndexOf('.');
+        if (dot > 0) {
+            base = base.substring(0, dot);
+        }
+        String name = base;
+        for (int i = 2; !usedNames.add(name); i++) {
+            name = base + "_" + i;
+        }
+        return name;
+    }
+
+    private static void waitAll(List<Future<?>> futures) throws IOException {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("导出被中断", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw new IOException("导出任务失败: " + cause, cause);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        // 反序列化文本元素时需要测量文字，无显示环境下使用JavaFX软件渲染管线
+        if (System.getProperty("prism.order") == null) {
+            System.setProperty("prism.order", "sw");
+        }
+        System.setProperty("java.awt.headless", "true");
+
+        Path out = Paths.get("exports");
+        String format = "png,pdf";
+        int width = (int) Slide.LOGICAL_WIDTH;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int dpi = 144;
+        List<Path> inputs = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--out":
+                        out = Paths.get(args[++i]);
+                        break;
+                    case "--format":
+                        format = args[++i].toLowerCase(Locale.ROOT);
+                        break;
+                    case "--width":
+                        width = Integer.parseInt(args[++i]);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--dpi":
+                        dpi = Integer.parseInt(args[++i]);
+                        break;
+                    default:
+                        inputs.add(Paths.get(args[i]));
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            inputs.clear();
+        }
+        List<String> formats = Arrays.asList(format.split(","));
+        boolean png = formats.contains("png");
+        boolean pdf = formats.contains("pdf");
+        if (inputs.isEmpty() || (!png && !pdf) || width <= 0 || dpi <= 0) {
+            System.err.println("用法: BatchSlideExporter [--out 目录] [--format png,pdf] [--width 像素] "
+                    + "[--threads 数量] [--dpi 数值] <文件或目录>...");
+            System.exit(2);
+            return;
+        }
+
+        ExportReport report = new BatchSlideExporter(out, width, threads, dpi, png, pdf).export(inputs);
+        System.out.println(report);
+        System.exit(report.getFailedDecks() == 0 && report.getFailedSlides() == 0 ? 0 : 1);
+    }
+}
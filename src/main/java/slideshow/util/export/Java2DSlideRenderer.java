@@ -0,0 +1,56 @@
+package slideshow.util.export;
+
+import slideshow.model.Slide;
+import slideshow.model.SlideTransform;
+import slideshow.render.Java2DRenderBackend;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+/**
+ * 基于Java2D的幻灯片渲染器
+ * 通过Java2DRenderBackend在BufferedImage上绘制幻灯片，不依赖JavaFX画布和窗口，可在后台线程并行调用
+ */
+public final class Java2DSlideRenderer {
+
+    private Java2DSlideRenderer() {
+    }
+
+    /**
+     * 渲染幻灯片为图片，内容按逻辑尺寸等比缩放到目标尺寸并居中
+     *
+     * @param slide  幻灯片
+     * @param width  图片宽度（像素）
+     * @param height 图片高度（像素）
+     */
+    public static BufferedImage render(Slide slide, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+
+            Java2DRenderBackend backend = new Java2DRenderBackend(g);
+            SlideTransform transform = SlideTransform.fit(width, height);
+            backend.translate(transform.getTranslateX(), transform.getTranslateY());
+            backend.scale(transform.getScale(), transform.getScale());
+            slide.render(backend);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * 清空图片缓存，批量导出结束后调用以释放内存
+     */
+    public static void clearImageCache() {
+        Java2DRenderBackend.clearImageCache();
+    }
+}
@@ -0,0 +1,177 @@
+package slideshow.util.export;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 把每页一张图片的幻灯片写成多页PDF
+ * 每页是一个JPEG图像对象（DCTDecode），页面尺寸按图片像素和给定DPI换算，不依赖第三方PDF库
+ */
+public final class PdfImageWriter {
+
+    /** 单页图片及其JPEG编码 */
+    public static final class Page {
+        private final byte[] jpeg;
+        private final int width;
+        private final int height;
+
+        public Page(byte[] jpeg, int width, int height) {
+            this.jpeg = jpeg;
+            this.width = width;
+            this.height = height;
+        }
+
+        public byte[] getJpeg() {
+            return jpeg;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+    }
+
+    private PdfImageWriter() {
+    }
+
+    /**
+     * 把图片编码为PDF页，可在渲染线程中调用以分摊编码开销
+     *
+     * @param image   页面图片
+     * @param quality JPEG质量（0~1）
+     */
+    public static Page encodePage(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return new Page(bytes.toByteArray(), image.getWidth(), image.getHeight());
+    }
+
+    /**
+     * 写出多页PDF，先写临时文件再原子替换
+     *
+     * @param pages 按页序排列的页面
+     * @param dpi   图片分辨率，用于换算页面的点尺寸
+     * @param file  目标文件
+     */
+    public static void write(List<Page> pages, int dpi, Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            write(pages, dpi, out);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 写出多页PDF到输出流
+     */
+    public static void write(List<Page> pages, int dpi, OutputStream target) throws IOException {
+        CountingOutput out = new CountingOutput(target);
+        List<Long> offsets = new ArrayList<>();
+        int pageCount = pages.size();
+        // 对象编号：1 目录，2 页面树，之后每页依次为 页面、内容流、图像 三个对象
+        out.ascii("%PDF-1.4\n%âãÏÓ\n");
+
+        offsets.add(out.count);
+        out.ascii("1 0 obj\n<< /Type /Catalog /Pages 2 0 R >>\nendobj\n");
+
+        offsets.add(out.count);
+        StringBuilder kids = new StringBuilder();
+        for (int i = 0; i < pageCount; i++) {
+            kids.append(pageObject(i)).append(" 0 R ");
+        }
+        out.ascii("2 0 obj\n<< /Type /Pages /Kids [" + kids + "] /Count " + pageCount + " >>\nendobj\n");
+
+        double pointsPerPixel = 72.0 / dpi;
+        for (int i = 0; i < pageCount; i++) {
+            Page page = pages.get(i);
+            String pageWidth = number(page.getWidth() * pointsPerPixel);
+            String pageHeight = number(page.getHeight() * pointsPerPixel);
+
+            offsets.add(out.count);
+            out.ascii(pageObject(i) + " 0 obj\n<< /Type /Page /Parent 2 0 R /MediaBox [0 0 " + pageWidth + " " + pageHeight
+                    + "] /Resources << /XObject << /Im0 " + (pageObject(i) + 2) + " 0 R >> >> /Contents "
+                    + (pageObject(i) + 1) + " 0 R >>\nendobj\n");
+
+            byte[] content = ("q " + pageWidth + " 0 0 " + pageHeight + " 0 0 cm /Im0 Do Q\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            offsets.add(out.count);
+            out.ascii((pageObject(i) + 1) + " 0 obj\n<< /Length " + content.length + " >>\nstream\n");
+            out.write(content);
+            out.ascii("endstream\nendobj\n");
+
+            offsets.add(out.count);
+            out.ascii((pageObject(i) + 2) + " 0 obj\n<< /Type /XObject /Subtype /Image /Width " + page.getWidth()
+                    + " /Height " + page.getHeight() + " /ColorSpace /DeviceRGB /BitsPerComponent 8"
+                    + " /Filter /DCTDecode /Length " + page.getJpeg().length + " >>\nstream\n");
+            out.write(page.getJpeg());
+            out.ascii("\nendstream\nendobj\n");
+        }
+
+        long xref = out.count;
+        out.ascii("xref\n0 " + (offsets.size() + 1) + "\n0000000000 65535 f \n");
+        for (long offset : offsets) {
+            out.ascii(String.format(Locale.ROOT, "%010d 00000 n \n", offset));
+        }
+        out.ascii("trailer\n<< /Size " + (offsets.size() + 1) + " /Root 1 0 R >>\nstartxref\n" + xref + "\n%%EOF\n");
+        out.flush();
+    }
+
+    private static int pageObject(int index) {
+        return 3 + index * 3;
+    }
+
+    private static String number(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    /**
+     * 记录已写字节数，用于生成交叉引用表
+     */
+    private static final class CountingOutput {
+        private final OutputStream out;
+        private long count;
+
+        CountingOutput(OutputStream out) {
+            this.out = out;
+        }
+
+        void ascii(String text) throws IOException {
+            write(text.getBytes(StandardCharsets.ISO_8859_1));
+        }
+
+        void write(byte[] bytes) throws IOException {
+            out.write(bytes);
+            count += bytes.length;
+        }
+
+        void flush() throws IOException {
+            out.flush();
+        }
+    }
+}
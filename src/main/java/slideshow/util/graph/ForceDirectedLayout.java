@@ -0,0 +1,292 @@
+package slideshow.util.graph;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 力导向布局（Fruchterman-Reingold模型，斥力用Barnes-Hut四叉树近似）
+ * 每轮迭代先用所有节点建立四叉树，远处的一团节点按其质心当作一个质点计算斥力，
+ * 单轮复杂度 O(V·log V + E)。步长随迭代逐渐冷却；给定初始坐标时从该坐标热启动，只做少量迭代微调
+ */
+final class ForceDirectedLayout {
+
+    /** 理想边长 */
+    static final double IDEAL_EDGE_LENGTH = 120;
+    /** Barnes-Hut近似阈值：区域宽度与距离之比小于该值时按质心计算 */
+    private static final double THETA = 0.9;
+    private static final double MIN_DISTANCE = 1.0;
+    private static final int MAX_TREE_DEPTH = 48;
+    private static final long RANDOM_SEED = 42;
+
+    private final LayoutGraph graph;
+    private final double k;
+    private final double k2;
+
+    /** 四叉树，以数组存储，节点0为根 */
+    private int treeSize;
+    private double[] cellX;
+    private double[] cellY;
+    private double[] cellHalf;
+    private double[] massX;
+    private double[] massY;
+    private double[] mass;
+    /** 叶子中的节点编号，-1表示空，-2表示已细分的内部节点 */
+    private int[] body;
+    /** 第一个子节点的下标，四个子节点连续存放 */
+    private int[] firstChild;
+    private final int[] traversal = new int[MAX_TREE_DEPTH * 4 + 8];
+
+    private ForceDirectedLayout(LayoutGraph graph) {
+        this.graph = graph;
+        this.k = IDEAL_EDGE_LENGTH;
+        this.k2 = k * k;
+    }
+
+    /**
+     * @param graph      图
+     * @param x          输入为初始横坐标（warmStart为true时），输出为结果
+     * @param y          同上
+     * @param warmStart  是否以x、y中已有坐标为起点
+     * @param iterations 迭代次数
+     */
+    static void layout(LayoutGraph graph, double[] x, double[] y, boolean warmStart, int iterations) {
+        if (graph.nodeCount == 0) {
+            return;
+        }
+        new ForceDirectedLayout(graph).run(x, y, warmStart, iterations);
+    }
+
+    /**
+     * 根据节点数选择迭代次数，保证大图也能在一秒内完成
+     */
+    static int defaultIterations(int nodeCount, boolean warmStart) {
+        int iterations = nodeCount <= 500 ? 300 : Math.max(60, 300 * 500 / nodeCount);
+        return warmStart ? Math.max(20, iterations / 5) : iterations;
+    }
+
+    private void run(double[] x, double[] y, boolean warmStart, int iterations) {
+        int n = graph.nodeCount;
+        double area = Math.sqrt(n) * k * 2;
+        if (!warmStart) {
+            Random random = new Random(RANDOM_SEED);
+            for (int v = 0; v < n; v++) {
+                // 黄金角螺旋初始分布，比完全随机收敛更快
+                double r = area / 2 * Math.sqrt((v + 0.5) / n);
+                double angle = v * 2.399963229728653;
+                x[v] = r * Math.cos(angle) + random.nextDouble();
+                y[v] = r * Math.sin(angle) + random.nextDouble();
+            }
+        }
+
+        double[] dx = new double[n];
+        double[] dy = new double[n];
+        double temperature = warmStart ? k : area / 4;
+        double cooling = Math.pow(0.02, 1.0 / Math.max(1, iterations));
+        int capacity = Math.max(16, n * 4);
+        allocateTree(capacity);
+
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            Arrays.fill(dx, 0);
+            Arrays.fill(dy, 0);
+            buildTree(x, y);
+            for (int v = 0; v < n; v++) {
+                accumulateRepulsion(v, x[v], y[v], dx, dy);
+            }
+            for (int u = 0; u < n; u++) {
+                for (int i = graph.outOffsets[u]; i < graph.outOffsets[u + 1]; i++) {
+                    int v = graph.outTargets[i];
+                    double ex = x[u] - x[v];
+                    double ey = y[u] - y[v];
+                    double distance = Math.max(MIN_DISTANCE, Math.sqrt(ex * ex + ey * ey));
+                    // 引力 d²/k，沿边方向
+                    double force = distance / k;
+                    dx[u] -= ex * force;
+                    dy[u] -= ey * force;
+                    dx[v] += ex * force;
+                    dy[v] += ey * force;
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                double length = Math.sqrt(dx[v] * dx[v] + dy[v] * dy[v]);
+                if (length > 0) {
+                    double step = Math.min(length, temperature) / length;
+                    x[v] += dx[v] * step;
+                    y[v] += dy[v] * step;
+                }
+            }
+            temperature *= cooling;
+        }
+
+        // 平移到正坐标区域
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        for (int v = 0; v < n; v++) {
+            minX = Math.min(minX, x[v] - graph.radii[v]);
+            minY = Math.min(minY, y[v] - graph.radii[v]);
+        }
+        for (int v = 0; v < n; v++) {
+            x[v] += LayeredLayout.MARGIN - minX;
+            y[v] += LayeredLayout.MARGIN - minY;
+        }
+    }
+
+    // ---------------------------------------------------------------- 四叉树
+
+    private void allocateTree(int capacity) {
+        cellX = new double[capacity];
+        cellY = new double[capacity];
+        cellHalf = new double[capacity];
+        massX = new double[capacity];
+        massY = new double[capacity];
+        mass = new double[capacity];
+        body = new int[capacity];
+        firstChild = new int[capacity];
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= body.length) {
+            return;
+        }
+        int capacity = Math.max(needed, body.length * 2);
+        cellX = Arrays.copyOf(cellX, capacity);
+        cellY = Arrays.copyOf(cellY, capacity);
+        cellHalf = Arrays.copyOf(cellHalf, capacity);
+        massX = Arrays.copyOf(massX, capacity);
+        massY = Arrays.copyOf(massY, capacity);
+        mass = Arrays.copyOf(mass, capacity);
+        body = Arrays.copyOf(body, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+    }
+
+    private void buildTree(double[] x, double[] y) {
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for (int v = 0; v < graph.nodeCount; v++) {
+            minX = Math.min(minX, x[v]);
+            minY = Math.min(minY, y[v]);
+            maxX = Math.max(maxX, x[v]);
+            maxY = Math.max(maxY, y[v]);
+        }
+        double half = Math.max(maxX - minX, maxY - minY) / 2 + 1;
+        treeSize = 1;
+        initCell(0, (minX + maxX) / 2, (minY + maxY) / 2, half);
+        for (int v = 0; v < graph.nodeCount; v++) {
+            insert(v, x, y);
+        }
+    }
+
+    private void initCell(int cell, double cx, double cy, double half) {
+        cellX[cell] = cx;
+        cellY[cell] = cy;
+        cellHalf[cell] = half;
+        massX[cell] = 0;
+        massY[cell] = 0;
+        mass[cell] = 0;
+        body[cell] = -1;
+        firstChild[cell] = -1;
+    }
+
+    private void insert(int v, double[] x, double[] y) {
+        int cell = 0;
+        int depth = 0;
+        double px = x[v];
+        double py = y[v];
+        while (true) {
+            // 沿途累计质心
+            massX[cell] += px;
+            massY[cell] += py;
+            mass[cell] += 1;
+
+            if (body[cell] == -1 && firstChild[cell] < 0) {
+                body[cell] = v;
+                return;
+            }
+            if (firstChild[cell] < 0) {
+                int existing = body[cell];
+                if (depth >= MAX_TREE_DEPTH) {
+                    // 坐标几乎重合，不再细分，留在当前叶子中按质心处理
+                    return;
+                }
+                subdivide(cell);
+                body[cell] = -2;
+                int child = childFor(cell, x[existing], y[existing]);
+                massX[child] += x[existing];
+                massY[child] += y[existing];
+                mass[child] += 1;
+                body[child] = existing;
+            }
+            cell = childFor(cell, px, py);
+            depth++;
+        }
+    }
+
+    private void subdivide(int cell) {
+        ensureCapacity(treeSize + 4);
+        int first = treeSize;
+        treeSize += 4;
+        double half = cellHalf[cell] / 2;
+        double cx = cellX[cell];
+        double cy = cellY[cell];
+        initCell(first, cx - half, cy - half, half);
+        initCell(first + 1, cx + half, cy - half, half);
+        initCell(first + 2, cx - half, cy + half, half);
+        initCell(first + 3, cx + half, cy + half, half);
+        firstChild[cell] = first;
+    }
+
+    private int childFor(int cell, double px, double py) {
+        int index = (px >= cellX[cell] ? 1 : 0) + (py >= cellY[cell] ? 2 : 0);
+        return firstChild[cell] + index;
+    }
+
+    /**
+     * 斥力 k²/d，按显式栈遍历四叉树
+     */
+    private void accumulateRepulsion(int v, double px, double py, double[] dx, double[] dy) {
+        int top = 0;
+        traversal[top++] = 0;
+        while (top > 0) {
+            int cell = traversal[--top];
+            double m = mass[cell];
+            if (m == 0) {
+                continue;
+            }
+            boolean leaf = firstChild[cell] < 0;
+            if (leaf && body[cell] == v && m == 1) {
+                continue;
+            }
+            double cx = massX[cell] / m;
+            double cy = massY[cell] / m;
+            double ex = px - cx;
+            double ey = py - cy;
+            double d2 = ex * ex + ey * ey;
+            double size = cellHalf[cell] * 2;
+            if (leaf || size * size < THETA * THETA * d2) {
+                if (leaf && body[cell] == v) {
+                    // 重合节点叶子中包含自身，扣除自身质量
+                    m -= 1;
+                    if (m <= 0) {
+                        continue;
+                    }
+                }
+                if (d2 < MIN_DISTANCE) {
+                    // 重合时给一个确定性的微小偏移，避免除零
+                    ex = ((v * 31) % 7) - 3 + 0.5;
+                    ey = ((v * 17) % 5) - 2 + 0.5;
+                    d2 = ex * ex + ey * ey;
+                }
+                double force = k2 * m / d2;
+                dx[v] += ex * force;
+                dy[v] += ey * force;
+            } else {
+                int first = firstChild[cell];
+                traversal[top++] = first;
+                traversal[top++] = first + 1;
+                traversal[top++] = first + 2;
+                traversal[top++] = first + 3;
+            }
+        }
+    }
+}
@@ -0,0 +1,400 @@
+package slideshow.util.graph;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+import java.util.Arrays;
+
+/**
+ * 基于Canvas的关系图视图
+ * 整张图画在一个Canvas上，不为每个节点和边创建场景图节点：
+ * 每帧只绘制与视口相交的节点（网格索引裁剪）和边（包围盒裁剪），同色的边合并为一条路径描边；
+ * 缩小到一定比例后不再绘制文字标签。支持滚轮缩放、拖动空白处平移和拖动节点
+ */
+public class GraphCanvasView extends Pane {
+
+    /** 节点在屏幕上的半径不小于该值时才绘制节点标签 */
+    private static final double NODE_LABEL_MIN_RADIUS = 14;
+    /** 缩放比例不小于该值时才绘制边标签 */
+    private static final double EDGE_LABEL_MIN_SCALE = 0.9;
+    /** 节点在屏幕上的半径不小于该值时才绘制描边 */
+    private static final double NODE_OUTLINE_MIN_RADIUS = 4;
+    private static final double MIN_SCALE = 0.005;
+    private static final double MAX_SCALE = 8;
+    private static final double ZOOM_STEP = 1.15;
+    private static final Font NODE_FONT = Font.font("Arial", FontWeight.BOLD, 12);
+    private static final Font EDGE_FONT = Font.font("Arial", 10);
+
+    private final Canvas canvas = new Canvas();
+    private SpatialGrid grid = new SpatialGrid(100);
+
+    private int nodeCount;
+    private String[] nodeLabels = new String[0];
+    private double[] nodeRadius = new double[0];
+    private Color[] nodeColors = new Color[0];
+    private double[] nodeX = new double[0];
+    private double[] nodeY = new double[0];
+
+    private int edgeCount;
+    private int[] edgeSource = new int[0];
+    private int[] edgeTarget = new int[0];
+    private String[] edgeLabels = new String[0];
+    private Color[] edgeColors = new Color[0];
+    /** 按颜色分组后的边顺序，便于合并描边 */
+    private int[] edgeOrder = new int[0];
+
+    /** 视图变换：屏幕坐标 = 世界坐标 * scale + translate */
+    private double scale = 1;
+    private double translateX;
+    private double translateY;
+
+    private int draggedNode = -1;
+    private double dragOffsetX;
+    private double dragOffsetY;
+    private double lastMouseX;
+    private double lastMouseY;
+
+    /** 每帧复用的可见节点缓冲区 */
+    private int[] visibleNodes = new int[0];
+    private int visibleCount;
+    private int lastDrawnNodes;
+    private int lastDrawnEdges;
+
+    public GraphCanvasView() {
+        getChildren().add(canvas);
+        setStyle("-fx-background-color: white;");
+        canvas.setOnScroll(this::handleScroll);
+        canvas.setOnMousePressed(this::handleMousePressed);
+        canvas.setOnMouseDragged(this::handleMouseDragged);
+        canvas.setOnMouseReleased(e -> draggedNode = -1);
+    }
+
+    @Override
+    protected void layoutChildren() {
+        super.layoutChildren();
+        if (canvas.getWidth() != getWidth() || canvas.getHeight() != getHeight()) {
+            canvas.setWidth(getWidth());
+            canvas.setHeight(getHeight());
+            redraw();
+        }
+    }
+
+    /**
+     * 设置图的内容，坐标在布局完成后通过setPositions设置
+     *
+     * @param labels      节点标签
+     * @param radii       节点半径
+     * @param colors      节点颜色
+     * @param sources     边的起点
+     * @param targets     边的终点
+     * @param edgeLabels  边标签
+     * @param edgeColors  边颜色
+     */
+    public void setGraph(String[] labels, double[] radii, Color[] colors, int[] sources, int[] targets,
+                         String[] edgeLabels, Color[] edgeColors) {
+        this.nodeCount = labels.length;
+        this.nodeLabels = labels;
+        this.nodeRadius = radii;
+        this.nodeColors = colors;
+        this.nodeX = new double[nodeCount];
+        this.nodeY = new double[nodeCount];
+        this.edgeCount = sources.length;
+        this.edgeSource = sources;
+        this.edgeTarget = targets;
+        this.edgeLabels = edgeLabels;
+        this.edgeColors = edgeColors;
+        this.edgeOrder = sortEdgesByColor(edgeColors);
+        rebuildIndex();
+        redraw();
+    }
+
+    /**
+     * 设置节点坐标（世界坐标）
+     */
+    public void setPositions(double[] x, double[] y) {
+        this.nodeX = Arrays.copyOf(x, nodeCount);
+        this.nodeY = Arrays.copyOf(y, nodeCount);
+        rebuildIndex();
+        redraw();
+    }
+
+    /**
+     * 修改单个节点的标签和样式，不影响坐标；批量修改后由调用方调用redraw
+     */
+    public void setNode(int node, String label, double radius, Color color) {
+        nodeLabels[node] = label;
+        nodeColors[node] = color;
+        if (nodeRadius[node] != radius) {
+            nodeRadius[node] = radius;
+            rebuildIndex();
+        }
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public double getNodeX(int node) {
+        return nodeX[node];
+    }
+
+    public double getNodeY(int node) {
+        return nodeY[node];
+    }
+
+    /**
+     * 缩放并平移视图，使整张图位于可见区域内
+     */
+    public void fitToView() {
+        if (nodeCount == 0 || getWidth() <= 0 || getHeight() <= 0) {
+            return;
+        }
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < nodeCount; i++) {
+            minX = Math.min(minX, nodeX[i] - nodeRadius[i]);
+            minY = Math.min(minY, nodeY[i] - nodeRadius[i]);
+            maxX = Math.max(maxX, nodeX[i] + nodeRadius[i]);
+            maxY = Math.max(maxY, nodeY[i] + nodeRadius[i]);
+        }
+        double padding = 20;
+        double sx = (getWidth() - padding * 2) / Math.max(1, maxX - minX);
+        double sy = (getHeight() - padding * 2) / Math.max(1, maxY - minY);
+        scale = clamp(Math.min(1, Math.min(sx, sy)));
+        translateX = (getWidth() - (maxX - minX) * scale) / 2 - minX * scale;
+        translateY = (getHeight() - (maxY - minY) * scale) / 2 - minY * scale;
+        redraw();
+    }
+
+    /**
+     * 上一帧实际绘制的节点数
+     */
+    public int getLastDrawnNodes() {
+        return lastDrawnNodes;
+    }
+
+    /**
+     * 上一帧实际绘制的边数
+     */
+    public int getLastDrawnEdges() {
+        return lastDrawnEdges;
+    }
+
+    // ---------------------------------------------------------------- 绘制
+
+    /**
+     * 重新绘制可见部分
+     */
+    public void redraw() {
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.setTransform(1, 0, 0, 1, 0, 0);
+        gc.setFill(Color.WHITE);
+        gc.fillRect(0, 0, width, height);
+
+        // 视口对应的世界坐标范围
+        double minX = -translateX / scale;
+        double minY = -translateY / scale;
+        double maxX = (width - translateX) / scale;
+        double maxY = (height - translateY) / scale;
+
+        gc.setTransform(scale, 0, 0, scale, translateX, translateY);
+        drawEdges(gc, minX, minY, maxX, maxY);
+        drawNodes(gc, minX, minY, maxX, maxY);
+        gc.setTransform(1, 0, 0, 1, 0, 0);
+    }
+
+    private void drawEdges(GraphicsContext gc, double minX, double minY, double maxX, double maxY) {
+        gc.setLineWidth(Math.max(2, 1 / scale));
+        boolean drawLabels = scale >= EDGE_LABEL_MIN_SCALE;
+        int drawn = 0;
+        Color current = null;
+        boolean pathOpen = false;
+        for (int k = 0; k < edgeCount; k++) {
+            int e = edgeOrder[k];
+            int s = edgeSource[e];
+            int t = edgeTarget[e];
+            double x1 = nodeX[s];
+            double y1 = nodeY[s];
+            double x2 = nodeX[t];
+            double y2 = nodeY[t];
+            if (Math.max(x1, x2) < minX || Math.min(x1, x2) > maxX
+                    || Math.max(y1, y2) < minY || Math.min(y1, y2) > maxY) {
+                continue;
+            }
+            if (!edgeColors[e].equals(current)) {
+                if (pathOpen) {
+                    gc.stroke();
+                }
+                current = edgeColors[e];
+                gc.setStroke(current);
+                gc.beginPath();
+                pathOpen = true;
+            }
+            // 起止点退到节点边缘，避免与节点重叠
+            double dx = x2 - x1;
+            double dy = y2 - y1;
+            double distance = Math.sqrt(dx * dx + dy * dy);
+            if (distance <= nodeRadius[s] + nodeRadius[t]) {
+                continue;
+            }
+            dx /= distance;
+            dy /= distance;
+            gc.moveTo(x1 + dx * nodeRadius[s], y1 + dy * nodeRadius[s]);
+            gc.lineTo(x2 - dx * nodeRadius[t], y2 - dy * nodeRadius[t]);
+            drawn++;
+        }
+        if (pathOpen) {
+            gc.stroke();
+        }
+
+        if (drawLabels) {
+            gc.setFont(EDGE_FONT);
+            gc.setTextAlign(TextAlignment.CENTER);
+            gc.setTextBaseline(VPos.BOTTOM);
+            for (int e = 0; e < edgeCount; e++) {
+                if (edgeLabels[e] == null) {
+                    continue;
+                }
+                double mx = (nodeX[edgeSource[e]] + nodeX[edgeTarget[e]]) / 2;
+                double my = (nodeY[edgeSource[e]] + nodeY[edgeTarget[e]]) / 2;
+                if (mx < minX || mx > maxX || my < minY || my > maxY) {
+                    continue;
+                }
+                gc.setFill(edgeColors[e]);
+                gc.fillText(edgeLabels[e], mx, my - 5);
+            }
+        }
+        lastDrawnEdges = drawn;
+    }
+
+    private void drawNodes(GraphicsContext gc, double minX, double minY, double maxX, double maxY) {
+        visibleCount = 0;
+        grid.query(minX, minY, maxX, maxY, node -> visibleNodes[visibleCount++] = node);
+        int[] nodes = visibleNodes;
+
+        gc.setLineWidth(2 / Math.max(1, scale));
+        gc.setStroke(Color.BLACK);
+        Color current = null;
+        for (int i = 0; i < visibleCount; i++) {
+            int node = nodes[i];
+            double r = nodeRadius[node];
+            if (!nodeColors[node].equals(current)) {
+                current = nodeColors[node];
+                gc.setFill(current);
+            }
+            double screenRadius = r * scale;
+            if (screenRadius < 1) {
+                // 极小时画成方块即可
+                gc.fillRect(nodeX[node] - r, nodeY[node] - r, r * 2, r * 2);
+                continue;
+            }
+            gc.fillOval(nodeX[node] - r, nodeY[node] - r, r * 2, r * 2);
+            if (screenRadius >= NODE_OUTLINE_MIN_RADIUS) {
+                gc.strokeOval(nodeX[node] - r, nodeY[node] - r, r * 2, r * 2);
+            }
+        }
+
+        gc.setFont(NODE_FONT);
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.CENTER);
+        gc.setFill(Color.WHITE);
+        for (int i = 0; i < visibleCount; i++) {
+            int node = nodes[i];
+            if (nodeRadius[node] * scale >= NODE_LABEL_MIN_RADIUS && nodeLabels[node] != null) {
+                gc.fillText(nodeLabels[node], nodeX[node], nodeY[node]);
+            }
+        }
+        lastDrawnNodes = visibleCount;
+    }
+
+    // ---------------------------------------------------------------- 交互
+
+    private void handleScroll(ScrollEvent event) {
+        if (event.getDeltaY() == 0) {
+            return;
+        }
+        double factor = event.getDeltaY() > 0 ? ZOOM_STEP : 1 / ZOOM_STEP;
+        double newScale = clamp(scale * factor);
+        // 以鼠标位置为中心缩放
+        double worldX = (event.getX() - translateX) / scale;
+        double worldY = (event.getY() - translateY) / scale;
+        scale = newScale;
+        translateX = event.getX() - worldX * scale;
+        translateY = event.getY() - worldY * scale;
+        redraw();
+        event.consume();
+    }
+
+    private void handleMousePressed(MouseEvent event) {
+        lastMouseX = event.getX();
+        lastMouseY = event.getY();
+        double worldX = (event.getX() - translateX) / scale;
+        double worldY = (event.getY() - translateY) / scale;
+        draggedNode = grid.pick(worldX, worldY);
+        if (draggedNode >= 0) {
+            dragOffsetX = worldX - nodeX[draggedNode];
+            dragOffsetY = worldY - nodeY[draggedNode];
+        }
+    }
+
+    private void handleMouseDragged(MouseEvent event) {
+        if (draggedNode >= 0) {
+            nodeX[draggedNode] = (event.getX() - translateX) / scale - dragOffsetX;
+            nodeY[draggedNode] = (event.getY() - translateY) / scale - dragOffsetY;
+            grid.moved(draggedNode);
+        } else {
+            translateX += event.getX() - lastMouseX;
+            translateY += event.getY() - lastMouseY;
+        }
+        lastMouseX = event.getX();
+        lastMouseY = event.getY();
+        redraw();
+    }
+
+    // ---------------------------------------------------------------- 辅助
+
+    private void rebuildIndex() {
+        double maxRadius = LayoutGraph.DEFAULT_RADIUS;
+        for (int i = 0; i < nodeCount; i++) {
+            maxRadius = Math.max(maxRadius, nodeRadius[i]);
+        }
+        grid = new SpatialGrid(maxRadius * 4);
+        if (visibleNodes.length < nodeCount) {
+            visibleNodes = new int[nodeCount];
+        }
+        grid.build(nodeX, nodeY, nodeRadius, nodeCount);
+    }
+
+    private static int[] sortEdgesByColor(Color[] colors) {
+        Integer[] order = new Integer[colors.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        // 相同颜色的边相邻，哈希冲突只会多一次描边，不影响结果
+        Arrays.sort(order, (a, b) -> Integer.compare(colors[a].hashCode(), colors[b].hashCode()));
+        int[] result = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = order[i];
+        }
+        return result;
+    }
+
+    private static double clamp(double value) {
+        return Math.max(MIN_SCALE, Math.min(MAX_SCALE, value));
+    }
+}
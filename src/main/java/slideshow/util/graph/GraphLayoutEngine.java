@@ -0,0 +1,121 @@
+package slideshow.util.graph;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * 图布局引擎
+ * 稀疏、接近层次结构的图（如结构分析生成的主题-大纲-重点图）使用分层布局；稠密图，以及跨层边多到
+ * 虚拟节点远超真实节点、分层布局反而更慢的图使用力导向布局。
+ * 布局计算只依赖LayoutGraph，不访问JavaFX对象，可在后台线程执行
+ */
+public final class GraphLayoutEngine {
+    private static final Logger logger = Logger.getLogger(GraphLayoutEngine.class.getName());
+
+    /** 平均每个节点的边数超过该值视为稠密图 */
+    private static final double DENSE_EDGE_RATIO = 2.0;
+    /**
+     * 分层布局处理每个节点、边或虚拟节点的耗时约为力导向布局每次迭代中每个节点每层四叉树耗时的30倍
+     * （5000节点随机树加不同数量跨层边实测），据此比较两种布局的预计耗时
+     */
+    private static final double LAYERED_COST_FACTOR = 30;
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "graph-layout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 布局算法
+     */
+    public enum Algorithm {
+        /** 根据图的稠密程度自动选择 */
+        AUTO,
+        /** 分层布局 */
+        LAYERED,
+        /** 力导向布局 */
+        FORCE_DIRECTED
+    }
+
+    private GraphLayoutEngine() {
+    }
+
+    /**
+     * 计算布局
+     *
+     * @param graph     图
+     * @param algorithm 算法
+     * @return 节点坐标
+     */
+    public static LayoutResult layout(LayoutGraph graph, Algorithm algorithm) {
+        long start = System.nanoTime();
+        int n = graph.getNodeCount();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        Algorithm resolved = resolve(graph, algorithm);
+        if (resolved == Algorithm.LAYERED) {
+            LayeredLayout.layout(graph, x, y);
+        } else {
+            ForceDirectedLayout.layout(graph, x, y, false, ForceDirectedLayout.defaultIterations(n, false));
+        }
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        logger.fine("图布局完成: " + resolved + ", " + n + " 个节点, " + graph.getEdgeCount() + " 条边, 耗时 " + elapsed + "ms");
+        return new LayoutResult(x, y, elapsed);
+    }
+
+    /**
+     * 以已有坐标为起点做力导向微调，用于图的增量变化
+     *
+     * @param graph 图
+     * @param x     初始横坐标（新节点可先放在其邻居附近）
+     * @param y     初始纵坐标
+     * @return 调整后的坐标
+     */
+    public static LayoutResult refine(LayoutGraph graph, double[] x, double[] y) {
+        long start = System.nanoTime();
+        double[] rx = x.clone();
+        double[] ry = y.clone();
+        ForceDirectedLayout.layout(graph, rx, ry, true,
+                ForceDirectedLayout.defaultIterations(graph.getNodeCount(), true));
+        return new LayoutResult(rx, ry, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * 在后台线程计算布局
+     */
+    public static CompletableFuture<LayoutResult> layoutAsync(LayoutGraph graph, Algorithm algorithm) {
+        return CompletableFuture.supplyAsync(() -> layout(graph, algorithm), executor);
+    }
+
+    /**
+     * 在后台线程做热启动微调
+     */
+    public static CompletableFuture<LayoutResult> refineAsync(LayoutGraph graph, double[] x, double[] y) {
+        double[] rx = x.clone();
+        double[] ry = y.clone();
+        return CompletableFuture.supplyAsync(() -> refine(graph, rx, ry), executor);
+    }
+
+    private static Algorithm resolve(LayoutGraph graph, Algorithm algorithm) {
+        if (algorithm != Algorithm.AUTO) {
+            return algorithm;
+        }
+        int n = graph.getNodeCount();
+        double ratio = n == 0 ? 0 : (double) graph.getEdgeCount() / n;
+        if (ratio > DENSE_EDGE_RATIO) {
+            return Algorithm.FORCE_DIRECTED;
+        }
+        // 随机跨层边会让最长路径分层产生大量虚拟节点，分层布局的耗时随之线性增长
+        long dummies = LayeredLayout.estimateDummyNodes(graph);
+        double layeredCost = LAYERED_COST_FACTOR * ((double) n + graph.getEdgeCount() + dummies);
+        double forceCost = (double) ForceDirectedLayout.defaultIterations(n, false) * n * (Math.log(n + 1) / Math.log(2));
+        if (layeredCost > forceCost) {
+            logger.fine("跨层边产生 " + dummies + " 个虚拟节点，改用力导向布局");
+            return Algorithm.FORCE_DIRECTED;
+        }
+        return Algorithm.LAYERED;
+    }
+}
@@ -0,0 +1,507 @@
+package slideshow.util.graph;
+
+import java.util.Arrays;
+
+/**
+ * 分层布局（Sugiyama方法）
+ * 1. 反转深度优先遍历中的回边，去掉环；
+ * 2. 按最长路径分层，跨越多层的边拆成经过虚拟节点的短边；
+ * 3. 上下交替按邻居重心排序各层节点以减少交叉，保留交叉数最少的排列；
+ * 4. 横坐标向邻居的平均位置靠拢，同时保持层内顺序和最小间距（保序回归）。
+ * 各步骤都只遍历邻接数组，时间复杂度约为 O((V+E)·log V) 乘以迭代次数
+ */
+final class LayeredLayout {
+
+    static final double LAYER_SPACING = 120;
+    static final double NODE_GAP = 30;
+    static final double MARGIN = 60;
+    /** 虚拟节点的半宽 */
+    private static final double DUMMY_RADIUS = 4;
+    private static final int ORDERING_SWEEPS = 12;
+    private static final int POSITIONING_PASSES = 8;
+
+    private final LayoutGraph graph;
+
+    /** 含虚拟节点的分层图 */
+    private int virtualCount;
+    private int[] layerOf;
+    private double[] halfWidth;
+    private int[] downOffsets;
+    private int[] downTargets;
+    private int[] upOffsets;
+    private int[] upSources;
+    private int[][] layers;
+    private int[] position;
+
+    private LayeredLayout(LayoutGraph graph) {
+        this.graph = graph;
+    }
+
+    static void layout(LayoutGraph graph, double[] x, double[] y) {
+        if (graph.nodeCount == 0) {
+            return;
+        }
+        new LayeredLayout(graph).run(x, y);
+    }
+
+    /**
+     * 估算分层后需要插入的虚拟节点数（各边跨越的层数减一之和），只做去环和分层，耗时 O(V+E)
+     */
+    static long estimateDummyNodes(LayoutGraph graph) {
+        if (graph.nodeCount == 0) {
+            return 0;
+        }
+        LayeredLayout layout = new LayeredLayout(graph);
+        int[][] dag = layout.removeCycles();
+        int[] rank = layout.assignLayers(dag[0], dag[1]);
+        long dummies = 0;
+        for (int e = 0; e < dag[0].length; e++) {
+            dummies += Math.max(0, rank[dag[1][e]] - rank[dag[0][e]] - 1);
+        }
+        return dummies;
+    }
+
+    private void run(double[] x, double[] y) {
+        int[][] dag = removeCycles();
+        int[] rank = assignLayers(dag[0], dag[1]);
+        buildProperGraph(dag[0], dag[1], rank);
+        orderLayers();
+        double[] vx = assignCoordinates();
+
+        double maxRadius = 0;
+        for (int v = 0; v < graph.nodeCount; v++) {
+            maxRadius = Math.max(maxRadius, graph.radii[v]);
+        }
+        double layerSpacing = Math.max(LAYER_SPACING, maxRadius * 2 + NODE_GAP * 2);
+        double minX = Double.MAX_VALUE;
+        for (int v = 0; v < graph.nodeCount; v++) {
+            minX = Math.min(minX, vx[v] - graph.radii[v]);
+        }
+        for (int v = 0; v < graph.nodeCount; v++) {
+            x[v] = vx[v] - minX + MARGIN;
+            y[v] = MARGIN + maxRadius + layerOf[v] * layerSpacing;
+        }
+    }
+
+    // ---------------------------------------------------------------- 去环
+
+    /**
+     * 迭代式深度优先遍历，指向栈中节点的边是回边，将其反向
+     *
+     * @return {起点数组, 终点数组}
+     */
+    private int[][] removeCycles() {
+        int n = graph.nodeCount;
+        int[] sources = new int[graph.outTargets.length];
+        int[] targets = new int[graph.outTargets.length];
+        int edgeCount = 0;
+
+        byte[] state = new byte[n];
+        int[] stack = new int[n];
+        int[] cursor = new int[n];
+        for (int pass = 0; pass < 2; pass++) {
+            for (int root = 0; root < n; root++) {
+                // 先从没有入边的节点出发，保证自然的根节点排在最上层
+                if (state[root] != 0 || (pass == 0 && graph.getInDegree(root) > 0)) {
+                    continue;
+                }
+                int top = 0;
+                stack[top++] = root;
+                state[root] = 1;
+                cursor[root] = graph.outOffsets[root];
+                while (top > 0) {
+                    int u = stack[top - 1];
+                    if (cursor[u] < graph.outOffsets[u + 1]) {
+                        int v = graph.outTargets[cursor[u]++];
+                        if (state[v] == 1) {
+                            sources[edgeCount] = v;
+                            targets[edgeCount] = u;
+                        } else {
+                            sources[edgeCount] = u;
+                            targets[edgeCount] = v;
+                            if (state[v] == 0) {
+                                state[v] = 1;
+                                cursor[v] = graph.outOffsets[v];
+                                stack[top++] = v;
+                            }
+                        }
+                        edgeCount++;
+                    } else {
+                        state[u] = 2;
+                        top--;
+                    }
+                }
+            }
+        }
+        return new int[][]{sources, targets};
+    }
+
+    // ---------------------------------------------------------------- 分层
+
+    /**
+     * 按拓扑序计算最长路径层号
+     */
+    private int[] assignLayers(int[] sources, int[] targets) {
+        int n = graph.nodeCount;
+        int[] offsets = new int[n + 1];
+        int[] inDegree = new int[n];
+        for (int e = 0; e < sources.length; e++) {
+            offsets[sources[e] + 1]++;
+            inDegree[targets[e]]++;
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] adjacency = new int[sources.length];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int e = 0; e < sources.length; e++) {
+            adjacency[fill[sources[e]]++] = targets[e];
+        }
+
+        int[] rank = new int[n];
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        for (int v = 0; v < n; v++) {
+            if (inDegree[v] == 0) {
+                queue[tail++] = v;
+            }
+        }
+        while (head < tail) {
+            int u = queue[head++];
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int v = adjacency[i];
+                rank[v] = Math.max(rank[v], rank[u] + 1);
+                if (--inDegree[v] == 0) {
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * 为跨层边插入虚拟节点，得到只连接相邻层的分层图
+     */
+    private void buildProperGraph(int[] sources, int[] targets, int[] rank) {
+        int n = graph.nodeCount;
+        int dummyCount = 0;
+        int segmentCount = 0;
+        for (int e = 0; e < sources.length; e++) {
+            int span = rank[targets[e]] - rank[sources[e]];
+            dummyCount += span - 1;
+            segmentCount += span;
+        }
+        virtualCount = n + dummyCount;
+        layerOf = Arrays.copyOf(rank, virtualCount);
+        halfWidth = new double[virtualCount];
+        System.arraycopy(graph.radii, 0, halfWidth, 0, n);
+        Arrays.fill(halfWidth, n, virtualCount, DUMMY_RADIUS);
+
+        int[] segmentUpper = new int[segmentCount];
+        int[] segmentLower = new int[segmentCount];
+        int segment = 0;
+        int nextDummy = n;
+        for (int e = 0; e < sources.length; e++) {
+            int upper = sources[e];
+            int fromRank = rank[upper];
+            int toRank = rank[targets[e]];
+            for (int r = fromRank + 1; r < toRank; r++) {
+                int dummy = nextDummy++;
+                layerOf[dummy] = r;
+                segmentUpper[segment] = upper;
+                segmentLower[segment] = dummy;
+                segment++;
+                upper = dummy;
+            }
+            segmentUpper[segment] = upper;
+            segmentLower[segment] = targets[e];
+            segment++;
+        }
+
+        downOffsets = new int[virtualCount + 1];
+        upOffsets = new int[virtualCount + 1];
+        for (int s = 0; s < segmentCount; s++) {
+            downOffsets[segmentUpper[s] + 1]++;
+            upOffsets[segmentLower[s] + 1]++;
+        }
+        for (int v = 0; v < virtualCount; v++) {
+            downOffsets[v + 1] += downOffsets[v];
+            upOffsets[v + 1] += upOffsets[v];
+        }
+        downTargets = new int[segmentCount];
+        upSources = new int[segmentCount];
+        int[] downFill = Arrays.copyOf(downOffsets, virtualCount);
+        int[] upFill = Arrays.copyOf(upOffsets, virtualCount);
+        for (int s = 0; s < segmentCount; s++) {
+            downTargets[downFill[segmentUpper[s]]++] = segmentLower[s];
+            upSources[upFill[segmentLower[s]]++] = segmentUpper[s];
+        }
+    }
+
+    // ---------------------------------------------------------------- 减少交叉
+
+    private void orderLayers() {
+        int layerCount = 0;
+        for (int v = 0; v < virtualCount; v++) {
+            layerCount = Math.max(layerCount, layerOf[v] + 1);
+        }
+        int[] layerSize = new int[layerCount];
+        for (int v = 0; v < virtualCount; v++) {
+            layerSize[layerOf[v]]++;
+        }
+        layers = new int[layerCount][];
+        for (int l = 0; l < layerCount; l++) {
+            layers[l] = new int[layerSize[l]];
+        }
+        position = new int[virtualCount];
+
+        // 初始顺序：第一层按编号，之后每层按父节点的顺序依次排列子节点
+        boolean[] placed = new boolean[virtualCount];
+        int[] fill = new int[layerCount];
+        for (int v = 0; v < virtualCount; v++) {
+            if (layerOf[v] == 0) {
+                place(v, placed, fill);
+            }
+        }
+        for (int l = 0; l < layerCount - 1; l++) {
+            for (int i = 0; i < fill[l]; i++) {
+                int u = layers[l][i];
+                for (int k = downOffsets[u]; k < downOffsets[u + 1]; k++) {
+                    int v = downTargets[k];
+                    if (!placed[v]) {
+                        place(v, placed, fill);
+                    }
+                }
+            }
+            for (int v = 0; v < virtualCount; v++) {
+                if (layerOf[v] == l + 1 && !placed[v]) {
+                    place(v, placed, fill);
+                }
+            }
+        }
+
+        long bestCrossings = countCrossings();
+        int[][] best = copyLayers();
+        double[] barycenter = new double[virtualCount];
+        for (int sweep = 0; sweep < ORDERING_SWEEPS && bestCrossings > 0; sweep++) {
+            for (int l = 1; l < layerCount; l++) {
+                sortByBarycenter(layers[l], barycenter, upOffsets, upSources);
+            }
+            for (int l = layerCount - 2; l >= 0; l--) {
+                sortByBarycenter(layers[l], barycenter, downOffsets, downTargets);
+            }
+            long crossings = countCrossings();
+            if (crossings < bestCrossings) {
+                bestCrossings = crossings;
+                best = copyLayers();
+            }
+        }
+        layers = best;
+        for (int[] layer : layers) {
+            for (int i = 0; i < layer.length; i++) {
+                position[layer[i]] = i;
+            }
+        }
+    }
+
+    private void place(int v, boolean[] placed, int[] fill) {
+        int l = layerOf[v];
+        position[v] = fill[l];
+        layers[l][fill[l]++] = v;
+        placed[v] = true;
+    }
+
+    private int[][] copyLayers() {
+        int[][] copy = new int[layers.length][];
+        for (int l = 0; l < layers.length; l++) {
+            copy[l] = layers[l].clone();
+        }
+        return copy;
+    }
+
+    /**
+     * 按相邻层邻居位置的平均值排序，没有邻居的节点保持原位置
+     */
+    private void sortByBarycenter(int[] layer, double[] barycenter, int[] offsets, int[] neighbors) {
+        for (int v : layer) {
+            int degree = offsets[v + 1] - offsets[v];
+            if (degree == 0) {
+                barycenter[v] = position[v];
+            } else {
+                double sum = 0;
+                for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                    sum += position[neighbors[k]];
+                }
+                barycenter[v] = sum / degree;
+            }
+        }
+        sortIndices(layer, barycenter);
+        for (int i = 0; i < layer.length; i++) {
+            position[layer[i]] = i;
+        }
+    }
+
+    /**
+     * 按键值稳定排序节点编号（归并排序，避免装箱）
+     */
+    private static void sortIndices(int[] items, double[] key) {
+        int[] buffer = new int[items.length];
+        for (int width = 1; width < items.length; width *= 2) {
+            for (int lo = 0; lo < items.length - width; lo += width * 2) {
+                int mid = lo + width;
+                int hi = Math.min(lo + width * 2, items.length);
+                int i = lo;
+                int j = mid;
+                int k = lo;
+                while (i < mid && j < hi) {
+                    buffer[k++] = key[items[j]] < key[items[i]] ? items[j++] : items[i++];
+                }
+                while (i < mid) {
+                    buffer[k++] = items[i++];
+                }
+                while (j < hi) {
+                    buffer[k++] = items[j++];
+                }
+                System.arraycopy(buffer, lo, items, lo, hi - lo);
+            }
+        }
+    }
+
+    /**
+     * 统计相邻层之间的边交叉数：按上端位置排序后，下端位置的逆序对个数即交叉数（树状数组计数）
+     */
+    private long countCrossings() {
+        long total = 0;
+        for (int l = 0; l + 1 < layers.length; l++) {
+            int[] upper = layers[l];
+            int lowerSize = layers[l + 1].length;
+            long[] tree = new long[lowerSize + 1];
+            long seen = 0;
+            for (int u : upper) {
+                int start = downOffsets[u];
+                int end = downOffsets[u + 1];
+                int[] lowerPositions = new int[end - start];
+                for (int k = start; k < end; k++) {
+                    lowerPositions[k - start] = position[downTargets[k]];
+                }
+                Arrays.sort(lowerPositions);
+                // 先统计与之前所有边的交叉，再加入树中，同一上端节点的边之间不算交叉
+                for (int p : lowerPositions) {
+                    total += seen - prefixSum(tree, p + 1);
+                }
+                for (int p : lowerPositions) {
+                    for (int i = p + 1; i <= lowerSize; i += i & -i) {
+                        tree[i]++;
+                    }
+                    seen++;
+                }
+            }
+        }
+        return total;
+    }
+
+    private static long prefixSum(long[] tree, int index) {
+        long sum = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    // ---------------------------------------------------------------- 坐标分配
+
+    private double[] assignCoordinates() {
+        double[] x = new double[virtualCount];
+        for (int[] layer : layers) {
+            double cursor = 0;
+            for (int i = 0; i < layer.length; i++) {
+                if (i > 0) {
+                    cursor += separation(layer[i - 1], layer[i]);
+                }
+                x[layer[i]] = cursor;
+            }
+            double shift = cursor / 2;
+            for (int v : layer) {
+                x[v] -= shift;
+            }
+        }
+
+        double[] desired = new double[virtualCount];
+        double[] weight = new double[virtualCount];
+        for (int pass = 0; pass < POSITIONING_PASSES; pass++) {
+            boolean down = pass % 2 == 0;
+            if (down) {
+                for (int l = 1; l < layers.length; l++) {
+                    alignLayer(layers[l], x, desired, weight, upOffsets, upSources);
+                }
+            } else {
+                for (int l = layers.length - 2; l >= 0; l--) {
+                    alignLayer(layers[l], x, desired, weight, downOffsets, downTargets);
+                }
+            }
+        }
+        return x;
+    }
+
+    /**
+     * 让一层节点尽量靠近其邻居的平均横坐标，并保持顺序和最小间距
+     * 把间距约束折算为偏移量后，问题化为带权保序回归，用相邻违例合并（PAVA）线性求解
+     */
+    private void alignLayer(int[] layer, double[] x, double[] desired, double[] weight, int[] offsets,
+                            int[] neighbors) {
+        int size = layer.length;
+        if (size == 0) {
+            return;
+        }
+        double[] offset = new double[size];
+        for (int i = 1; i < size; i++) {
+            offset[i] = offset[i - 1] + separation(layer[i - 1], layer[i]);
+        }
+        for (int i = 0; i < size; i++) {
+            int v = layer[i];
+            int degree = offsets[v + 1] - offsets[v];
+            double target = x[v];
+            if (degree > 0) {
+                double sum = 0;
+                for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                    sum += x[neighbors[k]];
+                }
+                target = sum / degree;
+            }
+            desired[i] = target - offset[i];
+            weight[i] = Math.max(1, degree);
+        }
+
+        double[] blockValue = new double[size];
+        double[] blockWeight = new double[size];
+        int[] blockEnd = new int[size];
+        int blocks = 0;
+        for (int i = 0; i < size; i++) {
+            blockValue[blocks] = desired[i];
+            blockWeight[blocks] = weight[i];
+            blockEnd[blocks] = i;
+            blocks++;
+            while (blocks > 1 && blockValue[blocks - 2] > blockValue[blocks - 1]) {
+                double w = blockWeight[blocks - 2] + blockWeight[blocks - 1];
+                blockValue[blocks - 2] = (blockValue[blocks - 2] * blockWeight[blocks - 2]
+                        + blockValue[blocks - 1] * blockWeight[blocks - 1]) / w;
+                blockWeight[blocks - 2] = w;
+                blockEnd[blocks - 2] = blockEnd[blocks - 1];
+                blocks--;
+            }
+        }
+        int start = 0;
+        for (int b = 0; b < blocks; b++) {
+            for (int i = start; i <= blockEnd[b]; i++) {
+                x[layer[i]] = blockValue[b] + offset[i];
+            }
+            start = blockEnd[b] + 1;
+        }
+    }
+
+    private double separation(int a, int b) {
+        boolean dummy = a >= graph.nodeCount || b >= graph.nodeCount;
+        return halfWidth[a] + halfWidth[b] + (dummy ? NODE_GAP / 3 : NODE_GAP);
+    }
+}
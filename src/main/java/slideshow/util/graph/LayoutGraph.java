@@ -0,0 +1,96 @@
+package slideshow.util.graph;
+
+import java.util.Arrays;
+
+/**
+ * 布局用的图结构
+ * 节点以 0..n-1 编号，出边和入边分别以压缩邻接数组（CSR）存储，遍历某个节点的邻居只需访问连续的一段数组。
+ * 自环和端点越界的边在构建时丢弃
+ */
+public final class LayoutGraph {
+
+    /** 未指定节点半径时使用的默认值 */
+    public static final double DEFAULT_RADIUS = 20;
+
+    final int nodeCount;
+    final int[] outOffsets;
+    final int[] outTargets;
+    final int[] inOffsets;
+    final int[] inSources;
+    final double[] radii;
+
+    /**
+     * @param nodeCount 节点数
+     * @param sources   每条边的起点
+     * @param targets   每条边的终点
+     * @param radii     节点半径，可为null
+     */
+    public LayoutGraph(int nodeCount, int[] sources, int[] targets, double[] radii) {
+        if (sources.length != targets.length) {
+            throw new IllegalArgumentException("边的起点和终点数量不一致");
+        }
+        this.nodeCount = nodeCount;
+        this.radii = new double[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            this.radii[i] = radii != null && i < radii.length && radii[i] > 0 ? radii[i] : DEFAULT_RADIUS;
+        }
+
+        int[] outDegree = new int[nodeCount];
+        int[] inDegree = new int[nodeCount];
+        int valid = 0;
+        for (int e = 0; e < sources.length; e++) {
+            if (isValid(sources[e], targets[e])) {
+                outDegree[sources[e]]++;
+                inDegree[targets[e]]++;
+                valid++;
+            }
+        }
+        this.outOffsets = offsets(outDegree);
+        this.inOffsets = offsets(inDegree);
+        this.outTargets = new int[valid];
+        this.inSources = new int[valid];
+
+        int[] outFill = Arrays.copyOf(outOffsets, nodeCount);
+        int[] inFill = Arrays.copyOf(inOffsets, nodeCount);
+        for (int e = 0; e < sources.length; e++) {
+            int s = sources[e];
+            int t = targets[e];
+            if (isValid(s, t)) {
+                outTargets[outFill[s]++] = t;
+                inSources[inFill[t]++] = s;
+            }
+        }
+    }
+
+    private boolean isValid(int source, int target) {
+        return source != target && source >= 0 && target >= 0 && source < nodeCount && target < nodeCount;
+    }
+
+    private static int[] offsets(int[] degree) {
+        int[] offsets = new int[degree.length + 1];
+        for (int i = 0; i < degree.length; i++) {
+            offsets[i + 1] = offsets[i] + degree[i];
+        }
+        return offsets;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getEdgeCount() {
+        return outTargets.length;
+    }
+
+    public double getRadius(int node) {
+        return radii[node];
+    }
+
+    public int getOutDegree(int node) {
+        return outOffsets[node + 1] - outOffsets[node];
+    }
+
+    public int getInDegree(int node) {
+        return inOffsets[node + 1] - inOffsets[node];
+    }
+}
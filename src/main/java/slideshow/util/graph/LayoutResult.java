@@ -0,0 +1,35 @@
+package slideshow.util.graph;
+
+/**
+ * 布局结果：每个节点的中心坐标
+ */
+public final class LayoutResult {
+    private final double[] x;
+    private final double[] y;
+    private final long elapsedMillis;
+
+    LayoutResult(double[] x, double[] y, long elapsedMillis) {
+        this.x = x;
+        this.y = y;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getNodeCount() {
+        return x.length;
+    }
+
+    public double getX(int node) {
+        return x[node];
+    }
+
+    public double getY(int node) {
+        return y[node];
+    }
+
+    /**
+     * 布局耗时（毫秒）
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
@@ -0,0 +1,176 @@
+package slideshow.util.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 逻辑关系图模型
+ * 结构分析器生成、渲染器直接使用，在内存中传递时不需要经过JSON；需要保存或展示原始数据时由LogicGraphCodec编码
+ */
+public class LogicGraph {
+
+    public static final String TYPE_MAIN = "main";
+    public static final String TYPE_OUTLINE = "outline";
+    public static final String TYPE_KEYPOINT = "keypoint";
+
+    public static final String EDGE_HIERARCHY = "hierarchy";
+    public static final String EDGE_DETAIL = "detail";
+    public static final String EDGE_ASSOCIATION = "association";
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final List<Edge> edges = new ArrayList<>();
+    private final Map<String, Integer> indexById = new HashMap<>();
+
+    /**
+     * 图节点
+     */
+    public static final class Node {
+        private final String id;
+        private final String label;
+        private final String type;
+
+        public Node(String id, String label, String type) {
+            this.id = Objects.requireNonNull(id, "节点ID不能为空");
+            this.label = label != null ? label : "";
+            this.type = type != null ? type : "";
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Node)) {
+                return false;
+            }
+            Node other = (Node) o;
+            return id.equals(other.id) && label.equals(other.label) && type.equals(other.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, label, type);
+        }
+    }
+
+    /**
+     * 图的边，以节点ID引用两端
+     */
+    public static final class Edge {
+        private final String source;
+        private final String target;
+        private final String type;
+
+        public Edge(String source, String target, String type) {
+            this.source = Objects.requireNonNull(source, "边的起点不能为空");
+            this.target = Objects.requireNonNull(target, "边的终点不能为空");
+            this.type = type != null ? type : "";
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        public String getTarget() {
+            return target;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Edge)) {
+                return false;
+            }
+            Edge other = (Edge) o;
+            return source.equals(other.source) && target.equals(other.target) && type.equals(other.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(source, target, type);
+        }
+    }
+
+    /**
+     * 添加节点，ID已存在时替换原节点
+     *
+     * @return 节点下标
+     */
+    public int addNode(Node node) {
+        Integer index = indexById.get(node.getId());
+        if (index != null) {
+            nodes.set(index, node);
+            return index;
+        }
+        nodes.add(node);
+        indexById.put(node.getId(), nodes.size() - 1);
+        return nodes.size() - 1;
+    }
+
+    public int addNode(String id, String label, String type) {
+        return addNode(new Node(id, label, type));
+    }
+
+    /**
+     * 添加边，两端节点可以稍后添加（解码时边可能出现在节点之前）
+     */
+    public void addEdge(Edge edge) {
+        edges.add(edge);
+    }
+
+    public void addEdge(String source, String target, String type) {
+        addEdge(new Edge(source, target, type));
+    }
+
+    public List<Node> getNodes() {
+        return Collections.unmodifiableList(nodes);
+    }
+
+    public List<Edge> getEdges() {
+        return Collections.unmodifiableList(edges);
+    }
+
+    public int getNodeCount() {
+        return nodes.size();
+    }
+
+    public int getEdgeCount() {
+        return edges.size();
+    }
+
+    public Node getNode(int index) {
+        return nodes.get(index);
+    }
+
+    /**
+     * 获取节点下标
+     *
+     * @return 下标，不存在时返回-1
+     */
+    public int indexOf(String id) {
+        Integer index = indexById.get(id);
+        return index != null ? index : -1;
+    }
+}
@@ -0,0 +1,179 @@
+package slideshow.util.graph;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+
+/**
+ * 逻辑关系图的JSON编解码
+ * 格式为 {"nodes":[{"id","label","type"}...],"edges":[{"source","target","type"}...]}。
+ * 使用Gson的流式JsonReader/JsonWriter，不构建中间对象树；字符串转义由JsonWriter负责，
+ * 读取时键的顺序任意，未知的键直接跳过
+ */
+public final class LogicGraphCodec {
+
+    private LogicGraphCodec() {
+    }
+
+    /**
+     * 写出图数据
+     */
+    public static void write(LogicGraph graph, Writer out) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        writer.setIndent("  ");
+        writer.beginObject();
+        writer.name("nodes").beginArray();
+        for (LogicGraph.Node node : graph.getNodes()) {
+            writer.beginObject();
+            writer.name("id").value(node.getId());
+            writer.name("label").value(node.getLabel());
+            writer.name("type").value(node.getType());
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.name("edges").beginArray();
+        for (LogicGraph.Edge edge : graph.getEdges()) {
+            writer.beginObject();
+            writer.name("source").value(edge.getSource());
+            writer.name("target").value(edge.getTarget());
+            writer.name("type").value(edge.getType());
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.endObject();
+        writer.flush();
+    }
+
+    /**
+     * 编码为JSON字符串
+     */
+    public static String toJson(LogicGraph graph) {
+        StringWriter out = new StringWriter(64 + graph.getNodeCount() * 64 + graph.getEdgeCount() * 64);
+        try {
+            write(graph, out);
+        } catch (IOException e) {
+            // StringWriter不会抛出IO异常
+            throw new IllegalStateException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * 读取图数据
+     *
+     * @throws IOException 数据不是合法的图JSON
+     */
+    public static LogicGraph read(Reader in) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        LogicGraph graph = new LogicGraph();
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("nodes".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        readNode(reader, graph);
+                    }
+                    reader.endArray();
+                } else if ("edges".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        readEdge(reader, graph);
+                    }
+                    reader.endArray();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IllegalStateException | NumberFormatException e) {
+            // JsonReader遇到类型不符时抛出IllegalStateException，统一转为IO异常
+            throw new IOException("图数据格式错误: " + e.getMessage(), e);
+        }
+        return graph;
+    }
+
+    /**
+     * 解析JSON字符串
+     *
+     * @throws IOException 数据不是合法的图JSON
+     */
+    public static LogicGraph fromJson(String json) throws IOException {
+        if (json == null) {
+            throw new IOException("图数据为空");
+        }
+        return read(new StringReader(json));
+    }
+
+    private static void readNode(JsonReader reader, LogicGraph graph) throws IOException {
+        String id = null;
+        String label = null;
+        String type = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    id = nextString(reader);
+                    break;
+                case "label":
+                    label = nextString(reader);
+                    break;
+                case "type":
+                    type = nextString(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (id == null) {
+            throw new IOException("节点缺少id: " + reader.getPath());
+        }
+        graph.addNode(id, label != null ? label : id, type);
+    }
+
+    private static void readEdge(JsonReader reader, LogicGraph graph) throws IOException {
+        String source = null;
+        String target = null;
+        String type = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "source":
+                    source = nextString(reader);
+                    break;
+                case "target":
+                    target = nextString(reader);
+                    break;
+                case "type":
+                    type = nextString(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (source == null || target == null) {
+            throw new IOException("边缺少source或target: " + reader.getPath());
+        }
+        graph.addEdge(source, target, type);
+    }
+
+    /**
+     * 读取字符串值，数字按原文读取，null返回null
+     */
+    private static String nextString(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+}
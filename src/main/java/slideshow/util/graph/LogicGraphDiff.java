@@ -0,0 +1,132 @@
+package slideshow.util.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 两个版本逻辑关系图之间的差异
+ * 节点按ID对应：新增、删除、标签或类型改变；边按(起点, 终点, 类型)对应
+ */
+public final class LogicGraphDiff {
+
+    private final LogicGraph graph;
+    private final List<LogicGraph.Node> addedNodes;
+    private final List<String> removedNodes;
+    private final List<LogicGraph.Node> changedNodes;
+    private final List<LogicGraph.Edge> addedEdges;
+    private final List<LogicGraph.Edge> removedEdges;
+
+    private LogicGraphDiff(LogicGraph graph, List<LogicGraph.Node> addedNodes, List<String> removedNodes,
+                           List<LogicGraph.Node> changedNodes, List<LogicGraph.Edge> addedEdges,
+                           List<LogicGraph.Edge> removedEdges) {
+        this.graph = graph;
+        this.addedNodes = addedNodes;
+        this.removedNodes = removedNodes;
+        this.changedNodes = changedNodes;
+        this.addedEdges = addedEdges;
+        this.removedEdges = removedEdges;
+    }
+
+    /**
+     * 计算差异，复杂度 O(V + E)
+     *
+     * @param previous 旧版本，可为null（视为空图）
+     * @param updated  新版本
+     */
+    public static LogicGraphDiff between(LogicGraph previous, LogicGraph updated) {
+        List<LogicGraph.Node> addedNodes = new ArrayList<>();
+        List<String> removedNodes = new ArrayList<>();
+        List<LogicGraph.Node> changedNodes = new ArrayList<>();
+        List<LogicGraph.Edge> addedEdges = new ArrayList<>();
+        List<LogicGraph.Edge> removedEdges = new ArrayList<>();
+        LogicGraph old = previous != null ? previous : new LogicGraph();
+
+        for (LogicGraph.Node node : updated.getNodes()) {
+            int index = old.indexOf(node.getId());
+            if (index < 0) {
+                addedNodes.add(node);
+            } else if (!old.getNode(index).equals(node)) {
+                changedNodes.add(node);
+            }
+        }
+        for (LogicGraph.Node node : old.getNodes()) {
+            if (updated.indexOf(node.getId()) < 0) {
+                removedNodes.add(node.getId());
+            }
+        }
+
+        Map<LogicGraph.Edge, Integer> oldEdges = new HashMap<>();
+        for (LogicGraph.Edge edge : old.getEdges()) {
+            oldEdges.merge(edge, 1, Integer::sum);
+        }
+        for (LogicGraph.Edge edge : updated.getEdges()) {
+            Integer count = oldEdges.get(edge);
+            if (count == null) {
+                addedEdges.add(edge);
+            } else if (count == 1) {
+                oldEdges.remove(edge);
+            } else {
+                oldEdges.put(edge, count - 1);
+            }
+        }
+        Set<LogicGraph.Edge> remaining = new HashSet<>(oldEdges.keySet());
+        for (LogicGraph.Edge edge : old.getEdges()) {
+            if (remaining.contains(edge)) {
+                removedEdges.add(edge);
+            }
+        }
+        return new LogicGraphDiff(updated, addedNodes, removedNodes, changedNodes, addedEdges, removedEdges);
+    }
+
+    /**
+     * 差异对应的新版本图
+     */
+    public LogicGraph getGraph() {
+        return graph;
+    }
+
+    public List<LogicGraph.Node> getAddedNodes() {
+        return Collections.unmodifiableList(addedNodes);
+    }
+
+    public List<String> getRemovedNodes() {
+        return Collections.unmodifiableList(removedNodes);
+    }
+
+    /**
+     * 标签或类型改变的节点（新值）
+     */
+    public List<LogicGraph.Node> getChangedNodes() {
+        return Collections.unmodifiableList(changedNodes);
+    }
+
+    public List<LogicGraph.Edge> getAddedEdges() {
+        return Collections.unmodifiableList(addedEdges);
+    }
+
+    public List<LogicGraph.Edge> getRemovedEdges() {
+        return Collections.unmodifiableList(removedEdges);
+    }
+
+    /**
+     * 是否有节点或边的增删（只改标签时不需要重新布局）
+     */
+    public boolean isStructural() {
+        return !addedNodes.isEmpty() || !removedNodes.isEmpty() || !addedEdges.isEmpty() || !removedEdges.isEmpty();
+    }
+
+    public boolean isEmpty() {
+        return !isStructural() && changedNodes.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "LogicGraphDiff{+" + addedNodes.size() + "/-" + removedNodes.size() + "/~" + changedNodes.size()
+                + " 节点, +" + addedEdges.size() + "/-" + removedEdges.size() + " 边}";
+    }
+}
@@ -0,0 +1,178 @@
+package slideshow.util.graph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 节点位置的均匀网格索引
+ * 按节点中心所在的格子分桶，视口裁剪和鼠标拾取只需检查覆盖范围内的格子；
+ * 节点移动时只在新旧两个格子之间搬移。查询范围覆盖的格子数超过节点数时退化为顺序扫描
+ */
+public final class SpatialGrid {
+
+    /**
+     * 查询回调
+     */
+    public interface NodeVisitor {
+        void visit(int node);
+    }
+
+    private final double cellSize;
+    private final Map<Long, Bucket> buckets = new HashMap<>();
+    private double[] x = new double[0];
+    private double[] y = new double[0];
+    private double[] radius = new double[0];
+    private long[] cellOf = new long[0];
+    private int nodeCount;
+    private double maxRadius;
+
+    private static final class Bucket {
+        int[] nodes = new int[4];
+        int size;
+
+        void add(int node) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+            }
+            nodes[size++] = node;
+        }
+
+        void remove(int node) {
+            for (int i = 0; i < size; i++) {
+                if (nodes[i] == node) {
+                    nodes[i] = nodes[--size];
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param cellSize 格子边长（世界坐标）
+     */
+    public SpatialGrid(double cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * 重建索引
+     */
+    public void build(double[] x, double[] y, double[] radius, int nodeCount) {
+        this.x = x;
+        this.y = y;
+        this.radius = radius;
+        this.nodeCount = nodeCount;
+        this.cellOf = new long[nodeCount];
+        this.maxRadius = 0;
+        buckets.clear();
+        for (int node = 0; node < nodeCount; node++) {
+            maxRadius = Math.max(maxRadius, radius[node]);
+            long key = key(cell(x[node]), cell(y[node]));
+            cellOf[node] = key;
+            buckets.computeIfAbsent(key, k -> new Bucket()).add(node);
+        }
+    }
+
+    /**
+     * 节点坐标已修改（坐标数组由调用方持有），更新其所在格子
+     */
+    public void moved(int node) {
+        long key = key(cell(x[node]), cell(y[node]));
+        if (key == cellOf[node]) {
+            return;
+        }
+        Bucket old = buckets.get(cellOf[node]);
+        if (old != null) {
+            old.remove(node);
+            if (old.size == 0) {
+                buckets.remove(cellOf[node]);
+            }
+        }
+        cellOf[node] = key;
+        buckets.computeIfAbsent(key, k -> new Bucket()).add(node);
+    }
+
+    /**
+     * 访问圆形范围与矩形区域相交的所有节点
+     */
+    public void query(double minX, double minY, double maxX, double maxY, NodeVisitor visitor) {
+        double qMinX = minX - maxRadius;
+        double qMinY = minY - maxRadius;
+        double qMaxX = maxX + maxRadius;
+        double qMaxY = maxY + maxRadius;
+        long columns = cell(qMaxX) - cell(qMinX) + 1;
+        long rows = cell(qMaxY) - cell(qMinY) + 1;
+        if (columns * rows > Math.max(buckets.size(), 16)) {
+            // 视口比节点分布范围还大时，直接遍历非空格子更快
+            for (Bucket bucket : buckets.values()) {
+                visitBucket(bucket, minX, minY, maxX, maxY, visitor);
+            }
+            return;
+        }
+        for (long cx = cell(qMinX); cx <= cell(qMaxX); cx++) {
+            for (long cy = cell(qMinY); cy <= cell(qMaxY); cy++) {
+                Bucket bucket = buckets.get(key(cx, cy));
+                if (bucket != null) {
+                    visitBucket(bucket, minX, minY, maxX, maxY, visitor);
+                }
+            }
+        }
+    }
+
+    private void visitBucket(Bucket bucket, double minX, double minY, double maxX, double maxY,
+                             NodeVisitor visitor) {
+        for (int i = 0; i < bucket.size; i++) {
+            int node = bucket.nodes[i];
+            double r = radius[node];
+            if (x[node] + r >= minX && x[node] - r <= maxX && y[node] + r >= minY && y[node] - r <= maxY) {
+                visitor.visit(node);
+            }
+        }
+    }
+
+    /**
+     * 拾取包含该点的节点，多个节点重叠时取中心最近的
+     *
+     * @return 节点编号，没有时返回-1
+     */
+    public int pick(double px, double py) {
+        int best = -1;
+        double bestDistance = Double.MAX_VALUE;
+        long minCx = cell(px - maxRadius);
+        long maxCx = cell(px + maxRadius);
+        long minCy = cell(py - maxRadius);
+        long maxCy = cell(py + maxRadius);
+        for (long cx = minCx; cx <= maxCx; cx++) {
+            for (long cy = minCy; cy <= maxCy; cy++) {
+                Bucket bucket = buckets.get(key(cx, cy));
+                if (bucket == null) {
+                    continue;
+                }
+                for (int i = 0; i < bucket.size; i++) {
+                    int node = bucket.nodes[i];
+                    double dx = px - x[node];
+                    double dy = py - y[node];
+                    double distance = dx * dx + dy * dy;
+                    if (distance <= radius[node] * radius[node] && distance < bestDistance) {
+                        best = node;
+                        bestDistance = distance;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    private long cell(double coordinate) {
+        return (long) Math.floor(coordinate / cellSize);
+    }
+
+    private static long key(long cx, long cy) {
+        return (cx << 32) ^ (cy & 0xFFFFFFFFL);
+    }
+}